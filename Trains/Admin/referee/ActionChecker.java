@@ -2,10 +2,9 @@ package referee;
 
 import game_state.IPlayerGameState;
 import game_state.RailCard;
-import java.util.Map;
-import java.util.Optional;
 import map.IRailConnection;
 import map.ITrainMap;
+import referee.game_state.IPlayerData;
 import utils.RailCardUtils;
 
 /**
@@ -29,52 +28,77 @@ public class ActionChecker implements IActionChecker {
     public boolean canAcquireConnection(IPlayerGameState gameStateForPlayer, ITrainMap map,
         IRailConnection desiredConnection) {
         boolean exists = connectionExists(map, desiredConnection);
-        boolean connectionAvailable = connectionAvailable(gameStateForPlayer, desiredConnection,
-            map);
-        boolean hasEnoughRails = hasEnoughRails(gameStateForPlayer, desiredConnection.getLength());
+        boolean connectionAvailable = !gameStateForPlayer.isConnectionOccupied(desiredConnection);
+        boolean hasEnoughRails = hasEnoughRails(gameStateForPlayer.getNumRails(),
+            desiredConnection.getLength());
         boolean hasEnoughCards = hasEnoughCards(gameStateForPlayer, desiredConnection);
         return exists && connectionAvailable && hasEnoughRails && hasEnoughCards;
     }
 
     /**
-     * Determines if the given connection exists inside of the given ITrainMap.
+     * Determines if the player with the given IPlayerData is allowed to acquire the given
+     * IRailConnection. This is used by the referee, which tracks the occupation of every connection
+     * itself, so that it does not need to construct the player's view of the game to check a move.
      *
+     * @param playerData        The data of the player that would like to acquire the connection.
+     * @param occupied          Whether the connection is already occupied by any player.
      * @param map               The map in a game of Trains.
-     * @param desiredConnection The connection that may or may not exist in the map.
-     * @return Whether the connection exists in the map.
+     * @param desiredConnection The Connection that the given player would like to check if they
+     *                          can acquire.
+     * @return Whether or not the player is allowed to acquire the given IRailConnection.
      */
-    private static boolean connectionExists(ITrainMap map, IRailConnection desiredConnection) {
-        Optional<IRailConnection> desiredConnectionInMap =
-            map.getRailConnections().stream()
-                .filter((connection) -> connection.sameRailConnection(desiredConnection))
-                .findFirst();
-        return desiredConnectionInMap.isPresent()
-            && desiredConnectionInMap.get().getLength() == desiredConnection.getLength();
+    public boolean canAcquireConnection(IPlayerData playerData, boolean occupied, ITrainMap map,
+        IRailConnection desiredConnection) {
+        int numCardsOfColor = playerData.getPlayerHand().getNumCardsOfType(
+            RailCardUtils.railCardFromColor(desiredConnection.getColor()));
+        return this.canAcquireConnection(
+            numCardsOfColor, playerData.getNumRails(), occupied, map, desiredConnection);
     }
 
     /**
-     * Determines if the given connection is already occupied in the game state represented in the
-     * given IPlayerGameState.
+     * Determines if a player with the given numbers of cards and rails is allowed to acquire the
+     * given IRailConnection. This is used by callers that track players' hands as plain counts,
+     * such as the game simulator, so that they apply exactly the same rules as the referee.
      *
-     * @param gameStateForPlayer The state of a game of Trains that is visible to one player.
-     * @param desiredConnection  The connection that may or may not already be acquired.
-     * @return Whether or not the connection is already occupied.
+     * @param numCardsOfColor   The number of cards the player has of the connection's color.
+     * @param numRails          The number of rails in the player's bank.
+     * @param occupied          Whether the connection is already occupied by any player.
+     * @param map               The map in a game of Trains.
+     * @param desiredConnection The Connection that the given player would like to check if they
+     *                          can acquire.
+     * @return Whether or not the player is allowed to acquire the given IRailConnection.
      */
-    private static boolean connectionAvailable(
-        IPlayerGameState gameStateForPlayer, IRailConnection desiredConnection, ITrainMap map) {
-        return gameStateForPlayer.calculateUnoccupiedConnections(map).contains(desiredConnection);
+    public boolean canAcquireConnection(int numCardsOfColor, int numRails, boolean occupied,
+        ITrainMap map, IRailConnection desiredConnection) {
+        boolean exists = connectionExists(map, desiredConnection);
+        boolean hasEnoughRails = hasEnoughRails(numRails, desiredConnection.getLength());
+        boolean hasEnoughCards = numCardsOfColor >= desiredConnection.getLength();
+        return exists && !occupied && hasEnoughRails && hasEnoughCards;
     }
 
     /**
-     * Determines if the player that corresponds to the given IPlayerGameState has enough rails in
-     * their bank to occupy a connection of the given length.
+     * Determines if the given connection exists inside of the given ITrainMap.
      *
-     * @param gameStateForPlayer The state of a game of Trains that is visible to one player.
-     * @param length             The length of the connection.
+     * @param map               The map in a game of Trains.
+     * @param desiredConnection The connection that may or may not exist in the map.
+     * @return Whether the connection exists in the map.
+     */
+    private static boolean connectionExists(ITrainMap map, IRailConnection desiredConnection) {
+        int connectionId = map.getRailConnectionId(desiredConnection);
+        return connectionId >= 0
+            && map.getRailConnection(connectionId).getLength() == desiredConnection.getLength();
+    }
+
+    /**
+     * Determines if a player with the given number of rails in their bank has enough rails to
+     * occupy a connection of the given length.
+     *
+     * @param numRails The number of rails in the player's bank.
+     * @param length   The length of the connection.
      * @return Whether or not the player has enough rails in their bank to occupy the connection.
      */
-    private static boolean hasEnoughRails(IPlayerGameState gameStateForPlayer, int length) {
-        return gameStateForPlayer.getNumRails() >= length;
+    private static boolean hasEnoughRails(int numRails, int length) {
+        return numRails >= length;
     }
 
     /**
@@ -90,9 +114,7 @@ public class ActionChecker implements IActionChecker {
     private static boolean hasEnoughCards(
         IPlayerGameState gameStateForPlayer, IRailConnection desiredConnection) {
         RailCard cardForConnection = RailCardUtils.railCardFromColor(desiredConnection.getColor());
-        Map<RailCard, Integer> playerHand = gameStateForPlayer.getCardsInHand();
-
-        return playerHand.containsKey(cardForConnection)
-            && playerHand.get(cardForConnection) >= desiredConnection.getLength();
+        return gameStateForPlayer.getNumCardsOfType(cardForConnection)
+            >= desiredConnection.getLength();
     }
 }
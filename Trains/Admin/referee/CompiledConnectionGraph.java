@@ -0,0 +1,100 @@
+package referee;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import map.Destination;
+import map.IRailConnection;
+
+/**
+ * The connections owned by one player, compiled once into an integer-indexed graph that answers
+ * every question scoring asks about them: the total number of segments, the weight of the longest
+ * simple path and a cheap bound on it, and which destinations are connected.
+ * <p>
+ * Vertices are the names of the cities at the ends of the connections, numbered in the order they
+ * are first seen. The longest path and the connectivity of destinations both use the same
+ * {@link LongestPathSolver}, so the graph is only built once per player. This class is not thread
+ * safe, but graphs of different players can be used on different threads.
+ */
+public class CompiledConnectionGraph {
+
+    private final Map<String, Integer> vertexIds;
+    private final LongestPathSolver solver;
+    private final int totalNumSegments;
+
+    /**
+     * Compiles the graph of the given connections.
+     *
+     * @param ownedConnections the connections owned by one player.
+     */
+    public CompiledConnectionGraph(Set<IRailConnection> ownedConnections) {
+        this.vertexIds = new HashMap<>();
+        int numEdges = ownedConnections.size();
+        int[] edgeSources = new int[numEdges];
+        int[] edgeTargets = new int[numEdges];
+        int[] edgeWeights = new int[numEdges];
+        int edge = 0;
+        int numSegments = 0;
+        for (IRailConnection connection : ownedConnections) {
+            edgeSources[edge] = this.addVertex(connection.getCities().left.getName());
+            edgeTargets[edge] = this.addVertex(connection.getCities().right.getName());
+            edgeWeights[edge] = connection.getLength();
+            numSegments += connection.getLength();
+            edge += 1;
+        }
+        this.totalNumSegments = numSegments;
+        this.solver = new LongestPathSolver(
+            this.vertexIds.size(), edgeSources, edgeTargets, edgeWeights, numEdges);
+    }
+
+    private int addVertex(String cityName) {
+        return this.vertexIds.computeIfAbsent(cityName, name -> this.vertexIds.size());
+    }
+
+    /**
+     * Gets the total number of segments among all the connections.
+     *
+     * @return the sum of the lengths of the connections.
+     */
+    public int getTotalNumSegments() {
+        return this.totalNumSegments;
+    }
+
+    /**
+     * Calculates the weight of the longest simple path through the connections.
+     *
+     * @return the number of segments on the longest path, or 0 if there are no connections.
+     */
+    public int calculateLongestPathLength() {
+        return this.solver.longestPathLength();
+    }
+
+    /**
+     * Calculates an upper bound on the weight of the longest simple path through the connections,
+     * which is much cheaper than calculating the longest path.
+     *
+     * @return the bound, which is 0 only if there are no connections.
+     */
+    public int calculateLongestPathUpperBound() {
+        return this.solver.longestPathUpperBound();
+    }
+
+    /**
+     * Calculates the number of the given destinations that are completed by the connections.
+     *
+     * @param destinations the destinations to complete.
+     * @return an integer in the range [0, destinations.size()] representing the number of
+     * destinations completed.
+     */
+    public int calculateNumDestinationsConnected(Set<Destination> destinations) {
+        int numDestinationsConnected = 0;
+        for (Destination destination : destinations) {
+            Integer vertex1 = this.vertexIds.get(destination.left.getName());
+            Integer vertex2 = this.vertexIds.get(destination.right.getName());
+            if (vertex1 != null && vertex2 != null && this.solver.areConnected(vertex1, vertex2)) {
+                numDestinationsConnected += 1;
+            }
+        }
+        return numDestinationsConnected;
+    }
+}
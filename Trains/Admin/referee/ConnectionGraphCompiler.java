@@ -0,0 +1,107 @@
+package referee;
+
+import java.util.Arrays;
+import map.ITrainMap;
+
+/**
+ * Compiles the connections owned by one player, given by their IDs in a map, into a
+ * {@link LongestPathSolver} over only the cities those connections touch.
+ * <p>
+ * The buffers for numbering cities and listing edges are sized for the map once and reused by
+ * every compilation, which suits simulations that score many games on the same map. The numbering
+ * of the most recent compilation is kept so that its cities can be looked up until the next one.
+ * This class is not thread safe.
+ */
+public class ConnectionGraphCompiler {
+
+    private static final int NO_VERTEX = -1;
+
+    private final ITrainMap map;
+    private final int[] connectionLengths;
+    // The vertex of each city touched by the most recent compilation, and the city of each vertex
+    private final int[] vertexOfCity;
+    private final int[] cityOfVertex;
+    private int numVertices;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeWeights;
+    private LongestPathSolver solver;
+
+    /**
+     * Constructs a compiler for sets of connections in the given map.
+     *
+     * @param map the map whose connection IDs will be compiled.
+     */
+    public ConnectionGraphCompiler(ITrainMap map) {
+        this.map = map;
+        int numConnections = map.getNumRailConnections();
+        this.connectionLengths = new int[numConnections];
+        for (int connectionId = 0; connectionId < numConnections; connectionId += 1) {
+            this.connectionLengths[connectionId] = map.getRailConnection(connectionId).getLength();
+        }
+        this.vertexOfCity = new int[map.getNumCities()];
+        Arrays.fill(this.vertexOfCity, NO_VERTEX);
+        this.cityOfVertex = new int[map.getNumCities()];
+        this.numVertices = 0;
+        this.edgeSources = new int[numConnections];
+        this.edgeTargets = new int[numConnections];
+        this.edgeWeights = new int[numConnections];
+        this.solver = null;
+    }
+
+    /**
+     * Compiles the given connections for finding their longest simple path and which cities they
+     * connect.
+     *
+     * @param connectionIds  the IDs of the connections, of which only the first numConnections
+     *                       are compiled.
+     * @param numConnections the number of connections to compile.
+     * @return the solver for the compiled connections.
+     */
+    public LongestPathSolver compile(int[] connectionIds, int numConnections) {
+        for (int vertex = 0; vertex < this.numVertices; vertex += 1) {
+            this.vertexOfCity[this.cityOfVertex[vertex]] = NO_VERTEX;
+        }
+        this.numVertices = 0;
+        for (int edge = 0; edge < numConnections; edge += 1) {
+            int connectionId = connectionIds[edge];
+            this.edgeSources[edge] = this.numberCity(this.map.getFirstCityId(connectionId));
+            this.edgeTargets[edge] = this.numberCity(this.map.getSecondCityId(connectionId));
+            this.edgeWeights[edge] = this.connectionLengths[connectionId];
+        }
+        this.solver = new LongestPathSolver(this.numVertices, this.edgeSources,
+            this.edgeTargets, this.edgeWeights, numConnections);
+        return this.solver;
+    }
+
+    /**
+     * Determines whether the connections of the most recent compilation connect the given cities.
+     *
+     * @param cityId1 the ID of one city, or ITrainMap.NO_CITY.
+     * @param cityId2 the ID of the other city, or ITrainMap.NO_CITY.
+     * @return whether both cities are in the map and the connections connect them.
+     */
+    public boolean areConnected(int cityId1, int cityId2) {
+        if (this.solver == null || cityId1 == ITrainMap.NO_CITY || cityId2 == ITrainMap.NO_CITY) {
+            return false;
+        }
+        int vertex1 = this.vertexOfCity[cityId1];
+        int vertex2 = this.vertexOfCity[cityId2];
+        return vertex1 != NO_VERTEX && vertex2 != NO_VERTEX
+            && this.solver.areConnected(vertex1, vertex2);
+    }
+
+    /**
+     * Gives the given city the next vertex number if it does not have one yet.
+     *
+     * @return the vertex of the city.
+     */
+    private int numberCity(int cityId) {
+        if (this.vertexOfCity[cityId] == NO_VERTEX) {
+            this.vertexOfCity[cityId] = this.numVertices;
+            this.cityOfVertex[this.numVertices] = cityId;
+            this.numVertices += 1;
+        }
+        return this.vertexOfCity[cityId];
+    }
+}
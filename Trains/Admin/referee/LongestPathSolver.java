@@ -0,0 +1,385 @@
+package referee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+/**
+ * Calculates the weight of the longest simple path in a simple, undirected graph whose edge
+ * weights are positive integers, such as a graph produced by
+ * {@link ScoreGraphUtils#occupiedConnectionsToGraph(java.util.Set)}.
+ *
+ * <p>The graph is compiled into an integer-indexed adjacency (compressed sparse rows) and each
+ * connected component is searched by depth first search over simple paths, tracking visited
+ * vertices in a bitset. Searches are pruned (branch and bound) whenever the weight of the current
+ * path plus an upper bound on how far it can still be extended cannot beat the best path found so
+ * far. The upper bound is the smaller of the edge weight not yet on the path and the sum over
+ * unvisited vertices of their heaviest incident edge, since every extension enters a distinct
+ * unvisited vertex over one of its edges.
+ *
+ * <p>Each connected component also has a cheap upper bound on its longest path, the smallest of its
+ * total edge weight, the weight of a trail that leaves out the lightest edges its odd-degree
+ * vertices force it to leave out (since a simple path is a trail), and the heaviest edges that fit
+ * in a path through each of its vertices once. The result of each connected component is computed
+ * at most once, components whose bound cannot beat the best path found in another component are
+ * never searched, and the search of a component stops as soon as it finds a path meeting its
+ * bound.
+ */
+public class LongestPathSolver {
+
+    // Compressed sparse row adjacency: the neighbors of vertex v are
+    // adjacentVertex[adjacencyStart[v]] to adjacentVertex[adjacencyStart[v + 1] - 1]
+    private final int[] adjacencyStart;
+    private final int[] adjacentVertex;
+    private final int[] adjacentWeight;
+    // The heaviest edge weight incident to each vertex
+    private final int[] maxIncidentWeight;
+    // The connected component each vertex belongs to, and the vertices of each component
+    private final int[] componentOf;
+    private final List<int[]> componentVertices;
+    // Memoized longest path of each component, -1 until the component has been searched
+    private final int[] componentLongestPath;
+    // An upper bound on the longest path of each component
+    private final int[] componentUpperBound;
+
+    // Search state
+    private final long[] visited;
+    private int componentBound;
+    private int best;
+
+    /**
+     * Compiles the given graph into the integer-indexed representation used for searching.
+     *
+     * @param graph the simple, undirected graph with positive integer edge weights.
+     */
+    public LongestPathSolver(Graph<String, DefaultWeightedEdge> graph) {
+        this(EdgeList.fromGraph(graph));
+    }
+
+    private LongestPathSolver(EdgeList edges) {
+        this(edges.numVertices, edges.sources, edges.targets, edges.weights, edges.numEdges);
+    }
+
+    /**
+     * Compiles the undirected graph with the given edges into the integer-indexed representation
+     * used for searching, for callers that already identify vertices by integers. Edge i connects
+     * vertices edgeSources[i] and edgeTargets[i] with weight edgeWeights[i].
+     * <p>
+     * Unlike the graph constructor, the graph may have several edges between the same two
+     * vertices. Only the heaviest of them can be on a longest simple path, and the others only
+     * loosen the bounds used to prune the search.
+     *
+     * @param numVertices the number of vertices, which are 0 to numVertices - 1.
+     * @param edgeSources one vertex of each edge.
+     * @param edgeTargets the other vertex of each edge, distinct from its source.
+     * @param edgeWeights the positive integer weight of each edge.
+     * @param numEdges    the number of edges, which are the first numEdges entries of the arrays.
+     */
+    public LongestPathSolver(int numVertices, int[] edgeSources, int[] edgeTargets,
+        int[] edgeWeights, int numEdges) {
+        int[] degree = new int[numVertices];
+        for (int edge = 0; edge < numEdges; edge += 1) {
+            degree[edgeSources[edge]] += 1;
+            degree[edgeTargets[edge]] += 1;
+        }
+
+        this.adjacencyStart = new int[numVertices + 1];
+        for (int vertex = 0; vertex < numVertices; vertex += 1) {
+            this.adjacencyStart[vertex + 1] = this.adjacencyStart[vertex] + degree[vertex];
+        }
+        this.adjacentVertex = new int[this.adjacencyStart[numVertices]];
+        this.adjacentWeight = new int[this.adjacencyStart[numVertices]];
+        this.maxIncidentWeight = new int[numVertices];
+
+        int[] nextSlot = new int[numVertices];
+        System.arraycopy(this.adjacencyStart, 0, nextSlot, 0, numVertices);
+        for (int edge = 0; edge < numEdges; edge += 1) {
+            int source = edgeSources[edge];
+            int target = edgeTargets[edge];
+            int weight = edgeWeights[edge];
+            this.addAdjacency(source, target, weight, nextSlot);
+            this.addAdjacency(target, source, weight, nextSlot);
+        }
+
+        this.componentOf = new int[numVertices];
+        this.componentVertices = new ArrayList<>();
+        this.calculateComponents();
+        this.componentLongestPath = new int[this.componentVertices.size()];
+        Arrays.fill(this.componentLongestPath, -1);
+        this.componentUpperBound = new int[this.componentVertices.size()];
+        for (int component = 0; component < this.componentVertices.size(); component += 1) {
+            this.componentUpperBound[component] = this.calculateUpperBound(component);
+        }
+
+        this.visited = new long[(numVertices + 63) / 64];
+    }
+
+    /**
+     * Calculates the weight of the longest simple path in the given graph.
+     *
+     * @param graph the simple, undirected graph with positive integer edge weights.
+     * @return the weight of the longest simple path, or 0 if the graph has no edges.
+     */
+    public static int longestPathLength(Graph<String, DefaultWeightedEdge> graph) {
+        return new LongestPathSolver(graph).longestPathLength();
+    }
+
+    /**
+     * Calculates the weight of the longest simple path in the compiled graph.
+     *
+     * @return the weight of the longest simple path, or 0 if the graph has no edges.
+     */
+    public int longestPathLength() {
+        // Search the components with the highest bounds first so others can be skipped entirely
+        List<Integer> componentsByBound = new ArrayList<>();
+        for (int component = 0; component < this.componentVertices.size(); component += 1) {
+            componentsByBound.add(component);
+        }
+        componentsByBound.sort(
+            (c1, c2) -> this.componentUpperBound[c2] - this.componentUpperBound[c1]);
+
+        int overallLongestPath = 0;
+        for (int component : componentsByBound) {
+            if (this.componentUpperBound[component] <= overallLongestPath) {
+                break;
+            }
+            overallLongestPath = Math.max(overallLongestPath, this.componentLongestPath(component));
+        }
+        return overallLongestPath;
+    }
+
+    /**
+     * Calculates an upper bound on the weight of the longest simple path in the compiled graph
+     * without searching it, in time linear in the size of the graph apart from sorting edge
+     * weights.
+     *
+     * @return a bound that is at least the weight of the longest simple path, and 0 exactly when
+     * the graph has no edges.
+     */
+    public int longestPathUpperBound() {
+        int upperBound = 0;
+        for (int bound : this.componentUpperBound) {
+            upperBound = Math.max(upperBound, bound);
+        }
+        return upperBound;
+    }
+
+    /**
+     * Determines whether there is a path between the two given vertices, which is when they are in
+     * the same connected component.
+     *
+     * @param vertex1 one vertex of the graph.
+     * @param vertex2 another vertex of the graph.
+     * @return whether the vertices are connected, which is true when they are the same vertex.
+     */
+    public boolean areConnected(int vertex1, int vertex2) {
+        return this.componentOf[vertex1] == this.componentOf[vertex2];
+    }
+
+    /**
+     * Calculates the weight of the longest simple path within one connected component, searching
+     * the component only the first time it is requested.
+     *
+     * @param component the index of the component.
+     * @return the weight of the longest simple path in the component.
+     */
+    private int componentLongestPath(int component) {
+        if (this.componentLongestPath[component] < 0) {
+            this.componentLongestPath[component] = this.searchComponent(component);
+        }
+        return this.componentLongestPath[component];
+    }
+
+    /**
+     * Runs the pruned depth first search from every vertex of the given component.
+     *
+     * @param component the index of the component.
+     * @return the weight of the longest simple path in the component.
+     */
+    private int searchComponent(int component) {
+        int[] vertices = this.componentVertices.get(component);
+        int unvisitedBound = 0;
+        for (int vertex : vertices) {
+            unvisitedBound += this.maxIncidentWeight[vertex];
+        }
+        this.componentBound = this.componentUpperBound[component];
+        this.best = 0;
+
+        for (int start : vertices) {
+            // A path meeting the bound of the component cannot be beaten
+            if (this.best == this.componentBound) {
+                break;
+            }
+            this.markVisited(start);
+            this.extendPath(start, 0, unvisitedBound - this.maxIncidentWeight[start]);
+            this.unmarkVisited(start);
+        }
+        return this.best;
+    }
+
+    /**
+     * Extends the current simple path that ends at the given vertex along every unvisited
+     * neighbor, recording the heaviest path seen.
+     *
+     * @param end            the last vertex of the current path, already marked visited.
+     * @param pathWeight     the total weight of the current path.
+     * @param unvisitedBound the sum of the heaviest incident edge of every unvisited vertex in the
+     *                       component.
+     */
+    private void extendPath(int end, int pathWeight, int unvisitedBound) {
+        this.best = Math.max(this.best, pathWeight);
+        int upperBound = Math.min(this.componentBound, pathWeight + unvisitedBound);
+        if (upperBound <= this.best) {
+            return;
+        }
+
+        for (int slot = this.adjacencyStart[end]; slot < this.adjacencyStart[end + 1]; slot += 1) {
+            int neighbor = this.adjacentVertex[slot];
+            if (!this.isVisited(neighbor)) {
+                this.markVisited(neighbor);
+                this.extendPath(neighbor, pathWeight + this.adjacentWeight[slot],
+                    unvisitedBound - this.maxIncidentWeight[neighbor]);
+                this.unmarkVisited(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Labels every vertex with its connected component using an iterative depth first search.
+     */
+    private void calculateComponents() {
+        int numVertices = this.componentOf.length;
+        Arrays.fill(this.componentOf, -1);
+        int[] stack = new int[numVertices];
+        for (int root = 0; root < numVertices; root += 1) {
+            if (this.componentOf[root] >= 0) {
+                continue;
+            }
+            int component = this.componentVertices.size();
+            List<Integer> members = new ArrayList<>();
+            int stackSize = 0;
+            stack[stackSize++] = root;
+            this.componentOf[root] = component;
+            while (stackSize > 0) {
+                int vertex = stack[--stackSize];
+                members.add(vertex);
+                for (int slot = this.adjacencyStart[vertex]; slot < this.adjacencyStart[vertex + 1];
+                    slot += 1) {
+                    int neighbor = this.adjacentVertex[slot];
+                    if (this.componentOf[neighbor] < 0) {
+                        this.componentOf[neighbor] = component;
+                        stack[stackSize++] = neighbor;
+                    }
+                }
+            }
+            this.componentVertices.add(members.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Calculates an upper bound on the longest simple path in the given component from its edge
+     * weights and vertex degrees.
+     *
+     * @param component the index of the component.
+     * @return the smallest of the bounds described in the class documentation.
+     */
+    private int calculateUpperBound(int component) {
+        int[] vertices = this.componentVertices.get(component);
+        int numEdges = 0;
+        int numOddVertices = 0;
+        for (int vertex : vertices) {
+            int degree = this.adjacencyStart[vertex + 1] - this.adjacencyStart[vertex];
+            numEdges += degree;
+            numOddVertices += degree % 2;
+        }
+        // Every edge is stored once for each of its endpoints
+        numEdges /= 2;
+        int[] weights = new int[numEdges];
+        int numWeights = 0;
+        int totalWeight = 0;
+        for (int vertex : vertices) {
+            for (int slot = this.adjacencyStart[vertex]; slot < this.adjacencyStart[vertex + 1];
+                slot += 1) {
+                if (vertex < this.adjacentVertex[slot]) {
+                    weights[numWeights] = this.adjacentWeight[slot];
+                    totalWeight += weights[numWeights];
+                    numWeights += 1;
+                }
+            }
+        }
+        Arrays.sort(weights);
+
+        // Only the two ends of a trail have odd degree in it, and leaving out an edge changes the
+        // degree of two vertices, so a trail leaves out at least (numOddVertices - 2) / 2 edges
+        int trailBound = totalWeight;
+        for (int index = 0; index < (numOddVertices - 2) / 2; index += 1) {
+            trailBound -= weights[index];
+        }
+        // A simple path has at most one edge fewer than the component has vertices
+        int vertexBound = 0;
+        for (int index = Math.max(numEdges - vertices.length + 1, 0); index < numEdges;
+            index += 1) {
+            vertexBound += weights[index];
+        }
+        return Math.min(trailBound, vertexBound);
+    }
+
+    private void addAdjacency(int from, int to, int weight, int[] nextSlot) {
+        this.adjacentVertex[nextSlot[from]] = to;
+        this.adjacentWeight[nextSlot[from]] = weight;
+        nextSlot[from] += 1;
+        this.maxIncidentWeight[from] = Math.max(this.maxIncidentWeight[from], weight);
+    }
+
+    private boolean isVisited(int vertex) {
+        return (this.visited[vertex >>> 6] & (1L << vertex)) != 0;
+    }
+
+    private void markVisited(int vertex) {
+        this.visited[vertex >>> 6] |= 1L << vertex;
+    }
+
+    private void unmarkVisited(int vertex) {
+        this.visited[vertex >>> 6] &= ~(1L << vertex);
+    }
+
+    /**
+     * The edges of a JGraphT graph, with its vertices numbered in the order of its vertex set.
+     */
+    private static class EdgeList {
+
+        private final int numVertices;
+        private final int numEdges;
+        private final int[] sources;
+        private final int[] targets;
+        private final int[] weights;
+
+        private EdgeList(int numVertices, int numEdges) {
+            this.numVertices = numVertices;
+            this.numEdges = numEdges;
+            this.sources = new int[numEdges];
+            this.targets = new int[numEdges];
+            this.weights = new int[numEdges];
+        }
+
+        private static EdgeList fromGraph(Graph<String, DefaultWeightedEdge> graph) {
+            Map<String, Integer> vertexIndices = new HashMap<>();
+            for (String vertex : graph.vertexSet()) {
+                vertexIndices.put(vertex, vertexIndices.size());
+            }
+            EdgeList edges = new EdgeList(vertexIndices.size(), graph.edgeSet().size());
+            int edge = 0;
+            for (DefaultWeightedEdge graphEdge : graph.edgeSet()) {
+                edges.sources[edge] = vertexIndices.get(graph.getEdgeSource(graphEdge));
+                edges.targets[edge] = vertexIndices.get(graph.getEdgeTarget(graphEdge));
+                edges.weights[edge] = (int) graph.getEdgeWeight(graphEdge);
+                edge += 1;
+            }
+            return edges;
+        }
+    }
+}
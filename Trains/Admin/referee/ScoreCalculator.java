@@ -2,19 +2,44 @@ package referee;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import map.IRailConnection;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultWeightedEdge;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import map.ITrainMap;
 import referee.game_state.IPlayerData;
 import utils.Constants;
 
 /**
  * To calculate scores of players in Trains.
+ * <p>
+ * Each player's connections are compiled into one {@link CompiledConnectionGraph}, which is used
+ * for both the longest path and the player's destinations. Players are evaluated in parallel on a
+ * ForkJoinPool, and the evaluations are joined in turn order, so the scores are the same however
+ * the evaluations are scheduled. Exact longest paths are then calculated in decreasing order of
+ * their upper bounds, only until no remaining player can reach the longest path found.
  */
 public class ScoreCalculator {
 
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a ScoreCalculator that evaluates players on the common ForkJoinPool.
+     */
+    public ScoreCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ScoreCalculator that evaluates players on the given pool.
+     *
+     * @param pool the pool to evaluate players on.
+     */
+    public ScoreCalculator(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+    }
+
     /**
      * Calculates the scores of each player, accounting for each segment, destinations
      * completed/failed, and longest path ownership.
@@ -23,69 +48,89 @@ public class ScoreCalculator {
      * @return a List of Integer of the scores of the players in the same order as the given list.
      */
     public List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder) {
-        List<Integer> scoresInTurnOrder = new ArrayList<>();
+        return this.scorePlayers(playerDataInOrder, Optional.empty());
+    }
 
-        // Construct graph of player's occupied connections
-        List<Graph<String, DefaultWeightedEdge>> playerConnectionGraphs =
-            playerDataInOrder.stream()
-                .map(
-                    (player) ->
-                        ScoreGraphUtils.occupiedConnectionsToGraph(player.getOwnedConnections()))
-                .collect(Collectors.toList());
+    /**
+     * Calculates the scores of each player in a game on the given map, accounting for each segment,
+     * destinations completed/failed, and longest path ownership. Destinations are checked with the
+     * connectivity that each player keeps for the map, rather than by searching a graph.
+     *
+     * @param playerDataInOrder the player data in turn order.
+     * @param map               the map that the players' connections are in.
+     * @return a List of Integer of the scores of the players in the same order as the given list.
+     */
+    public List<Integer> scorePlayers(List<IPlayerData> playerDataInOrder, ITrainMap map) {
+        return this.scorePlayers(playerDataInOrder, Optional.of(map));
+    }
+
+    /**
+     * Calculates the scores of each player, checking destinations with each player's connectivity
+     * for the given map if there is one, or with their compiled graph otherwise.
+     */
+    private List<Integer> scorePlayers(
+        List<IPlayerData> playerDataInOrder, Optional<ITrainMap> map) {
+        List<ForkJoinTask<PlayerEvaluation>> evaluations = new ArrayList<>();
+        for (IPlayerData playerData : playerDataInOrder) {
+            evaluations.add(ForkJoinTask.adapt(() -> new PlayerEvaluation(playerData, map)));
+        }
+        this.pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(evaluations)));
 
-        // Calculate players with the longest path
-        Set<Integer> playersWithLongestPath =
-            ScoreGraphUtils.calculatePlayersWithLongestPath(playerConnectionGraphs);
+        // Joined in turn order, so the result does not depend on which evaluation finished first
+        int[] upperBounds = new int[evaluations.size()];
+        for (int index = 0; index < evaluations.size(); index += 1) {
+            upperBounds[index] = evaluations.get(index).join().longestPathUpperBound;
+        }
+        Set<Integer> playersWithLongestPath = ScoreGraphUtils.calculatePlayersWithLongestPath(
+            upperBounds,
+            index -> evaluations.get(index).join().graph.calculateLongestPathLength());
 
-        // For each player, calculate individual score using above info
-        for (int index = 0; index < playerConnectionGraphs.size(); index += 1) {
+        List<Integer> scoresInTurnOrder = new ArrayList<>();
+        for (int index = 0; index < evaluations.size(); index += 1) {
+            PlayerEvaluation evaluation = evaluations.get(index).join();
             scoresInTurnOrder.add(
-                calculatePlayerScore(
-                    playerDataInOrder.get(index),
-                    playerConnectionGraphs.get(index),
+                assignPoints(
+                    evaluation.totalNumSegments,
+                    evaluation.numDestinationsConnected,
+                    evaluation.numDestinations,
                     playersWithLongestPath.contains(index)));
         }
-
         return scoresInTurnOrder;
     }
 
     /**
-     * Computers the score for the given player accounting for whether they own a longest path.
-     *
-     * @param playerData            the data for the player.
-     * @param playerConnectionGraph the graph representing the player's best occupied connections
-     *                              (to avoid recomputing it).
-     * @param hasLongestPath        whether the player owns a longest path.
-     * @return the score of the player as an integer.
+     * Everything about one player's connections that their score depends on, calculated from one
+     * compiled graph of the connections. The exact longest path is only calculated afterwards for
+     * the players whose bound can still reach the longest path.
      */
-    private static int calculatePlayerScore(
-        IPlayerData playerData,
-        Graph<String, DefaultWeightedEdge> playerConnectionGraph,
-        boolean hasLongestPath) {
-        int totalNumSegments = calculateTotalNumSegments(playerData);
-
-        int numDestinationsConnected =
-            ScoreGraphUtils.calculateNumDestinationsConnected(
-                playerConnectionGraph, playerData.getDestinations());
-        return assignPoints(
-            totalNumSegments,
-            numDestinationsConnected,
-            playerData.getDestinations().size(),
-            hasLongestPath);
-    }
+    private static class PlayerEvaluation {
 
-    /**
-     * Determines the total number of segments among all owned connections.
-     *
-     * @param playerData the data for the player containing the owned connections.
-     * @return the integer total of the lengths of all owned connections.
-     */
-    private static int calculateTotalNumSegments(IPlayerData playerData) {
-        return playerData.getOwnedConnections().stream().mapToInt(IRailConnection::getLength).sum();
+        private final CompiledConnectionGraph graph;
+        private final int totalNumSegments;
+        private final int longestPathUpperBound;
+        private final int numDestinationsConnected;
+        private final int numDestinations;
+
+        private PlayerEvaluation(IPlayerData playerData, Optional<ITrainMap> map) {
+            this.graph = new CompiledConnectionGraph(playerData.getOwnedConnections());
+            this.totalNumSegments = this.graph.getTotalNumSegments();
+            this.longestPathUpperBound = this.graph.calculateLongestPathUpperBound();
+            if (map.isPresent()) {
+                this.numDestinationsConnected = playerData.getConnectivity(map.get())
+                    .calculateNumDestinationsConnected(playerData.getDestinations());
+            }
+            else {
+                this.numDestinationsConnected =
+                    this.graph.calculateNumDestinationsConnected(playerData.getDestinations());
+            }
+            this.numDestinations = playerData.getDestinations().size();
+        }
     }
 
     /**
      * Assigns points to each piece of information related to scoring and returns the total score.
+     * This is public so that anything else that scores players, such as the game simulator, uses
+     * the same point values.
      *
      * @param totalNumSegments         the total number of rails placed by the player.
      * @param numDestinationsCompleted the total number of destinations completed by the player.
@@ -93,7 +138,7 @@ public class ScoreCalculator {
      * @param hasLongestPath           whether the player has a longest path.
      * @return the player's total score as an integer.
      */
-    private static int assignPoints(
+    public static int assignPoints(
         int totalNumSegments,
         int numDestinationsCompleted,
         int numDestinationsTotal,
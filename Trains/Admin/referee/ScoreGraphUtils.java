@@ -1,16 +1,14 @@
 package referee;
 
-import com.google.common.collect.Iterators;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntUnaryOperator;
 import map.Destination;
 import map.IRailConnection;
 import org.jgrapht.Graph;
-import org.jgrapht.GraphPath;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
-import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
@@ -31,10 +29,67 @@ public class ScoreGraphUtils {
      */
     public static Set<Integer> calculatePlayersWithLongestPath(
         List<Graph<String, DefaultWeightedEdge>> playerConnectionGraphs) {
+        List<LongestPathSolver> solvers = new ArrayList<>();
+        int[] upperBounds = new int[playerConnectionGraphs.size()];
+        for (int index = 0; index < playerConnectionGraphs.size(); index += 1) {
+            solvers.add(new LongestPathSolver(playerConnectionGraphs.get(index)));
+            upperBounds[index] = solvers.get(index).longestPathUpperBound();
+        }
+        return calculatePlayersWithLongestPath(
+            upperBounds, index -> solvers.get(index).longestPathLength());
+    }
+
+    /**
+     * Determines the set of players who have the longest path (ties allowed), calculating the
+     * exact longest paths of as few players as possible. Players are considered in decreasing order
+     * of the upper bounds on their longest paths, and once a player's bound is below the longest
+     * path found so far, neither that player nor any player after it can have the longest path.
+     *
+     * @param upperBounds       an upper bound on the weight of each player's longest path, which
+     *                          is 0 only when the player owns no connections.
+     * @param longestPathLength calculates the exact weight of the longest path of the player with
+     *                          the given index.
+     * @return a Set of Integer where each Integer is the index of a player whose longest path is as
+     * long as any other. The set will be empty iff the given array is empty.
+     */
+    public static Set<Integer> calculatePlayersWithLongestPath(
+        int[] upperBounds, IntUnaryOperator longestPathLength) {
+        List<Integer> playersByBound = new ArrayList<>();
+        for (int index = 0; index < upperBounds.length; index += 1) {
+            playersByBound.add(index);
+        }
+        // Sorting is stable, so players with equal bounds stay in turn order
+        playersByBound.sort((p1, p2) -> upperBounds[p2] - upperBounds[p1]);
+
+        int[] longestPathLengths = new int[upperBounds.length];
+        int overallLongestPathLength = 0;
+        for (int index : playersByBound) {
+            if (upperBounds[index] < overallLongestPathLength) {
+                // Left at 0, which is below the longest path like the player's actual length
+                break;
+            }
+            if (upperBounds[index] > 0) {
+                longestPathLengths[index] = longestPathLength.applyAsInt(index);
+                overallLongestPathLength =
+                    Math.max(overallLongestPathLength, longestPathLengths[index]);
+            }
+        }
+        return calculatePlayersWithLongestPath(longestPathLengths);
+    }
+
+    /**
+     * Determines the set of players who have the longest path (ties allowed), given the length of
+     * each player's longest path.
+     *
+     * @param longestPathLengths the weight of the longest path of each player.
+     * @return a Set of Integer where each Integer is the index of a player whose longest path is as
+     * long as any other. The set will be empty iff the given array is empty.
+     */
+    public static Set<Integer> calculatePlayersWithLongestPath(int[] longestPathLengths) {
         int overallLongestPathLength = 0;
         Set<Integer> result = new HashSet<>();
-        for (int index = 0; index < playerConnectionGraphs.size(); index += 1) {
-            int longestPathLength = calculateLongestPathLength(playerConnectionGraphs.get(index));
+        for (int index = 0; index < longestPathLengths.length; index += 1) {
+            int longestPathLength = longestPathLengths[index];
             if (longestPathLength > overallLongestPathLength) {
                 overallLongestPathLength = longestPathLength;
                 result.clear();
@@ -46,26 +101,16 @@ public class ScoreGraphUtils {
         return result;
     }
 
-    private static int calculateLongestPathLength(
+    /**
+     * Calculates the weight of the longest simple path in the given graph of occupied connections
+     * using {@link LongestPathSolver}.
+     *
+     * @param occupiedConnectionsGraph the graph of occupied connections.
+     * @return the weight of the longest simple path, or 0 if the graph has no edges.
+     */
+    public static int calculateLongestPathLength(
         Graph<String, DefaultWeightedEdge> occupiedConnectionsGraph) {
-        int longestPath = 0;
-        // TODO: make this more efficient.
-        // This solution is horribly inefficient, and was only chosen because it maximally pushed
-        // the work onto other libraries
-        for (String vertex1 : occupiedConnectionsGraph.vertexSet()) {
-            for (String vertex2 : occupiedConnectionsGraph.vertexSet()) {
-                if (!vertex1.equals(vertex2)) {
-                    Iterator<GraphPath<String, DefaultWeightedEdge>> pathIterator =
-                        new YenShortestPathIterator<>(occupiedConnectionsGraph, vertex1, vertex2);
-                    int longestPathBetweenVertices = 0;
-                    if (pathIterator.hasNext()) {
-                        longestPathBetweenVertices = (int) Iterators.getLast(pathIterator).getWeight();
-                    }
-                    longestPath = (int) Math.max(longestPath, longestPathBetweenVertices);
-                }
-            }
-        }
-        return longestPath;
+        return LongestPathSolver.longestPathLength(occupiedConnectionsGraph);
     }
 
     /**
@@ -1,9 +1,7 @@
 package referee;
 
-import static utils.Constants.PLAYER_INTERACTION_TIMEOUT;
-import static utils.Utils.callFunction;
-
 import com.google.common.collect.Iterables;
+import game_state.IPlayerGameState;
 import game_state.RailCard;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -26,12 +24,14 @@ import referee.game_state.IPlayerData;
 import referee.game_state.IPlayerHand;
 import referee.game_state.IRefereeGameState;
 import referee.game_state.PlayerData;
+import referee.game_state.RailCardDeck;
 import referee.game_state.RefereeGameState;
 import referee.game_state.TrainsPlayerHand;
 import action.ActionVisitor;
 import action.TurnAction;
 import test_utils.TrainsMapUtils;
 import utils.Constants;
+import utils.TimedInvoker;
 
 /**
  * This Referee runs games of Trains on a given map and list of players, constructed through the
@@ -43,6 +43,8 @@ import utils.Constants;
  *
  * <ul>
  *   <li>Any exception thrown by the player when a method is called on it.
+ *   <li>Any method call on the player that does not return within the deadline of the referee's
+ *       {@link TimedInvoker}, which by default is {@link Constants#PLAYER_INTERACTION_TIMEOUT}.
  *   <li>Any response from the player that is well-formed but invalid (e.g., incorrect number of
  *       destinations, attempting to acquire a connection that is already occupied)
  * </ul>
@@ -67,6 +69,7 @@ public class TrainsReferee implements IReferee {
     private final LinkedHashMap<String, IPlayer> playersInOrder;
     private final Function<ITrainMap, List<Destination>> destinationProvider;
     private final Supplier<List<RailCard>> deckSupplier;
+    private final TimedInvoker invoker;
     private final Set<String> removedPlayerNames;
     private IRefereeGameState refereeGameState;
 
@@ -74,11 +77,13 @@ public class TrainsReferee implements IReferee {
         ITrainMap map,
         LinkedHashMap<String, IPlayer> playersInOrder,
         Function<ITrainMap, List<Destination>> destinationProvider,
-        Supplier<List<RailCard>> deckSupplier) {
+        Supplier<List<RailCard>> deckSupplier,
+        TimedInvoker invoker) {
         this.map = map;
         this.playersInOrder = new LinkedHashMap<>(playersInOrder);
         this.destinationProvider = destinationProvider;
         this.deckSupplier = deckSupplier;
+        this.invoker = invoker;
         this.removedPlayerNames = new HashSet<>();
     }
 
@@ -92,6 +97,7 @@ public class TrainsReferee implements IReferee {
         private final LinkedHashMap<String, IPlayer> playersInOrder;
         private Function<ITrainMap, List<Destination>> destinationProvider;
         private Supplier<List<RailCard>> deckProvider;
+        private TimedInvoker invoker;
 
         /**
          * Constructs this builder from the required map and players.
@@ -104,6 +110,7 @@ public class TrainsReferee implements IReferee {
             this.playersInOrder = playersInOrder;
             this.destinationProvider = TrainsMapUtils::defaultDestinationProvider;
             this.deckProvider = TrainsMapUtils::defaultDeckSupplier;
+            this.invoker = TimedInvoker.defaultInvoker();
         }
 
         /**
@@ -129,6 +136,19 @@ public class TrainsReferee implements IReferee {
             return this;
         }
 
+        /**
+         * Updates the invoker used for every method call on a player, which determines how long
+         * the referee waits for a player before removing them. The referee does not close the
+         * invoker.
+         *
+         * @param invoker new timed invoker.
+         * @return the updated builder for chaining.
+         */
+        public RefereeBuilder timedInvoker(TimedInvoker invoker) {
+            this.invoker = invoker;
+            return this;
+        }
+
         /**
          * Builds the referee, throwing exceptions if any inputs are null.
          *
@@ -138,12 +158,13 @@ public class TrainsReferee implements IReferee {
             Objects.requireNonNull(this.map);
             Objects.requireNonNull(this.deckProvider);
             Objects.requireNonNull(this.destinationProvider);
+            Objects.requireNonNull(this.invoker);
             Objects.requireNonNull(this.playersInOrder);
             for (IPlayer player : this.playersInOrder.values()) {
                 Objects.requireNonNull(player);
             }
-            return new TrainsReferee(
-                this.map, this.playersInOrder, this.destinationProvider, this.deckProvider);
+            return new TrainsReferee(this.map, this.playersInOrder, this.destinationProvider,
+                this.deckProvider, this.invoker);
         }
     }
 
@@ -214,15 +235,16 @@ public class TrainsReferee implements IReferee {
     private void informResult(GameEndReport report) {
         List<PlayerScore> playerRanking = report.getPlayerRanking();
         for (int i = 1; i < playerRanking.size(); i++) {
-            IPlayer player = this.playersInOrder.get(playerRanking.get(i).getPlayerName());
+            String playerName = playerRanking.get(i).getPlayerName();
+            IPlayer player = this.playersInOrder.get(playerName);
             boolean won = playerRanking.get(i).getScore() == playerRanking.get(0).getScore();
 
             Callable<Boolean> reportWinnerCallable = () -> {
                 player.winNotification(won);
                 return true;
             };
-            if (!this.removedPlayerNames.contains(playerRanking.get(i).getPlayerName())) {
-                callFunction(reportWinnerCallable);
+            if (!this.removedPlayerNames.contains(playerName)) {
+                this.invoker.invoke(playerName, "winNotification", reportWinnerCallable);
             }
         }
     }
@@ -249,15 +271,16 @@ public class TrainsReferee implements IReferee {
         Map.Entry<String, IPlayer> activePlayer = turnOrder.next();
 
         IPlayer player = activePlayer.getValue();
-        Callable<TurnAction> takeTurnCallable = () -> player
-            .takeTurn(this.refereeGameState.getActivePlayerState());
-        Optional<TurnAction> returnedTurn = callFunction(takeTurnCallable);
+        IPlayerGameState activePlayerState = this.refereeGameState.getActivePlayerState();
+        Callable<TurnAction> takeTurnCallable = () -> player.takeTurn(activePlayerState);
+        Optional<TurnAction> returnedTurn =
+            this.invoker.invoke(activePlayer.getKey(), "takeTurn", takeTurnCallable);
         if (returnedTurn.isEmpty()) {
             this.removePlayer(activePlayer.getKey(), turnOrder);
             return true;
         }
         TurnAction turn = returnedTurn.get();
-        TurnResult turnApplyResult = applyActionToActivePlayer(turn, activePlayer.getValue());
+        TurnResult turnApplyResult = applyActionToActivePlayer(turn, activePlayer);
 
         if (turnApplyResult != TurnResult.INVALID) {
             this.refereeGameState.advanceTurn();
@@ -275,19 +298,14 @@ public class TrainsReferee implements IReferee {
     }
 
     private TurnResult applyActionToActivePlayer(
-        TurnAction action, IPlayer player) {
-        return new ActionVisitor(this.refereeGameState, player).apply(action);
-    }
-
-    public enum TurnResult {
-        SIGNIFICANT,
-        INSIGNIFICANT,
-        INVALID
+        TurnAction action, Map.Entry<String, IPlayer> player) {
+        return new ActionVisitor(this.refereeGameState, player.getKey(), player.getValue(),
+            this.invoker).apply(action);
     }
 
     private boolean isGameOver(int numConsecutiveInsignificantTurns) {
         return numConsecutiveInsignificantTurns == this.numPlayersRemaining()
-            || this.refereeGameState.getActivePlayerState().getNumRails()
+            || this.refereeGameState.getActivePlayerNumRails()
             <= Constants.PLAYER_NUM_RAILS_GAME_OVER;
     }
 
@@ -298,17 +316,23 @@ public class TrainsReferee implements IReferee {
     // region Initialization
 
     private IRefereeGameState initializeGame() {
-        List<Destination> activeDestinationList =
-            new ArrayList<>(this.destinationProvider.apply(this.map));
-        if (activeDestinationList.size() < (playersInOrder.size() * 2) + 3) {
+        List<Destination> providedDestinations = this.destinationProvider.apply(this.map);
+        // Each player is offered the destinations that earlier players did not choose, followed
+        // by new ones, so no more than this many are ever offered
+        int numDestinationsNeeded = (playersInOrder.size() * 2) + 3;
+        if (providedDestinations.size() < numDestinationsNeeded) {
             throw new IllegalArgumentException("error: not enough destinations");
         }
-        List<RailCard> deck = new ArrayList<>(this.deckSupplier.get());
+        // Only copy the destinations that can be dealt, so that providers can deal lazily
+        List<Destination> activeDestinationList =
+            new ArrayList<>(providedDestinations.subList(0, numDestinationsNeeded));
+        RailCardDeck deck = new RailCardDeck(this.deckSupplier.get());
         List<IPlayerData> playerDataInTurnOrder = new ArrayList<>();
 
         for (Map.Entry<String, IPlayer> player : this.playersInOrder.entrySet()) {
             Optional<IPlayerData> thisPlayersData =
-                this.setupPlayer(player.getValue(), activeDestinationList, deck, this.map);
+                this.setupPlayer(player.getKey(), player.getValue(), activeDestinationList, deck,
+                    this.map);
             if (thisPlayersData.isPresent()) {
                 playerDataInTurnOrder.add(thisPlayersData.get());
             } else {
@@ -320,33 +344,41 @@ public class TrainsReferee implements IReferee {
     }
 
     private Optional<IPlayerData> setupPlayer(
+        String playerName,
         IPlayer player,
         List<Destination> activeDestinationList,
-        List<RailCard> activeDeck,
+        RailCardDeck activeDeck,
         ITrainMap map) {
 
         // determine setup info
-        List<RailCard> playerStartingHand = activeDeck.subList(0, Constants.PLAYER_NUM_CARDS_START);
+        if (activeDeck.getNumCardsRemaining() < Constants.PLAYER_NUM_CARDS_START) {
+            throw new IllegalArgumentException("error: not enough cards");
+        }
+        // Only drawn once the player has been set up, so a removed player's cards are dealt again
+        List<RailCard> playerStartingHand = activeDeck.peek(Constants.PLAYER_NUM_CARDS_START);
         IPlayerHand<RailCard> startingHand = new TrainsPlayerHand(playerStartingHand);
 
         // choosing destinations
         List<Destination> playerDestinationOptions =
             activeDestinationList.subList(0, Constants.PLAYER_NUM_DEST_OPTIONS);
 
+        // Copy the arguments before calling the player, since a call that overruns its deadline may
+        // still be running when the referee moves on
+        List<RailCard> startingCards = new ArrayList<>(playerStartingHand);
         Callable<Boolean> setupCallable = () -> {
-            player
-                .setup(map, Constants.PLAYER_NUM_RAILS_START, new ArrayList<>(playerStartingHand));
+            player.setup(map, Constants.PLAYER_NUM_RAILS_START, startingCards);
             return true;
         };
-        Optional<Boolean> setupReturn = callFunction(setupCallable);
+        Optional<Boolean> setupReturn = this.invoker.invoke(playerName, "setup", setupCallable);
         if (setupReturn.isEmpty()) {
             return Optional.empty();
         }
 
+        Set<Destination> destinationOptions = new HashSet<>(playerDestinationOptions);
         Callable<Set<Destination>> chooseDestinationsCallable = () -> player
-            .chooseDestinations(new HashSet<>(playerDestinationOptions));
-        Optional<Set<Destination>> notChosenDestinationsReturn = callFunction(
-            chooseDestinationsCallable);
+            .chooseDestinations(destinationOptions);
+        Optional<Set<Destination>> notChosenDestinationsReturn = this.invoker.invoke(
+            playerName, "chooseDestinations", chooseDestinationsCallable);
         if (notChosenDestinationsReturn.isEmpty()) {
             return Optional.empty();
         }
@@ -365,7 +397,7 @@ public class TrainsReferee implements IReferee {
                 Constants.PLAYER_NUM_RAILS_START,
                 chosenDestinations,
                 new HashSet<>());
-        playerStartingHand.clear(); // once drawn, they're gone
+        activeDeck.draw(Constants.PLAYER_NUM_CARDS_START); // once drawn, they're gone
         activeDestinationList.removeAll(chosenDestinations);
 
         return Optional.of(result);
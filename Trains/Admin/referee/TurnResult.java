@@ -0,0 +1,11 @@
+package referee;
+
+/**
+ * The outcome of applying a player's turn to a game of Trains. A turn is insignificant if it did
+ * not change the game, such as drawing from an empty deck, and invalid if it broke the rules.
+ */
+public enum TurnResult {
+    SIGNIFICANT,
+    INSIGNIFICANT,
+    INVALID
+}
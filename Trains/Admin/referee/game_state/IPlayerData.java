@@ -2,8 +2,10 @@ package referee.game_state;
 
 import game_state.RailCard;
 import java.util.Set;
+import map.CityConnectivity;
 import map.Destination;
 import map.IRailConnection;
+import map.ITrainMap;
 
 /**
  * The data that a specific player knows about their own game components.
@@ -36,11 +38,52 @@ public interface IPlayerData {
   Set<Destination> getDestinations();
 
   /**
-   * Getter for the connections that the player has acquired in the game so far.
-   * @return the IRailConnections that this player owns/acquires
+   * Getter for the connections that the player has acquired in the game so far. They can only
+   * be changed through addOwnedConnection and removeOwnedConnection.
+   * @return an unmodifiable view of the IRailConnections that this player owns/acquires
    */
   Set<IRailConnection> getOwnedConnections();
 
+  /**
+   * Adds the given connection to the connections this player owns, and connects its cities in
+   * the connectivity of this player's connections.
+   * @param connection the IRailConnection that this player acquires
+   */
+  void addOwnedConnection(IRailConnection connection);
+
+  /**
+   * Removes the given connection from the connections this player owns, and keeps the
+   * connectivity of this player's connections up to date.
+   * @param connection the IRailConnection that this player no longer owns
+   */
+  void removeOwnedConnection(IRailConnection connection);
+
+  /**
+   * Adds the given connection as addOwnedConnection does, in a way that can be undone by
+   * undoAddOwnedConnection without rebuilding the connectivity of this player's connections.
+   * @param connection the IRailConnection that this player acquires
+   * @return what changed in the connectivity, to pass to undoAddOwnedConnection
+   */
+  int addOwnedConnectionUndoably(IRailConnection connection);
+
+  /**
+   * Removes the given connection, which must be the most recent one added by
+   * addOwnedConnectionUndoably that has not been undone, and restores the connectivity of this
+   * player's connections to what it was before.
+   * @param connection the IRailConnection that this player no longer owns
+   * @param connectivityChange what addOwnedConnectionUndoably reported when it added the connection
+   */
+  void undoAddOwnedConnection(IRailConnection connection, int connectivityChange);
+
+  /**
+   * Gets which cities of the given map are connected by the connections this player owns. The
+   * connectivity is built the first time it is requested for a map, and is then kept up to date
+   * as connections are added through addOwnedConnection.
+   * @param map the map that the owned connections are in
+   * @return the CityConnectivity of this player's owned connections, which must not be modified
+   */
+  CityConnectivity getConnectivity(ITrainMap map);
+
   /**
    * Returns a defensive copy of this IPlayerData.
    * @return IPlayerData defensive copy
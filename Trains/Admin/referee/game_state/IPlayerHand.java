@@ -44,4 +44,11 @@ public interface IPlayerHand<T extends Enum<T>> {
    * @return the IPlayerHand as a Map representation
    */
   Map<T, Integer> getHand();
+
+  /**
+   * Returns a compact snapshot of the number of cards of each suit/color in this hand, which does
+   * not change as this hand changes
+   * @return the card counts of this hand packed into a long
+   */
+  long toPackedCounts();
 }
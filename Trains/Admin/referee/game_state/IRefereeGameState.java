@@ -1,10 +1,13 @@
 package referee.game_state;
 
+import action.TurnAction;
 import game_state.IPlayerGameState;
 import game_state.RailCard;
 import java.util.List;
+import java.util.Set;
 import map.IRailConnection;
 import referee.ActionChecker;
+import referee.TurnResult;
 
 /**
  * Represents a viewable and modifiable game state for the game Trains starting from after the
@@ -23,10 +26,13 @@ public interface IRefereeGameState {
      */
     ActionChecker getActionChecker();
 
+    /**
+     * Advances the turn to the next player. This clears the actions that can be undone.
+     */
     void advanceTurn();
 
     /**
-     * Also has the effect of advancing the turn.
+     * Also has the effect of advancing the turn. This clears the actions that can be undone.
      */
     void removeActivePlayer();
 
@@ -39,10 +45,27 @@ public interface IRefereeGameState {
      */
     IPlayerGameState getActivePlayerState();
 
+    /**
+     * Gets the number of rails in the bank of the currently active player, without taking a
+     * snapshot of their state.
+     *
+     * @return the number of rails.
+     */
+    int getActivePlayerNumRails();
+
+    /**
+     * Gets the number of cards of the given color in the hand of the currently active player,
+     * without taking a snapshot of their state.
+     *
+     * @param card The color of card to count.
+     * @return the number of cards of that color.
+     */
+    int getActivePlayerNumCardsOfType(RailCard card);
+
     /**
      * Represents the active player choosing to draw cards as their action for their turn. This
      * method will add the given number of cards from the top of the deck, add them to the active
-     * player's hand.
+     * player's hand. This clears the actions that can be undone.
      *
      * @param numCards The number of cards to draw.
      * @return a copy of the cards given to the player.
@@ -56,13 +79,51 @@ public interface IRefereeGameState {
      * appropriate number of rails and cards from the players resources.
      * <p>
      * If the active player is not able to acquire the given connection, the game state is not
-     * modified.
+     * modified. Otherwise, this clears the actions that can be undone.
      *
      * @param desiredConnection The connection that the active player would like to acquire.
      * @return whether the connection was able to be acquired according to the action checker.
      */
     boolean acquireConnectionForActivePlayer(IRailConnection desiredConnection);
 
+    /**
+     * Applies the given action as the active player's turn and advances the turn to the next
+     * player, recording what changed so that it can be undone. This lets strategies that search
+     * the game explore a move and take it back without copying the game state.
+     * <p>
+     * If the action is invalid, the game state is not modified and nothing is recorded. Unlike the
+     * referee, this does not remove the player or notify them of drawn cards.
+     *
+     * @param action The action the active player takes.
+     * @return whether the action was significant, insignificant, or invalid.
+     */
+    TurnResult apply(TurnAction action);
+
+    /**
+     * Undoes the most recent action applied by apply that has not been undone yet, returning the
+     * game to exactly the state it was in before, including the cards remaining in the deck and
+     * whose turn it is.
+     *
+     * @throws IllegalStateException if there is no action to undo.
+     */
+    void undo() throws IllegalStateException;
+
+    /**
+     * Determines whether the given connection is occupied by any player remaining in the game.
+     *
+     * @param connection The connection that may or may not be occupied.
+     * @return Whether the connection is in the map and owned by a player.
+     */
+    boolean isConnectionOccupied(IRailConnection connection);
+
+    /**
+     * Calculates all connections in the map of this game that are not occupied by any player
+     * remaining in the game.
+     *
+     * @return The unoccupied connections of the map.
+     */
+    Set<IRailConnection> calculateUnoccupiedConnections();
+
     /**
      *
      * @return
@@ -1,28 +1,41 @@
 package referee.game_state;
 
 import game_state.RailCard;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import map.CityConnectivity;
 import map.Destination;
 import map.IRailConnection;
+import map.ITrainMap;
 
 /**
  * The data that a specific player knows about their own game components.
  */
 public class PlayerData implements IPlayerData {
 
+    // Reported by addOwnedConnectionUndoably when the connectivity did not include the connection,
+    // and when the connection was already owned
+    private static final int UNTRACKED = -2;
+    private static final int ALREADY_OWNED = -3;
+
     private final IPlayerHand<RailCard> hand;
     private int numRails;
     private final Set<Destination> destinations;
+    // Only modified through this class, which keeps the connectivity current once it is built
     private final Set<IRailConnection> ownedConnections;
+    private final Set<IRailConnection> ownedConnectionsView;
+    // Which cities the owned connections connect, or null until it is first requested
+    private CityConnectivity connectivity;
 
     /**
      * Constructor for a PlayerData
      * @param hand the RailCards the player currently has in their hand
      * @param numRails the number of rails the player currently has
      * @param destinations the chosen destinations of the player
-     * @param ownedConnections the RailConnections that the player has occupied so far in the game
+     * @param ownedConnections the RailConnections that the player has occupied so far in the game,
+     *                         which are copied
      */
     public PlayerData(IPlayerHand<RailCard> hand, int numRails,
         Set<Destination> destinations, Set<IRailConnection> ownedConnections) {
@@ -33,7 +46,9 @@ public class PlayerData implements IPlayerData {
         this.hand = hand;
         this.numRails = numRails;
         this.destinations = destinations;
-        this.ownedConnections = ownedConnections;
+        this.ownedConnections = new HashSet<>(ownedConnections);
+        this.ownedConnectionsView = Collections.unmodifiableSet(this.ownedConnections);
+        this.connectivity = null;
     }
 
     @Override
@@ -61,12 +76,75 @@ public class PlayerData implements IPlayerData {
 
     @Override
     public Set<IRailConnection> getOwnedConnections() {
-        return this.ownedConnections;
+        return this.ownedConnectionsView;
+    }
+
+    @Override
+    public void addOwnedConnection(IRailConnection connection) {
+        if (this.ownedConnections.add(connection) && this.connectivity != null) {
+            this.connectivity.addConnection(connection);
+        }
+    }
+
+    @Override
+    public void removeOwnedConnection(IRailConnection connection) {
+        if (this.ownedConnections.remove(connection) && this.connectivity != null) {
+            this.rebuildConnectivity();
+        }
+    }
+
+    /**
+     * Rebuilds the connectivity from the owned connections without reallocating it, since cities
+     * cannot be separated in a union-find except by undoing the most recent merges.
+     */
+    private void rebuildConnectivity() {
+        this.connectivity.reset();
+        for (IRailConnection ownedConnection : this.ownedConnections) {
+            this.connectivity.addConnection(ownedConnection);
+        }
+    }
+
+    @Override
+    public int addOwnedConnectionUndoably(IRailConnection connection) {
+        if (!this.ownedConnections.add(connection)) {
+            return ALREADY_OWNED;
+        }
+        if (this.connectivity == null) {
+            return UNTRACKED;
+        }
+        return this.connectivity.addConnectionUndoably(connection);
+    }
+
+    @Override
+    public void undoAddOwnedConnection(IRailConnection connection, int connectivityChange) {
+        if (connectivityChange == ALREADY_OWNED || !this.ownedConnections.remove(connection)) {
+            return;
+        }
+        if (this.connectivity != null && connectivityChange != UNTRACKED) {
+            this.connectivity.undoMerge(connectivityChange);
+        }
+        else if (this.connectivity != null) {
+            // The connection was added before the connectivity was built, so it is rebuilt
+            this.rebuildConnectivity();
+        }
+    }
+
+    @Override
+    public CityConnectivity getConnectivity(ITrainMap map) {
+        if (this.connectivity == null || !this.connectivity.isForMap(map)) {
+            this.connectivity = new CityConnectivity(map, this.ownedConnections);
+        }
+        return this.connectivity;
     }
 
     @Override
     public IPlayerData copyData() {
-        return new PlayerData(new TrainsPlayerHand(this.hand.getHand()),
-            this.numRails, new HashSet<>(this.destinations), new HashSet<>(this.ownedConnections));
+        PlayerData copy = new PlayerData(
+            TrainsPlayerHand.fromPackedCounts(this.hand.toPackedCounts()), this.numRails,
+            new HashSet<>(this.destinations), this.ownedConnections);
+        if (this.connectivity != null) {
+            copy.connectivity = this.connectivity.copy();
+        }
+        return copy;
     }
 }
@@ -0,0 +1,135 @@
+package referee.game_state;
+
+import game_state.RailCard;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The deck of RailCards in a game of Trains, which cards are drawn from the top of in order.
+ * <p>
+ * The cards never change once the deck is constructed, so drawing only moves a cursor past the
+ * cards that have been drawn. This makes drawing a card, taking a snapshot of the deck, restoring
+ * a snapshot, and copying the deck take constant time however large the deck is.
+ */
+public class RailCardDeck {
+
+    private final RailCard[] cards;
+    // The index of the top card of the deck, so every card before it has been drawn
+    private int cursor;
+
+    /**
+     * Constructs a deck with the given cards, where the first card is the top of the deck.
+     *
+     * @param cards the cards in the order they are drawn.
+     * @throws NullPointerException if the cards or any card is null.
+     */
+    public RailCardDeck(List<RailCard> cards) {
+        Objects.requireNonNull(cards);
+        this.cards = cards.toArray(new RailCard[0]);
+        for (RailCard card : this.cards) {
+            Objects.requireNonNull(card);
+        }
+        this.cursor = 0;
+    }
+
+    private RailCardDeck(RailCard[] cards, int cursor) {
+        this.cards = cards;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Gets the number of cards that have not been drawn.
+     *
+     * @return the number of cards remaining in the deck.
+     */
+    public int getNumCardsRemaining() {
+        return this.cards.length - this.cursor;
+    }
+
+    /**
+     * Gets the given number of cards from the top of the deck without drawing them.
+     *
+     * @param numCards the number of cards to look at.
+     * @return a read-only view of the top cards in the order they would be drawn.
+     * @throws IllegalArgumentException if numCards is negative or more than the number remaining.
+     */
+    public List<RailCard> peek(int numCards) throws IllegalArgumentException {
+        if (numCards < 0 || numCards > this.getNumCardsRemaining()) {
+            throw new IllegalArgumentException("Cannot look at " + numCards + " cards.");
+        }
+        return Collections.unmodifiableList(
+            Arrays.asList(this.cards).subList(this.cursor, this.cursor + numCards));
+    }
+
+    /**
+     * Draws up to the given number of cards from the top of the deck into the start of the given
+     * buffer. If fewer cards remain, all of them are drawn.
+     *
+     * @param buffer   the array to put the drawn cards in, in the order they were drawn.
+     * @param numCards the maximum number of cards to draw.
+     * @return the number of cards drawn.
+     * @throws IllegalArgumentException if numCards is negative or longer than the buffer.
+     */
+    public int draw(RailCard[] buffer, int numCards) throws IllegalArgumentException {
+        if (numCards < 0 || numCards > buffer.length) {
+            throw new IllegalArgumentException("Cannot draw " + numCards + " cards into buffer.");
+        }
+        int numDrawn = Math.min(numCards, this.getNumCardsRemaining());
+        System.arraycopy(this.cards, this.cursor, buffer, 0, numDrawn);
+        this.cursor += numDrawn;
+        return numDrawn;
+    }
+
+    /**
+     * Draws up to the given number of cards from the top of the deck. If fewer cards remain, all of
+     * them are drawn.
+     *
+     * @param numCards the maximum number of cards to draw.
+     * @return the cards drawn, in the order they were drawn.
+     * @throws IllegalArgumentException if numCards is negative.
+     */
+    public List<RailCard> draw(int numCards) throws IllegalArgumentException {
+        if (numCards < 0) {
+            throw new IllegalArgumentException("Cannot draw " + numCards + " cards.");
+        }
+        RailCard[] buffer = new RailCard[Math.min(numCards, this.getNumCardsRemaining())];
+        this.draw(buffer, buffer.length);
+        return Arrays.asList(buffer);
+    }
+
+    /**
+     * Takes a snapshot of which cards remain in the deck, which can be given to restore to put back
+     * every card drawn since.
+     *
+     * @return the snapshot.
+     */
+    public int snapshot() {
+        return this.cursor;
+    }
+
+    /**
+     * Restores the deck to the given snapshot, so that the cards drawn since it was taken are back
+     * on top of the deck in the same order.
+     *
+     * @param snapshot a snapshot taken of this deck.
+     * @throws IllegalArgumentException if the snapshot could not have been taken of this deck.
+     */
+    public void restore(int snapshot) throws IllegalArgumentException {
+        if (snapshot < 0 || snapshot > this.cards.length) {
+            throw new IllegalArgumentException("Not a snapshot of this deck.");
+        }
+        this.cursor = snapshot;
+    }
+
+    /**
+     * Copies this deck, so that drawing from the copy does not draw from this deck. The copy shares
+     * the cards of this deck, since they never change.
+     *
+     * @return the copy.
+     */
+    public RailCardDeck copy() {
+        return new RailCardDeck(this.cards, this.cursor);
+    }
+}
@@ -1,36 +1,137 @@
 package referee.game_state;
 
+import action.AcquireConnectionAction;
+import action.DrawCardsAction;
+import action.IActionVisitor;
+import action.TurnAction;
 import game_state.IOpponentInfo;
 import game_state.IPlayerGameState;
 import game_state.OpponentInfo;
 import game_state.PlayerGameState;
 import game_state.RailCard;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import map.CityConnectivity;
+import map.Destination;
 import map.IRailConnection;
 import map.ITrainMap;
 import referee.ActionChecker;
 import referee.ScoreCalculator;
+import referee.TurnResult;
+import utils.Constants;
 import utils.RailCardUtils;
 
 public class RefereeGameState implements IRefereeGameState {
 
     private final ITrainMap trainMap;
-    private final List<RailCard> deck;
+    private final RailCardDeck deck;
+    // Reused to draw cards from the deck
+    private final RailCard[] drawBuffer;
     private int indexOfCurrentPlayer;
     private final List<IPlayerData> playerDataInTurnOrder;
+    // The player that owns each connection, indexed by the connection's ID in the map, or null if
+    // the connection is unoccupied
+    private final IPlayerData[] connectionOwners;
+
+    // Incremented whenever this game state changes, so snapshots can tell whether they are current
+    private long version;
+    // The parts of each player's snapshot that rarely change, in the same order as their data
+    private final List<SharedPlayerState> sharedStatesInTurnOrder;
+    // The last snapshot of the active player's state, which is current if taken at this version
+    private IPlayerGameState activePlayerState;
+    private long activePlayerStateVersion;
+
+    // Each action applied by apply that can be undone is recorded as UNDO_ENTRY_SIZE ints: the
+    // index of the player who took it, the snapshot of the deck before it, the ID of the acquired
+    // connection or NO_CONNECTION, the number of cards drawn, and what acquiring the connection
+    // changed in the player's connectivity, so that undoing it does not rebuild the connectivity
+    private static final int UNDO_ENTRY_SIZE = 5;
+    private static final int NO_CONNECTION = -1;
+    private int[] undoLog;
+    private int undoLogSize;
+    private final TurnApplier turnApplier;
+    // Stateless, so one checker is used for every acquisition
+    private final ActionChecker actionChecker;
+
+    /**
+     * The immutable parts of the snapshots of one player's state, which are shared by every
+     * snapshot until the player acquires a connection, rather than being copied for each snapshot.
+     */
+    private static class SharedPlayerState {
+
+        private final Set<IRailConnection> ownedConnections;
+        private final Set<Destination> destinations;
+        private final IOpponentInfo opponentInfo;
+        // A copy of the player's connectivity, which snapshots only read, or null until the first
+        // snapshot of the player as the active player
+        private CityConnectivity connectivity;
+
+        private SharedPlayerState(IPlayerData playerData) {
+            this.ownedConnections = Set.copyOf(playerData.getOwnedConnections());
+            this.destinations = Set.copyOf(playerData.getDestinations());
+            this.opponentInfo = new OpponentInfo(this.ownedConnections);
+        }
+    }
 
     public RefereeGameState(
         List<IPlayerData> playerDataInTurnOrder, List<RailCard> deck, ITrainMap map) {
+        this(playerDataInTurnOrder, new RailCardDeck(deck), map);
+    }
+
+    /**
+     * Constructs a game state that draws from a copy of the given deck, starting from the cards
+     * that remain in it.
+     *
+     * @param playerDataInTurnOrder the data of each player, in turn order.
+     * @param deck                  the deck to copy.
+     * @param map                   the map for this game of Trains.
+     */
+    public RefereeGameState(
+        List<IPlayerData> playerDataInTurnOrder, RailCardDeck deck, ITrainMap map) {
         Objects.requireNonNull(playerDataInTurnOrder);
         Objects.requireNonNull(deck);
         Objects.requireNonNull(map);
 
         this.playerDataInTurnOrder = copyPlayerData(playerDataInTurnOrder);
-        this.deck = new ArrayList<>(deck);
+        this.deck = deck.copy();
+        this.drawBuffer = new RailCard[Constants.PLAYER_NUM_CARDS_PER_DRAW];
         this.trainMap = map;
         this.indexOfCurrentPlayer = 0;
+        this.connectionOwners = new IPlayerData[map.getNumRailConnections()];
+        this.version = 0;
+        this.sharedStatesInTurnOrder = new ArrayList<>();
+        for (IPlayerData playerData : this.playerDataInTurnOrder) {
+            this.setOwner(playerData.getOwnedConnections(), playerData);
+            // Built now so that it is kept up to date as connections are acquired
+            playerData.getConnectivity(map);
+            this.sharedStatesInTurnOrder.add(new SharedPlayerState(playerData));
+        }
+        this.activePlayerState = null;
+        this.activePlayerStateVersion = -1;
+        this.undoLog = new int[UNDO_ENTRY_SIZE * 16];
+        this.undoLogSize = 0;
+        this.turnApplier = new TurnApplier();
+        this.actionChecker = new ActionChecker();
+    }
+
+    /**
+     * Records the given player as the owner of each of the given connections that are in the map.
+     *
+     * @param connections The connections whose owner is changing.
+     * @param owner       The new owner of the connections, or null if they become unoccupied.
+     */
+    private void setOwner(Set<IRailConnection> connections, IPlayerData owner) {
+        for (IRailConnection connection : connections) {
+            int connectionId = this.trainMap.getRailConnectionId(connection);
+            if (connectionId >= 0) {
+                this.connectionOwners[connectionId] = owner;
+            }
+        }
     }
 
     // TODO: crete new PlayerData instead of using copyData() in order to enforce the implementation
@@ -44,7 +145,7 @@ public class RefereeGameState implements IRefereeGameState {
 
     @Override
     public ActionChecker getActionChecker() {
-        return new ActionChecker();
+        return this.actionChecker;
     }
 
     /**
@@ -58,6 +159,12 @@ public class RefereeGameState implements IRefereeGameState {
 
     @Override
     public void advanceTurn() {
+        this.undoLogSize = 0;
+        this.moveToNextPlayer();
+    }
+
+    private void moveToNextPlayer() {
+        this.version += 1;
         this.indexOfCurrentPlayer =
             (this.indexOfCurrentPlayer + 1) % this.playerDataInTurnOrder.size();
     }
@@ -66,26 +173,72 @@ public class RefereeGameState implements IRefereeGameState {
     public void removeActivePlayer() {
         // Because a player's rails, cards, destinations, and connections are calculated
         // from the playerData, this removal automatically discards/removes those things as well
-        this.playerDataInTurnOrder.remove(this.indexOfCurrentPlayer);
+        this.version += 1;
+        this.undoLogSize = 0;
+        IPlayerData removedPlayer = this.playerDataInTurnOrder.remove(this.indexOfCurrentPlayer);
+        this.sharedStatesInTurnOrder.remove(this.indexOfCurrentPlayer);
+        this.setOwner(removedPlayer.getOwnedConnections(), null);
         if (this.playerDataInTurnOrder.size() != 0) {
             this.indexOfCurrentPlayer %= this.playerDataInTurnOrder.size();
         }
     }
 
+    /**
+     * Gets a snapshot of the state of the game that is visible to the active player. The snapshot
+     * is only taken again once this game state has changed, and it shares the connections,
+     * destinations, and opponent information of each player with every other snapshot taken since
+     * that player last acquired a connection, so taking it does not copy every owned connection.
+     *
+     * @return The game state that is visible to the currently active player.
+     */
     @Override
     public IPlayerGameState getActivePlayerState() {
-        return new PlayerGameState(this.getActivePlayer(), this.calculateOpponentInfo());
+        if (this.activePlayerStateVersion != this.version) {
+            IPlayerData activePlayer = this.getActivePlayer();
+            SharedPlayerState sharedState = this.getSharedState(this.indexOfCurrentPlayer);
+            if (sharedState.connectivity == null) {
+                sharedState.connectivity = activePlayer.getConnectivity(this.trainMap).copy();
+            }
+            this.activePlayerState = new PlayerGameState(sharedState.ownedConnections,
+                activePlayer.getPlayerHand().toPackedCounts(), activePlayer.getNumRails(),
+                sharedState.destinations, this.calculateOpponentInfo(),
+                sharedState.connectivity);
+            this.activePlayerStateVersion = this.version;
+        }
+        return this.activePlayerState;
+    }
+
+    @Override
+    public int getActivePlayerNumRails() {
+        return this.getActivePlayer().getNumRails();
+    }
+
+    @Override
+    public int getActivePlayerNumCardsOfType(RailCard card) {
+        return this.getActivePlayer().getPlayerHand().getNumCardsOfType(card);
     }
 
     private List<IOpponentInfo> calculateOpponentInfo() {
-        List<IOpponentInfo> result = new ArrayList<>();
-        for (int index = 0; index < this.playerDataInTurnOrder.size(); index += 1) {
+        List<IOpponentInfo> result = new ArrayList<>(this.sharedStatesInTurnOrder.size() - 1);
+        for (int index = 0; index < this.sharedStatesInTurnOrder.size(); index += 1) {
             if (index != this.indexOfCurrentPlayer) {
-                result.add(
-                    new OpponentInfo(this.playerDataInTurnOrder.get(index).getOwnedConnections()));
+                result.add(this.getSharedState(index).opponentInfo);
             }
         }
-        return result;
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Gets the shared parts of the snapshots of the player at the given index, copying them from
+     * the player's data if they have changed since they were last copied.
+     */
+    private SharedPlayerState getSharedState(int index) {
+        SharedPlayerState sharedState = this.sharedStatesInTurnOrder.get(index);
+        if (sharedState == null) {
+            sharedState = new SharedPlayerState(this.playerDataInTurnOrder.get(index));
+            this.sharedStatesInTurnOrder.set(index, sharedState);
+        }
+        return sharedState;
     }
 
     /**
@@ -101,16 +254,19 @@ public class RefereeGameState implements IRefereeGameState {
         if (numCards < 1) {
             throw new IllegalArgumentException("Must draw positive number of cards.");
         }
-        if (numCards > this.deck.size()) {
-            numCards = this.deck.size();
+        RailCard[] buffer = numCards <= this.drawBuffer.length ? this.drawBuffer
+            : new RailCard[numCards];
+        int numDrawn = this.deck.draw(buffer, numCards);
+        if (numDrawn > 0) {
+            this.version += 1;
         }
+        this.undoLogSize = 0;
 
         IPlayerHand<RailCard> activePlayerHand = getActivePlayer().getPlayerHand();
-        List<RailCard> drawnCards = new ArrayList<>();
-        for (int ii = 0; ii < numCards; ii++) {
-            RailCard oneCard = this.deck.remove(0);
-            drawnCards.add(oneCard);
-            activePlayerHand.addCardsToHand(oneCard, 1);
+        List<RailCard> drawnCards = new ArrayList<>(numDrawn);
+        for (int index = 0; index < numDrawn; index += 1) {
+            drawnCards.add(buffer[index]);
+            activePlayerHand.addCardsToHand(buffer[index], 1);
         }
 
         return drawnCards;
@@ -119,11 +275,31 @@ public class RefereeGameState implements IRefereeGameState {
     @Override
     public boolean acquireConnectionForActivePlayer(IRailConnection desiredConnection)
         throws IllegalArgumentException {
-        if (!this.getActionChecker()
-            .canAcquireConnection(this.getActivePlayerState(), this.trainMap, desiredConnection)) {
+        int connectionId = this.acquireConnection(desiredConnection, false);
+        if (connectionId == NO_CONNECTION) {
             return false;
-        } else {
-            IPlayerData playerData = this.getActivePlayer();
+        }
+        this.undoLogSize = 0;
+        return true;
+    }
+
+    /**
+     * Acquires the given connection for the active player if they are allowed to.
+     *
+     * @param desiredConnection The connection that the active player would like to acquire.
+     * @param undoable          Whether to record in the turn applier how to undo acquiring
+     *                          the connection.
+     * @return the ID of the acquired connection, or NO_CONNECTION if it could not be acquired.
+     */
+    private int acquireConnection(IRailConnection desiredConnection, boolean undoable) {
+        IPlayerData playerData = this.getActivePlayer();
+        int connectionId = this.trainMap.getRailConnectionId(desiredConnection);
+        boolean occupied = connectionId >= 0 && this.connectionOwners[connectionId] != null;
+        if (!this.getActionChecker()
+            .canAcquireConnection(playerData, occupied, this.trainMap, desiredConnection)) {
+            return NO_CONNECTION;
+        }
+        else {
             // Remove rails and cards from player's hand
             playerData.setNumRails(playerData.getNumRails() - desiredConnection.getLength());
             playerData
@@ -132,13 +308,141 @@ public class RefereeGameState implements IRefereeGameState {
                     RailCardUtils.railCardFromColor(desiredConnection.getColor()),
                     desiredConnection.getLength());
             // Add connection to player's list of connections
-            playerData.getOwnedConnections().add(desiredConnection);
-            return true;
+            if (undoable) {
+                this.turnApplier.connectivityChange =
+                    playerData.addOwnedConnectionUndoably(desiredConnection);
+            }
+            else {
+                playerData.addOwnedConnection(desiredConnection);
+            }
+            this.connectionOwners[connectionId] = playerData;
+            this.version += 1;
+            this.sharedStatesInTurnOrder.set(this.indexOfCurrentPlayer, null);
+            return connectionId;
+        }
+    }
+
+    // region Apply and undo
+
+    @Override
+    public TurnResult apply(TurnAction action) {
+        int indexOfPlayer = this.indexOfCurrentPlayer;
+        int deckSnapshot = this.deck.snapshot();
+        TurnResult result = this.turnApplier.apply(action);
+        if (result != TurnResult.INVALID) {
+            this.recordUndoEntry(indexOfPlayer, deckSnapshot, this.turnApplier.connectionId,
+                this.turnApplier.numCardsDrawn, this.turnApplier.connectivityChange);
+            this.moveToNextPlayer();
+        }
+        return result;
+    }
+
+    private void recordUndoEntry(int indexOfPlayer, int deckSnapshot, int connectionId,
+        int numCardsDrawn, int connectivityChange) {
+        if (this.undoLogSize == this.undoLog.length) {
+            this.undoLog = Arrays.copyOf(this.undoLog, this.undoLog.length * 2);
+        }
+        this.undoLog[this.undoLogSize] = indexOfPlayer;
+        this.undoLog[this.undoLogSize + 1] = deckSnapshot;
+        this.undoLog[this.undoLogSize + 2] = connectionId;
+        this.undoLog[this.undoLogSize + 3] = numCardsDrawn;
+        this.undoLog[this.undoLogSize + 4] = connectivityChange;
+        this.undoLogSize += UNDO_ENTRY_SIZE;
+    }
+
+    @Override
+    public void undo() throws IllegalStateException {
+        if (this.undoLogSize == 0) {
+            throw new IllegalStateException("There is no action to undo.");
+        }
+        this.undoLogSize -= UNDO_ENTRY_SIZE;
+        int deckSnapshot = this.undoLog[this.undoLogSize + 1];
+        int connectionId = this.undoLog[this.undoLogSize + 2];
+        int numCardsDrawn = this.undoLog[this.undoLogSize + 3];
+        int connectivityChange = this.undoLog[this.undoLogSize + 4];
+        this.indexOfCurrentPlayer = this.undoLog[this.undoLogSize];
+        this.version += 1;
+
+        IPlayerData playerData = this.getActivePlayer();
+        IPlayerHand<RailCard> hand = playerData.getPlayerHand();
+        if (connectionId == NO_CONNECTION) {
+            // Draw the same cards again to find which to take back from the player's hand
+            this.deck.restore(deckSnapshot);
+            this.deck.draw(this.drawBuffer, numCardsDrawn);
+            this.deck.restore(deckSnapshot);
+            for (int index = 0; index < numCardsDrawn; index += 1) {
+                hand.removeCardsFromHand(this.drawBuffer[index], 1);
+            }
+        }
+        else {
+            IRailConnection connection = this.trainMap.getRailConnection(connectionId);
+            playerData.undoAddOwnedConnection(connection, connectivityChange);
+            playerData.setNumRails(playerData.getNumRails() + connection.getLength());
+            hand.addCardsToHand(
+                RailCardUtils.railCardFromColor(connection.getColor()), connection.getLength());
+            this.connectionOwners[connectionId] = null;
+            this.sharedStatesInTurnOrder.set(this.indexOfCurrentPlayer, null);
+        }
+    }
+
+    /**
+     * Applies the actions of the active player for apply, remembering what each one changed.
+     */
+    private class TurnApplier implements IActionVisitor<TurnResult> {
+
+        private int connectionId;
+        private int numCardsDrawn;
+        private int connectivityChange;
+
+        @Override
+        public TurnResult visitCardsAction(DrawCardsAction cardsAction) {
+            RailCard[] drawnCards = RefereeGameState.this.drawBuffer;
+            this.connectionId = NO_CONNECTION;
+            this.connectivityChange = CityConnectivity.NO_MERGE;
+            this.numCardsDrawn = RefereeGameState.this.deck.draw(
+                drawnCards, Constants.PLAYER_NUM_CARDS_PER_DRAW);
+            IPlayerHand<RailCard> hand = RefereeGameState.this.getActivePlayer().getPlayerHand();
+            for (int index = 0; index < this.numCardsDrawn; index += 1) {
+                hand.addCardsToHand(drawnCards[index], 1);
+            }
+            return this.numCardsDrawn == 0 ? TurnResult.INSIGNIFICANT : TurnResult.SIGNIFICANT;
+        }
+
+        @Override
+        public TurnResult visitAcquireAction(AcquireConnectionAction acquireAction) {
+            this.connectionId =
+                RefereeGameState.this.acquireConnection(acquireAction.getRailConnection(), true);
+            this.numCardsDrawn = 0;
+            return this.connectionId == NO_CONNECTION ? TurnResult.INVALID : TurnResult.SIGNIFICANT;
+        }
+
+        @Override
+        public TurnResult apply(TurnAction action) {
+            return action.accept(this);
+        }
+    }
+    // endregion
+
+    @Override
+    public boolean isConnectionOccupied(IRailConnection connection) {
+        int connectionId = this.trainMap.getRailConnectionId(connection);
+        return connectionId >= 0 && this.connectionOwners[connectionId] != null;
+    }
+
+    @Override
+    public Set<IRailConnection> calculateUnoccupiedConnections() {
+        Set<IRailConnection> unoccupiedConnections = new HashSet<>();
+        for (int connectionId = 0; connectionId < this.connectionOwners.length; connectionId += 1) {
+            if (this.connectionOwners[connectionId] == null) {
+                unoccupiedConnections.add(this.trainMap.getRailConnection(connectionId));
+            }
         }
+        return unoccupiedConnections;
     }
 
     @Override
     public List<Integer> calculatePlayerScores() {
-        return new ScoreCalculator().scorePlayers(new ArrayList<>(this.playerDataInTurnOrder));
+        return new ScoreCalculator()
+            .scorePlayers(new ArrayList<>(this.playerDataInTurnOrder), this.trainMap);
     }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package referee.game_state;
 
 import game_state.RailCard;
-import java.util.HashMap;
+import game_state.RailCardCounts;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -12,20 +13,23 @@ import referee.game_state.IPlayerHand;
  */
 public class TrainsPlayerHand implements IPlayerHand<RailCard> {
 
-  Map<RailCard, Integer> playerHand; // All card types are represented as keys (possibly with 0 cards)
+  private static final RailCard[] CARDS = RailCard.values();
+
+  private final int[] cardCounts; // The number of cards of each RailCard, indexed by ordinal
+
+  private TrainsPlayerHand() {
+    this.cardCounts = new int[CARDS.length];
+  }
 
   /**
    * Constructor that takes just a list of cards
    * @param initialHand a list of RailCard
    */
   public TrainsPlayerHand(List<RailCard> initialHand) {
+    this();
     Objects.requireNonNull(initialHand);
-    this.playerHand = new HashMap<>();
-    for (RailCard card : RailCard.values()) {
-      this.playerHand.put(card, 0);
-    }
     for (RailCard card : initialHand) {
-      this.addCardsToHand(card, 1);
+      this.cardCounts[card.ordinal()] += 1;
     }
   }
 
@@ -36,34 +40,51 @@ public class TrainsPlayerHand implements IPlayerHand<RailCard> {
    * @throws IllegalArgumentException
    */
   public TrainsPlayerHand(Map<RailCard, Integer> initialHand) throws IllegalArgumentException {
+    this();
     Objects.requireNonNull(initialHand);
-    this.playerHand = new HashMap<>();
-    for (RailCard card : RailCard.values()) {
+    for (RailCard card : CARDS) {
       int numInitialCards = initialHand.getOrDefault(card, 0);
       if (numInitialCards < 0) {
         throw new IllegalArgumentException("Cannot have negative cards.");
       }
-      this.playerHand.put(card, numInitialCards);
+      this.cardCounts[card.ordinal()] = numInitialCards;
     }
   }
 
+  /**
+   * Constructs a hand from counts packed by {@link RailCardCounts#pack(int[])}, such as those of
+   * another hand's toPackedCounts.
+   * @param packedCounts the packed number of cards of each RailCard
+   * @return the hand
+   */
+  public static TrainsPlayerHand fromPackedCounts(long packedCounts) {
+    TrainsPlayerHand hand = new TrainsPlayerHand();
+    for (RailCard card : CARDS) {
+      hand.cardCounts[card.ordinal()] = RailCardCounts.getCount(packedCounts, card);
+    }
+    return hand;
+  }
 
   @Override
   public void addCardsToHand(RailCard cardType, int amount) throws IllegalArgumentException {
     if (amount <= 0) {
       throw new IllegalArgumentException("Must add positive number of cards.");
     }
-    this.playerHand.put(cardType, this.playerHand.get(cardType) + amount);
+    this.cardCounts[cardType.ordinal()] += amount;
   }
 
   @Override
   public int getNumCardsOfType(RailCard cardType) {
-    return this.playerHand.get(cardType);
+    return this.cardCounts[cardType.ordinal()];
   }
 
   @Override
   public int getTotalNumCards() {
-    return this.playerHand.values().stream().mapToInt(Integer::intValue).sum();
+    int total = 0;
+    for (int count : this.cardCounts) {
+      total += count;
+    }
+    return total;
   }
 
   @Override
@@ -72,15 +93,24 @@ public class TrainsPlayerHand implements IPlayerHand<RailCard> {
     if (amount <= 0) {
       throw new IllegalArgumentException("Must remove positive number of cards.");
     }
-    int currentNumCards = this.playerHand.get(cardType);
+    int currentNumCards = this.cardCounts[cardType.ordinal()];
     if (amount > currentNumCards) {
       throw new IllegalStateException("Cannot remove more cards than available.");
     }
-    this.playerHand.put(cardType, currentNumCards - amount);
+    this.cardCounts[cardType.ordinal()] = currentNumCards - amount;
   }
 
   @Override
   public Map<RailCard, Integer> getHand() {
-    return new HashMap<>(this.playerHand);
+    Map<RailCard, Integer> hand = new EnumMap<>(RailCard.class);
+    for (RailCard card : CARDS) {
+      hand.put(card, this.cardCounts[card.ordinal()]);
+    }
+    return hand;
+  }
+
+  @Override
+  public long toPackedCounts() {
+    return RailCardCounts.pack(this.cardCounts);
   }
 }
@@ -0,0 +1,77 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A snapshot of the results of a {@link StrategyArena} after some number of its games.
+ */
+public class ArenaReport {
+
+    private final long numGamesPlayed;
+    private final long numGames;
+    private final long elapsedNanos;
+    private final List<EntrantStatistics> entrantStatistics;
+
+    /**
+     * Constructs a report from the given totals.
+     *
+     * @param numGamesPlayed    the number of games that have been played so far.
+     * @param numGames          the number of games the arena is playing in total.
+     * @param elapsedNanos      the time since the arena started, in nanoseconds.
+     * @param entrantStatistics the statistics of each strategy, in the order they were entered.
+     */
+    ArenaReport(long numGamesPlayed, long numGames, long elapsedNanos,
+        List<EntrantStatistics> entrantStatistics) {
+        this.numGamesPlayed = numGamesPlayed;
+        this.numGames = numGames;
+        this.elapsedNanos = elapsedNanos;
+        this.entrantStatistics = new ArrayList<>(entrantStatistics);
+    }
+
+    public long getNumGamesPlayed() {
+        return this.numGamesPlayed;
+    }
+
+    public long getNumGames() {
+        return this.numGames;
+    }
+
+    /**
+     * Determines whether every game of the arena has been played.
+     *
+     * @return whether this is the final report.
+     */
+    public boolean isComplete() {
+        return this.numGamesPlayed == this.numGames;
+    }
+
+    /**
+     * Calculates the number of games played per second of wall clock time since the arena
+     * started, across every thread.
+     *
+     * @return the throughput in games per second, or 0 if no time has passed.
+     */
+    public double getGamesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.numGamesPlayed / (this.elapsedNanos / 1e9);
+    }
+
+    /**
+     * Gets the statistics of each strategy.
+     *
+     * @return the statistics, in the order the strategies were entered.
+     */
+    public List<EntrantStatistics> getEntrantStatistics() {
+        return new ArrayList<>(this.entrantStatistics);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("%d/%d games, %.1f games/s",
+            this.numGamesPlayed, this.numGames, this.getGamesPerSecond()));
+        for (EntrantStatistics statistics : this.entrantStatistics) {
+            report.append(System.lineSeparator()).append("  ").append(statistics);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package simulation;
+
+/**
+ * The results of one strategy over the games of a {@link StrategyArena} so far.
+ * <p>
+ * A game is won by every remaining player with the highest score, so ties count as wins, as the
+ * referee informs players. Scores are only counted in games where the strategy was not removed.
+ */
+public class EntrantStatistics {
+
+    // The standard normal quantile for a two-sided 95% confidence interval
+    private static final double Z_95 = 1.959963984540054;
+
+    private final String name;
+    private final long numGames;
+    private final long numWins;
+    private final long numRemoved;
+    private final long sumScores;
+    private final long sumSquaredScores;
+
+    /**
+     * An interval that is expected to contain the true value of a statistic with 95% confidence.
+     */
+    public static class ConfidenceInterval {
+
+        private final double lower;
+        private final double upper;
+
+        private ConfidenceInterval(double lower, double upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        public double getLower() {
+            return this.lower;
+        }
+
+        public double getUpper() {
+            return this.upper;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%.4f, %.4f]", this.lower, this.upper);
+        }
+    }
+
+    /**
+     * Constructs the statistics of one strategy from its totals.
+     *
+     * @param name             the name of the strategy.
+     * @param numGames         the number of games the strategy played.
+     * @param numWins          the number of those games it won.
+     * @param numRemoved       the number of those games it was removed from.
+     * @param sumScores        the sum of its scores in the games it was not removed from.
+     * @param sumSquaredScores the sum of the squares of those scores.
+     */
+    EntrantStatistics(String name, long numGames, long numWins, long numRemoved, long sumScores,
+        long sumSquaredScores) {
+        this.name = name;
+        this.numGames = numGames;
+        this.numWins = numWins;
+        this.numRemoved = numRemoved;
+        this.sumScores = sumScores;
+        this.sumSquaredScores = sumSquaredScores;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getNumGames() {
+        return this.numGames;
+    }
+
+    public long getNumWins() {
+        return this.numWins;
+    }
+
+    public long getNumRemoved() {
+        return this.numRemoved;
+    }
+
+    /**
+     * Gets the number of games in which the strategy was scored, which is every game it was not
+     * removed from.
+     *
+     * @return the number of scored games.
+     */
+    public long getNumScoredGames() {
+        return this.numGames - this.numRemoved;
+    }
+
+    /**
+     * Calculates the fraction of games the strategy won.
+     *
+     * @return the win rate in [0, 1], or 0 if no games have been played.
+     */
+    public double getWinRate() {
+        return this.numGames == 0 ? 0 : (double) this.numWins / this.numGames;
+    }
+
+    /**
+     * Calculates the Wilson score interval for the win rate, which stays within [0, 1] and is
+     * accurate even when the win rate is close to 0 or 1.
+     *
+     * @return the 95% confidence interval of the win rate, or [0, 1] if no games have been played.
+     */
+    public ConfidenceInterval getWinRateInterval() {
+        if (this.numGames == 0) {
+            return new ConfidenceInterval(0, 1);
+        }
+        double n = this.numGames;
+        double winRate = this.getWinRate();
+        double zSquared = Z_95 * Z_95;
+        double center = (winRate + zSquared / (2 * n)) / (1 + zSquared / n);
+        double halfWidth = Z_95 / (1 + zSquared / n)
+            * Math.sqrt(winRate * (1 - winRate) / n + zSquared / (4 * n * n));
+        return new ConfidenceInterval(
+            Math.max(0, center - halfWidth), Math.min(1, center + halfWidth));
+    }
+
+    /**
+     * Calculates the mean score over the scored games.
+     *
+     * @return the mean score, or 0 if no games have been scored.
+     */
+    public double getMeanScore() {
+        long numScored = this.getNumScoredGames();
+        return numScored == 0 ? 0 : (double) this.sumScores / numScored;
+    }
+
+    /**
+     * Calculates the sample variance of the score over the scored games.
+     *
+     * @return the sample variance, or 0 if fewer than two games have been scored.
+     */
+    public double getScoreVariance() {
+        long numScored = this.getNumScoredGames();
+        if (numScored < 2) {
+            return 0;
+        }
+        // n * sum(x^2) - sum(x)^2 is n times the sum of squared deviations from the mean
+        double scaledSumSquaredDeviations = (double) numScored * this.sumSquaredScores
+            - (double) this.sumScores * this.sumScores;
+        return Math.max(0, scaledSumSquaredDeviations / numScored / (numScored - 1));
+    }
+
+    /**
+     * Calculates the normal approximation of the confidence interval for the mean score, which
+     * is accurate once many games have been scored.
+     *
+     * @return the 95% confidence interval of the mean score.
+     */
+    public ConfidenceInterval getMeanScoreInterval() {
+        long numScored = this.getNumScoredGames();
+        double mean = this.getMeanScore();
+        if (numScored == 0) {
+            return new ConfidenceInterval(mean, mean);
+        }
+        double halfWidth = Z_95 * Math.sqrt(this.getScoreVariance() / numScored);
+        return new ConfidenceInterval(mean - halfWidth, mean + halfWidth);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s: games %d, win rate %.4f %s, removed %d, mean score %.2f %s, variance %.2f",
+            this.name, this.numGames, this.getWinRate(), this.getWinRateInterval(),
+            this.numRemoved, this.getMeanScore(), this.getMeanScoreInterval(),
+            this.getScoreVariance());
+    }
+}
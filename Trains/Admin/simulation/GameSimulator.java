@@ -0,0 +1,587 @@
+package simulation;
+
+import action.AcquireConnectionAction;
+import action.DrawCardsAction;
+import action.IActionVisitor;
+import action.TurnAction;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.RailCard;
+import game_state.RailCardCounts;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import map.CityConnectivity;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import referee.ActionChecker;
+import referee.ConnectionGraphCompiler;
+import referee.LongestPathSolver;
+import referee.ScoreCalculator;
+import referee.ScoreGraphUtils;
+import referee.TurnResult;
+import referee.game_state.RailCardDeck;
+import referee.game_state.TrainsPlayerHand;
+import strategy.IStrategy;
+import test_utils.TrainsMapUtils;
+import utils.Constants;
+import utils.RailCardUtils;
+
+/**
+ * Plays games of Trains between strategies directly, without players, timeouts, or copies of the
+ * game state, so that strategies can be evaluated over many games.
+ * <p>
+ * The state of a game is kept in primitive arrays indexed by seat and by the IDs that the map
+ * assigns to its cities and connections: the number of cards of each RailCard, the number of
+ * rails, the owner of each connection, and a cursor into the deck. The arrays are allocated once
+ * and reset for each game, so playing many games on one map allocates little beyond what the
+ * strategies themselves allocate.
+ * <p>
+ * Games follow the rules exactly as {@link referee.TrainsReferee} applies them. Players are dealt
+ * cards and offered destinations in the same order, moves are checked by {@link ActionChecker},
+ * players are removed for the same misbehavior and their connections are freed, the game ends
+ * under the same conditions, and players are scored the same way. Given the same strategies,
+ * destinations, and deck, a game ends with the same report as a game run by the referee between
+ * {@link player.Player}s that use those strategies. The differences are:
+ * <ul>
+ *   <li>Strategies are called on the calling thread without a deadline. A strategy that throws a
+ *       RuntimeException or returns null is removed, as the referee would.
+ *   <li>The state given to a strategy on its turn is a view of the simulator's state, which is
+ *       only valid until the strategy returns. A strategy that keeps states across turns must copy
+ *       what it needs.
+ * </ul>
+ * <p>
+ * This class is not thread safe. Use one simulator per thread.
+ */
+public class GameSimulator {
+
+    private static final int NO_OWNER = -1;
+
+    private final ITrainMap map;
+    private final ActionChecker actionChecker;
+    // The length of each connection and the ordinal of the RailCard needed to acquire it
+    private final int[] connectionLengths;
+    private final int[] connectionCards;
+    // The seat that owns each connection, or NO_OWNER
+    private final int[] connectionOwners;
+
+    // The state of each seat, which grows to the largest number of seats in a game so far
+    private int[][] cardCounts;
+    private int[] numRails;
+    private int[][] ownedConnectionIds;
+    private int[] numOwnedConnections;
+    private CityConnectivity[] connectivities;
+    // The destinations of each seat as the referee records them, and as the strategy chose them
+    private List<Set<Destination>> destinations;
+    private List<Set<Destination>> strategyChoices;
+    private boolean[] removed;
+    private int[] scores;
+    private List<IStrategy> strategies;
+    private int numSeats;
+
+    // The seats that have not been removed, in turn order, and the index of the active one
+    private int[] remainingSeats;
+    private int numRemaining;
+    private int activeIndex;
+
+    private RailCardDeck deck;
+    // Reused to draw cards from the deck
+    private final RailCard[] drawBuffer;
+
+    // Reused to compile each seat's connections when finding its longest path
+    private final ConnectionGraphCompiler graphCompiler;
+
+    private final ActiveSeatState activeState;
+    private final TurnApplier turnApplier;
+
+    private long numGamesPlayed;
+    private long totalGameNanos;
+
+    /**
+     * Constructs a simulator for games on the given map, compiling the map into the arrays that
+     * every game reuses.
+     *
+     * @param map the map that every game is played on.
+     */
+    public GameSimulator(ITrainMap map) {
+        Objects.requireNonNull(map);
+        this.map = map;
+        this.actionChecker = new ActionChecker();
+
+        int numConnections = map.getNumRailConnections();
+        this.connectionLengths = new int[numConnections];
+        this.connectionCards = new int[numConnections];
+        this.connectionOwners = new int[numConnections];
+        for (int connectionId = 0; connectionId < numConnections; connectionId += 1) {
+            IRailConnection connection = map.getRailConnection(connectionId);
+            this.connectionLengths[connectionId] = connection.getLength();
+            this.connectionCards[connectionId] =
+                RailCardUtils.railCardFromColor(connection.getColor()).ordinal();
+        }
+        Arrays.fill(this.connectionOwners, NO_OWNER);
+
+        this.graphCompiler = new ConnectionGraphCompiler(map);
+
+        this.cardCounts = new int[0][];
+        this.numRails = new int[0];
+        this.ownedConnectionIds = new int[0][];
+        this.numOwnedConnections = new int[0];
+        this.connectivities = new CityConnectivity[0];
+        this.destinations = new ArrayList<>();
+        this.strategyChoices = new ArrayList<>();
+        this.removed = new boolean[0];
+        this.scores = new int[0];
+        this.remainingSeats = new int[0];
+        this.ensureSeatCapacity(Constants.MAX_PLAYERS_PER_GAME);
+        this.numSeats = 0;
+
+        this.drawBuffer = new RailCard[Constants.PLAYER_NUM_CARDS_PER_DRAW];
+        this.activeState = new ActiveSeatState();
+        this.turnApplier = new TurnApplier();
+        this.numGamesPlayed = 0;
+        this.totalGameNanos = 0;
+    }
+
+    /**
+     * Plays a game between the given strategies with destinations and a deck chosen by the given
+     * seed, as the seeded providers of {@link TrainsMapUtils} choose them.
+     *
+     * @param strategiesInTurnOrder the strategy in each seat, in turn order.
+     * @param seed                  the seed for the order of the destinations and the deck.
+     * @return the result of the game.
+     * @throws IllegalArgumentException if the map does not have enough destinations for the
+     *                                  players.
+     */
+    public SimulationResult playGame(List<IStrategy> strategiesInTurnOrder, long seed) {
+        return this.playGame(strategiesInTurnOrder,
+            this.map.getDestinationView().asShuffledList(new Random(seed)),
+            TrainsMapUtils.seededDeckSupplier(seed).get());
+    }
+
+    /**
+     * Plays a game between the given strategies from start to finish, where destinations are
+     * offered in the given order and cards are dealt from the front of the given deck.
+     *
+     * @param strategiesInTurnOrder the strategy in each seat, in turn order.
+     * @param destinationOrder      the destinations in the order they are offered to players, as a
+     *                              destination provider of the referee would return them.
+     * @param deck                  the cards in the order they are dealt.
+     * @return the result of the game.
+     * @throws IllegalArgumentException if there are not enough destinations or cards to set up the
+     *                                  players.
+     */
+    public SimulationResult playGame(List<IStrategy> strategiesInTurnOrder,
+        List<Destination> destinationOrder, List<RailCard> deck) {
+        Objects.requireNonNull(strategiesInTurnOrder);
+        Objects.requireNonNull(destinationOrder);
+        Objects.requireNonNull(deck);
+        long startNanos = System.nanoTime();
+
+        int numDestinationsNeeded = (strategiesInTurnOrder.size() * 2) + 3;
+        if (destinationOrder.size() < numDestinationsNeeded) {
+            throw new IllegalArgumentException("error: not enough destinations");
+        }
+        this.startGame(strategiesInTurnOrder, deck);
+        List<Destination> activeDestinations =
+            new ArrayList<>(destinationOrder.subList(0, numDestinationsNeeded));
+        for (int seat = 0; seat < this.numSeats; seat += 1) {
+            this.setupSeat(seat, activeDestinations);
+        }
+        this.runGame();
+        SimulationResult result = this.scoreGame();
+
+        this.numGamesPlayed += 1;
+        this.totalGameNanos += System.nanoTime() - startNanos;
+        return result;
+    }
+
+    /**
+     * Gets the map that every game is played on.
+     *
+     * @return the map.
+     */
+    public ITrainMap getMap() {
+        return this.map;
+    }
+
+    /**
+     * Gets the number of games this simulator has played.
+     *
+     * @return the number of games.
+     */
+    public long getNumGamesPlayed() {
+        return this.numGamesPlayed;
+    }
+
+    /**
+     * Calculates the number of games this simulator has played per second of time spent playing
+     * them, including the time spent in the strategies.
+     *
+     * @return the throughput in games per second, or 0 if no games have been played.
+     */
+    public double getGamesPerSecond() {
+        if (this.totalGameNanos == 0) {
+            return 0;
+        }
+        return this.numGamesPlayed / (this.totalGameNanos / 1e9);
+    }
+
+    // region Setup
+
+    /**
+     * Resets the state of every seat for a new game between the given strategies, and copies the
+     * given deck.
+     */
+    private void startGame(List<IStrategy> strategiesInTurnOrder, List<RailCard> deck) {
+        // Free the connections of the last game, whose owners are the only entries that are set
+        for (int seat = 0; seat < this.numSeats; seat += 1) {
+            this.freeConnections(seat);
+        }
+        this.strategies = new ArrayList<>(strategiesInTurnOrder);
+        this.numSeats = this.strategies.size();
+        this.ensureSeatCapacity(this.numSeats);
+        for (int seat = 0; seat < this.numSeats; seat += 1) {
+            Arrays.fill(this.cardCounts[seat], 0);
+            this.numRails[seat] = Constants.PLAYER_NUM_RAILS_START;
+            this.connectivities[seat].reset();
+            this.destinations.set(seat, null);
+            this.strategyChoices.set(seat, null);
+            this.removed[seat] = false;
+            this.scores[seat] = 0;
+        }
+        this.numRemaining = 0;
+        this.activeIndex = 0;
+
+        this.deck = new RailCardDeck(deck);
+    }
+
+    /**
+     * Deals the next cards to the strategy in the given seat and lets it choose from the next
+     * destinations, as the referee sets up a player. If the strategy fails to choose, it is
+     * removed and nothing is dealt.
+     */
+    private void setupSeat(int seat, List<Destination> activeDestinations) {
+        if (this.deck.getNumCardsRemaining() < Constants.PLAYER_NUM_CARDS_START) {
+            throw new IllegalArgumentException("error: not enough cards");
+        }
+        List<RailCard> startingCards = this.deck.peek(Constants.PLAYER_NUM_CARDS_START);
+        Map<RailCard, Integer> startingHand = new TrainsPlayerHand(startingCards).getHand();
+        List<Destination> options =
+            activeDestinations.subList(0, Constants.PLAYER_NUM_DEST_OPTIONS);
+
+        Set<Destination> destinationOptions = new HashSet<>(options);
+        Set<Destination> strategyChoice;
+        Set<Destination> notChosen;
+        try {
+            strategyChoice = this.strategies.get(seat).chooseDestinations(destinationOptions,
+                Constants.NUM_DESTINATIONS_TO_CHOOSE, this.map, Constants.PLAYER_NUM_RAILS_START,
+                startingHand);
+            notChosen = new HashSet<>(destinationOptions);
+            notChosen.removeAll(strategyChoice);
+        } catch (RuntimeException e) {
+            this.removed[seat] = true;
+            return;
+        }
+        if (!new HashSet<>(options).containsAll(notChosen) || notChosen.size()
+            != Constants.PLAYER_NUM_DEST_OPTIONS - Constants.PLAYER_NUM_DEST_TO_CHOOSE) {
+            this.removed[seat] = true;
+            return;
+        }
+        Set<Destination> chosen = new HashSet<>(options);
+        chosen.removeAll(notChosen);
+
+        this.destinations.set(seat, chosen);
+        this.strategyChoices.set(seat, strategyChoice);
+        for (RailCard card : startingCards) {
+            this.cardCounts[seat][card.ordinal()] += 1;
+        }
+        this.deck.draw(Constants.PLAYER_NUM_CARDS_START);
+        activeDestinations.removeAll(chosen);
+        this.remainingSeats[this.numRemaining] = seat;
+        this.numRemaining += 1;
+    }
+
+    private void ensureSeatCapacity(int capacity) {
+        int oldCapacity = this.numRails.length;
+        if (oldCapacity >= capacity) {
+            return;
+        }
+        this.cardCounts = Arrays.copyOf(this.cardCounts, capacity);
+        this.numRails = Arrays.copyOf(this.numRails, capacity);
+        this.ownedConnectionIds = Arrays.copyOf(this.ownedConnectionIds, capacity);
+        this.numOwnedConnections = Arrays.copyOf(this.numOwnedConnections, capacity);
+        this.connectivities = Arrays.copyOf(this.connectivities, capacity);
+        this.removed = Arrays.copyOf(this.removed, capacity);
+        this.scores = Arrays.copyOf(this.scores, capacity);
+        this.remainingSeats = Arrays.copyOf(this.remainingSeats, capacity);
+        for (int seat = oldCapacity; seat < capacity; seat += 1) {
+            this.cardCounts[seat] = new int[RailCard.values().length];
+            this.ownedConnectionIds[seat] = new int[this.connectionOwners.length];
+            this.connectivities[seat] = new CityConnectivity(this.map);
+            this.destinations.add(null);
+            this.strategyChoices.add(null);
+        }
+    }
+
+    // endregion
+
+    // region Turns
+
+    private void runGame() {
+        int numConsecutiveInsignificantTurns = 0;
+        while (!this.isGameOver(numConsecutiveInsignificantTurns)) {
+            boolean significantTurn = this.takeTurn();
+            numConsecutiveInsignificantTurns =
+                significantTurn ? 0 : numConsecutiveInsignificantTurns + 1;
+        }
+    }
+
+    private boolean isGameOver(int numConsecutiveInsignificantTurns) {
+        return numConsecutiveInsignificantTurns == this.numRemaining
+            || this.numRails[this.activeSeat()] <= Constants.PLAYER_NUM_RAILS_GAME_OVER;
+    }
+
+    /**
+     * Takes the turn of the active seat.
+     *
+     * @return whether the turn was significant.
+     */
+    private boolean takeTurn() {
+        int seat = this.activeSeat();
+        TurnAction action;
+        try {
+            action = this.strategies.get(seat).takeTurn(
+                this.activeState, this.map, new HashSet<>(this.strategyChoices.get(seat)));
+        } catch (RuntimeException e) {
+            action = null;
+        }
+        if (action == null) {
+            this.removeActiveSeat();
+            return true;
+        }
+
+        TurnResult result = this.turnApplier.apply(action);
+        if (result != TurnResult.INVALID) {
+            this.activeIndex = (this.activeIndex + 1) % this.numRemaining;
+            return result == TurnResult.SIGNIFICANT;
+        }
+        this.removeActiveSeat();
+        return true;
+    }
+
+    private int activeSeat() {
+        return this.remainingSeats[this.activeIndex];
+    }
+
+    /**
+     * Removes the active seat from the game and frees its connections. The next seat in turn
+     * order becomes active.
+     */
+    private void removeActiveSeat() {
+        int seat = this.activeSeat();
+        this.removed[seat] = true;
+        this.freeConnections(seat);
+        System.arraycopy(this.remainingSeats, this.activeIndex + 1, this.remainingSeats,
+            this.activeIndex, this.numRemaining - this.activeIndex - 1);
+        this.numRemaining -= 1;
+        if (this.numRemaining != 0) {
+            this.activeIndex %= this.numRemaining;
+        }
+    }
+
+    private void freeConnections(int seat) {
+        for (int index = 0; index < this.numOwnedConnections[seat]; index += 1) {
+            this.connectionOwners[this.ownedConnectionIds[seat][index]] = NO_OWNER;
+        }
+        this.numOwnedConnections[seat] = 0;
+    }
+
+    /**
+     * Applies the actions of the active seat, as the referee's ActionVisitor does.
+     */
+    private class TurnApplier implements IActionVisitor<TurnResult> {
+
+        @Override
+        public TurnResult visitCardsAction(DrawCardsAction cardsAction) {
+            int seat = GameSimulator.this.activeSeat();
+            RailCard[] drawnCards = GameSimulator.this.drawBuffer;
+            int numDrawn = GameSimulator.this.deck.draw(
+                drawnCards, Constants.PLAYER_NUM_CARDS_PER_DRAW);
+            for (int index = 0; index < numDrawn; index += 1) {
+                GameSimulator.this.cardCounts[seat][drawnCards[index].ordinal()] += 1;
+            }
+            return numDrawn == 0 ? TurnResult.INSIGNIFICANT : TurnResult.SIGNIFICANT;
+        }
+
+        @Override
+        public TurnResult visitAcquireAction(AcquireConnectionAction acquireAction) {
+            int seat = GameSimulator.this.activeSeat();
+            IRailConnection desiredConnection = acquireAction.getRailConnection();
+            int connectionId = GameSimulator.this.map.getRailConnectionId(desiredConnection);
+            boolean occupied = connectionId >= 0
+                && GameSimulator.this.connectionOwners[connectionId] != NO_OWNER;
+            int numCardsOfColor = GameSimulator.this.cardCounts[seat][
+                RailCardUtils.railCardFromColor(desiredConnection.getColor()).ordinal()];
+            if (!GameSimulator.this.actionChecker.canAcquireConnection(numCardsOfColor,
+                GameSimulator.this.numRails[seat], occupied, GameSimulator.this.map,
+                desiredConnection)) {
+                return TurnResult.INVALID;
+            }
+
+            int length = GameSimulator.this.connectionLengths[connectionId];
+            GameSimulator.this.numRails[seat] -= length;
+            GameSimulator.this.cardCounts[seat][GameSimulator.this.connectionCards[connectionId]]
+                -= length;
+            GameSimulator.this.connectionOwners[connectionId] = seat;
+            GameSimulator.this.ownedConnectionIds[seat][
+                GameSimulator.this.numOwnedConnections[seat]] = connectionId;
+            GameSimulator.this.numOwnedConnections[seat] += 1;
+            GameSimulator.this.connectivities[seat].connectCities(
+                GameSimulator.this.map.getFirstCityId(connectionId),
+                GameSimulator.this.map.getSecondCityId(connectionId));
+            return TurnResult.SIGNIFICANT;
+        }
+
+        @Override
+        public TurnResult apply(TurnAction action) {
+            return action.accept(this);
+        }
+    }
+
+    // endregion
+
+    // region Scoring
+
+    /**
+     * Scores every remaining seat as the ScoreCalculator does.
+     */
+    private SimulationResult scoreGame() {
+        LongestPathSolver[] solvers = new LongestPathSolver[this.numRemaining];
+        int[] upperBounds = new int[this.numRemaining];
+        for (int index = 0; index < this.numRemaining; index += 1) {
+            int seat = this.remainingSeats[index];
+            solvers[index] = this.graphCompiler.compile(
+                this.ownedConnectionIds[seat], this.numOwnedConnections[seat]);
+            upperBounds[index] = solvers[index].longestPathUpperBound();
+        }
+        Set<Integer> withLongestPath = ScoreGraphUtils.calculatePlayersWithLongestPath(
+            upperBounds, index -> solvers[index].longestPathLength());
+
+        for (int index = 0; index < this.numRemaining; index += 1) {
+            int seat = this.remainingSeats[index];
+            int totalNumSegments = 0;
+            for (int owned = 0; owned < this.numOwnedConnections[seat]; owned += 1) {
+                totalNumSegments += this.connectionLengths[this.ownedConnectionIds[seat][owned]];
+            }
+            Set<Destination> seatDestinations = this.destinations.get(seat);
+            this.scores[seat] = ScoreCalculator.assignPoints(
+                totalNumSegments,
+                this.connectivities[seat].calculateNumDestinationsConnected(seatDestinations),
+                seatDestinations.size(),
+                withLongestPath.contains(index));
+        }
+        return new SimulationResult(this.scores, this.removed, this.numSeats);
+    }
+
+    // endregion
+
+    /**
+     * The state of the game visible to the active seat, read directly from the simulator's arrays.
+     */
+    private class ActiveSeatState implements IPlayerGameState {
+
+        private int seat() {
+            return GameSimulator.this.activeSeat();
+        }
+
+        @Override
+        public Set<IRailConnection> getOwnedConnections() {
+            return GameSimulator.this.connectionsOf(this.seat());
+        }
+
+        @Override
+        public Set<IRailConnection> calculateUnoccupiedConnections(ITrainMap map) {
+            Set<IRailConnection> unoccupiedConnections = new HashSet<>();
+            for (IRailConnection connection : map.getRailConnectionsView()) {
+                if (!this.isConnectionOccupied(connection)) {
+                    unoccupiedConnections.add(connection);
+                }
+            }
+            return unoccupiedConnections;
+        }
+
+        @Override
+        public boolean isConnectionOccupied(IRailConnection connection) {
+            int connectionId = GameSimulator.this.map.getRailConnectionId(connection);
+            return connectionId >= 0
+                && GameSimulator.this.connectionOwners[connectionId] != NO_OWNER;
+        }
+
+        @Override
+        public boolean isDestinationConnected(Destination destination, ITrainMap map) {
+            return this.getConnectivity(map).isDestinationConnected(destination);
+        }
+
+        @Override
+        public int calculateNumCitiesConnectedTo(ICity city, ITrainMap map) {
+            return this.getConnectivity(map).calculateNumCitiesConnectedTo(city);
+        }
+
+        private CityConnectivity getConnectivity(ITrainMap map) {
+            CityConnectivity connectivity = GameSimulator.this.connectivities[this.seat()];
+            if (connectivity.isForMap(map)) {
+                return connectivity;
+            }
+            return new CityConnectivity(map, this.getOwnedConnections());
+        }
+
+        @Override
+        public Map<RailCard, Integer> getCardsInHand() {
+            return RailCardCounts.toMap(
+                RailCardCounts.pack(GameSimulator.this.cardCounts[this.seat()]));
+        }
+
+        @Override
+        public int getNumCardsOfType(RailCard card) {
+            return GameSimulator.this.cardCounts[this.seat()][card.ordinal()];
+        }
+
+        @Override
+        public int getNumRails() {
+            return GameSimulator.this.numRails[this.seat()];
+        }
+
+        @Override
+        public Set<Destination> getDestinations() {
+            return new HashSet<>(GameSimulator.this.destinations.get(this.seat()));
+        }
+
+        @Override
+        public List<IOpponentInfo> getOpponentInfo() {
+            List<IOpponentInfo> opponentInfo = new ArrayList<>();
+            for (int index = 0; index < GameSimulator.this.numRemaining; index += 1) {
+                if (index != GameSimulator.this.activeIndex) {
+                    opponentInfo.add(new OpponentInfo(GameSimulator.this.connectionsOf(
+                        GameSimulator.this.remainingSeats[index])));
+                }
+            }
+            return opponentInfo;
+        }
+    }
+
+    private Set<IRailConnection> connectionsOf(int seat) {
+        Set<IRailConnection> connections = new HashSet<>();
+        for (int index = 0; index < this.numOwnedConnections[seat]; index += 1) {
+            connections.add(this.map.getRailConnection(this.ownedConnectionIds[seat][index]));
+        }
+        return connections;
+    }
+}
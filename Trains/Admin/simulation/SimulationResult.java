@@ -0,0 +1,115 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import referee.GameEndReport;
+import referee.GameEndReport.PlayerScore;
+
+/**
+ * The outcome of one game played by a {@link GameSimulator}. Players are identified by their seat,
+ * which is their index in the turn order the game was started with.
+ */
+public class SimulationResult {
+
+    // The score of each seat, which is 0 for removed seats
+    private final int[] scores;
+    private final boolean[] removed;
+
+    /**
+     * Constructs a result from the given scores and removals, which are copied.
+     *
+     * @param scores   the score of each seat.
+     * @param removed  whether each seat was removed from the game.
+     * @param numSeats the number of seats in the game, which is the length of the prefix of the
+     *                 arrays that is used.
+     */
+    SimulationResult(int[] scores, boolean[] removed, int numSeats) {
+        this.scores = Arrays.copyOf(scores, numSeats);
+        this.removed = Arrays.copyOf(removed, numSeats);
+    }
+
+    /**
+     * Gets the number of seats in the game, including removed ones.
+     *
+     * @return the number of players the game was started with.
+     */
+    public int getNumSeats() {
+        return this.scores.length;
+    }
+
+    /**
+     * Determines whether the player in the given seat was removed from the game.
+     *
+     * @param seat the seat of the player.
+     * @return whether the player was removed.
+     */
+    public boolean isRemoved(int seat) {
+        return this.removed[seat];
+    }
+
+    /**
+     * Gets the final score of the player in the given seat.
+     *
+     * @param seat the seat of the player.
+     * @return the score of the player.
+     * @throws IllegalArgumentException if the player was removed, since removed players have no
+     * score.
+     */
+    public int getScore(int seat) {
+        if (this.removed[seat]) {
+            throw new IllegalArgumentException("Removed players have no score");
+        }
+        return this.scores[seat];
+    }
+
+    /**
+     * Determines whether the player in the given seat won the game, which is whether they were not
+     * removed and no other remaining player scored more, as the referee informs players.
+     *
+     * @param seat the seat of the player.
+     * @return whether the player won.
+     */
+    public boolean isWinner(int seat) {
+        if (this.removed[seat]) {
+            return false;
+        }
+        for (int other = 0; other < this.scores.length; other += 1) {
+            if (!this.removed[other] && this.scores[other] > this.scores[seat]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts this result into the report the referee would produce for a game between players
+     * with the given names.
+     *
+     * @param namesInSeatOrder the name of the player in each seat.
+     * @return the ranking of the remaining players by descending score, where players with the
+     * same score are in turn order, and the names of the removed players.
+     * @throws IllegalArgumentException if there is not exactly one name for each seat.
+     */
+    public GameEndReport toGameEndReport(List<String> namesInSeatOrder) {
+        Objects.requireNonNull(namesInSeatOrder);
+        if (namesInSeatOrder.size() != this.scores.length) {
+            throw new IllegalArgumentException("There must be one name for each seat");
+        }
+        List<PlayerScore> ranking = new ArrayList<>();
+        Set<String> removedNames = new HashSet<>();
+        for (int seat = 0; seat < this.scores.length; seat += 1) {
+            if (this.removed[seat]) {
+                removedNames.add(namesInSeatOrder.get(seat));
+            } else {
+                ranking.add(new PlayerScore(namesInSeatOrder.get(seat), this.scores[seat]));
+            }
+        }
+        ranking.sort(Comparator.comparingInt(s -> s.getScore() * -1));
+        return new GameEndReport(ranking, removedNames);
+    }
+}
@@ -0,0 +1,364 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import map.ITrainMap;
+import strategy.IStrategy;
+import utils.Constants;
+
+/**
+ * Evaluates strategies against each other by playing many seeded games between them with
+ * {@link GameSimulator}s, spread across the threads of a ForkJoinPool, constructed through the
+ * {@link ArenaBuilder}.
+ * <p>
+ * Every game seats every strategy once. Games are played in groups of one game per seat rotation:
+ * every game of a group is dealt the same destinations and cards from the same seed, and each
+ * strategy takes each seat once, so that neither the deal nor the turn order favors any strategy.
+ * Consecutive groups use consecutive seeds and cycle through the maps.
+ * <p>
+ * The results are the same for any parallelism, since each game only depends on its index and
+ * the totals are sums of integers. Reports of the results so far are sent to a listener as games
+ * finish, so that long runs can be watched.
+ */
+public class StrategyArena {
+
+    // The number of games that one task plays on one thread before merging its results
+    private static final int GAMES_PER_TASK = 64;
+
+    private final List<ITrainMap> maps;
+    private final List<String> entrantNames;
+    private final List<Supplier<IStrategy>> entrantStrategies;
+    private final long numGames;
+    private final long seed;
+    private final int parallelism;
+    private final long reportInterval;
+    private final Consumer<ArenaReport> listener;
+
+    // The progress of the current run, guarded by this
+    private Tally total;
+    private long nextReport;
+    private long numGamesReported;
+    private long startNanos;
+
+    private StrategyArena(List<ITrainMap> maps,
+        LinkedHashMap<String, Supplier<IStrategy>> entrants, long numGames, long seed,
+        int parallelism, long reportInterval, Consumer<ArenaReport> listener) {
+        this.maps = new ArrayList<>(maps);
+        this.entrantNames = new ArrayList<>(entrants.keySet());
+        this.entrantStrategies = new ArrayList<>(entrants.values());
+        this.numGames = numGames;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.reportInterval = reportInterval;
+        this.listener = listener;
+    }
+
+    /**
+     * To construct arenas, requiring the maps to play on and the competing strategies, and
+     * optionally the number of games, the seed, the parallelism, and how results are reported.
+     */
+    public static class ArenaBuilder {
+
+        private final List<ITrainMap> maps;
+        private final LinkedHashMap<String, Supplier<IStrategy>> entrants;
+        private long numGames;
+        private long seed;
+        private int parallelism;
+        private long reportInterval;
+        private Consumer<ArenaReport> listener;
+
+        /**
+         * Constructs this builder from the required maps and strategies.
+         *
+         * @param maps     the maps to play on, which games cycle through.
+         * @param entrants the name of each competing strategy and a supplier of new instances of
+         *                 it, in their order for the first game of each group.
+         */
+        public ArenaBuilder(List<ITrainMap> maps,
+            LinkedHashMap<String, Supplier<IStrategy>> entrants) {
+            this.maps = maps;
+            this.entrants = entrants;
+            this.numGames = 1000;
+            this.seed = 0;
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+            this.reportInterval = 10000;
+            this.listener = (report) -> {
+            };
+        }
+
+        /**
+         * Updates the number of games to play.
+         *
+         * @param numGames the number of games, which should be a multiple of the number of
+         *                 strategies so that every strategy plays from every seat equally often.
+         * @return the updated builder for chaining.
+         * @throws IllegalArgumentException if numGames is not positive.
+         */
+        public ArenaBuilder numGames(long numGames) {
+            if (numGames < 1) {
+                throw new IllegalArgumentException("The number of games must be positive");
+            }
+            this.numGames = numGames;
+            return this;
+        }
+
+        /**
+         * Updates the seed of the first group of games.
+         *
+         * @param seed the seed.
+         * @return the updated builder for chaining.
+         */
+        public ArenaBuilder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Updates the number of threads that play games. By default there is one thread per
+         * available processor.
+         *
+         * @param parallelism the number of threads.
+         * @return the updated builder for chaining.
+         * @throws IllegalArgumentException if parallelism is not positive.
+         */
+        public ArenaBuilder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("The parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Updates the listener that receives reports as games finish. The listener is called
+         * whenever at least another reportInterval games have finished, and with the final report
+         * if it has not already received it. Calls are made from the threads that play games, but
+         * never at the same time, and their reports are in increasing order of games played.
+         *
+         * @param reportInterval the number of games between reports.
+         * @param listener       the listener.
+         * @return the updated builder for chaining.
+         * @throws IllegalArgumentException if reportInterval is not positive.
+         */
+        public ArenaBuilder listener(long reportInterval, Consumer<ArenaReport> listener) {
+            if (reportInterval < 1) {
+                throw new IllegalArgumentException("The report interval must be positive");
+            }
+            this.reportInterval = reportInterval;
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Builds the arena.
+         *
+         * @return the constructed arena, ready to run.
+         * @throws IllegalArgumentException if there are no maps, the number of strategies is not
+         *                                  a valid number of players for a game, or a map does not
+         *                                  have enough destinations for that many players.
+         */
+        public StrategyArena build() {
+            Objects.requireNonNull(this.maps);
+            Objects.requireNonNull(this.entrants);
+            Objects.requireNonNull(this.listener);
+            if (this.maps.isEmpty()) {
+                throw new IllegalArgumentException("There must be at least one map");
+            }
+            int numPlayers = this.entrants.size();
+            if (numPlayers < Constants.MIN_PLAYERS_PER_GAME
+                || numPlayers > Constants.MAX_PLAYERS_PER_GAME) {
+                throw new IllegalArgumentException(
+                    "The number of strategies must be a valid number of players for one game");
+            }
+            for (ITrainMap map : this.maps) {
+                if (map.getDestinationView().size() < (numPlayers * 2L) + 3) {
+                    throw new IllegalArgumentException(
+                        "Every map must have enough destinations for every strategy");
+                }
+            }
+            for (Supplier<IStrategy> strategy : this.entrants.values()) {
+                Objects.requireNonNull(strategy);
+            }
+            return new StrategyArena(this.maps, this.entrants, this.numGames, this.seed,
+                this.parallelism, this.reportInterval, this.listener);
+        }
+    }
+
+    /**
+     * Plays every game of this arena and reports the results. This method should be run only
+     * once at a time.
+     *
+     * @return the final report.
+     */
+    public ArenaReport run() {
+        synchronized (this) {
+            this.total = new Tally(this.entrantNames.size());
+            this.nextReport = this.reportInterval;
+            this.numGamesReported = 0;
+            this.startNanos = System.nanoTime();
+        }
+        // Each thread keeps one simulator per map, which are reused for every game it plays
+        ThreadLocal<GameSimulator[]> simulators =
+            ThreadLocal.withInitial(() -> new GameSimulator[this.maps.size()]);
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new GameRange(0, this.numGames, simulators));
+        } finally {
+            pool.shutdown();
+        }
+
+        synchronized (this) {
+            ArenaReport finalReport = this.snapshot();
+            if (this.numGamesReported != this.numGames) {
+                this.listener.accept(finalReport);
+            }
+            return finalReport;
+        }
+    }
+
+    /**
+     * Plays the game with the given index on the given thread's simulators, and records the
+     * result of each strategy in the given tally.
+     */
+    private void playGame(long game, GameSimulator[] simulators, Tally tally) {
+        int numEntrants = this.entrantNames.size();
+        long group = game / numEntrants;
+        int rotation = (int) (game % numEntrants);
+        int mapIndex = (int) (group % this.maps.size());
+        if (simulators[mapIndex] == null) {
+            simulators[mapIndex] = new GameSimulator(this.maps.get(mapIndex));
+        }
+
+        List<IStrategy> strategiesInTurnOrder = new ArrayList<>();
+        for (int seat = 0; seat < numEntrants; seat += 1) {
+            int entrant = (seat + rotation) % numEntrants;
+            strategiesInTurnOrder.add(this.entrantStrategies.get(entrant).get());
+        }
+        SimulationResult result =
+            simulators[mapIndex].playGame(strategiesInTurnOrder, this.seed + group);
+        for (int seat = 0; seat < numEntrants; seat += 1) {
+            tally.record((seat + rotation) % numEntrants, result, seat);
+        }
+    }
+
+    /**
+     * Adds the results of a batch of games to the total, and reports the total if another report
+     * interval has passed.
+     */
+    private synchronized void merge(Tally batch) {
+        this.total.add(batch);
+        if (this.total.numGamesPlayed >= this.nextReport) {
+            this.listener.accept(this.snapshot());
+            this.numGamesReported = this.total.numGamesPlayed;
+            this.nextReport =
+                (this.total.numGamesPlayed / this.reportInterval + 1) * this.reportInterval;
+        }
+    }
+
+    private synchronized ArenaReport snapshot() {
+        List<EntrantStatistics> statistics = new ArrayList<>();
+        for (int entrant = 0; entrant < this.entrantNames.size(); entrant += 1) {
+            statistics.add(new EntrantStatistics(this.entrantNames.get(entrant),
+                this.total.numGames[entrant], this.total.numWins[entrant],
+                this.total.numRemoved[entrant], this.total.sumScores[entrant],
+                this.total.sumSquaredScores[entrant]));
+        }
+        return new ArenaReport(this.total.numGamesPlayed, this.numGames,
+            System.nanoTime() - this.startNanos, statistics);
+    }
+
+    /**
+     * Plays a range of games, splitting it between threads until each part is small enough.
+     */
+    private class GameRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final ThreadLocal<GameSimulator[]> simulators;
+
+        private GameRange(long from, long to, ThreadLocal<GameSimulator[]> simulators) {
+            this.from = from;
+            this.to = to;
+            this.simulators = simulators;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > GAMES_PER_TASK) {
+                long middle = this.from + (this.to - this.from) / 2;
+                invokeAll(new GameRange(this.from, middle, this.simulators),
+                    new GameRange(middle, this.to, this.simulators));
+                return;
+            }
+            Tally batch = new Tally(StrategyArena.this.entrantNames.size());
+            GameSimulator[] threadSimulators = this.simulators.get();
+            for (long game = this.from; game < this.to; game += 1) {
+                StrategyArena.this.playGame(game, threadSimulators, batch);
+            }
+            StrategyArena.this.merge(batch);
+        }
+    }
+
+    /**
+     * The totals of each strategy over some games, which are exact so that they do not depend on
+     * the order in which games are added.
+     */
+    private static class Tally {
+
+        private long numGamesPlayed;
+        private final long[] numGames;
+        private final long[] numWins;
+        private final long[] numRemoved;
+        private final long[] sumScores;
+        private final long[] sumSquaredScores;
+
+        private Tally(int numEntrants) {
+            this.numGamesPlayed = 0;
+            this.numGames = new long[numEntrants];
+            this.numWins = new long[numEntrants];
+            this.numRemoved = new long[numEntrants];
+            this.sumScores = new long[numEntrants];
+            this.sumSquaredScores = new long[numEntrants];
+        }
+
+        /**
+         * Records the result of the given strategy, which sat in the given seat, in one game.
+         * Every strategy plays in every game, so the first seat also counts the game.
+         */
+        private void record(int entrant, SimulationResult result, int seat) {
+            if (seat == 0) {
+                this.numGamesPlayed += 1;
+            }
+            this.numGames[entrant] += 1;
+            if (result.isRemoved(seat)) {
+                this.numRemoved[entrant] += 1;
+                return;
+            }
+            long score = result.getScore(seat);
+            this.sumScores[entrant] += score;
+            this.sumSquaredScores[entrant] += score * score;
+            if (result.isWinner(seat)) {
+                this.numWins[entrant] += 1;
+            }
+        }
+
+        private void add(Tally other) {
+            this.numGamesPlayed += other.numGamesPlayed;
+            for (int entrant = 0; entrant < this.numGames.length; entrant += 1) {
+                this.numGames[entrant] += other.numGames[entrant];
+                this.numWins[entrant] += other.numWins[entrant];
+                this.numRemoved[entrant] += other.numRemoved[entrant];
+                this.sumScores[entrant] += other.sumScores[entrant];
+                this.sumSquaredScores[entrant] += other.sumSquaredScores[entrant];
+            }
+        }
+    }
+}
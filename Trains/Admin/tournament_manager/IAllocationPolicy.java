@@ -0,0 +1,32 @@
+package tournament_manager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import player.IPlayer;
+
+/**
+ * Decides which players play each other in the games of one round of a tournament.
+ * <p>
+ * A policy may use how quickly each player has responded so far in the tournament, so that players
+ * of similar speed can be grouped and fast games are not held up by slow players.
+ */
+@FunctionalInterface
+public interface IAllocationPolicy {
+
+    /**
+     * Allocates every given player to exactly one game, where every game has between
+     * {@link utils.Constants#MIN_PLAYERS_PER_GAME} and {@link utils.Constants#MAX_PLAYERS_PER_GAME}
+     * players.
+     *
+     * @param playersToAllocate the players remaining in the tournament, in signup order.
+     * @param meanResponseNanos the mean time each player has taken to respond to a call so far, in
+     *                          nanoseconds. Players that have not responded to any call are not in
+     *                          the map.
+     * @return the players allocated into games, each in turn order.
+     * @throws IllegalStateException if there is no valid allocation of the given players.
+     */
+    List<LinkedHashMap<String, IPlayer>> allocatePlayersToGames(
+        LinkedHashMap<String, IPlayer> playersToAllocate, Map<String, Double> meanResponseNanos)
+        throws IllegalStateException;
+}
@@ -1,11 +1,15 @@
 package tournament_manager;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import player.IPlayer;
+import utils.Constants;
 
 /**
  * Utility class that is used to allocate players into games for one round of a tournament.
@@ -18,9 +22,13 @@ public class PlayerAllocator {
      * Attempts to allocate the maximum number of players to each game, and any leftover players are
      * grouped together. If the leftover players are less than the minimum for one game, takes one
      * players from each game until there are enough players for one more game.
+     * <p>
+     * The games are found arithmetically from the number of players, and each player is copied
+     * into its game once, so this takes time linear in the number of players.
      *
      * @return the players allocated into games. Each item in the list represents a single game's
-     * players.
+     * players, and the games are in reverse signup order, so the game of the last players is
+     * first.
      * @throws IllegalStateException    if there is no valid allocation of the given players into
      *                                  games that respect the given minimum and maximum players per
      *                                  game.
@@ -34,88 +42,118 @@ public class PlayerAllocator {
             throw new IllegalArgumentException(
                 "Min players per game cannot be greater than max players per game");
         }
-        try {
-            return allocatePlayersAcc(playersToAllocate, maxPlayersPerGame, minPlayersPerGame,
-                true);
-        } catch (NotEnoughPlayersException e) {
-            throw new IllegalStateException("Min and max players per game are invalid");
-        }
-    }
-
-    /**
-     * Helper function to allocate players to games.
-     *
-     * @param playersToAllocate All players that have not yet been allocated to games.
-     * @param playersPerGame    The number of players to allocate to each game.
-     * @param minPlayersPerGame The minimum number of players to allocate to one game.
-     * @param attemptRecovery   Whether this method should attempt to remove players from full games
-     *                          to make a valid allocation.
-     * @return the players allocated into games. Each item in the list represents a single game's *
-     * players.
-     * @throws NotEnoughPlayersException if there is no valid allocation of the given players into
-     *                                   games that respect the given minimum and maximum players
-     *                                   per game, or leftover players is less than
-     *                                   minPlayersPerGame and attemptRecovery is false.
-     */
-    private static List<LinkedHashMap<String, IPlayer>> allocatePlayersAcc(
-        LinkedHashMap<String, IPlayer> playersToAllocate,
-        int playersPerGame,
-        int minPlayersPerGame,
-        boolean attemptRecovery) throws NotEnoughPlayersException {
-
-        if (playersToAllocate.size() == 0) {
+        int numPlayers = playersToAllocate.size();
+        if (numPlayers == 0) {
             return new ArrayList<>();
         }
-        if (playersToAllocate.size() < minPlayersPerGame) {
-            throw new NotEnoughPlayersException();
+        if (numPlayers < minPlayersPerGame || maxPlayersPerGame < 1) {
+            throw new IllegalStateException("Min and max players per game are invalid");
         }
 
-        List<LinkedHashMap<String, IPlayer>> result;
-        try {
-            LinkedHashMap<String, IPlayer> playersForThisGame = allocateOneGame(playersToAllocate,
-                playersPerGame);
-            LinkedHashMap<String, IPlayer> remainingPlayers = new LinkedHashMap<>(
-                playersToAllocate);
-            remainingPlayers.keySet().removeAll(playersForThisGame.keySet());
+        // Fill games of the maximum size, unless the leftover players are too few for a game
+        int numFullGames = numPlayers / maxPlayersPerGame;
+        int numLeftover = numPlayers % maxPlayersPerGame;
+        int numLargerGames = numFullGames;
+        int smallerGameSize = maxPlayersPerGame;
+        if (numLeftover != 0 && numLeftover < minPlayersPerGame) {
+            // Keep as many full games as possible at the start, and allocate the rest of the
+            // players into games with one player fewer
+            smallerGameSize = maxPlayersPerGame - 1;
+            numLargerGames = -1;
+            if (smallerGameSize >= Math.max(minPlayersPerGame, 1)) {
+                for (int numKept = numFullGames - 1; numKept >= 0; numKept -= 1) {
+                    int numLastGame = (numPlayers - numKept * maxPlayersPerGame) % smallerGameSize;
+                    if (numLastGame == 0 || numLastGame >= minPlayersPerGame) {
+                        numLargerGames = numKept;
+                        break;
+                    }
+                }
+            }
+            if (numLargerGames < 0) {
+                throw new IllegalStateException("Min and max players per game are invalid");
+            }
+        }
 
-            result = allocatePlayersAcc(remainingPlayers, playersPerGame, minPlayersPerGame,
-                attemptRecovery);
-            result.add(playersForThisGame);
-        } catch (NotEnoughPlayersException e) {
-            if (!attemptRecovery) {
-                throw e;
+        List<Entry<String, IPlayer>> players = new ArrayList<>(playersToAllocate.entrySet());
+        List<LinkedHashMap<String, IPlayer>> result = new ArrayList<>();
+        int gameStart = 0;
+        for (int game = 0; gameStart < numPlayers; game += 1) {
+            int gameSize = game < numLargerGames ? maxPlayersPerGame : smallerGameSize;
+            int gameEnd = Math.min(gameStart + gameSize, numPlayers);
+            LinkedHashMap<String, IPlayer> playersForThisGame = new LinkedHashMap<>();
+            for (int index = gameStart; index < gameEnd; index += 1) {
+                Entry<String, IPlayer> player = players.get(index);
+                playersForThisGame.put(player.getKey(), player.getValue());
             }
-            result = allocatePlayersAcc(playersToAllocate, playersPerGame - 1, minPlayersPerGame,
-                false);
+            result.add(playersForThisGame);
+            gameStart = gameEnd;
         }
+        Collections.reverse(result);
         return result;
     }
 
     /**
-     * Allocates up to playersPerGame players from playersToAllocate to one game.
+     * Allocates the given players into games in signup order, with
+     * {@link Constants#MIN_PLAYERS_PER_GAME} to {@link Constants#MAX_PLAYERS_PER_GAME} players per
+     * game, ignoring how quickly they respond. This is the default {@link IAllocationPolicy}.
      *
-     * @param playersToAllocate All players that have not yet been allocated to games.
-     * @param playersPerGame    The number of players to allocate to this game.
-     * @return The players that were allocated to one game.
+     * @param playersToAllocate the players to allocate, in signup order.
+     * @param meanResponseNanos the mean response time of each player, which is not used.
+     * @return the players allocated into games. Each item in the list represents a single game's
+     * players.
+     * @throws IllegalStateException if there is no valid allocation of the given players.
      */
-    private static LinkedHashMap<String, IPlayer> allocateOneGame(
-        LinkedHashMap<String, IPlayer> playersToAllocate, int playersPerGame) {
-
-        LinkedHashMap<String, IPlayer> playersForThisGame = new LinkedHashMap<>();
-        Iterator<Entry<String, IPlayer>> remainingPlayersInOrder = playersToAllocate.entrySet()
-            .iterator();
-
-        for (int i = 0; i < playersPerGame && remainingPlayersInOrder.hasNext(); i++) {
-            Entry<String, IPlayer> nextPlayer = remainingPlayersInOrder.next();
-            playersForThisGame.put(nextPlayer.getKey(), nextPlayer.getValue());
-        }
-        return playersForThisGame;
+    public static List<LinkedHashMap<String, IPlayer>> allocateInSignupOrder(
+        LinkedHashMap<String, IPlayer> playersToAllocate, Map<String, Double> meanResponseNanos)
+        throws IllegalStateException {
+        return allocatePlayersToGames(playersToAllocate, Constants.MAX_PLAYERS_PER_GAME,
+            Constants.MIN_PLAYERS_PER_GAME);
     }
 
     /**
-     * Used internally to signal that there is no way to allocate the given players into games.
+     * Allocates the given players into games so that players who respond at a similar speed play
+     * each other, with {@link Constants#MIN_PLAYERS_PER_GAME} to
+     * {@link Constants#MAX_PLAYERS_PER_GAME} players per game. A game takes as long as its slowest
+     * player makes it, so grouping fast players together lets their games finish early.
+     * <p>
+     * The players are ordered from fastest to slowest, with players who have not responded yet
+     * after every other player, and allocated in that order as
+     * {@link #allocatePlayersToGames(LinkedHashMap, int, int)} allocates them in signup order.
+     * Within each game, the players keep their signup order as their turn order.
+     *
+     * @param playersToAllocate the players to allocate, in signup order.
+     * @param meanResponseNanos the mean response time of each player, in nanoseconds.
+     * @return the players allocated into games. Each item in the list represents a single game's
+     * players.
+     * @throws IllegalStateException if there is no valid allocation of the given players.
      */
-    private static class NotEnoughPlayersException extends Exception {
+    public static List<LinkedHashMap<String, IPlayer>> allocateBySpeed(
+        LinkedHashMap<String, IPlayer> playersToAllocate, Map<String, Double> meanResponseNanos)
+        throws IllegalStateException {
+        Map<String, Integer> signupIndices = new HashMap<>();
+        for (String name : playersToAllocate.keySet()) {
+            signupIndices.put(name, signupIndices.size());
+        }
+        List<String> speedOrder = new ArrayList<>(playersToAllocate.keySet());
+        // Sorting is stable, so players of equal speed stay in signup order
+        speedOrder.sort(Comparator.comparingDouble(
+            name -> meanResponseNanos.getOrDefault(name, Double.POSITIVE_INFINITY)));
+        LinkedHashMap<String, IPlayer> playersBySpeed = new LinkedHashMap<>();
+        for (String name : speedOrder) {
+            playersBySpeed.put(name, playersToAllocate.get(name));
+        }
 
+        List<LinkedHashMap<String, IPlayer>> result = new ArrayList<>();
+        for (LinkedHashMap<String, IPlayer> game : allocatePlayersToGames(playersBySpeed,
+            Constants.MAX_PLAYERS_PER_GAME, Constants.MIN_PLAYERS_PER_GAME)) {
+            List<String> turnOrder = new ArrayList<>(game.keySet());
+            turnOrder.sort(Comparator.comparingInt(signupIndices::get));
+            LinkedHashMap<String, IPlayer> gameInSignupOrder = new LinkedHashMap<>();
+            for (String name : turnOrder) {
+                gameInSignupOrder.put(name, game.get(name));
+            }
+            result.add(gameInSignupOrder);
+        }
+        return result;
     }
 }
@@ -1,19 +1,23 @@
 package tournament_manager;
 
-import static tournament_manager.PlayerAllocator.allocatePlayersToGames;
-import static utils.Constants.PLAYER_INTERACTION_TIMEOUT;
-import static utils.Utils.callFunction;
-
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -27,6 +31,9 @@ import referee.TrainsReferee.RefereeBuilder;
 
 import test_utils.*;
 import utils.Constants;
+import utils.InvocationStatistics;
+import utils.TimedInvoker;
+import utils.json.SubmittedTrainMap;
 
 /**
  * A Tournament Manager for the game Trains that uses single elimination bracket for tournament
@@ -35,23 +42,42 @@ import utils.Constants;
  * Handles notifying Players that they have been chosen for a tournament, deciding which map to use
  * for the tournament, allocating Players to games and creating Referees, running the tournament,
  * and reporting the result of the entire tournament.
+ * <p>
+ * The games of a round may be run in parallel, up to a maximum number at a time that is set on
+ * the builder. Games are independent, and their results are merged in allocation order, so the
+ * result of a round does not depend on how many games were run at once.
+ * <p>
+ * How long every player takes to respond to each call during the tournament is read from the
+ * per-player statistics of the timed invoker set on the builder, and the allocation policy set on
+ * the builder may use it to decide who plays whom in each round.
  */
 public class SingleElimTournamentManager implements ITournamentManager {
 
     private LinkedHashMap<String, IPlayer> remainingPlayers;
     private LinkedHashMap<String, IPlayer> previousRemainingPlayers = new LinkedHashMap<>();
     private final Set<String> cheaters = new HashSet<>();
+    // The statistics of each player's calls through the invoker before the tournament started
+    private final Map<String, InvocationStatistics> statisticsBeforeTournament = new HashMap<>();
 
     private final Function<ITrainMap, List<Destination>> destinationProvider;
     private final Supplier<List<RailCard>> deckSupplier;
     private final Function<List<ITrainMap>, ITrainMap> mapSelector;
+    private final TimedInvoker invoker;
+    private final int maxConcurrentGames;
+    private final IAllocationPolicy allocationPolicy;
 
     private SingleElimTournamentManager(Function<ITrainMap, List<Destination>> destinationProvider,
         Supplier<List<RailCard>> deckSupplier,
-        Function<List<ITrainMap>, ITrainMap> mapSelector) {
+        Function<List<ITrainMap>, ITrainMap> mapSelector,
+        TimedInvoker invoker,
+        int maxConcurrentGames,
+        IAllocationPolicy allocationPolicy) {
         this.destinationProvider = destinationProvider;
         this.deckSupplier = deckSupplier;
         this.mapSelector = mapSelector;
+        this.invoker = invoker;
+        this.maxConcurrentGames = maxConcurrentGames;
+        this.allocationPolicy = allocationPolicy;
     }
 
     /**
@@ -63,6 +89,9 @@ public class SingleElimTournamentManager implements ITournamentManager {
         private Function<ITrainMap, List<Destination>> destinationProvider;
         private Supplier<List<RailCard>> deckProvider;
         private Function<List<ITrainMap>, ITrainMap> mapSelector;
+        private TimedInvoker invoker;
+        private int maxConcurrentGames;
+        private IAllocationPolicy allocationPolicy;
 
         /**
          * Construct the default builder for instances of SingleElimTournamentManager.
@@ -71,6 +100,9 @@ public class SingleElimTournamentManager implements ITournamentManager {
             this.destinationProvider = TrainsMapUtils::defaultDestinationProvider;
             this.deckProvider = TrainsMapUtils::defaultDeckSupplier;
             this.mapSelector = TrainsMapUtils::defaultMapSelector;
+            this.invoker = TimedInvoker.defaultInvoker();
+            this.maxConcurrentGames = 1;
+            this.allocationPolicy = PlayerAllocator::allocateInSignupOrder;
         }
 
         /**
@@ -108,7 +140,15 @@ public class SingleElimTournamentManager implements ITournamentManager {
          * Sets the map selector function that will be used by this tournament manager.
          * <p>
          * A map selector function accepts a non-empty list of ITrainMaps, and returns the one that
-         * should be used for all games in this tournament.
+         * should be used for all games in this tournament. Maps with the same content are only
+         * given once.
+         * <p>
+         * Maps submitted by remote players are not parsed until they are used. Their numbers of
+         * cities and connections are cheap to inspect, but any other query parses the map and
+         * throws IllegalArgumentException if it is not valid. If the selector throws because of an
+         * invalid map, or selects one, the players that submitted it are cheaters and the map is
+         * selected again from the rest. Invalid maps that are neither queried nor selected are
+         * never parsed, so the players that submitted them are not found to be cheaters.
          *
          * @param mapSelector A valid map selector function.
          * @return This builder modified to use the provided map selector function.
@@ -119,6 +159,57 @@ public class SingleElimTournamentManager implements ITournamentManager {
             return this;
         }
 
+        /**
+         * Sets the timed invoker that will be used for every method call on a player, both by this
+         * tournament manager and by the referees of its games.
+         * <p>
+         * A player whose call does not complete within the invoker's deadline is treated as a
+         * cheater. The manager does not close the invoker.
+         *
+         * @param invoker A valid timed invoker.
+         * @return This builder modified to use the provided timed invoker.
+         */
+        public SingleElimTournamentManagerBuilder timedInvoker(TimedInvoker invoker) {
+            this.invoker = invoker;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of games of one round that will be run at the same time. By
+         * default games are run one after another.
+         * <p>
+         * When more than one game is run at a time, the destination provider and deck provider
+         * functions are called concurrently and must be thread safe.
+         *
+         * @param maxConcurrentGames The maximum number of games to run at once.
+         * @return This builder modified to run up to the given number of games at once.
+         * @throws IllegalArgumentException if maxConcurrentGames is not positive.
+         */
+        public SingleElimTournamentManagerBuilder maxConcurrentGames(int maxConcurrentGames) {
+            if (maxConcurrentGames < 1) {
+                throw new IllegalArgumentException(
+                    "The maximum number of concurrent games must be positive");
+            }
+            this.maxConcurrentGames = maxConcurrentGames;
+            return this;
+        }
+
+        /**
+         * Sets the policy that allocates the remaining players into games at the start of each
+         * round. By default players are allocated in signup order.
+         * <p>
+         * {@link PlayerAllocator#allocateBySpeed} groups players that respond at a similar speed,
+         * which shortens a round when games are run concurrently.
+         *
+         * @param allocationPolicy A valid allocation policy.
+         * @return This builder modified to use the provided allocation policy.
+         */
+        public SingleElimTournamentManagerBuilder allocationPolicy(
+            IAllocationPolicy allocationPolicy) {
+            this.allocationPolicy = allocationPolicy;
+            return this;
+        }
+
         /**
          * Constructs a SingleElimTournamentManager from the optional arguments given to this
          * builder.
@@ -129,9 +220,11 @@ public class SingleElimTournamentManager implements ITournamentManager {
             Objects.requireNonNull(this.deckProvider);
             Objects.requireNonNull(this.destinationProvider);
             Objects.requireNonNull(this.mapSelector);
+            Objects.requireNonNull(this.invoker);
+            Objects.requireNonNull(this.allocationPolicy);
 
-            return new SingleElimTournamentManager(
-                this.destinationProvider, this.deckProvider, this.mapSelector);
+            return new SingleElimTournamentManager(this.destinationProvider, this.deckProvider,
+                this.mapSelector, this.invoker, this.maxConcurrentGames, this.allocationPolicy);
         }
     }
 
@@ -149,15 +242,17 @@ public class SingleElimTournamentManager implements ITournamentManager {
      *     will play one game as the final round</li>
      * </ol>
      *
-     * @param players the players who have been selected for the tournament
+     * @param signedUpPlayers the players who have been selected for the tournament
      * @return the winner(s) of the tournament and a list of the misbehaving players
      */
     @Override
-    public TournamentResult runTournament(LinkedHashMap<String, IPlayer> players) {
-        Objects.requireNonNull(players);
-        for (Entry<String, IPlayer> player : players.entrySet()) {
-            Objects.requireNonNull(player.getKey());
-            Objects.requireNonNull(player.getValue());
+    public TournamentResult runTournament(LinkedHashMap<String, IPlayer> signedUpPlayers) {
+        Objects.requireNonNull(signedUpPlayers);
+        LinkedHashMap<String, IPlayer> players = new LinkedHashMap<>(signedUpPlayers);
+        for (String name : players.keySet()) {
+            Objects.requireNonNull(name);
+            this.invoker.getStatistics(name).ifPresent(
+                statistics -> this.statisticsBeforeTournament.put(name, statistics.copy()));
         }
 
         this.remainingPlayers = new LinkedHashMap<>(players);
@@ -200,29 +295,101 @@ public class SingleElimTournamentManager implements ITournamentManager {
     /**
      * Calls start on each player and picks one of the reurned TrainsMaps to use for all the games
      * in the tournament.
+     * <p>
+     * Maps submitted with the same content are only given to the map selector once, in the place
+     * they were first submitted. Submitted maps that have not been parsed yet, such as those from
+     * remote players, are only parsed once they are selected or queried by the selector. If the
+     * selected map is not valid, or the selector fails on one that is not, every player that
+     * submitted it is a cheater and the map is selected again from the rest. Invalid maps that are
+     * never parsed do not make their submitters cheaters.
      *
      * @param players the players that will be playing in the tournament
      * @return the chosen map for the tournament
      */
     private ITrainMap getMapToStartTournament(LinkedHashMap<String, IPlayer> players) {
-        List<ITrainMap> submittedMaps = new ArrayList<>();
+        Map<ITrainMap, List<String>> submitters = new LinkedHashMap<>();
         for (Entry<String, IPlayer> player : players.entrySet()) {
             Callable<ITrainMap> startTournamentCallable = () -> player.getValue()
                 .startTournament(true);
 
-            Optional<ITrainMap> map = callFunction(startTournamentCallable);
+            Optional<ITrainMap> map =
+                this.invoker.invoke(player.getKey(), "startTournament", startTournamentCallable);
             if (map.isPresent()) {
-                submittedMaps.add(map.get());
+                submitters.computeIfAbsent(map.get(), submitted -> new ArrayList<>())
+                    .add(player.getKey());
             }
             else {
-                this.cheaters.add(player.getKey());
-                this.remainingPlayers.remove(player.getKey());
+                this.removeCheater(player.getKey());
+            }
+        }
+        while (!submitters.isEmpty()) {
+            ITrainMap selectedMap;
+            try {
+                selectedMap = this.mapSelector.apply(new ArrayList<>(submitters.keySet()));
             }
+            catch (IllegalArgumentException e) {
+                // The selector may have queried a submitted map that is not valid
+                if (!this.removeInvalidSubmissions(submitters)) {
+                    throw e;
+                }
+                continue;
+            }
+            Optional<ITrainMap> parsedMap = parseSelectedMap(selectedMap);
+            if (parsedMap.isPresent()) {
+                return parsedMap.get();
+            }
+            List<String> cheatingSubmitters = submitters.remove(selectedMap);
+            if (cheatingSubmitters == null) {
+                throw new IllegalStateException("Map selector selected an invalid map");
+            }
+            cheatingSubmitters.forEach(this::removeCheater);
+        }
+        return TrainsMapUtils.createDefaultMap();
+    }
+
+    /**
+     * Parses the given map selected for the tournament if it was submitted without being parsed.
+     *
+     * @param selectedMap the map selected from those submitted by the players
+     * @return the parsed map, or empty if it is not a valid map
+     */
+    private static Optional<ITrainMap> parseSelectedMap(ITrainMap selectedMap) {
+        if (!(selectedMap instanceof SubmittedTrainMap)) {
+            return Optional.of(selectedMap);
         }
-        if (submittedMaps.isEmpty()) {
-            return TrainsMapUtils.createDefaultMap();
+        try {
+            return Optional.of(((SubmittedTrainMap) selectedMap).parse());
+        }
+        catch (IllegalArgumentException e) {
+            return Optional.empty();
         }
-        return this.mapSelector.apply(submittedMaps);
+    }
+
+    /**
+     * Removes every submitted map that has failed to parse, and makes the players that submitted
+     * it cheaters.
+     *
+     * @param submitters the players that submitted each map
+     * @return whether any map was removed
+     */
+    private boolean removeInvalidSubmissions(Map<ITrainMap, List<String>> submitters) {
+        boolean removedAny = false;
+        Iterator<Entry<ITrainMap, List<String>>> submissions = submitters.entrySet().iterator();
+        while (submissions.hasNext()) {
+            Entry<ITrainMap, List<String>> submission = submissions.next();
+            if (submission.getKey() instanceof SubmittedTrainMap
+                && ((SubmittedTrainMap) submission.getKey()).hasFailedToParse()) {
+                submission.getValue().forEach(this::removeCheater);
+                submissions.remove();
+                removedAny = true;
+            }
+        }
+        return removedAny;
+    }
+
+    private void removeCheater(String playerName) {
+        this.cheaters.add(playerName);
+        this.remainingPlayers.remove(playerName);
     }
 
     /**
@@ -257,24 +424,153 @@ public class SingleElimTournamentManager implements ITournamentManager {
      * cheater(s).
      */
     private TournamentResult runOneRound(ITrainMap map) {
-        List<LinkedHashMap<String, IPlayer>> gameAllocation = allocatePlayersToGames(
-            this.remainingPlayers, Constants.MAX_PLAYERS_PER_GAME, Constants.MIN_PLAYERS_PER_GAME);
+        List<LinkedHashMap<String, IPlayer>> gameAllocation = this.allocateRemainingPlayers();
+        List<GameEndReport> reports = this.maxConcurrentGames == 1 || gameAllocation.size() == 1
+            ? this.playGamesSequentially(map, gameAllocation)
+            : this.playGamesConcurrently(map, gameAllocation);
+
         Set<String> winnerNames = new HashSet<>();
         Set<String> cheaterNames = new HashSet<>();
-
-        for (LinkedHashMap<String, IPlayer> game : gameAllocation) {
-            IReferee ref = new RefereeBuilder(map, game)
-                .deckProvider(this.deckSupplier)
-                .destinationProvider(this.destinationProvider)
-                .build();
-            ref.playGame();
-            GameEndReport report = ref.calculateGameEndReport();
+        for (GameEndReport report : reports) {
             winnerNames.addAll(report.getWinners());
             cheaterNames.addAll(report.getRemovedPlayerNames());
         }
         return new TournamentResult(winnerNames, cheaterNames);
     }
 
+    /**
+     * Allocates the remaining players into games with the allocation policy, given how quickly
+     * each of them has responded so far.
+     *
+     * @return the players of each game in turn order.
+     * @throws IllegalStateException if the policy does not allocate every remaining player to
+     *                               exactly one game with a valid number of players.
+     */
+    private List<LinkedHashMap<String, IPlayer>> allocateRemainingPlayers()
+        throws IllegalStateException {
+        Map<String, Double> meanResponseNanos = new HashMap<>();
+        for (String name : this.remainingPlayers.keySet()) {
+            this.calculateMeanResponseNanos(name)
+                .ifPresent(nanos -> meanResponseNanos.put(name, nanos));
+        }
+        List<LinkedHashMap<String, IPlayer>> gameAllocation = this.allocationPolicy
+            .allocatePlayersToGames(new LinkedHashMap<>(this.remainingPlayers), meanResponseNanos);
+
+        Set<String> allocatedNames = new HashSet<>();
+        int numAllocated = 0;
+        for (LinkedHashMap<String, IPlayer> game : gameAllocation) {
+            if (game.size() < Constants.MIN_PLAYERS_PER_GAME
+                || game.size() > Constants.MAX_PLAYERS_PER_GAME) {
+                throw new IllegalStateException("Allocated a game of " + game.size() + " players");
+            }
+            for (Entry<String, IPlayer> player : game.entrySet()) {
+                if (this.remainingPlayers.get(player.getKey()) != player.getValue()) {
+                    throw new IllegalStateException("Allocated an unknown player");
+                }
+            }
+            allocatedNames.addAll(game.keySet());
+            numAllocated += game.size();
+        }
+        if (numAllocated != allocatedNames.size()
+            || numAllocated != this.remainingPlayers.size()) {
+            throw new IllegalStateException("Every player must be allocated to exactly one game");
+        }
+        return gameAllocation;
+    }
+
+    /**
+     * Calculates the mean time the given player has taken to respond to a call made through the
+     * invoker since the tournament started.
+     *
+     * @param name the name of the player.
+     * @return the mean response time in nanoseconds, or empty if no call has been made yet.
+     */
+    private OptionalDouble calculateMeanResponseNanos(String name) {
+        Optional<InvocationStatistics> statistics = this.invoker.getStatistics(name);
+        if (statistics.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        InvocationStatistics before = this.statisticsBeforeTournament
+            .getOrDefault(name, new InvocationStatistics());
+        long numCalls = statistics.get().getNumCalls() - before.getNumCalls();
+        long totalLatencyNanos =
+            statistics.get().getTotalLatencyNanos() - before.getTotalLatencyNanos();
+        return numCalls == 0 ? OptionalDouble.empty()
+            : OptionalDouble.of((double) totalLatencyNanos / numCalls);
+    }
+
+    /**
+     * Plays each of the given games one after another.
+     *
+     * @param map            the map used for the round of games.
+     * @param gameAllocation the players of each game in turn order.
+     * @return the report of each game, in the same order as the games.
+     */
+    private List<GameEndReport> playGamesSequentially(ITrainMap map,
+        List<LinkedHashMap<String, IPlayer>> gameAllocation) {
+        List<GameEndReport> reports = new ArrayList<>();
+        for (LinkedHashMap<String, IPlayer> game : gameAllocation) {
+            reports.add(this.playGame(map, game));
+        }
+        return reports;
+    }
+
+    /**
+     * Plays the given games on a pool of at most maxConcurrentGames threads, and waits for all of
+     * them to finish.
+     *
+     * @param map            the map used for the round of games.
+     * @param gameAllocation the players of each game in turn order.
+     * @return the report of each game, in the same order as the games.
+     */
+    private List<GameEndReport> playGamesConcurrently(ITrainMap map,
+        List<LinkedHashMap<String, IPlayer>> gameAllocation) {
+        ExecutorService gamePool = Executors.newFixedThreadPool(
+            Math.min(this.maxConcurrentGames, gameAllocation.size()));
+        try {
+            List<Future<GameEndReport>> pendingReports = new ArrayList<>();
+            for (LinkedHashMap<String, IPlayer> game : gameAllocation) {
+                pendingReports.add(gamePool.submit(() -> this.playGame(map, game)));
+            }
+
+            List<GameEndReport> reports = new ArrayList<>();
+            for (Future<GameEndReport> pendingReport : pendingReports) {
+                reports.add(pendingReport.get());
+            }
+            return reports;
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("A game of the round failed", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a round to finish", e);
+        }
+        finally {
+            gamePool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game of Trains with the given players.
+     *
+     * @param map     the map used for the game.
+     * @param players the players of the game in turn order.
+     * @return the report of the game.
+     */
+    private GameEndReport playGame(ITrainMap map, LinkedHashMap<String, IPlayer> players) {
+        IReferee ref = new RefereeBuilder(map, players)
+            .deckProvider(this.deckSupplier)
+            .destinationProvider(this.destinationProvider)
+            .timedInvoker(this.invoker)
+            .build();
+        ref.playGame();
+        return ref.calculateGameEndReport();
+    }
+
     /**
      * Informs each of the given players if they won or lost the tournament
      *
@@ -290,7 +586,8 @@ public class SingleElimTournamentManager implements ITournamentManager {
                 return true;
             };
             if (!this.cheaters.contains(player.getKey())) {
-                callFunction(resultOfTournamentCallable);
+                this.invoker.invoke(player.getKey(), "resultOfTournament",
+                    resultOfTournamentCallable);
             }
         }
     }
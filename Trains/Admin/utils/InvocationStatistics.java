@@ -0,0 +1,111 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe latency statistics over the calls made through a {@link TimedInvoker}.
+ * <p>
+ * Every call is counted exactly once, as either completed, failed (threw an exception or returned
+ * null), or overrun (did not complete before the deadline).
+ */
+public class InvocationStatistics {
+
+    private final LongAdder numCompleted = new LongAdder();
+    private final LongAdder numFailed = new LongAdder();
+    private final LongAdder numOverrun = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * The ways a call made through a TimedInvoker can end.
+     */
+    public enum Outcome {
+        COMPLETED,
+        FAILED,
+        OVERRUN
+    }
+
+    /**
+     * Records the outcome and latency of a single call.
+     *
+     * @param outcome      how the call ended.
+     * @param latencyNanos the time between the call being submitted and the caller receiving its
+     *                     result, in nanoseconds.
+     */
+    void record(Outcome outcome, long latencyNanos) {
+        switch (outcome) {
+            case COMPLETED:
+                this.numCompleted.increment();
+                break;
+            case FAILED:
+                this.numFailed.increment();
+                break;
+            case OVERRUN:
+                this.numOverrun.increment();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown outcome " + outcome);
+        }
+        this.totalLatencyNanos.add(latencyNanos);
+        this.maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Copies the calls recorded so far, so that the calls recorded after this point can be told
+     * apart by difference.
+     *
+     * @return new statistics with the same calls recorded as these.
+     */
+    public InvocationStatistics copy() {
+        InvocationStatistics copy = new InvocationStatistics();
+        copy.numCompleted.add(this.numCompleted.sum());
+        copy.numFailed.add(this.numFailed.sum());
+        copy.numOverrun.add(this.numOverrun.sum());
+        copy.totalLatencyNanos.add(this.totalLatencyNanos.sum());
+        copy.maxLatencyNanos.set(this.maxLatencyNanos.get());
+        return copy;
+    }
+
+    public long getNumCalls() {
+        return this.getNumCompleted() + this.getNumFailed() + this.getNumOverrun();
+    }
+
+    public long getNumCompleted() {
+        return this.numCompleted.sum();
+    }
+
+    public long getNumFailed() {
+        return this.numFailed.sum();
+    }
+
+    public long getNumOverrun() {
+        return this.numOverrun.sum();
+    }
+
+    public long getTotalLatencyNanos() {
+        return this.totalLatencyNanos.sum();
+    }
+
+    public long getMaxLatencyNanos() {
+        return this.maxLatencyNanos.get();
+    }
+
+    /**
+     * Calculates the mean latency of all recorded calls.
+     *
+     * @return the mean latency in nanoseconds, or 0 if no calls have been recorded.
+     */
+    public double getMeanLatencyNanos() {
+        long numCalls = this.getNumCalls();
+        return numCalls == 0 ? 0 : (double) this.getTotalLatencyNanos() / numCalls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "calls=%d completed=%d failed=%d overrun=%d meanMillis=%.3f maxMillis=%.3f",
+            this.getNumCalls(), this.getNumCompleted(), this.getNumFailed(), this.getNumOverrun(),
+            this.getMeanLatencyNanos() / 1e6, this.getMaxLatencyNanos() / 1e6);
+    }
+}
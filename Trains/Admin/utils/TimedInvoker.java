@@ -0,0 +1,230 @@
+package utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import utils.InvocationStatistics.Outcome;
+
+/**
+ * Calls functions, such as methods on players, on a pool of threads and waits at most a fixed
+ * deadline for each of them to complete.
+ * <p>
+ * A call that throws an exception, returns null, or does not complete before the deadline has no
+ * result, which callers treat as misbehavior. Calls that overrun the deadline are cancelled by
+ * interrupting the thread running them. The pool threads are daemon threads, so a call that ignores
+ * interruption cannot keep the program alive.
+ * <p>
+ * The latency of every call is recorded in this invoker's {@link InvocationStatistics}. Calls made
+ * on behalf of a player are also recorded per player and per player method, and passed to an
+ * optional listener along with the name of the player and method.
+ * <p>
+ * An invoker owns its pool of threads until it is closed. The default invoker is shared by the
+ * whole program and cannot be closed.
+ */
+public class TimedInvoker implements AutoCloseable {
+
+    private static final TimedInvoker DEFAULT_INVOKER =
+        new TimedInvoker(Constants.PLAYER_INTERACTION_TIMEOUT);
+
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private final InvocationStatistics statistics;
+    private final Map<String, InvocationStatistics> statisticsByPlayer;
+    private final Map<List<String>, InvocationStatistics> statisticsByPlayerMethod;
+    private final LatencyListener latencyListener;
+
+    /**
+     * Accepts the latency of each call made on behalf of a player.
+     */
+    @FunctionalInterface
+    public interface LatencyListener {
+
+        /**
+         * Accepts the latency of a call once it completes, fails, or is cancelled.
+         *
+         * @param playerName   the name of the player the call was made on.
+         * @param methodName   the name of the player method that was called.
+         * @param outcome      how the call ended.
+         * @param latencyNanos the latency of the call, in nanoseconds.
+         */
+        void accept(String playerName, String methodName, Outcome outcome, long latencyNanos);
+    }
+
+    /**
+     * Constructs a TimedInvoker that waits up to the given number of milliseconds for each call.
+     *
+     * @param timeoutMillis the deadline for each call, in milliseconds.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public TimedInvoker(long timeoutMillis) {
+        this(timeoutMillis, (playerName, methodName, outcome, latencyNanos) -> {
+        });
+    }
+
+    /**
+     * Constructs a TimedInvoker that waits up to the given number of milliseconds for each call,
+     * and reports the latency of every call made on behalf of a player to the given listener.
+     *
+     * @param timeoutMillis   the deadline for each call, in milliseconds.
+     * @param latencyListener accepts the latency of each call made on behalf of a player.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public TimedInvoker(long timeoutMillis, LatencyListener latencyListener) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("The timeout must be positive");
+        }
+        Objects.requireNonNull(latencyListener);
+
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+        this.statistics = new InvocationStatistics();
+        this.statisticsByPlayer = new ConcurrentHashMap<>();
+        this.statisticsByPlayerMethod = new ConcurrentHashMap<>();
+        this.latencyListener = latencyListener;
+    }
+
+    /**
+     * Gets the invoker shared by all callers that are not given one, which enforces
+     * {@link Constants#PLAYER_INTERACTION_TIMEOUT}.
+     *
+     * @return the default TimedInvoker.
+     */
+    public static TimedInvoker defaultInvoker() {
+        return DEFAULT_INVOKER;
+    }
+
+    /**
+     * Calls the given function on the pool and waits for it to complete, up to the deadline. The
+     * call is only recorded in the overall statistics of this invoker.
+     *
+     * @param function The function to call.
+     * @param <T>      The return type of the function.
+     * @return The value that the function returned, or empty if it threw an exception, returned
+     * null, or did not complete before the deadline.
+     * @throws java.util.concurrent.RejectedExecutionException if this invoker has been closed.
+     */
+    public <T> Optional<T> invoke(Callable<T> function) {
+        return this.invoke(null, null, function);
+    }
+
+    /**
+     * Calls the given method of a player on the pool and waits for it to complete, up to the
+     * deadline. The call is recorded for the player and the method, and passed to the listener.
+     *
+     * @param playerName The name of the player whose method is called.
+     * @param methodName The name of the player method that is called.
+     * @param function   The function that calls the method.
+     * @param <T>        The return type of the function.
+     * @return The value that the function returned, or empty if it threw an exception, returned
+     * null, or did not complete before the deadline.
+     * @throws java.util.concurrent.RejectedExecutionException if this invoker has been closed.
+     */
+    public <T> Optional<T> invoke(String playerName, String methodName, Callable<T> function) {
+        long startTime = System.nanoTime();
+        Future<T> result = this.executor.submit(function);
+        Outcome outcome = Outcome.FAILED;
+        try {
+            T value = result.get(this.timeoutMillis, TimeUnit.MILLISECONDS);
+            outcome = value == null ? Outcome.FAILED : Outcome.COMPLETED;
+            return Optional.ofNullable(value);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            outcome = Outcome.OVERRUN;
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            this.record(playerName, methodName, outcome, System.nanoTime() - startTime);
+        }
+    }
+
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    public InvocationStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Gets the statistics of the calls made through this invoker on behalf of the given player.
+     *
+     * @param playerName the name of the player.
+     * @return the statistics of the player's calls, or empty if none have been made.
+     */
+    public Optional<InvocationStatistics> getStatistics(String playerName) {
+        return Optional.ofNullable(this.statisticsByPlayer.get(playerName));
+    }
+
+    /**
+     * Gets the statistics of the calls made through this invoker to one method of the given player.
+     *
+     * @param playerName the name of the player.
+     * @param methodName the name of the player method.
+     * @return the statistics of the calls to that method, or empty if none have been made.
+     */
+    public Optional<InvocationStatistics> getStatistics(String playerName, String methodName) {
+        return Optional.ofNullable(
+            this.statisticsByPlayerMethod.get(List.of(playerName, methodName)));
+    }
+
+    /**
+     * Shuts down the pool of this invoker, interrupting any calls that are still running after
+     * overrunning their deadline. Later calls are rejected.
+     *
+     * @throws UnsupportedOperationException if this is the default invoker.
+     */
+    @Override
+    public void close() {
+        if (this == DEFAULT_INVOKER) {
+            throw new UnsupportedOperationException("The default invoker cannot be closed");
+        }
+        this.executor.shutdownNow();
+    }
+
+    private void record(String playerName, String methodName, Outcome outcome,
+        long latencyNanos) {
+        this.statistics.record(outcome, latencyNanos);
+        if (playerName != null) {
+            this.statisticsByPlayer
+                .computeIfAbsent(playerName, (name) -> new InvocationStatistics())
+                .record(outcome, latencyNanos);
+            this.statisticsByPlayerMethod
+                .computeIfAbsent(List.of(playerName, methodName),
+                    (key) -> new InvocationStatistics())
+                .record(outcome, latencyNanos);
+            this.latencyListener.accept(playerName, methodName, outcome, latencyNanos);
+        }
+    }
+
+    /**
+     * Creates the named daemon threads that run calls for a TimedInvoker.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger NUM_THREADS_CREATED = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                "timed-invoker-" + NUM_THREADS_CREATED.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
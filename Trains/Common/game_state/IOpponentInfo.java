@@ -5,4 +5,11 @@ import map.IRailConnection;
 
 public interface IOpponentInfo {
   Set<IRailConnection> getOwnedConnections();
+
+  /**
+   * Determines whether this opponent owns the given connection, without copying their connections.
+   * @param connection the connection that may or may not be owned by this opponent
+   * @return whether this opponent owns the connection
+   */
+  boolean ownsConnection(IRailConnection connection);
 }
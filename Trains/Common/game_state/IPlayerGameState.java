@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import map.Destination;
+import map.ICity;
 import map.IRailConnection;
 import map.ITrainMap;
 
@@ -37,6 +38,36 @@ public interface IPlayerGameState {
      */
     Set<IRailConnection> calculateUnoccupiedConnections(ITrainMap map);
 
+    /**
+     * Determines whether the given connection is occupied by any player in the game, including the
+     * player that corresponds to this IPlayerGameState.
+     *
+     * @param connection The connection that may or may not be occupied.
+     * @return Whether the connection is owned by any player in this game.
+     */
+    boolean isConnectionOccupied(IRailConnection connection);
+
+    /**
+     * Determines whether the connections owned by the player that corresponds to this
+     * IPlayerGameState already connect the two cities of the given destination.
+     *
+     * @param destination The destination to check.
+     * @param map         The map for this game of Trains.
+     * @return Whether the destination is completed by this player's connections.
+     */
+    boolean isDestinationConnected(Destination destination, ITrainMap map);
+
+    /**
+     * Calculates the number of cities that the connections owned by the player that corresponds to
+     * this IPlayerGameState connect to the given city, including the city itself. This measures
+     * progress towards destinations that are not yet completed.
+     *
+     * @param city The city to start from.
+     * @param map  The map for this game of Trains.
+     * @return The number of cities reachable from the given city, or 0 if it is not in the map.
+     */
+    int calculateNumCitiesConnectedTo(ICity city, ITrainMap map);
+
     /**
      * Gets the cards that are in the hand of the player that this IPlayerGameState corresponds to.
      *
@@ -45,6 +76,15 @@ public interface IPlayerGameState {
      */
     Map<RailCard, Integer> getCardsInHand();
 
+    /**
+     * Gets the number of cards of the given color in the hand of the player that this
+     * IPlayerGameState corresponds to, without copying the hand.
+     *
+     * @param card The color of card to count.
+     * @return The number of cards of that color in this player's hand.
+     */
+    int getNumCardsOfType(RailCard card);
+
     /**
      * Gets the number of rails left in the bank of the player that this IPlayerGameState
      * corresponds to.
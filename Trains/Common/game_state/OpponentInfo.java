@@ -6,7 +6,7 @@ import map.IRailConnection;
 import utils.UnorderedPair;
 
 public class OpponentInfo implements IOpponentInfo {
-  private Set<IRailConnection> ownedConnections;
+  private final Set<IRailConnection> ownedConnections;
 
   public OpponentInfo(Set<IRailConnection> ownedConnections) {
     this.ownedConnections = new HashSet<>(ownedConnections);
@@ -17,6 +17,11 @@ public class OpponentInfo implements IOpponentInfo {
     return new HashSet<>(this.ownedConnections);
   }
 
+  @Override
+  public boolean ownsConnection(IRailConnection connection) {
+    return this.ownedConnections.contains(connection);
+  }
+
   @Override
   public String toString() {
     return this.ownedConnections.toString();
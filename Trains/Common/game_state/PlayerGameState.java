@@ -1,13 +1,14 @@
 package game_state;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import map.CityConnectivity;
 import map.Destination;
+import map.ICity;
 import map.IRailConnection;
 import map.ITrainMap;
 import referee.game_state.IPlayerData;
@@ -15,20 +16,60 @@ import referee.game_state.IPlayerData;
 public class PlayerGameState implements IPlayerGameState {
 
     private final Set<IRailConnection> ownedConnections;
-    private final Map<RailCard, Integer> cardsInHand;
+    // The number of cards of each color in hand, packed by RailCardCounts
+    private final long cardsInHand;
     private final int numRails;
     private final List<IOpponentInfo> opponentInfo;
     private final Set<Destination> chosenDestinations;
+    // Which cities the owned connections connect, or null until it is first needed
+    private CityConnectivity connectivity;
 
     public PlayerGameState(IPlayerData playerData, List<IOpponentInfo> opponentInfo) {
-        Objects.requireNonNull(playerData);
-        Objects.requireNonNull(opponentInfo);
-
-        this.ownedConnections = new HashSet<>(playerData.getOwnedConnections());
-        this.cardsInHand = new HashMap<>(playerData.getPlayerHand().getHand());
-        this.numRails = playerData.getNumRails();
-        this.opponentInfo = new ArrayList<>(opponentInfo);
-        this.chosenDestinations = new HashSet<>(playerData.getDestinations());
+        this(Set.copyOf(playerData.getOwnedConnections()),
+            playerData.getPlayerHand().toPackedCounts(), playerData.getNumRails(),
+            Set.copyOf(playerData.getDestinations()), List.copyOf(opponentInfo), null);
+    }
+
+    /**
+     * Constructs a PlayerGameState that shares the given connections, destinations, and opponent
+     * information instead of copying them, so that snapshots of a game taken on different turns
+     * can share whatever has not changed between them. Since a PlayerGameState never changes, the
+     * given collections must never change either, such as those made by Set.copyOf and List.copyOf,
+     * and the given opponent information must not change once constructed, as OpponentInfo does.
+     *
+     * @param ownedConnections the connections owned by the player, which must never change.
+     * @param cardsInHand      the cards in the player's hand, packed by RailCardCounts.
+     * @param numRails         the number of rails in the player's bank.
+     * @param destinations     the destinations the player chose, which must never change.
+     * @param opponentInfo     the public information about each opponent, which must never change.
+     * @param connectivity     which cities the owned connections connect, which must never change
+     *                         but may be shared with other states, or null to build it when it is
+     *                         needed.
+     */
+    public PlayerGameState(Set<IRailConnection> ownedConnections, long cardsInHand, int numRails,
+        Set<Destination> destinations, List<IOpponentInfo> opponentInfo,
+        CityConnectivity connectivity) {
+        this.ownedConnections = Objects.requireNonNull(ownedConnections);
+        this.cardsInHand = cardsInHand;
+        this.numRails = numRails;
+        this.chosenDestinations = Objects.requireNonNull(destinations);
+        this.opponentInfo = Objects.requireNonNull(opponentInfo);
+        this.connectivity = connectivity;
+    }
+
+    /**
+     * Constructs a PlayerGameState that starts with the connectivity that the given player data
+     * keeps for the given map, so that destination queries on that map do not need to rebuild it.
+     *
+     * @param playerData   the private data of the player.
+     * @param opponentInfo the public information about each of the player's opponents.
+     * @param map          the map for this game of Trains.
+     */
+    public PlayerGameState(
+        IPlayerData playerData, List<IOpponentInfo> opponentInfo, ITrainMap map) {
+        this(playerData, opponentInfo);
+        Objects.requireNonNull(map);
+        this.connectivity = playerData.getConnectivity(map).copy();
     }
 
     @Override
@@ -38,19 +79,53 @@ public class PlayerGameState implements IPlayerGameState {
 
     @Override
     public Set<IRailConnection> calculateUnoccupiedConnections(ITrainMap map) {
-        Set<IRailConnection> unoccupiedConnections = map.getRailConnections();
+        Set<IRailConnection> unoccupiedConnections = new HashSet<>();
+        for (IRailConnection connection : map.getRailConnectionsView()) {
+            if (!this.isConnectionOccupied(connection)) {
+                unoccupiedConnections.add(connection);
+            }
+        }
+        return unoccupiedConnections;
+    }
 
-        unoccupiedConnections.removeAll(this.ownedConnections);
+    @Override
+    public boolean isConnectionOccupied(IRailConnection connection) {
+        if (this.ownedConnections.contains(connection)) {
+            return true;
+        }
         for (IOpponentInfo oneOpponentInfo : this.opponentInfo) {
-            unoccupiedConnections.removeAll(oneOpponentInfo.getOwnedConnections());
+            if (oneOpponentInfo.ownsConnection(connection)) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        return unoccupiedConnections;
+    @Override
+    public synchronized boolean isDestinationConnected(Destination destination, ITrainMap map) {
+        return this.getConnectivity(map).isDestinationConnected(destination);
+    }
+
+    @Override
+    public synchronized int calculateNumCitiesConnectedTo(ICity city, ITrainMap map) {
+        return this.getConnectivity(map).calculateNumCitiesConnectedTo(city);
+    }
+
+    private CityConnectivity getConnectivity(ITrainMap map) {
+        if (this.connectivity == null || !this.connectivity.isForMap(map)) {
+            this.connectivity = new CityConnectivity(map, this.ownedConnections);
+        }
+        return this.connectivity;
     }
 
     @Override
     public Map<RailCard, Integer> getCardsInHand() {
-        return new HashMap<>(this.cardsInHand);
+        return RailCardCounts.toMap(this.cardsInHand);
+    }
+
+    @Override
+    public int getNumCardsOfType(RailCard card) {
+        return RailCardCounts.getCount(this.cardsInHand, card);
     }
 
     @Override
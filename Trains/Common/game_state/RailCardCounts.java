@@ -0,0 +1,81 @@
+package game_state;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Packs the number of cards of each RailCard in a hand into a single long, which is a compact,
+ * immutable snapshot of the hand that can be copied and compared without allocating.
+ * <p>
+ * The count of each RailCard is stored in its own 16 bits, starting from the lowest bits in the
+ * order of {@link RailCard#ordinal()}, so each count can be at most MAX_COUNT. A deck has far fewer
+ * cards than that.
+ */
+public class RailCardCounts {
+
+    public static final int MAX_COUNT = 0xFFFF;
+    private static final int BITS_PER_COUNT = 16;
+    private static final RailCard[] CARDS = RailCard.values();
+
+    /**
+     * Packs the given counts.
+     *
+     * @param countsByOrdinal the number of cards of each RailCard, indexed by ordinal.
+     * @return the packed counts.
+     * @throws IllegalArgumentException if there is not one count for each RailCard, or a count is
+     *                                  negative or more than MAX_COUNT.
+     */
+    public static long pack(int[] countsByOrdinal) {
+        if (countsByOrdinal.length != CARDS.length) {
+            throw new IllegalArgumentException("There must be one count for each RailCard");
+        }
+        long packed = 0;
+        for (int ordinal = 0; ordinal < CARDS.length; ordinal += 1) {
+            int count = countsByOrdinal[ordinal];
+            if (count < 0 || count > MAX_COUNT) {
+                throw new IllegalArgumentException("Cannot pack " + count + " cards");
+            }
+            packed |= (long) count << (ordinal * BITS_PER_COUNT);
+        }
+        return packed;
+    }
+
+    /**
+     * Gets the number of cards of the given RailCard in the given packed counts.
+     *
+     * @param packed the packed counts.
+     * @param card   the RailCard to count.
+     * @return the number of cards of that RailCard.
+     */
+    public static int getCount(long packed, RailCard card) {
+        return (int) (packed >>> (card.ordinal() * BITS_PER_COUNT)) & MAX_COUNT;
+    }
+
+    /**
+     * Unpacks the given counts into an array indexed by RailCard ordinal.
+     *
+     * @param packed the packed counts.
+     * @return the number of cards of each RailCard.
+     */
+    public static int[] unpack(long packed) {
+        int[] counts = new int[CARDS.length];
+        for (RailCard card : CARDS) {
+            counts[card.ordinal()] = getCount(packed, card);
+        }
+        return counts;
+    }
+
+    /**
+     * Unpacks the given counts into a map with an entry for every RailCard.
+     *
+     * @param packed the packed counts.
+     * @return a new map from each RailCard to its number of cards.
+     */
+    public static Map<RailCard, Integer> toMap(long packed) {
+        Map<RailCard, Integer> counts = new EnumMap<>(RailCard.class);
+        for (RailCard card : CARDS) {
+            counts.put(card, getCount(packed, card));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,254 @@
+package map;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tracks which cities of one map are connected to each other by a set of rail connections, such as
+ * the connections owned by one player, as a union-find over the IDs of the cities in the map.
+ * <p>
+ * Adding a connection and asking whether two cities are connected both take time logarithmic in
+ * the number of cities, so a destination can be checked whenever it is needed instead of searching
+ * a graph of the connections. Connections are added as players acquire them during a game. Every
+ * connection can be removed at once with {@link #reset()}, and the most recent connections can be
+ * removed one at a time by undoing the merges that {@link #addConnectionUndoably} reports.
+ * <p>
+ * Smaller trees are always attached beneath larger ones, and paths are never compressed, so that
+ * a merge can be undone by detaching the root it attached. Queries do not modify the union-find.
+ * <p>
+ * Cities are identified by name, like the cities of a {@link Destination}. Cities that are not in
+ * the map are not connected to anything.
+ * <p>
+ * This class is not thread safe.
+ */
+public class CityConnectivity {
+
+    /**
+     * Reported by addConnectionUndoably when adding a connection merged no groups of cities.
+     */
+    public static final int NO_MERGE = -1;
+
+    private final ITrainMap map;
+    // The parent of each city in its component's tree, where a root is its own parent
+    private final int[] parents;
+    // The number of cities in the component of each root city
+    private final int[] componentSizes;
+
+    /**
+     * Constructs the connectivity of the given map when no connections have been added, where every
+     * city is only connected to itself.
+     *
+     * @param map the map whose cities are connected.
+     */
+    public CityConnectivity(ITrainMap map) {
+        Objects.requireNonNull(map);
+        this.map = map;
+        this.parents = new int[map.getNumCities()];
+        this.componentSizes = new int[map.getNumCities()];
+        this.reset();
+    }
+
+    /**
+     * Constructs the connectivity of the given map when the given connections have been added.
+     *
+     * @param map         the map whose cities are connected.
+     * @param connections the connections that connect the cities.
+     */
+    public CityConnectivity(ITrainMap map, Set<IRailConnection> connections) {
+        this(map);
+        Objects.requireNonNull(connections);
+        for (IRailConnection connection : connections) {
+            this.addConnection(connection);
+        }
+    }
+
+    private CityConnectivity(CityConnectivity other) {
+        this.map = other.map;
+        this.parents = Arrays.copyOf(other.parents, other.parents.length);
+        this.componentSizes = Arrays.copyOf(other.componentSizes, other.componentSizes.length);
+    }
+
+    /**
+     * Connects the two cities of the given connection. Connections between cities that are not in
+     * the map are ignored.
+     *
+     * @param connection the connection to add.
+     */
+    public void addConnection(IRailConnection connection) {
+        int firstCityId = this.map.getCityId(connection.getCities().left.getName());
+        int secondCityId = this.map.getCityId(connection.getCities().right.getName());
+        if (firstCityId != ITrainMap.NO_CITY && secondCityId != ITrainMap.NO_CITY) {
+            this.union(firstCityId, secondCityId);
+        }
+    }
+
+    /**
+     * Connects the two cities of the given connection as addConnection does, and reports how to
+     * undo it.
+     *
+     * @param connection the connection to add.
+     * @return the ID of the representative city that was attached beneath another one, to pass to
+     * undoMerge, or NO_MERGE if the cities were already connected or are not in the map.
+     */
+    public int addConnectionUndoably(IRailConnection connection) {
+        int firstCityId = this.map.getCityId(connection.getCities().left.getName());
+        int secondCityId = this.map.getCityId(connection.getCities().right.getName());
+        if (firstCityId != ITrainMap.NO_CITY && secondCityId != ITrainMap.NO_CITY) {
+            return this.union(firstCityId, secondCityId);
+        }
+        return NO_MERGE;
+    }
+
+    /**
+     * Undoes a merge reported by addConnectionUndoably, which must be the most recent merge that
+     * has not been undone.
+     *
+     * @param mergedCityId the ID of the representative city that was attached, or NO_MERGE.
+     */
+    public void undoMerge(int mergedCityId) {
+        if (mergedCityId == NO_MERGE) {
+            return;
+        }
+        int parent = this.parents[mergedCityId];
+        this.componentSizes[parent] -= this.componentSizes[mergedCityId];
+        this.parents[mergedCityId] = mergedCityId;
+    }
+
+    /**
+     * Connects the two cities with the given IDs in the map, as a connection between them would.
+     *
+     * @param firstCityId  the ID of one city.
+     * @param secondCityId the ID of another city.
+     */
+    public void connectCities(int firstCityId, int secondCityId) {
+        this.union(firstCityId, secondCityId);
+    }
+
+    /**
+     * Finds the representative city of the group of connected cities that contains the given
+     * city. Two cities are connected exactly when they have the same representative, until more
+     * connections are added.
+     *
+     * @param cityId the ID of the city in the map.
+     * @return the ID of the representative city.
+     */
+    public int findRepresentative(int cityId) {
+        return this.find(cityId);
+    }
+
+    /**
+     * Determines whether there is a path between the two given cities using the added connections.
+     *
+     * @param city1 one city.
+     * @param city2 another city.
+     * @return whether the cities are connected, which is true when they have the same name.
+     */
+    public boolean areConnected(ICity city1, ICity city2) {
+        if (city1.sameName(city2)) {
+            return true;
+        }
+        int firstCityId = this.map.getCityId(city1.getName());
+        int secondCityId = this.map.getCityId(city2.getName());
+        return firstCityId != ITrainMap.NO_CITY && secondCityId != ITrainMap.NO_CITY
+            && this.find(firstCityId) == this.find(secondCityId);
+    }
+
+    /**
+     * Determines whether the two cities of the given destination are connected.
+     *
+     * @param destination the destination to check.
+     * @return whether the destination is completed by the added connections.
+     */
+    public boolean isDestinationConnected(Destination destination) {
+        return this.areConnected(destination.left, destination.right);
+    }
+
+    /**
+     * Calculates the number of the given destinations that are connected.
+     *
+     * @param destinations the destinations to check.
+     * @return an integer in the range [0, destinations.size()] representing the number of
+     * destinations completed.
+     */
+    public int calculateNumDestinationsConnected(Set<Destination> destinations) {
+        int numDestinationsConnected = 0;
+        for (Destination destination : destinations) {
+            if (this.isDestinationConnected(destination)) {
+                numDestinationsConnected += 1;
+            }
+        }
+        return numDestinationsConnected;
+    }
+
+    /**
+     * Calculates the number of cities that are connected to the given city, including itself,
+     * which measures progress towards destinations that are not yet connected.
+     *
+     * @param city the city to start from.
+     * @return the number of cities that can be reached from the given city, or 0 if the city is not
+     * in the map.
+     */
+    public int calculateNumCitiesConnectedTo(ICity city) {
+        int cityId = this.map.getCityId(city.getName());
+        return cityId == ITrainMap.NO_CITY ? 0 : this.componentSizes[this.find(cityId)];
+    }
+
+    /**
+     * Determines whether this tracks the cities of the given map.
+     *
+     * @param map the map to check.
+     * @return whether the given map is the map this was constructed with.
+     */
+    public boolean isForMap(ITrainMap map) {
+        return this.map == map;
+    }
+
+    /**
+     * Removes every added connection, so that every city is only connected to itself again. This
+     * lets one CityConnectivity be reused for many games on the same map.
+     */
+    public void reset() {
+        for (int cityId = 0; cityId < this.parents.length; cityId += 1) {
+            this.parents[cityId] = cityId;
+            this.componentSizes[cityId] = 1;
+        }
+    }
+
+    /**
+     * Returns a copy of this that can have connections added independently.
+     *
+     * @return the copied CityConnectivity.
+     */
+    public CityConnectivity copy() {
+        return new CityConnectivity(this);
+    }
+
+    private int find(int cityId) {
+        int current = cityId;
+        while (this.parents[current] != current) {
+            current = this.parents[current];
+        }
+        return current;
+    }
+
+    /**
+     * Merges the groups of the two cities, and returns the root that was attached, or NO_MERGE.
+     */
+    private int union(int firstCityId, int secondCityId) {
+        int firstRoot = this.find(firstCityId);
+        int secondRoot = this.find(secondCityId);
+        if (firstRoot == secondRoot) {
+            return NO_MERGE;
+        }
+        // Attach the smaller tree beneath the larger one
+        if (this.componentSizes[firstRoot] < this.componentSizes[secondRoot]) {
+            int temp = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = temp;
+        }
+        this.parents[secondRoot] = firstRoot;
+        this.componentSizes[firstRoot] += this.componentSizes[secondRoot];
+        return secondRoot;
+    }
+}
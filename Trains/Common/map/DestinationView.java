@@ -0,0 +1,323 @@
+package map;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A read-only view of every destination in a map, which is every pair of distinct cities connected
+ * by some series of rail connections.
+ * <p>
+ * The destinations are not stored. Only the connected component of each city is stored, and the
+ * destinations are numbered in lexicographic order (the order of {@link Destination#compareTo}),
+ * so that the destination with any index is found in logarithmic time and the index of any pair
+ * of cities in constant time. A Destination object is only created when one is requested.
+ */
+public class DestinationView implements Iterable<Destination> {
+
+    private static final int INITIAL_DEALT_CAPACITY = 16;
+
+    private final ITrainMap map;
+    // The IDs of the cities in each component, in increasing order, with components one after
+    // another
+    private final int[] citiesByComponent;
+    // The index in citiesByComponent where the component of each city ends
+    private final int[] componentEnds;
+    // The index of each city in citiesByComponent
+    private final int[] positions;
+    // The number of destinations whose first city has a smaller ID than each city, with the total
+    // number of destinations at the end
+    private final long[] destinationsBefore;
+
+    /**
+     * Calculates the connected components of the given map.
+     *
+     * @param map the map whose destinations are viewed.
+     */
+    public DestinationView(ITrainMap map) {
+        Objects.requireNonNull(map);
+        this.map = map;
+        int numCities = map.getNumCities();
+
+        CityConnectivity connectivity = new CityConnectivity(map);
+        for (int connectionId = 0; connectionId < map.getNumRailConnections();
+            connectionId += 1) {
+            connectivity.connectCities(
+                map.getFirstCityId(connectionId), map.getSecondCityId(connectionId));
+        }
+
+        // Count the cities of each component, indexed by the component's representative city
+        int[] componentSizes = new int[numCities];
+        for (int cityId = 0; cityId < numCities; cityId += 1) {
+            componentSizes[connectivity.findRepresentative(cityId)] += 1;
+        }
+        // Lay out the components in the order of their first cities
+        int[] componentStarts = new int[numCities];
+        int nextStart = 0;
+        for (int cityId = 0; cityId < numCities; cityId += 1) {
+            int representative = connectivity.findRepresentative(cityId);
+            if (componentSizes[representative] > 0) {
+                componentStarts[representative] = nextStart;
+                nextStart += componentSizes[representative];
+                // Marks the component as laid out
+                componentSizes[representative] = -componentSizes[representative];
+            }
+        }
+
+        this.citiesByComponent = new int[numCities];
+        this.componentEnds = new int[numCities];
+        this.positions = new int[numCities];
+        this.destinationsBefore = new long[numCities + 1];
+        int[] nextPositions = Arrays.copyOf(componentStarts, numCities);
+        for (int cityId = 0; cityId < numCities; cityId += 1) {
+            int representative = connectivity.findRepresentative(cityId);
+            int position = nextPositions[representative];
+            nextPositions[representative] += 1;
+            this.citiesByComponent[position] = cityId;
+            this.positions[cityId] = position;
+            this.componentEnds[cityId] =
+                componentStarts[representative] - componentSizes[representative];
+            // Every later city in the component forms a destination with this city
+            int numLaterCities = this.componentEnds[cityId] - position - 1;
+            this.destinationsBefore[cityId + 1] = this.destinationsBefore[cityId] + numLaterCities;
+        }
+    }
+
+    /**
+     * Gets the number of destinations in the map.
+     *
+     * @return the number of destinations.
+     */
+    public long size() {
+        return this.destinationsBefore[this.destinationsBefore.length - 1];
+    }
+
+    /**
+     * Gets the destination with the given index, where destinations are in lexicographic order.
+     *
+     * @param index the index of the destination, in [0, size()).
+     * @return the destination.
+     * @throws IndexOutOfBoundsException if the index is not in [0, size()).
+     */
+    public Destination get(long index) {
+        int firstCityId = this.getFirstCityId(index);
+        return new Destination(
+            this.map.getCity(firstCityId),
+            this.map.getCity(this.getSecondCityId(firstCityId, index)));
+    }
+
+    /**
+     * Gets the ID of the lexicographically first city of the destination with the given index.
+     *
+     * @param index the index of the destination, in [0, size()).
+     * @return the ID of the city in the map.
+     * @throws IndexOutOfBoundsException if the index is not in [0, size()).
+     */
+    public int getFirstCityId(long index) {
+        Objects.checkIndex(index, this.size());
+        // Find the last city whose destinations start at or before the index
+        int low = 0;
+        int high = this.destinationsBefore.length - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (this.destinationsBefore[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the ID of the lexicographically second city of the destination with the given index.
+     *
+     * @param index the index of the destination, in [0, size()).
+     * @return the ID of the city in the map.
+     * @throws IndexOutOfBoundsException if the index is not in [0, size()).
+     */
+    public int getSecondCityId(long index) {
+        return this.getSecondCityId(this.getFirstCityId(index), index);
+    }
+
+    private int getSecondCityId(int firstCityId, long index) {
+        long offset = index - this.destinationsBefore[firstCityId];
+        return this.citiesByComponent[this.positions[firstCityId] + 1 + (int) offset];
+    }
+
+    /**
+     * Finds the index of the destination between the two given cities.
+     *
+     * @param city1 one city.
+     * @param city2 another city.
+     * @return the index of the destination, or -1 if the cities are not a destination in the map.
+     */
+    public long indexOf(ICity city1, ICity city2) {
+        int cityId1 = this.map.getCityId(city1.getName());
+        int cityId2 = this.map.getCityId(city2.getName());
+        if (cityId1 == ITrainMap.NO_CITY || cityId2 == ITrainMap.NO_CITY || cityId1 == cityId2) {
+            return -1;
+        }
+        int firstCityId = Math.min(cityId1, cityId2);
+        int secondCityId = Math.max(cityId1, cityId2);
+        int firstPosition = this.positions[firstCityId];
+        int secondPosition = this.positions[secondCityId];
+        // Each component ends at a different position
+        if (this.componentEnds[secondCityId] != this.componentEnds[firstCityId]) {
+            return -1;
+        }
+        return this.destinationsBefore[firstCityId] + secondPosition - firstPosition - 1;
+    }
+
+    /**
+     * Determines whether the two given cities are a destination in the map.
+     *
+     * @param city1 one city.
+     * @param city2 another city.
+     * @return whether the cities are distinct and connected by some series of rail connections.
+     */
+    public boolean contains(ICity city1, ICity city2) {
+        return this.indexOf(city1, city2) >= 0;
+    }
+
+    /**
+     * Streams every destination in lexicographic order, creating each one as it is reached.
+     *
+     * @return the stream of destinations.
+     */
+    public Stream<Destination> stream() {
+        return LongStream.range(0, this.size()).mapToObj(this::get);
+    }
+
+    @Override
+    public Iterator<Destination> iterator() {
+        return this.stream().iterator();
+    }
+
+    /**
+     * Gets a read-only list view of the destinations in lexicographic order. Since destinations
+     * are only created when requested, the first k destinations in lexicographic order are found
+     * without sorting, or even creating, the others.
+     * <p>
+     * The list contains every destination, or the first Integer.MAX_VALUE destinations if there
+     * are more than a list can hold.
+     *
+     * @return the list of destinations.
+     */
+    public List<Destination> asList() {
+        return new LexicographicDestinationList();
+    }
+
+    /**
+     * Gets a read-only list view of the destinations in a random order, which deals destinations
+     * as they are requested. Only the destinations that have been requested are shuffled, using a
+     * partial Fisher-Yates shuffle over their indices, so requesting the first k destinations takes
+     * time and memory proportional to k rather than to the number of destinations.
+     * <p>
+     * The list contains every destination, or the first Integer.MAX_VALUE of the shuffled
+     * destinations if there are more than a list can hold. The same random seed always produces
+     * the same order.
+     *
+     * @param random the source of randomness that determines the order.
+     * @return the list of destinations.
+     */
+    public List<Destination> asShuffledList(Random random) {
+        Objects.requireNonNull(random);
+        return new ShuffledDestinationList(random);
+    }
+
+    /**
+     * A list of the destinations in lexicographic order.
+     */
+    private class LexicographicDestinationList extends AbstractList<Destination>
+        implements RandomAccess {
+
+        private final int size;
+
+        private LexicographicDestinationList() {
+            this.size = (int) Math.min(DestinationView.this.size(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Destination get(int index) {
+            Objects.checkIndex(index, this.size);
+            return DestinationView.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
+
+    /**
+     * A list of the destinations in a random order that is decided as elements are requested.
+     * Element i is chosen uniformly from the destinations that are not among the first i elements,
+     * and displaced records where the destinations that have been swapped out of the way are now.
+     */
+    private class ShuffledDestinationList extends AbstractList<Destination>
+        implements RandomAccess {
+
+        private final Random random;
+        private final int size;
+        // The destination indices of the elements that have been dealt so far
+        private long[] dealtIndices;
+        private int numDealt;
+        // For each position in the shuffle that holds a different destination index than its own,
+        // the destination index that it holds
+        private final Map<Long, Long> displaced;
+
+        private ShuffledDestinationList(Random random) {
+            this.random = random;
+            this.size = (int) Math.min(DestinationView.this.size(), Integer.MAX_VALUE);
+            this.dealtIndices = new long[Math.min(this.size, INITIAL_DEALT_CAPACITY)];
+            this.numDealt = 0;
+            this.displaced = new HashMap<>();
+        }
+
+        @Override
+        public synchronized Destination get(int index) {
+            Objects.checkIndex(index, this.size);
+            while (this.numDealt <= index) {
+                this.dealNext();
+            }
+            return DestinationView.this.get(this.dealtIndices[index]);
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Performs one step of the Fisher-Yates shuffle: swaps a random remaining destination into
+         * the next position and deals it.
+         */
+        private void dealNext() {
+            long position = this.numDealt;
+            long chosen = position + this.random.nextLong(DestinationView.this.size() - position);
+            long chosenIndex = this.displaced.getOrDefault(chosen, chosen);
+            long positionIndex = this.displaced.getOrDefault(position, position);
+            // The position is never chosen again, so only the chosen slot needs to remember
+            this.displaced.remove(position);
+            if (chosen != position) {
+                this.displaced.put(chosen, positionIndex);
+            }
+
+            if (this.numDealt == this.dealtIndices.length) {
+                this.dealtIndices = Arrays.copyOf(this.dealtIndices,
+                    (int) Math.min((long) this.dealtIndices.length * 2, this.size));
+            }
+            this.dealtIndices[this.numDealt] = chosenIndex;
+            this.numDealt += 1;
+        }
+    }
+}
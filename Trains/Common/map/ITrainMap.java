@@ -15,6 +15,11 @@ import utils.UnorderedPair;
  */
 public interface ITrainMap {
 
+  /**
+   * The ID looked up for a city name that is not in the map.
+   */
+  int NO_CITY = -1;
+
   /**
    * All of the cities in the map.
    *
@@ -29,6 +34,20 @@ public interface ITrainMap {
    */
   Set<IRailConnection> getRailConnections();
 
+  /**
+   * All of the cities in the map, without copying.
+   *
+   * @return a read-only view of the cities that throws on any attempt to modify it.
+   */
+  Set<ICity> getCitiesView();
+
+  /**
+   * All of the connections that exist among the cities in the map, without copying.
+   *
+   * @return a read-only view of the rail connections that throws on any attempt to modify it.
+   */
+  Set<IRailConnection> getRailConnectionsView();
+
   /**
    * The names of all of the cities in the map.
    *
@@ -44,9 +63,116 @@ public interface ITrainMap {
    */
   Set<UnorderedPair<ICity>> getAllPossibleDestinations();
 
+  /**
+   * Gets a view of every possible pair of cities that can be connected by any series of rail
+   * connections on this map, which answers questions about the destinations without creating an
+   * object for each one.
+   *
+   * @return the destinations of this map in lexicographic order.
+   */
+  DestinationView getDestinationView();
+
     /**
      * Get teh dimensions of this map in pixels.
      * @return a MapDimensions object, an ordered pair representing the width and height of this map in pixels.
      */
   MapDimensions getMapDimension();
+
+  /**
+   * The number of cities in the map. Cities are identified by the dense IDs 0 to
+   * getNumCities() - 1, assigned in lexicographic order of their names.
+   *
+   * @return the number of cities.
+   */
+  int getNumCities();
+
+  /**
+   * The number of connections in the map. Connections are identified by the dense IDs 0 to
+   * getNumRailConnections() - 1, assigned in the order of
+   * {@link utils.ComparatorUtils#lexicographicCompareConnection(IRailConnection, IRailConnection)}.
+   *
+   * @return the number of rail connections.
+   */
+  int getNumRailConnections();
+
+  /**
+   * Gets the city with the given ID.
+   *
+   * @param cityId an ID in [0, getNumCities()).
+   * @return the city.
+   * @throws IndexOutOfBoundsException if there is no city with the given ID.
+   */
+  ICity getCity(int cityId);
+
+  /**
+   * Looks up the ID of the city with the given name.
+   *
+   * @param cityName the name of the city.
+   * @return the ID of the city, or NO_CITY if no city in this map has that name.
+   */
+  int getCityId(String cityName);
+
+  /**
+   * Gets the connection with the given ID.
+   *
+   * @param connectionId an ID in [0, getNumRailConnections()).
+   * @return the rail connection.
+   * @throws IndexOutOfBoundsException if there is no connection with the given ID.
+   */
+  IRailConnection getRailConnection(int connectionId);
+
+  /**
+   * Looks up the ID of the connection in this map between the same two cities and of the same
+   * color as the given one, in constant time. The length of the given connection is not compared.
+   *
+   * @param connection the connection to look up.
+   * @return the ID of the matching connection, or -1 if this map has no such connection.
+   */
+  int getRailConnectionId(IRailConnection connection);
+
+  /**
+   * Looks up the ID of the connection of the given color between the two given cities, in
+   * constant time. The order of the cities does not matter.
+   *
+   * @param cityId1 the ID of one endpoint city.
+   * @param cityId2 the ID of the other endpoint city.
+   * @param color the color of the connection.
+   * @return the ID of the matching connection, or -1 if this map has no such connection.
+   */
+  int getRailConnectionId(int cityId1, int cityId2, RailColor color);
+
+  /**
+   * Gets the ID of the endpoint of the given connection whose name is lexicographically first.
+   *
+   * @param connectionId the ID of the connection.
+   * @return the ID of the first endpoint city.
+   */
+  int getFirstCityId(int connectionId);
+
+  /**
+   * Gets the ID of the endpoint of the given connection whose name is lexicographically last.
+   *
+   * @param connectionId the ID of the connection.
+   * @return the ID of the second endpoint city.
+   */
+  int getSecondCityId(int connectionId);
+
+  /**
+   * The number of connections that have the given city as an endpoint.
+   *
+   * @param cityId the ID of the city.
+   * @return the degree of the city.
+   */
+  int getNumIncidentConnections(int cityId);
+
+  /**
+   * Gets one of the connections that have the given city as an endpoint. Together with
+   * {@link #getNumIncidentConnections(int)} this allows iterating over the neighbors of a city
+   * without allocating.
+   *
+   * @param cityId the ID of the city.
+   * @param index an index in [0, getNumIncidentConnections(cityId)).
+   * @return the ID of the incident connection.
+   */
+  int getIncidentConnectionId(int cityId, int index);
 }
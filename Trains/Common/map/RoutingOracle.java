@@ -0,0 +1,490 @@
+package map;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers routing queries about one map: the fewest segments and the fewest connections needed to
+ * travel between any two cities, the route that needs the fewest segments, and how many segments
+ * are still needed once a player owns some connections.
+ * <p>
+ * Every distance is calculated once, over the city and connection IDs of the map, when the oracle
+ * is constructed. Oracles are cached by the content of their map, since city and connection IDs
+ * only depend on the names, colors and lengths in the map, so {@link #forMap(ITrainMap)} returns
+ * the same oracle to every player in a game and to every game played on an equal map.
+ * <p>
+ * The cache holds maps weakly, like the cache of encoded maps, and holds each oracle only as long
+ * as some map it was found for is in use, so a server that plays many maps does not keep the
+ * oracle of every map it has seen.
+ * <p>
+ * The oracle is immutable and thread safe. Distances ignore who owns each connection, apart from
+ * {@link RemainingCosts}.
+ */
+public class RoutingOracle {
+
+    /**
+     * The distance between two cities that no series of connections connects.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int NO_CONNECTION = -1;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    // The oracle of each map in use, which keeps the oracle alive as long as the map is
+    private static final Map<ITrainMap, RoutingOracle> ORACLES_BY_MAP =
+        Collections.synchronizedMap(new WeakHashMap<>());
+    // The oracles of maps in use by the content hash of their maps, so that equal maps share one
+    private static final Map<Long, OracleReference> ORACLES_BY_CONTENT_HASH =
+        new ConcurrentHashMap<>();
+    private static final ReferenceQueue<RoutingOracle> CLEARED_ORACLES = new ReferenceQueue<>();
+
+    private final int numCities;
+
+    // The content of the map the oracle was built from, to tell apart maps with equal hashes
+    private final String[] cityNames;
+    private final Map<String, Integer> cityIdsByName;
+    private final IRailConnection[] connections;
+    private final Map<IRailConnection, Integer> connectionIds;
+    private final int[] firstCityIds;
+    private final int[] secondCityIds;
+
+    // Row-major numCities by numCities matrices, indexed by [fromCityId * numCities + toCityId]
+    private final int[] minSegments;
+    private final int[] minConnections;
+    // The first connection on a route with the fewest segments, and the fewest connections among
+    // those routes, or NO_CONNECTION from a city to itself or to a city it cannot reach
+    private final int[] firstConnectionOnRoute;
+
+    private RoutingOracle(ITrainMap map) {
+        this.numCities = map.getNumCities();
+        this.cityNames = new String[this.numCities];
+        this.cityIdsByName = new HashMap<>();
+        for (int cityId = 0; cityId < this.numCities; cityId += 1) {
+            this.cityNames[cityId] = map.getCity(cityId).getName();
+            this.cityIdsByName.put(this.cityNames[cityId], cityId);
+        }
+        int numConnections = map.getNumRailConnections();
+        this.connections = new IRailConnection[numConnections];
+        this.connectionIds = new HashMap<>();
+        this.firstCityIds = new int[numConnections];
+        this.secondCityIds = new int[numConnections];
+        for (int connectionId = 0; connectionId < numConnections; connectionId += 1) {
+            this.connections[connectionId] = map.getRailConnection(connectionId);
+            this.connectionIds.put(this.connections[connectionId], connectionId);
+            this.firstCityIds[connectionId] = map.getFirstCityId(connectionId);
+            this.secondCityIds[connectionId] = map.getSecondCityId(connectionId);
+        }
+
+        int matrixSize = this.numCities * this.numCities;
+        this.minSegments = new int[matrixSize];
+        this.minConnections = new int[matrixSize];
+        this.firstConnectionOnRoute = new int[matrixSize];
+        this.calculateAllPairs();
+    }
+
+    /**
+     * Gets the oracle for the given map, building it unless a map in use with the same content
+     * already has one. Building takes time cubic in the number of cities, which is seconds for
+     * maps of a thousand cities, so a strategy should only get the oracle once it needs one.
+     * <p>
+     * The oracle is built without holding the lock of the cache, so callers for other maps are
+     * not held up by it. Callers that race to build the oracle of the same map each build one,
+     * and the first to finish is cached and returned to all of them.
+     *
+     * @param map the map to route on.
+     * @return the shared oracle for maps with the same cities and connections as the given map.
+     */
+    public static RoutingOracle forMap(ITrainMap map) {
+        Objects.requireNonNull(map);
+        RoutingOracle cached = ORACLES_BY_MAP.get(map);
+        if (cached != null) {
+            return cached;
+        }
+        RoutingOracle found = findOrBuildForMap(map);
+        cached = ORACLES_BY_MAP.putIfAbsent(map, found);
+        return cached == null ? found : cached;
+    }
+
+    /**
+     * Finds the oracle of a map in use with the same content as the given map, or builds one.
+     */
+    private static RoutingOracle findOrBuildForMap(ITrainMap map) {
+        Reference<? extends RoutingOracle> cleared = CLEARED_ORACLES.poll();
+        while (cleared != null) {
+            OracleReference reference = (OracleReference) cleared;
+            ORACLES_BY_CONTENT_HASH.remove(reference.contentHash, reference);
+            cleared = CLEARED_ORACLES.poll();
+        }
+
+        long contentHash = calculateContentHash(map);
+        OracleReference reference = ORACLES_BY_CONTENT_HASH.get(contentHash);
+        RoutingOracle oracle = reference == null ? null : reference.get();
+        if (oracle != null && oracle.isForMap(map)) {
+            return oracle;
+        }
+        RoutingOracle built = new RoutingOracle(map);
+        // A different map in use with the same hash keeps its entry, so this one is not shared
+        if (oracle == null) {
+            // Another caller may have cached an oracle for an equal map while this one was built
+            OracleReference cached = ORACLES_BY_CONTENT_HASH.compute(contentHash,
+                (hash, current) -> current == null || current.get() == null
+                    ? new OracleReference(built, hash) : current);
+            RoutingOracle cachedOracle = cached.get();
+            if (cachedOracle != null && cachedOracle.isForMap(map)) {
+                return cachedOracle;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * A weak reference to an oracle that remembers the content hash it is cached by, so that its
+     * entry can be removed once the oracle is no longer used.
+     */
+    private static class OracleReference extends WeakReference<RoutingOracle> {
+
+        private final long contentHash;
+
+        private OracleReference(RoutingOracle oracle, long contentHash) {
+            super(oracle, CLEARED_ORACLES);
+            this.contentHash = contentHash;
+        }
+    }
+
+    /**
+     * Hashes the cities and connections of the given map in ID order, which does not depend on the
+     * order the map was constructed in.
+     */
+    private static long calculateContentHash(ITrainMap map) {
+        long hash = map.getNumCities();
+        for (int cityId = 0; cityId < map.getNumCities(); cityId += 1) {
+            hash = mix(hash, map.getCity(cityId).getName().hashCode());
+        }
+        for (int connectionId = 0; connectionId < map.getNumRailConnections();
+            connectionId += 1) {
+            IRailConnection connection = map.getRailConnection(connectionId);
+            hash = mix(hash, map.getFirstCityId(connectionId));
+            hash = mix(hash, map.getSecondCityId(connectionId));
+            hash = mix(hash, connection.getColor().ordinal());
+            hash = mix(hash, connection.getLength());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        long mixed = (hash ^ value) * HASH_MULTIPLIER;
+        return mixed ^ (mixed >>> 29);
+    }
+
+    /**
+     * Calculates the distances between every pair of cities with the Floyd-Warshall algorithm,
+     * starting from the connections between neighboring cities.
+     */
+    private void calculateAllPairs() {
+        Arrays.fill(this.minSegments, UNREACHABLE);
+        Arrays.fill(this.minConnections, UNREACHABLE);
+        Arrays.fill(this.firstConnectionOnRoute, NO_CONNECTION);
+        // The number of connections on the route recorded in firstConnectionOnRoute, which breaks
+        // ties between routes with the same number of segments
+        int[] routeConnections = new int[this.minSegments.length];
+        Arrays.fill(routeConnections, UNREACHABLE);
+        for (int cityId = 0; cityId < this.numCities; cityId += 1) {
+            int index = this.index(cityId, cityId);
+            this.minSegments[index] = 0;
+            this.minConnections[index] = 0;
+            routeConnections[index] = 0;
+        }
+        for (int connectionId = 0; connectionId < this.connections.length; connectionId += 1) {
+            int length = this.connections[connectionId].getLength();
+            int firstCityId = this.firstCityIds[connectionId];
+            int secondCityId = this.secondCityIds[connectionId];
+            for (int index : new int[] {this.index(firstCityId, secondCityId),
+                this.index(secondCityId, firstCityId)}) {
+                this.minConnections[index] = 1;
+                if (length < this.minSegments[index]) {
+                    this.minSegments[index] = length;
+                    this.firstConnectionOnRoute[index] = connectionId;
+                    routeConnections[index] = 1;
+                }
+            }
+        }
+
+        for (int via = 0; via < this.numCities; via += 1) {
+            for (int from = 0; from < this.numCities; from += 1) {
+                int fromVia = this.index(from, via);
+                if (this.minSegments[fromVia] == UNREACHABLE) {
+                    continue;
+                }
+                for (int to = 0; to < this.numCities; to += 1) {
+                    int viaTo = this.index(via, to);
+                    if (this.minSegments[viaTo] == UNREACHABLE) {
+                        continue;
+                    }
+                    int fromTo = this.index(from, to);
+                    int segments = this.minSegments[fromVia] + this.minSegments[viaTo];
+                    int routeLength = routeConnections[fromVia] + routeConnections[viaTo];
+                    if (segments < this.minSegments[fromTo]
+                        || (segments == this.minSegments[fromTo]
+                        && routeLength < routeConnections[fromTo])) {
+                        this.minSegments[fromTo] = segments;
+                        routeConnections[fromTo] = routeLength;
+                        this.firstConnectionOnRoute[fromTo] = this.firstConnectionOnRoute[fromVia];
+                    }
+                    this.minConnections[fromTo] = Math.min(this.minConnections[fromTo],
+                        this.minConnections[fromVia] + this.minConnections[viaTo]);
+                }
+            }
+        }
+    }
+
+    private int index(int fromCityId, int toCityId) {
+        return fromCityId * this.numCities + toCityId;
+    }
+
+    /**
+     * Determines whether this oracle answers queries for the given map, which is when the map has
+     * the same cities and connections as the map this was built from.
+     *
+     * @param map the map to check.
+     * @return whether the map has the same content as the map of this oracle.
+     */
+    public boolean isForMap(ITrainMap map) {
+        if (map.getNumCities() != this.numCities
+            || map.getNumRailConnections() != this.connections.length) {
+            return false;
+        }
+        for (int cityId = 0; cityId < this.numCities; cityId += 1) {
+            if (!map.getCity(cityId).getName().equals(this.cityNames[cityId])) {
+                return false;
+            }
+        }
+        for (int connectionId = 0; connectionId < this.connections.length; connectionId += 1) {
+            IRailConnection connection = map.getRailConnection(connectionId);
+            if (!connection.equals(this.connections[connectionId])
+                || connection.getLength() != this.connections[connectionId].getLength()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of cities in the map of this oracle, whose IDs are 0 up to this number.
+     *
+     * @return the number of cities.
+     */
+    public int getNumCities() {
+        return this.numCities;
+    }
+
+    /**
+     * Gets the fewest segments on any route between the two cities with the given IDs, which is
+     * the number of rails and cards needed to connect them when no connections are owned.
+     *
+     * @param cityId1 the ID of one city in the map.
+     * @param cityId2 the ID of another city in the map.
+     * @return the number of segments, 0 from a city to itself, or UNREACHABLE.
+     */
+    public int getMinSegments(int cityId1, int cityId2) {
+        return this.minSegments[this.index(cityId1, cityId2)];
+    }
+
+    /**
+     * Gets the fewest segments on any route between the two given cities.
+     *
+     * @param city1 one city in the map.
+     * @param city2 another city in the map.
+     * @return the number of segments, 0 from a city to itself, or UNREACHABLE.
+     * @throws IllegalArgumentException if either city is not in the map.
+     */
+    public int getMinSegments(ICity city1, ICity city2) throws IllegalArgumentException {
+        return this.getMinSegments(this.getCityId(city1), this.getCityId(city2));
+    }
+
+    /**
+     * Gets the fewest connections on any route between the two cities with the given IDs, which
+     * is the number of turns needed to connect them when no connections are owned.
+     *
+     * @param cityId1 the ID of one city in the map.
+     * @param cityId2 the ID of another city in the map.
+     * @return the number of connections, 0 from a city to itself, or UNREACHABLE.
+     */
+    public int getMinConnections(int cityId1, int cityId2) {
+        return this.minConnections[this.index(cityId1, cityId2)];
+    }
+
+    /**
+     * Gets the fewest connections on any route between the two given cities.
+     *
+     * @param city1 one city in the map.
+     * @param city2 another city in the map.
+     * @return the number of connections, 0 from a city to itself, or UNREACHABLE.
+     * @throws IllegalArgumentException if either city is not in the map.
+     */
+    public int getMinConnections(ICity city1, ICity city2) throws IllegalArgumentException {
+        return this.getMinConnections(this.getCityId(city1), this.getCityId(city2));
+    }
+
+    /**
+     * Finds a route between the two given cities with the fewest segments, and the fewest
+     * connections among such routes.
+     *
+     * @param from the city the route starts at.
+     * @param to   the city the route ends at.
+     * @return the connections of the route in order from the first city, which is empty from a
+     * city to itself, or empty if the cities are not connected.
+     * @throws IllegalArgumentException if either city is not in the map.
+     */
+    public Optional<List<IRailConnection>> findShortestRoute(ICity from, ICity to)
+        throws IllegalArgumentException {
+        int currentCityId = this.getCityId(from);
+        int toCityId = this.getCityId(to);
+        if (this.getMinSegments(currentCityId, toCityId) == UNREACHABLE) {
+            return Optional.empty();
+        }
+        List<IRailConnection> route = new ArrayList<>();
+        while (currentCityId != toCityId) {
+            int connectionId = this.firstConnectionOnRoute[this.index(currentCityId, toCityId)];
+            route.add(this.connections[connectionId]);
+            currentCityId = this.firstCityIds[connectionId] == currentCityId
+                ? this.secondCityIds[connectionId] : this.firstCityIds[connectionId];
+        }
+        return Optional.of(route);
+    }
+
+    /**
+     * Calculates how many segments are still needed between every pair of cities by a player who
+     * owns the given connections, which cost nothing to travel along.
+     *
+     * @param ownedConnections the connections owned by the player. Connections that are not in the
+     *                         map are ignored.
+     * @return the remaining costs, which can be updated as the player acquires more connections.
+     */
+    public RemainingCosts calculateRemainingCosts(Set<IRailConnection> ownedConnections) {
+        RemainingCosts remainingCosts = new RemainingCosts(this);
+        for (IRailConnection connection : ownedConnections) {
+            remainingCosts.addOwnedConnection(connection);
+        }
+        return remainingCosts;
+    }
+
+    private int getCityId(ICity city) throws IllegalArgumentException {
+        Integer cityId = this.cityIdsByName.get(city.getName());
+        if (cityId == null) {
+            throw new IllegalArgumentException("City is not in the map: " + city.getName());
+        }
+        return cityId;
+    }
+
+    /**
+     * The fewest segments between every pair of cities for a player who owns some connections, so
+     * that owned connections need no more segments. Adding an owned connection updates every
+     * distance in time quadratic in the number of cities, instead of calculating them again.
+     * <p>
+     * Connections owned by other players are not excluded, so the remaining costs are a lower
+     * bound on what the player must still spend. This class is not thread safe.
+     */
+    public static class RemainingCosts {
+
+        private final RoutingOracle oracle;
+        private final int[] remainingSegments;
+
+        private RemainingCosts(RoutingOracle oracle) {
+            this.oracle = oracle;
+            this.remainingSegments = Arrays.copyOf(oracle.minSegments, oracle.minSegments.length);
+        }
+
+        private RemainingCosts(RemainingCosts other) {
+            this.oracle = other.oracle;
+            this.remainingSegments =
+                Arrays.copyOf(other.remainingSegments, other.remainingSegments.length);
+        }
+
+        /**
+         * Updates the remaining costs after the player acquires the given connection. Any route
+         * that becomes cheaper uses the connection exactly once, so it is a route to one end of the
+         * connection followed by a route from the other end.
+         *
+         * @param connection the connection now owned. It is ignored if it is not in the map.
+         */
+        public void addOwnedConnection(IRailConnection connection) {
+            Integer connectionId = this.oracle.connectionIds.get(connection);
+            if (connectionId == null) {
+                return;
+            }
+            int numCities = this.oracle.numCities;
+            int firstCityId = this.oracle.firstCityIds[connectionId];
+            int secondCityId = this.oracle.secondCityIds[connectionId];
+            int[] toFirst = new int[numCities];
+            int[] toSecond = new int[numCities];
+            for (int cityId = 0; cityId < numCities; cityId += 1) {
+                toFirst[cityId] = this.remainingSegments[this.oracle.index(cityId, firstCityId)];
+                toSecond[cityId] = this.remainingSegments[this.oracle.index(cityId, secondCityId)];
+            }
+            for (int from = 0; from < numCities; from += 1) {
+                for (int to = 0; to < numCities; to += 1) {
+                    int index = this.oracle.index(from, to);
+                    // The distances are symmetric, so the distance from an end to `to` is the
+                    // distance from `to` to that end
+                    int viaConnection = Math.min(add(toFirst[from], toSecond[to]),
+                        add(toSecond[from], toFirst[to]));
+                    if (viaConnection < this.remainingSegments[index]) {
+                        this.remainingSegments[index] = viaConnection;
+                    }
+                }
+            }
+        }
+
+        private static int add(int segments1, int segments2) {
+            if (segments1 == UNREACHABLE || segments2 == UNREACHABLE) {
+                return UNREACHABLE;
+            }
+            return segments1 + segments2;
+        }
+
+        /**
+         * Gets the fewest segments the player still needs to connect the two cities with the
+         * given IDs.
+         *
+         * @param cityId1 the ID of one city in the map.
+         * @param cityId2 the ID of another city in the map.
+         * @return the number of segments, 0 if the cities are already connected, or UNREACHABLE.
+         */
+        public int getRemainingSegments(int cityId1, int cityId2) {
+            return this.remainingSegments[this.oracle.index(cityId1, cityId2)];
+        }
+
+        /**
+         * Gets the fewest segments the player still needs to complete the given destination.
+         *
+         * @param destination a destination between cities in the map.
+         * @return the number of segments, 0 if the destination is complete, or UNREACHABLE.
+         * @throws IllegalArgumentException if either city is not in the map.
+         */
+        public int getRemainingSegments(Destination destination) throws IllegalArgumentException {
+            return this.getRemainingSegments(this.oracle.getCityId(destination.left),
+                this.oracle.getCityId(destination.right));
+        }
+
+        /**
+         * Returns a copy of this that can have connections added independently.
+         *
+         * @return the copied remaining costs.
+         */
+        public RemainingCosts copy() {
+            return new RemainingCosts(this);
+        }
+    }
+}
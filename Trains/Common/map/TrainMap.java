@@ -1,12 +1,16 @@
 package map;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
-import utils.GraphUtility;
+import utils.ComparatorUtils;
 import utils.UnorderedPair;
 
 /**
@@ -16,13 +20,41 @@ import utils.UnorderedPair;
  *
  * <p>Cities must have unique names, at most one rail connection of the same color can connect two
  * cities, and rail connections cannot connect a city to itself.
+ *
+ * <p>On construction the map is also compiled into an integer-indexed form: cities and connections
+ * are given dense IDs in lexicographic order, the connections incident to each city are stored as
+ * compressed sparse rows, and an open-addressing hash index maps a pair of city IDs and a color to
+ * a connection ID. None of the ID-based queries allocate.
  */
 public class TrainMap implements ITrainMap {
 
+    private static final int NO_CONNECTION = -1;
+
     private final Set<ICity> cities;
     private final Set<IRailConnection> railConnections;
+    private final Set<ICity> citiesView;
+    private final Set<IRailConnection> railConnectionsView;
     private final MapDimensions dimensions;
 
+    // City and connection IDs
+    private final ICity[] citiesById;
+    private final Map<String, Integer> cityIdsByName;
+    private final IRailConnection[] connectionsById;
+    private final int[] firstCityIds;
+    private final int[] secondCityIds;
+
+    // Compressed sparse row adjacency: the connections incident to city c are
+    // incidentConnectionIds[incidenceStart[c]] to incidentConnectionIds[incidenceStart[c + 1] - 1]
+    private final int[] incidenceStart;
+    private final int[] incidentConnectionIds;
+
+    // Open-addressing hash index from (first city ID, second city ID, color) to connection ID
+    private final long[] connectionIndexKeys;
+    private final int[] connectionIndexValues;
+
+    // Calculated the first time it is requested, since the map never changes
+    private volatile DestinationView destinationView;
+
     /**
      * Constructs this TrainMap from the given set of cities, defaults to a map size of 400 pixels
      * by 400 pixels.
@@ -57,7 +89,93 @@ public class TrainMap implements ITrainMap {
 
         this.cities = new HashSet<>(cities);
         this.railConnections = new HashSet<>(rails);
+        this.citiesView = Collections.unmodifiableSet(this.cities);
+        this.railConnectionsView = Collections.unmodifiableSet(this.railConnections);
         this.dimensions = dimensions;
+
+        List<ICity> sortedCities = new ArrayList<>(this.cities);
+        sortedCities.sort(ComparatorUtils::lexicographicCompareCity);
+        this.citiesById = sortedCities.toArray(new ICity[0]);
+        this.cityIdsByName = new HashMap<>();
+        for (int cityId = 0; cityId < this.citiesById.length; cityId += 1) {
+            this.cityIdsByName.put(this.citiesById[cityId].getName(), cityId);
+        }
+
+        List<IRailConnection> sortedConnections = new ArrayList<>(this.railConnections);
+        sortedConnections.sort(ComparatorUtils::lexicographicCompareConnection);
+        this.connectionsById = sortedConnections.toArray(new IRailConnection[0]);
+        this.firstCityIds = new int[this.connectionsById.length];
+        this.secondCityIds = new int[this.connectionsById.length];
+        for (int connectionId = 0; connectionId < this.connectionsById.length; connectionId += 1) {
+            UnorderedPair<ICity> endpoints = this.connectionsById[connectionId].getCities();
+            int leftId = this.cityIdsByName.get(endpoints.left.getName());
+            int rightId = this.cityIdsByName.get(endpoints.right.getName());
+            // City IDs follow name order, so the smaller ID is the lexicographically first city
+            this.firstCityIds[connectionId] = Math.min(leftId, rightId);
+            this.secondCityIds[connectionId] = Math.max(leftId, rightId);
+        }
+
+        this.incidenceStart = new int[this.citiesById.length + 1];
+        this.incidentConnectionIds = new int[2 * this.connectionsById.length];
+        this.compileIncidence();
+
+        int indexCapacity = Integer.highestOneBit(Math.max(4 * this.connectionsById.length, 1));
+        this.connectionIndexKeys = new long[indexCapacity];
+        this.connectionIndexValues = new int[indexCapacity];
+        Arrays.fill(this.connectionIndexValues, NO_CONNECTION);
+        for (int connectionId = 0; connectionId < this.connectionsById.length; connectionId += 1) {
+            this.insertIntoConnectionIndex(connectionId);
+        }
+    }
+
+    /**
+     * Fills the compressed sparse row arrays of connections incident to each city.
+     */
+    private void compileIncidence() {
+        for (int connectionId = 0; connectionId < this.connectionsById.length; connectionId += 1) {
+            this.incidenceStart[this.firstCityIds[connectionId] + 1] += 1;
+            this.incidenceStart[this.secondCityIds[connectionId] + 1] += 1;
+        }
+        for (int cityId = 0; cityId < this.citiesById.length; cityId += 1) {
+            this.incidenceStart[cityId + 1] += this.incidenceStart[cityId];
+        }
+        int[] nextSlot = Arrays.copyOf(this.incidenceStart, this.citiesById.length);
+        for (int connectionId = 0; connectionId < this.connectionsById.length; connectionId += 1) {
+            this.incidentConnectionIds[nextSlot[this.firstCityIds[connectionId]]++] = connectionId;
+            this.incidentConnectionIds[nextSlot[this.secondCityIds[connectionId]]++] = connectionId;
+        }
+    }
+
+    /**
+     * Adds the given connection to the hash index using linear probing.
+     *
+     * @param connectionId the ID of a connection whose endpoints have already been compiled.
+     */
+    private void insertIntoConnectionIndex(int connectionId) {
+        long key = connectionIndexKey(this.firstCityIds[connectionId],
+            this.secondCityIds[connectionId], this.connectionsById[connectionId].getColor());
+        int mask = this.connectionIndexKeys.length - 1;
+        int slot = connectionIndexSlot(key, mask);
+        while (this.connectionIndexValues[slot] != NO_CONNECTION) {
+            slot = (slot + 1) & mask;
+        }
+        this.connectionIndexKeys[slot] = key;
+        this.connectionIndexValues[slot] = connectionId;
+    }
+
+    /**
+     * Encodes an ordered pair of city IDs and a color as a single key for the connection index.
+     */
+    private static long connectionIndexKey(int firstCityId, int secondCityId, RailColor color) {
+        return (((long) firstCityId << 32) | ((long) secondCityId << 3)) | color.ordinal();
+    }
+
+    /**
+     * Spreads the bits of the given key over the slots of a table with the given mask.
+     */
+    private static int connectionIndexSlot(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
     }
 
     /**
@@ -107,8 +225,7 @@ public class TrainMap implements ITrainMap {
      */
     public Set<String> getCityNames() {
         // Don't reuse getCities() in case a subclass overwrites that
-        return new HashSet<>(this.cities).stream().map((ICity::getName))
-            .collect(Collectors.toSet());
+        return this.cities.stream().map((ICity::getName)).collect(Collectors.toSet());
     }
 
     /**
@@ -118,13 +235,112 @@ public class TrainMap implements ITrainMap {
      * @return a set of destinations, which are unordered pairs indicating the two endpoint cities.
      */
     public Set<UnorderedPair<ICity>> getAllPossibleDestinations() {
-        Map<ICity, Set<ICity>> adjacencyList =
-            GraphUtility.constructAdjacencyList(
-                this.cities, this.railConnections, IRailConnection::getCities);
-        return GraphUtility.getConnectedPairs(adjacencyList);
+        DestinationView destinations = this.getDestinationView();
+        Set<UnorderedPair<ICity>> result = new HashSet<>();
+        for (long index = 0; index < destinations.size(); index += 1) {
+            int firstCityId = destinations.getFirstCityId(index);
+            int secondCityId = destinations.getSecondCityId(index);
+            result.add(
+                new UnorderedPair<>(this.citiesById[firstCityId], this.citiesById[secondCityId]));
+        }
+        return result;
+    }
+
+    @Override
+    public DestinationView getDestinationView() {
+        DestinationView destinations = this.destinationView;
+        if (destinations == null) {
+            // Calculating it more than once when called concurrently is harmless
+            destinations = new DestinationView(this);
+            this.destinationView = destinations;
+        }
+        return destinations;
     }
 
     public MapDimensions getMapDimension() {
         return new MapDimensions(this.dimensions);
     }
+
+    @Override
+    public Set<ICity> getCitiesView() {
+        return this.citiesView;
+    }
+
+    @Override
+    public Set<IRailConnection> getRailConnectionsView() {
+        return this.railConnectionsView;
+    }
+
+    @Override
+    public int getNumCities() {
+        return this.citiesById.length;
+    }
+
+    @Override
+    public int getNumRailConnections() {
+        return this.connectionsById.length;
+    }
+
+    @Override
+    public ICity getCity(int cityId) {
+        return this.citiesById[cityId];
+    }
+
+    @Override
+    public int getCityId(String cityName) {
+        return this.cityIdsByName.getOrDefault(cityName, NO_CITY);
+    }
+
+    @Override
+    public IRailConnection getRailConnection(int connectionId) {
+        return this.connectionsById[connectionId];
+    }
+
+    @Override
+    public int getRailConnectionId(IRailConnection connection) {
+        UnorderedPair<ICity> endpoints = connection.getCities();
+        return this.getRailConnectionId(this.getCityId(endpoints.left.getName()),
+            this.getCityId(endpoints.right.getName()), connection.getColor());
+    }
+
+    @Override
+    public int getRailConnectionId(int cityId1, int cityId2, RailColor color) {
+        if (cityId1 < 0 || cityId2 < 0) {
+            return NO_CONNECTION;
+        }
+        long key = connectionIndexKey(Math.min(cityId1, cityId2), Math.max(cityId1, cityId2),
+            color);
+        int mask = this.connectionIndexKeys.length - 1;
+        int slot = connectionIndexSlot(key, mask);
+        while (this.connectionIndexValues[slot] != NO_CONNECTION) {
+            if (this.connectionIndexKeys[slot] == key) {
+                return this.connectionIndexValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_CONNECTION;
+    }
+
+    @Override
+    public int getFirstCityId(int connectionId) {
+        return this.firstCityIds[connectionId];
+    }
+
+    @Override
+    public int getSecondCityId(int connectionId) {
+        return this.secondCityIds[connectionId];
+    }
+
+    @Override
+    public int getNumIncidentConnections(int cityId) {
+        return this.incidenceStart[cityId + 1] - this.incidenceStart[cityId];
+    }
+
+    @Override
+    public int getIncidentConnectionId(int cityId, int index) {
+        if (index < 0 || index >= this.getNumIncidentConnections(cityId)) {
+            throw new IndexOutOfBoundsException("No incident connection at index " + index);
+        }
+        return this.incidentConnectionIds[this.incidenceStart[cityId] + index];
+    }
 }
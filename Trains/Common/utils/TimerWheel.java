@@ -0,0 +1,136 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A hashed timer wheel that tracks deadlines for many items at once, such as the deadline for each
+ * connecting client to send its name.
+ * <p>
+ * Time is divided into ticks of a fixed length, and each item is placed in the slot for the tick
+ * its deadline falls in. Scheduling an item and expiring the items of one tick both take time
+ * proportional to the number of items involved, regardless of how many items are scheduled. An
+ * item never expires before its deadline, and expires at most one tick after it.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T> The type of the items whose deadlines are tracked.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<ArrayDeque<ScheduledItem<T>>> slots;
+    private final long startMillis;
+    // The last tick whose items have been expired
+    private long currentTick;
+    private int size;
+
+    private static class ScheduledItem<T> {
+
+        private final T item;
+        private final long deadlineTick;
+
+        private ScheduledItem(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Constructs an empty timer wheel.
+     *
+     * @param tickMillis  the length of one tick in milliseconds.
+     * @param numSlots    the number of slots in the wheel. Deadlines more than numSlots ticks away
+     *                    are supported, but are revisited once per revolution of the wheel.
+     * @param startMillis the time that the wheel starts at, in milliseconds.
+     * @throws IllegalArgumentException if tickMillis or numSlots is not positive.
+     */
+    public TimerWheel(long tickMillis, int numSlots, long startMillis) {
+        if (tickMillis <= 0 || numSlots <= 0) {
+            throw new IllegalArgumentException(
+                "The tick length and number of slots must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>();
+        for (int slot = 0; slot < numSlots; slot += 1) {
+            this.slots.add(new ArrayDeque<>());
+        }
+        this.startMillis = startMillis;
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Schedules the given item to expire at the given deadline.
+     *
+     * @param item           the item to schedule.
+     * @param deadlineMillis the time at which the item expires, in milliseconds.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        Objects.requireNonNull(item);
+        // Round up so that items never expire early
+        long millisFromStart = deadlineMillis - this.startMillis;
+        long deadlineTick = Math.max(this.currentTick + 1,
+            Math.floorDiv(millisFromStart + this.tickMillis - 1, this.tickMillis));
+        this.slotFor(deadlineTick).add(new ScheduledItem<>(item, deadlineTick));
+        this.size += 1;
+    }
+
+    /**
+     * Advances the wheel to the given time and removes every item whose deadline has passed.
+     *
+     * @param nowMillis the current time, in milliseconds.
+     * @return the expired items, in the order of their deadlines.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long nowTick = Math.floorDiv(nowMillis - this.startMillis, this.tickMillis);
+        while (this.currentTick < nowTick && this.size > 0) {
+            this.currentTick += 1;
+            Iterator<ScheduledItem<T>> slot = this.slotFor(this.currentTick).iterator();
+            while (slot.hasNext()) {
+                ScheduledItem<T> scheduled = slot.next();
+                if (scheduled.deadlineTick <= this.currentTick) {
+                    expired.add(scheduled.item);
+                    slot.remove();
+                    this.size -= 1;
+                }
+            }
+        }
+        // Nothing remains to expire between here and now
+        this.currentTick = Math.max(this.currentTick, nowTick);
+        return expired;
+    }
+
+    /**
+     * Calculates how long until the next tick, which is the earliest time any scheduled item could
+     * expire.
+     *
+     * @param nowMillis the current time, in milliseconds.
+     * @return the number of milliseconds until the next tick, at least 1.
+     */
+    public long millisUntilNextTick(long nowMillis) {
+        long elapsedInTick = Math.floorMod(nowMillis - this.startMillis, this.tickMillis);
+        return this.tickMillis - elapsedInTick;
+    }
+
+    /**
+     * Gets the number of items that are scheduled and have not yet expired.
+     *
+     * @return the number of scheduled items.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private ArrayDeque<ScheduledItem<T>> slotFor(long tick) {
+        return this.slots.get((int) Math.floorMod(tick, (long) this.slots.size()));
+    }
+}
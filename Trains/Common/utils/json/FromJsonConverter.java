@@ -326,7 +326,8 @@ public class FromJsonConverter {
                     thisPlayersData.get("rails").getAsInt(),
                     destinations,
                     occupiedConnections),
-                opponentConnections);
+                opponentConnections,
+                map);
         }
         catch (Exception e) {
             throw new IllegalArgumentException("Invalid JSON");
@@ -423,12 +424,13 @@ public class FromJsonConverter {
      */
     public static Destination convertDestinationNamesToDestination(
         UnorderedPair<String> destinationCityNames, ITrainMap map) {
-        Set<UnorderedPair<ICity>> mapDestinations = map.getAllPossibleDestinations();
-        for (UnorderedPair<ICity> mapDestination : mapDestinations) {
-            UnorderedPair<String> mapDestinationNames =
-                new UnorderedPair<>(mapDestination.left.getName(), mapDestination.right.getName());
-            if (destinationCityNames.equals(mapDestinationNames)) {
-                return new Destination(mapDestination);
+        int cityId1 = map.getCityId(destinationCityNames.left);
+        int cityId2 = map.getCityId(destinationCityNames.right);
+        if (cityId1 != ITrainMap.NO_CITY && cityId2 != ITrainMap.NO_CITY) {
+            ICity city1 = map.getCity(cityId1);
+            ICity city2 = map.getCity(cityId2);
+            if (map.getDestinationView().contains(city1, city2)) {
+                return new Destination(city1, city2);
             }
         }
         throw new IllegalArgumentException("Destination doesn't exist in the map");
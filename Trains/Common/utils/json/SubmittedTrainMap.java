@@ -0,0 +1,254 @@
+package utils.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import map.DestinationView;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import utils.UnorderedPair;
+
+/**
+ * A map submitted as JSON, such as by a remote player at the start of a tournament, that is only
+ * parsed into a map when it is first needed.
+ * <p>
+ * The submission is kept as its UTF-8 encoded JSON and a hash of those bytes, so submissions with
+ * the same content are equal and cheap to compare. Only the shape of the JSON is checked when it is
+ * submitted, which also counts its distinct cities and connections, so the number of cities and
+ * of connections are known without parsing. Every other query parses the map the first time, and
+ * throws IllegalArgumentException if it is not a valid map; {@link #parse()} does the same
+ * explicitly.
+ */
+public class SubmittedTrainMap implements ITrainMap {
+
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final byte[] json;
+    private final long contentHash;
+    private final int numCities;
+    private final int numRailConnections;
+
+    private volatile ITrainMap parsedMap;
+    private volatile boolean failedToParse;
+
+    /**
+     * Keeps the given JSON map specification, in the form read by
+     * {@link FromJsonConverter#trainMapFromJson}, without parsing it into a map.
+     *
+     * @param mapSpecification the JSON element representing the entire map specification.
+     * @throws IllegalArgumentException if the JSON is not shaped like a map specification.
+     */
+    public SubmittedTrainMap(JsonElement mapSpecification) throws IllegalArgumentException {
+        try {
+            JsonObject mapObject = mapSpecification.getAsJsonObject();
+            mapObject.get("width").getAsInt();
+            mapObject.get("height").getAsInt();
+            // Cities with the same name, and connections between the same cities with the same
+            // color, are merged when parsed, so only distinct ones are counted
+            Set<String> cityNames = new HashSet<>();
+            for (JsonElement city : mapObject.getAsJsonArray("cities")) {
+                cityNames.add(city.getAsJsonArray().get(0).getAsString());
+            }
+            this.numCities = cityNames.size();
+            Set<List<Object>> connections = new HashSet<>();
+            for (Entry<String, JsonElement> from
+                : mapObject.getAsJsonObject("connections").entrySet()) {
+                for (Entry<String, JsonElement> to : from.getValue().getAsJsonObject().entrySet()) {
+                    UnorderedPair<String> cities = new UnorderedPair<>(from.getKey(), to.getKey());
+                    for (String color : to.getValue().getAsJsonObject().keySet()) {
+                        connections.add(List.of(cities, color.toUpperCase()));
+                    }
+                }
+            }
+            this.numRailConnections = connections.size();
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        this.json = mapSpecification.toString().getBytes(StandardCharsets.UTF_8);
+        this.contentHash = calculateContentHash(this.json);
+    }
+
+    private static long calculateContentHash(byte[] bytes) {
+        long hash = bytes.length;
+        for (byte value : bytes) {
+            long mixed = (hash ^ value) * HASH_MULTIPLIER;
+            hash = mixed ^ (mixed >>> 29);
+        }
+        return hash;
+    }
+
+    /**
+     * Gets a hash of the submitted JSON, which is equal for submissions with equal content.
+     *
+     * @return the hash of the UTF-8 encoded JSON.
+     */
+    public long getContentHash() {
+        return this.contentHash;
+    }
+
+    /**
+     * Determines whether this map has been parsed yet.
+     *
+     * @return true if the submitted JSON has been parsed into a map.
+     */
+    public boolean isParsed() {
+        return this.parsedMap != null;
+    }
+
+    /**
+     * Determines whether this map has been parsed and found not to be a valid map.
+     *
+     * @return true if parsing the submitted JSON has failed.
+     */
+    public boolean hasFailedToParse() {
+        return this.failedToParse;
+    }
+
+    /**
+     * Parses the submitted JSON into a map, if it has not been parsed already. A submission that
+     * fails to parse is not parsed again.
+     *
+     * @return the parsed map, with the same number of cities and connections as this submission.
+     * @throws IllegalArgumentException if the submitted JSON is not a valid map.
+     */
+    public ITrainMap parse() throws IllegalArgumentException {
+        ITrainMap map = this.parsedMap;
+        if (map == null) {
+            if (this.failedToParse) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+            try {
+                map = FromJsonConverter.trainMapFromJson(
+                    JsonParser.parseString(new String(this.json, StandardCharsets.UTF_8)));
+            }
+            catch (IllegalArgumentException e) {
+                this.failedToParse = true;
+                throw e;
+            }
+            this.parsedMap = map;
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SubmittedTrainMap)) {
+            return false;
+        }
+        SubmittedTrainMap otherMap = (SubmittedTrainMap) other;
+        return this.contentHash == otherMap.contentHash && Arrays.equals(this.json, otherMap.json);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.contentHash);
+    }
+
+    @Override
+    public Set<ICity> getCities() {
+        return this.parse().getCities();
+    }
+
+    @Override
+    public Set<IRailConnection> getRailConnections() {
+        return this.parse().getRailConnections();
+    }
+
+    @Override
+    public Set<ICity> getCitiesView() {
+        return this.parse().getCitiesView();
+    }
+
+    @Override
+    public Set<IRailConnection> getRailConnectionsView() {
+        return this.parse().getRailConnectionsView();
+    }
+
+    @Override
+    public Set<String> getCityNames() {
+        return this.parse().getCityNames();
+    }
+
+    @Override
+    public Set<UnorderedPair<ICity>> getAllPossibleDestinations() {
+        return this.parse().getAllPossibleDestinations();
+    }
+
+    @Override
+    public DestinationView getDestinationView() {
+        return this.parse().getDestinationView();
+    }
+
+    @Override
+    public MapDimensions getMapDimension() {
+        return this.parse().getMapDimension();
+    }
+
+    @Override
+    public int getNumCities() {
+        return this.numCities;
+    }
+
+    @Override
+    public int getNumRailConnections() {
+        return this.numRailConnections;
+    }
+
+    @Override
+    public ICity getCity(int cityId) {
+        return this.parse().getCity(cityId);
+    }
+
+    @Override
+    public int getCityId(String cityName) {
+        return this.parse().getCityId(cityName);
+    }
+
+    @Override
+    public IRailConnection getRailConnection(int connectionId) {
+        return this.parse().getRailConnection(connectionId);
+    }
+
+    @Override
+    public int getRailConnectionId(IRailConnection connection) {
+        return this.parse().getRailConnectionId(connection);
+    }
+
+    @Override
+    public int getRailConnectionId(int cityId1, int cityId2, RailColor color) {
+        return this.parse().getRailConnectionId(cityId1, cityId2, color);
+    }
+
+    @Override
+    public int getFirstCityId(int connectionId) {
+        return this.parse().getFirstCityId(connectionId);
+    }
+
+    @Override
+    public int getSecondCityId(int connectionId) {
+        return this.parse().getSecondCityId(connectionId);
+    }
+
+    @Override
+    public int getNumIncidentConnections(int cityId) {
+        return this.parse().getNumIncidentConnections(cityId);
+    }
+
+    @Override
+    public int getIncidentConnectionId(int cityId, int index) {
+        return this.parse().getIncidentConnectionId(cityId, index);
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.ActionChecker;
+import referee.game_state.PlayerData;
+import referee.game_state.TrainsPlayerHand;
+import utils.Constants;
+
+/**
+ * Measures checking whether a player may acquire a connection, cycling through every connection in
+ * the map so that occupied, affordable and unaffordable connections are all checked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ActionCheckerBenchmark {
+
+    private static final int NUM_PLAYERS = 4;
+    private static final int NUM_CONNECTIONS_PER_PLAYER = 10;
+    private static final int NUM_CARDS_PER_COLOR = 4;
+
+    @Param({"10", "100", "500", "2000"})
+    public int numCities;
+
+    private ITrainMap map;
+    private IPlayerGameState playerGameState;
+    private IRailConnection[] connections;
+    private ActionChecker actionChecker;
+    private int nextConnection;
+
+    @Setup
+    public void setUp() {
+        this.map = GeneratedMaps.generateMap(
+            this.numCities, 5 * this.numCities, GeneratedMaps.DEFAULT_SEED);
+        List<Set<IRailConnection>> ownedConnections = GeneratedMaps.generateOwnedConnections(
+            this.map, NUM_PLAYERS, NUM_CONNECTIONS_PER_PLAYER, GeneratedMaps.DEFAULT_SEED);
+        this.playerGameState = createPlayerGameState(ownedConnections);
+        this.connections = this.map.getRailConnections().toArray(new IRailConnection[0]);
+        this.actionChecker = new ActionChecker();
+        this.nextConnection = 0;
+    }
+
+    /**
+     * Creates the game state of the first player, who has a few cards of every color.
+     */
+    private static IPlayerGameState createPlayerGameState(
+        List<Set<IRailConnection>> ownedConnections) {
+        Map<RailCard, Integer> cards = new EnumMap<>(RailCard.class);
+        for (RailCard card : RailCard.values()) {
+            cards.put(card, NUM_CARDS_PER_COLOR);
+        }
+        List<IOpponentInfo> opponentInfo = new ArrayList<>();
+        for (int player = 1; player < ownedConnections.size(); player += 1) {
+            opponentInfo.add(new OpponentInfo(ownedConnections.get(player)));
+        }
+        return new PlayerGameState(
+            new PlayerData(new TrainsPlayerHand(cards), Constants.PLAYER_NUM_RAILS_START,
+                new HashSet<>(), ownedConnections.get(0)),
+            opponentInfo);
+    }
+
+    @Benchmark
+    public boolean canAcquireConnection() {
+        IRailConnection connection = this.connections[this.nextConnection];
+        this.nextConnection = (this.nextConnection + 1) % this.connections.length;
+        return this.actionChecker.canAcquireConnection(this.playerGameState, this.map, connection);
+    }
+}
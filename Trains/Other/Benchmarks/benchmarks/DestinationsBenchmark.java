@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.ICity;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.UnorderedPair;
+
+/**
+ * Measures calculating every destination in a map, which the referee does at the start of every
+ * game to deal destinations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DestinationsBenchmark {
+
+    @Param({"10", "100", "500", "2000"})
+    public int numCities;
+
+    private ITrainMap map;
+
+    @Setup
+    public void setUp() {
+        this.map = GeneratedMaps.generateMap(
+            this.numCities, 5 * this.numCities, GeneratedMaps.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public Set<UnorderedPair<ICity>> getAllPossibleDestinations() {
+        return this.map.getAllPossibleDestinations();
+    }
+}
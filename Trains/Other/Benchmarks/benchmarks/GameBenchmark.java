@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import player.IPlayer;
+import player.Player;
+import referee.GameEndReport;
+import referee.TrainsReferee;
+import referee.TrainsReferee.RefereeBuilder;
+import strategy.BuyNow;
+import test_utils.TrainsMapUtils;
+
+/**
+ * Measures playing an entire game between players using the BuyNow strategy, from dealing
+ * destinations to calculating the game end report. The deck and the order of destinations are
+ * seeded, so every game is the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GameBenchmark {
+
+    @Param({"10", "100", "500", "2000"})
+    public int numCities;
+
+    @Param({"2", "8"})
+    public int numPlayers;
+
+    private ITrainMap map;
+
+    @Setup
+    public void setUp() {
+        this.map = GeneratedMaps.generateMap(
+            this.numCities, 5 * this.numCities, GeneratedMaps.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public GameEndReport playGame() {
+        LinkedHashMap<String, IPlayer> players = new LinkedHashMap<>();
+        for (int index = 0; index < this.numPlayers; index += 1) {
+            players.put("player" + (char) ('a' + index), new Player(new BuyNow()));
+        }
+        TrainsReferee referee = new RefereeBuilder(this.map, players)
+            .destinationProvider(
+                TrainsMapUtils.seededDestinationProvider(GeneratedMaps.DEFAULT_SEED))
+            .deckProvider(TrainsMapUtils.seededDeckSupplier(GeneratedMaps.DEFAULT_SEED))
+            .build();
+        referee.playGame();
+        return referee.calculateGameEndReport();
+    }
+}
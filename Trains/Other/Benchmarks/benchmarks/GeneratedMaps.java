@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import map.City;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.MapDimensions;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import utils.UnorderedPair;
+
+/**
+ * Generates the maps and owned connections used as inputs to the benchmarks. Every input is
+ * determined by its size and a seed, so runs of the same benchmark measure the same work.
+ */
+public class GeneratedMaps {
+
+    public static final long DEFAULT_SEED = 4500;
+    private static final int[] RAIL_LENGTHS = {3, 4, 5};
+
+    /**
+     * Generates a connected map with the given number of cities and connections. The connections
+     * form a random spanning tree of the cities, plus random additional connections.
+     *
+     * @param numCities      the number of cities, at least 2.
+     * @param numConnections the number of connections, at least numCities - 1 and at most the
+     *                       number of distinct connections between the cities.
+     * @param seed           the seed that determines the map.
+     * @return the generated map.
+     * @throws IllegalArgumentException if the numbers of cities and connections are not possible.
+     */
+    public static ITrainMap generateMap(int numCities, int numConnections, long seed) {
+        long maxConnections =
+            (long) numCities * (numCities - 1) / 2 * RailColor.values().length;
+        if (numCities < 2 || numConnections < numCities - 1 || numConnections > maxConnections) {
+            throw new IllegalArgumentException(
+                "Cannot generate " + numConnections + " connections between " + numCities
+                    + " cities");
+        }
+        Random random = new Random(seed);
+
+        List<ICity> cities = new ArrayList<>();
+        for (int index = 0; index < numCities; index += 1) {
+            cities.add(new City(String.format("City %05d", index),
+                random.nextDouble(), random.nextDouble()));
+        }
+
+        Set<IRailConnection> connections = new HashSet<>();
+        // Connect each city to one before it, so that every city is reachable
+        for (int index = 1; index < numCities; index += 1) {
+            connections.add(randomConnection(
+                cities.get(index), cities.get(random.nextInt(index)), random));
+        }
+        while (connections.size() < numConnections) {
+            int first = random.nextInt(numCities);
+            int second = random.nextInt(numCities - 1);
+            if (second >= first) {
+                second += 1;
+            }
+            connections.add(randomConnection(cities.get(first), cities.get(second), random));
+        }
+
+        return new TrainMap(new HashSet<>(cities), connections,
+            new MapDimensions(MapDimensions.MAX_DIMENSION, MapDimensions.MAX_DIMENSION));
+    }
+
+    /**
+     * Generates the connections owned by each player in a game on the given map, where each
+     * player grows one network of adjacent connections from a random city, as a player following
+     * its destinations would. No connection is owned by more than one player.
+     *
+     * @param map                      the map the connections are in.
+     * @param numPlayers               the number of players.
+     * @param numConnectionsPerPlayer  the maximum number of connections owned by each player.
+     * @param seed                     the seed that determines the connections.
+     * @return the connections owned by each player.
+     */
+    public static List<Set<IRailConnection>> generateOwnedConnections(
+        ITrainMap map, int numPlayers, int numConnectionsPerPlayer, long seed) {
+        Random random = new Random(seed);
+        boolean[] occupied = new boolean[map.getNumRailConnections()];
+        List<Set<IRailConnection>> ownedConnections = new ArrayList<>();
+
+        for (int player = 0; player < numPlayers; player += 1) {
+            Set<IRailConnection> owned = new HashSet<>();
+            List<Integer> reachedCities = new ArrayList<>();
+            reachedCities.add(random.nextInt(map.getNumCities()));
+            int numAttempts = 0;
+            while (owned.size() < numConnectionsPerPlayer
+                && numAttempts < 10 * numConnectionsPerPlayer) {
+                numAttempts += 1;
+                int cityId = reachedCities.get(random.nextInt(reachedCities.size()));
+                int numIncident = map.getNumIncidentConnections(cityId);
+                int connectionId =
+                    map.getIncidentConnectionId(cityId, random.nextInt(numIncident));
+                if (!occupied[connectionId]) {
+                    occupied[connectionId] = true;
+                    owned.add(map.getRailConnection(connectionId));
+                    int otherCityId = map.getFirstCityId(connectionId) == cityId
+                        ? map.getSecondCityId(connectionId) : map.getFirstCityId(connectionId);
+                    reachedCities.add(otherCityId);
+                }
+            }
+            ownedConnections.add(owned);
+        }
+        return ownedConnections;
+    }
+
+    private static IRailConnection randomConnection(ICity city1, ICity city2, Random random) {
+        RailColor[] colors = RailColor.values();
+        return new RailConnection(new UnorderedPair<>(city1, city2),
+            RAIL_LENGTHS[random.nextInt(RAIL_LENGTHS.length)],
+            colors[random.nextInt(colors.length)]);
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.OpponentInfo;
+import game_state.PlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.Destination;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.game_state.PlayerData;
+import referee.game_state.TrainsPlayerHand;
+import utils.json.FromJsonConverter;
+import utils.json.ToJsonConverter;
+
+/**
+ * Measures converting maps and player game states between their JSON and object forms, which is
+ * done for every message exchanged with a remote player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonBenchmark {
+
+    private static final int NUM_PLAYERS = 4;
+    private static final int NUM_CONNECTIONS_PER_PLAYER = 15;
+    private static final int NUM_CARDS_PER_COLOR = 5;
+
+    @Param({"10", "100", "500", "2000"})
+    public int numCities;
+
+    private JsonElement mapJson;
+    private IPlayerGameState playerGameState;
+
+    @Setup
+    public void setUp() {
+        ITrainMap map = GeneratedMaps.generateMap(
+            this.numCities, 5 * this.numCities, GeneratedMaps.DEFAULT_SEED);
+        // Parsed from text, as it would be when received from a remote player
+        this.mapJson = JsonParser.parseString(ToJsonConverter.mapToJson(map).toString());
+
+        List<Set<IRailConnection>> ownedConnections = GeneratedMaps.generateOwnedConnections(
+            map, NUM_PLAYERS, NUM_CONNECTIONS_PER_PLAYER, GeneratedMaps.DEFAULT_SEED);
+        Map<RailCard, Integer> cards = new EnumMap<>(RailCard.class);
+        for (RailCard card : RailCard.values()) {
+            cards.put(card, NUM_CARDS_PER_COLOR);
+        }
+        List<IOpponentInfo> opponentInfo = new ArrayList<>();
+        for (int player = 1; player < ownedConnections.size(); player += 1) {
+            opponentInfo.add(new OpponentInfo(ownedConnections.get(player)));
+        }
+        Set<Destination> destinations = Set.of(
+            new Destination(map.getCity(0), map.getCity(1)),
+            new Destination(map.getCity(0), map.getCity(2)));
+        this.playerGameState = new PlayerGameState(
+            new PlayerData(new TrainsPlayerHand(cards), 10, destinations,
+                ownedConnections.get(0)),
+            opponentInfo);
+    }
+
+    @Benchmark
+    public ITrainMap trainMapFromJson() {
+        return FromJsonConverter.trainMapFromJson(this.mapJson);
+    }
+
+    @Benchmark
+    public JsonObject playerGameStateToJson() {
+        return ToJsonConverter.playerGameStateToJson(this.playerGameState);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import referee.ScoreCalculator;
+import referee.ScoreGraphUtils;
+import referee.game_state.IPlayerData;
+import referee.game_state.PlayerData;
+import referee.game_state.TrainsPlayerHand;
+import utils.Constants;
+
+/**
+ * Measures finding the players with the longest path, and scoring every player, at the end of a
+ * game where each player owns as many connections as their rails allow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScoringBenchmark {
+
+    private static final int NUM_PLAYERS = 4;
+    // The shortest connections use 3 rails each
+    private static final int NUM_CONNECTIONS_PER_PLAYER = Constants.PLAYER_NUM_RAILS_START / 3;
+
+    @Param({"10", "100", "500", "2000"})
+    public int numCities;
+
+    private List<Graph<String, DefaultWeightedEdge>> playerConnectionGraphs;
+    private List<IPlayerData> playerData;
+
+    @Setup
+    public void setUp() {
+        ITrainMap map = GeneratedMaps.generateMap(
+            this.numCities, 5 * this.numCities, GeneratedMaps.DEFAULT_SEED);
+        this.playerConnectionGraphs = new ArrayList<>();
+        this.playerData = new ArrayList<>();
+        for (Set<IRailConnection> owned : GeneratedMaps.generateOwnedConnections(
+            map, NUM_PLAYERS, NUM_CONNECTIONS_PER_PLAYER, GeneratedMaps.DEFAULT_SEED)) {
+            this.playerConnectionGraphs.add(ScoreGraphUtils.occupiedConnectionsToGraph(owned));
+            this.playerData.add(new PlayerData(new TrainsPlayerHand(Map.of()), 0, Set.of(), owned));
+        }
+    }
+
+    @Benchmark
+    public Set<Integer> calculatePlayersWithLongestPath() {
+        return ScoreGraphUtils.calculatePlayersWithLongestPath(this.playerConnectionGraphs);
+    }
+
+    @Benchmark
+    public List<Integer> scorePlayers() {
+        return new ScoreCalculator().scorePlayers(this.playerData);
+    }
+}
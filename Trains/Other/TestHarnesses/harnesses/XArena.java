@@ -0,0 +1,87 @@
+package harnesses;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonStreamParser;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import map.ITrainMap;
+import player.StrategyClassLoader;
+import simulation.ArenaReport;
+import simulation.StrategyArena.ArenaBuilder;
+import strategy.IStrategy;
+import utils.json.FromJsonConverter;
+
+/**
+ * Plays strategies against each other in a {@link simulation.StrategyArena} on the maps read from
+ * standard input, printing a report of the results so far every REPORT_INTERVAL games.
+ * <p>
+ * Usage: XArena numGames strategy strategy... where each strategy is either the path of a compiled
+ * strategy class, or the name of one, such as Hold-10, as given to XRef.
+ */
+public class XArena {
+
+    private static final long REPORT_INTERVAL = 10000;
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("usage: XArena numGames strategy strategy...");
+            return;
+        }
+        RunArena(args, new InputStreamReader(System.in), System.out);
+    }
+
+    private static void RunArena(String[] args, Reader input, PrintStream output) {
+        List<ITrainMap> maps = new ArrayList<>();
+        JsonStreamParser parser = new JsonStreamParser(input);
+        try (input) {
+            while (parser.hasNext()) {
+                maps.add(FromJsonConverter.trainMapFromJson(parser.next()));
+            }
+        } catch (JsonIOException | IOException ignored) {
+        }
+
+        LinkedHashMap<String, Supplier<IStrategy>> entrants = new LinkedHashMap<>();
+        for (int index = 1; index < args.length; index += 1) {
+            // The same strategy may be entered more than once, under different names
+            String name = entrants.containsKey(args[index]) ? args[index] + "#" + index
+                : args[index];
+            entrants.put(name, strategySupplier(args[index]));
+        }
+
+        ArenaReport report = new ArenaBuilder(maps, entrants)
+            .numGames(Long.parseLong(args[0]))
+            .listener(REPORT_INTERVAL, output::println)
+            .build()
+            .run();
+        output.println(report.isComplete() ? "done" : "incomplete");
+    }
+
+    /**
+     * Loads the strategy class with the given name or path once, and supplies new instances of it.
+     */
+    private static Supplier<IStrategy> strategySupplier(String strategy) {
+        String filepath = strategy.endsWith(".class") ? strategy
+            : XRef.strategyNameToFilepath(strategy);
+        Class<?> strategyClass;
+        try {
+            strategyClass = new StrategyClassLoader().loadClassFromFile(filepath);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not load strategy " + strategy, e);
+        }
+        return () -> {
+            try {
+                return (IStrategy) strategyClass.getConstructor().newInstance();
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e) {
+                throw new IllegalStateException("Could not instantiate strategy " + strategy, e);
+            }
+        };
+    }
+}
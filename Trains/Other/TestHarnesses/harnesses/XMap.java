@@ -12,7 +12,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import map.*;
-import utils.UnorderedPair;
 import utils.json.FromJsonConverter;
 
 /**
@@ -61,11 +60,10 @@ public class XMap {
             JsonElement mapSpecification = parser.next();
             String startName = startCity.getAsString();
             String endName = endCity.getAsString();
-            UnorderedPair<ICity> destination =
-                new UnorderedPair<>(new City(startName, 0, 0), new City(endName, 0, 0));
             ITrainMap map = FromJsonConverter.trainMapFromJson(mapSpecification);
 
-            boolean result = map.getAllPossibleDestinations().contains(destination);
+            boolean result = map.getDestinationView()
+                .contains(new City(startName, 0, 0), new City(endName, 0, 0));
             output.println(result);
         } catch (JsonIOException | IOException ignored) {
         }
@@ -16,7 +16,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import game_state.RailCard;
 import map.Destination;
@@ -26,7 +25,7 @@ import player.Player;
 import referee.GameEndReport;
 import referee.IReferee;
 import referee.TrainsReferee;
-import utils.ComparatorUtils;
+import test_utils.TrainsMapUtils;
 import utils.json.FromJsonConverter;
 import utils.json.ToJsonConverter;
 
@@ -70,12 +69,7 @@ public class XRef {
 
 
     public static List<Destination> lexicographicOrderOfDestinations(ITrainMap map) {
-        List<Destination> result =
-            map.getAllPossibleDestinations().stream()
-                .map((pair) -> new Destination(pair))
-                .collect(Collectors.toList());
-        result.sort(ComparatorUtils::lexicographicCompareUnorderedPair);
-        return result;
+        return TrainsMapUtils.lexicographicDestinationProvider(map);
     }
 
     public static LinkedHashMap<String, IPlayer> playersFromJson(JsonArray jsonPlayers) {
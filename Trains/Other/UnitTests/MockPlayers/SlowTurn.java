@@ -0,0 +1,40 @@
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import map.Destination;
+import map.ITrainMap;
+import strategy.BuyNow;
+import strategy.IStrategy;
+import action.TurnAction;
+
+/**
+ * Chooses destinations promptly, but takes longer than the given number of milliseconds to decide
+ * on every turn.
+ */
+public class SlowTurn implements IStrategy {
+
+    private final long turnMillis;
+
+    public SlowTurn(long turnMillis) {
+        this.turnMillis = turnMillis;
+    }
+
+    @Override
+    public Set<Destination> chooseDestinations(Set<Destination> destinationOptions, int numToChoose,
+        ITrainMap map, int numStartingRails, Map<RailCard, Integer> startingHand) {
+        return new HashSet<>(new ArrayList<>(destinationOptions).subList(0, 2));
+    }
+
+    @Override
+    public TurnAction takeTurn(IPlayerGameState currentPlayerGameState, ITrainMap map,
+        Set<Destination> chosenDestinations) {
+        try {
+            Thread.sleep(this.turnMillis);
+        } catch (InterruptedException ignored) {
+        }
+        return new BuyNow().takeTurn(currentPlayerGameState, map, chosenDestinations);
+    }
+}
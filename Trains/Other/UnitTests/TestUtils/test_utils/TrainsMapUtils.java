@@ -2,12 +2,12 @@ package test_utils;
 
 import game_state.RailCard;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import map.City;
 import map.Destination;
 import map.ICity;
@@ -78,19 +78,39 @@ public class TrainsMapUtils {
      * The default destination provider for games of Trains. A destination provider function accepts
      * an ITrainMap, and returns the order to hand the destinations in that map to players.
      * <p>
-     * This deck provider shuffles the order of all destinations in the map.
+     * This deck provider shuffles the order of all destinations in the map. The destinations are
+     * shuffled as they are dealt, so only the destinations that are handed out are ever created.
      *
      * @param map The map for the game of Trains.
      * @return The destinations in the the map, in the order that they should be provided to
      * players.
      */
     public static List<Destination> defaultDestinationProvider(ITrainMap map) {
-        List<Destination> result =
-            map.getAllPossibleDestinations().stream()
-                .map((pair) -> new Destination(pair))
-                .collect(Collectors.toList());
-        Collections.shuffle(result);
-        return result;
+        return map.getDestinationView().asShuffledList(new Random());
+    }
+
+    /**
+     * Creates a destination provider that shuffles the order of all destinations in the map with
+     * the given seed, so that every game on the same map is offered the same destinations. Like the
+     * default destination provider, destinations are shuffled as they are dealt.
+     *
+     * @param seed The seed for the random order of the destinations.
+     * @return The destination provider.
+     */
+    public static Function<ITrainMap, List<Destination>> seededDestinationProvider(long seed) {
+        return (map) -> map.getDestinationView().asShuffledList(new Random(seed));
+    }
+
+    /**
+     * A destination provider that provides the destinations in the map in lexicographic order.
+     * The destinations are found in order without sorting all of them, so only the destinations
+     * that are handed out are ever created.
+     *
+     * @param map The map for the game of Trains.
+     * @return The destinations in the map in lexicographic order.
+     */
+    public static List<Destination> lexicographicDestinationProvider(ITrainMap map) {
+        return map.getDestinationView().asList();
     }
 
     /**
@@ -105,8 +125,23 @@ public class TrainsMapUtils {
      * players.
      */
     public static List<RailCard> defaultDeckSupplier() {
+        return randomDeck(new Random());
+    }
+
+    /**
+     * Creates a deck supplier that chooses the cards of the deck with the given seed, so that every
+     * game is dealt the same cards in the same order. Like the default deck supplier, the deck has
+     * 250 cards chosen from among the possible RailCard values.
+     *
+     * @param seed The seed for the random choice of cards.
+     * @return The deck supplier.
+     */
+    public static Supplier<List<RailCard>> seededDeckSupplier(long seed) {
+        return () -> randomDeck(new Random(seed));
+    }
+
+    private static List<RailCard> randomDeck(Random cardSelector) {
         List<RailCard> result = new ArrayList<>();
-        Random cardSelector = new Random();
         RailCard[] railCardOptions = RailCard.values();
         for (int cardNumber = 0; cardNumber < Constants.DECK_SIZE; cardNumber += 1) {
             result.add(railCardOptions[cardSelector.nextInt(railCardOptions.length)]);
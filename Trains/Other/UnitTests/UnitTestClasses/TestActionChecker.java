@@ -1,3 +1,4 @@
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -122,4 +123,25 @@ public class TestActionChecker {
             .canAcquireConnection(this.simpleRefereeGameState.getActivePlayerState(), this.map,
                 connection));
     }
+
+    @Test
+    public void TestRefereeTracksOccupiedConnections() {
+        IRailConnection connection = new RailConnection(new UnorderedPair<>(this.cityB, this.cityA),
+            4, RailColor.BLUE);
+        assertFalse(this.simpleRefereeGameState.isConnectionOccupied(connection));
+        assertEquals(3, this.simpleRefereeGameState.calculateUnoccupiedConnections().size());
+
+        assertTrue(this.simpleRefereeGameState.acquireConnectionForActivePlayer(connection));
+        assertTrue(this.simpleRefereeGameState.isConnectionOccupied(connection));
+        assertFalse(this.simpleRefereeGameState.calculateUnoccupiedConnections()
+            .contains(connection));
+        assertEquals(this.simpleRefereeGameState.calculateUnoccupiedConnections(),
+            this.simpleRefereeGameState.getActivePlayerState()
+                .calculateUnoccupiedConnections(this.map));
+
+        // A removed player's connections become unoccupied again
+        this.simpleRefereeGameState.removeActivePlayer();
+        assertFalse(this.simpleRefereeGameState.isConnectionOccupied(connection));
+        assertEquals(3, this.simpleRefereeGameState.calculateUnoccupiedConnections().size());
+    }
 }
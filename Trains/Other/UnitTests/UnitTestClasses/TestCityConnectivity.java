@@ -0,0 +1,133 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import map.City;
+import map.CityConnectivity;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.game_state.PlayerData;
+import referee.game_state.TrainsPlayerHand;
+import utils.UnorderedPair;
+
+public class TestCityConnectivity {
+
+    private ICity boston;
+    private ICity nyc;
+    private ICity texas;
+    private ICity chicago;
+    private IRailConnection bostonNyc;
+    private IRailConnection nycTexas;
+    private IRailConnection texasChicago;
+    private ITrainMap map;
+
+    @BeforeEach
+    public void setUp() {
+        this.boston = new City("Boston", 0.1, 0.1);
+        this.nyc = new City("NYC", 0.2, 0.2);
+        this.texas = new City("Texas", 0.3, 0.3);
+        this.chicago = new City("Chicago", 0.4, 0.4);
+        this.bostonNyc =
+            new RailConnection(new UnorderedPair<>(this.boston, this.nyc), 3, RailColor.BLUE);
+        this.nycTexas =
+            new RailConnection(new UnorderedPair<>(this.nyc, this.texas), 4, RailColor.RED);
+        this.texasChicago =
+            new RailConnection(new UnorderedPair<>(this.texas, this.chicago), 5, RailColor.GREEN);
+        this.map = new TrainMap(
+            new HashSet<>(List.of(this.boston, this.nyc, this.texas, this.chicago)),
+            new HashSet<>(List.of(this.bostonNyc, this.nycTexas, this.texasChicago)));
+    }
+
+    @Test
+    public void testNoConnections() {
+        CityConnectivity connectivity = new CityConnectivity(this.map);
+        assertFalse(connectivity.isDestinationConnected(new Destination(this.boston, this.nyc)));
+        assertTrue(connectivity.areConnected(this.boston, new City("Boston", 0.5, 0.5)));
+        assertEquals(1, connectivity.calculateNumCitiesConnectedTo(this.boston));
+        assertEquals(0, connectivity.calculateNumCitiesConnectedTo(new City("Paris", 0, 0)));
+    }
+
+    @Test
+    public void testAddConnections() {
+        CityConnectivity connectivity = new CityConnectivity(this.map);
+        connectivity.addConnection(this.bostonNyc);
+        connectivity.addConnection(this.texasChicago);
+        Set<Destination> destinations = Set.of(
+            new Destination(this.boston, this.nyc),
+            new Destination(this.nyc, this.chicago),
+            new Destination(this.chicago, this.texas));
+
+        assertEquals(2, connectivity.calculateNumDestinationsConnected(destinations));
+        assertEquals(2, connectivity.calculateNumCitiesConnectedTo(this.nyc));
+
+        connectivity.addConnection(this.nycTexas);
+        assertEquals(3, connectivity.calculateNumDestinationsConnected(destinations));
+        assertEquals(4, connectivity.calculateNumCitiesConnectedTo(this.boston));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        CityConnectivity connectivity =
+            new CityConnectivity(this.map, Set.of(this.bostonNyc, this.texasChicago));
+        CityConnectivity copy = connectivity.copy();
+        copy.addConnection(this.nycTexas);
+
+        assertFalse(connectivity.areConnected(this.boston, this.chicago));
+        assertTrue(copy.areConnected(this.boston, this.chicago));
+        assertTrue(copy.isForMap(this.map));
+    }
+
+    @Test
+    public void testUndoMerges() {
+        CityConnectivity connectivity = new CityConnectivity(this.map);
+        int bostonNycMerge = connectivity.addConnectionUndoably(this.bostonNyc);
+        int texasChicagoMerge = connectivity.addConnectionUndoably(this.texasChicago);
+        int nycTexasMerge = connectivity.addConnectionUndoably(this.nycTexas);
+        // Every city is already connected, so adding a connection again merges nothing
+        assertEquals(CityConnectivity.NO_MERGE,
+            connectivity.addConnectionUndoably(this.bostonNyc));
+        assertEquals(4, connectivity.calculateNumCitiesConnectedTo(this.chicago));
+
+        connectivity.undoMerge(nycTexasMerge);
+        assertFalse(connectivity.areConnected(this.boston, this.chicago));
+        assertEquals(2, connectivity.calculateNumCitiesConnectedTo(this.boston));
+        assertEquals(2, connectivity.calculateNumCitiesConnectedTo(this.texas));
+
+        connectivity.undoMerge(texasChicagoMerge);
+        connectivity.undoMerge(bostonNycMerge);
+        connectivity.undoMerge(CityConnectivity.NO_MERGE);
+        for (ICity city : this.map.getCities()) {
+            assertEquals(1, connectivity.calculateNumCitiesConnectedTo(city));
+        }
+    }
+
+    @Test
+    public void testPlayerDataConnectivityFollowsOwnedConnections() {
+        Set<IRailConnection> owned = new HashSet<>(List.of(this.bostonNyc));
+        PlayerData playerData =
+            new PlayerData(new TrainsPlayerHand(new HashMap<>()), 10, new HashSet<>(), owned);
+        owned.add(this.nycTexas);
+        assertFalse(playerData.getConnectivity(this.map).areConnected(this.nyc, this.texas));
+        assertThrows(UnsupportedOperationException.class,
+            () -> playerData.getOwnedConnections().add(this.nycTexas));
+
+        // Swapping one connection for another leaves the number owned unchanged
+        playerData.removeOwnedConnection(this.bostonNyc);
+        playerData.addOwnedConnection(this.texasChicago);
+        CityConnectivity connectivity = playerData.getConnectivity(this.map);
+        assertFalse(connectivity.areConnected(this.boston, this.nyc));
+        assertTrue(connectivity.areConnected(this.texas, this.chicago));
+    }
+}
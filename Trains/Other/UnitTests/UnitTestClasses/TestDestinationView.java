@@ -0,0 +1,144 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import map.City;
+import map.Destination;
+import map.DestinationView;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Test;
+import test_utils.TrainsMapUtils;
+import utils.GraphUtility;
+import utils.UnorderedPair;
+
+public class TestDestinationView {
+
+    /**
+     * Creates a map of the given number of cities with random connections, which usually has
+     * several connected components.
+     */
+    private static ITrainMap randomMap(int numCities, int numConnections, long seed) {
+        Random random = new Random(seed);
+        List<ICity> cities = new ArrayList<>();
+        for (int index = 0; index < numCities; index += 1) {
+            cities.add(new City("city" + random.nextInt(1000) + "x" + index,
+                random.nextDouble(), random.nextDouble()));
+        }
+        Set<IRailConnection> connections = new HashSet<>();
+        for (int index = 0; index < numConnections; index += 1) {
+            int first = random.nextInt(numCities);
+            int second = (first + 1 + random.nextInt(numCities - 1)) % numCities;
+            connections.add(new RailConnection(
+                new UnorderedPair<>(cities.get(first), cities.get(second)), 3, RailColor.RED));
+        }
+        return new TrainMap(new HashSet<>(cities), connections);
+    }
+
+    /**
+     * Calculates the destinations of the given map by searching a graph of its connections.
+     */
+    private static Set<UnorderedPair<ICity>> destinationsBySearch(ITrainMap map) {
+        Map<ICity, Set<ICity>> adjacencyList = GraphUtility.constructAdjacencyList(
+            map.getCities(), map.getRailConnections(), IRailConnection::getCities);
+        return GraphUtility.getConnectedPairs(adjacencyList);
+    }
+
+    @Test
+    public void testMatchesGraphSearch() {
+        for (long seed = 0; seed < 20; seed += 1) {
+            ITrainMap map = randomMap(30, 20, seed);
+            DestinationView view = map.getDestinationView();
+            Set<UnorderedPair<ICity>> expected = destinationsBySearch(map);
+
+            assertEquals(expected.size(), view.size());
+            assertEquals(expected, new HashSet<>(view.asList()));
+            assertEquals(expected, map.getAllPossibleDestinations());
+        }
+    }
+
+    @Test
+    public void testLexicographicOrderAndIndices() {
+        ITrainMap map = randomMap(40, 35, 7);
+        DestinationView view = map.getDestinationView();
+        List<Destination> destinations = view.stream().collect(Collectors.toList());
+        List<Destination> sorted = new ArrayList<>(destinations);
+        sorted.sort(Destination::compareTo);
+
+        assertEquals(sorted, destinations);
+        for (int index = 0; index < destinations.size(); index += 1) {
+            Destination destination = destinations.get(index);
+            assertEquals(index, view.indexOf(destination.left, destination.right));
+            assertEquals(index, view.indexOf(destination.right, destination.left));
+        }
+    }
+
+    @Test
+    public void testContains() {
+        ITrainMap map = TrainsMapUtils.createDefaultMap();
+        DestinationView view = map.getDestinationView();
+        ICity boston = new City("Boston", 0.5, 0.5);
+        ICity mystic = new City("mystic", 0, 0);
+
+        assertTrue(view.contains(boston, mystic));
+        assertTrue(view.contains(mystic, boston));
+        assertFalse(view.contains(boston, boston));
+        assertFalse(view.contains(boston, new City("Paris", 0, 0)));
+        assertEquals(map.getAllPossibleDestinations().size(), view.size());
+    }
+
+    @Test
+    public void testShuffledListHasEveryDestination() {
+        ITrainMap map = randomMap(25, 30, 3);
+        DestinationView view = map.getDestinationView();
+        List<Destination> shuffled = view.asShuffledList(new Random(11));
+
+        assertEquals(view.size(), shuffled.size());
+        assertEquals(new HashSet<>(view.asList()), new HashSet<>(shuffled));
+        assertEquals(shuffled, view.asShuffledList(new Random(11)));
+    }
+
+    @Test
+    public void testShuffledListDealsDistinctDestinations() {
+        ITrainMap map = randomMap(200, 400, 5);
+        DestinationView view = map.getDestinationView();
+        List<Destination> shuffled =
+            TrainsMapUtils.seededDestinationProvider(17).apply(map);
+        Set<Destination> dealt = new HashSet<>();
+        for (int index = 0; index < 50; index += 1) {
+            Destination destination = shuffled.get(index);
+            assertTrue(view.contains(destination.left, destination.right));
+            assertTrue(dealt.add(destination));
+        }
+
+        assertEquals(shuffled.subList(0, 50),
+            TrainsMapUtils.seededDestinationProvider(17).apply(map).subList(0, 50));
+        // Requesting elements out of order deals the same elements
+        List<Destination> outOfOrder = TrainsMapUtils.seededDestinationProvider(17).apply(map);
+        assertEquals(shuffled.get(49), outOfOrder.get(49));
+        assertEquals(shuffled.get(3), outOfOrder.get(3));
+    }
+
+    @Test
+    public void testIndexOutOfBounds() {
+        ITrainMap map = new TrainMap(new HashSet<>(), new HashSet<>());
+        DestinationView view = map.getDestinationView();
+
+        assertEquals(0, view.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(0));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> TrainsMapUtils.createDefaultMap().getDestinationView().get(-1));
+    }
+}
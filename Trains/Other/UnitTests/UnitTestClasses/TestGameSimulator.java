@@ -0,0 +1,212 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import action.DrawCardsAction;
+import action.TurnAction;
+import game_state.IPlayerGameState;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
+import org.junit.jupiter.api.Test;
+import player.IPlayer;
+import player.Player;
+import referee.GameEndReport;
+import referee.TrainsReferee;
+import referee.TrainsReferee.RefereeBuilder;
+import simulation.GameSimulator;
+import simulation.SimulationResult;
+import strategy.BuyNow;
+import strategy.Cheat;
+import strategy.Hold10;
+import strategy.IStrategy;
+import test_utils.TrainsMapUtils;
+import utils.UnorderedPair;
+
+public class TestGameSimulator {
+
+    // Creates a new instance of each kind of strategy, including ones that misbehave
+    private static final List<Supplier<IStrategy>> STRATEGY_KINDS = List.of(
+        BuyNow::new, Hold10::new, Cheat::new, ThrowException::new, InvalidAcquire::new,
+        InvalidDestinationSelection::new);
+
+    @Test
+    public void testMatchesRefereeOnDefaultMap() {
+        ITrainMap map = TrainsMapUtils.createDefaultMap();
+        GameSimulator simulator = new GameSimulator(map);
+        for (long seed = 0; seed < 40; seed += 1) {
+            this.assertMatchesReferee(simulator, seed);
+        }
+    }
+
+    @Test
+    public void testMatchesRefereeOnRandomMaps() {
+        for (long mapSeed = 0; mapSeed < 8; mapSeed += 1) {
+            GameSimulator simulator = new GameSimulator(randomMap(12, 24, mapSeed));
+            for (long seed = 0; seed < 10; seed += 1) {
+                this.assertMatchesReferee(simulator, 100 * mapSeed + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesRefereeWhenDeckRunsOut() {
+        // Players who only draw empty the deck, so the game ends after a round of empty draws
+        ITrainMap map = randomMap(20, 60, 7);
+        GameSimulator simulator = new GameSimulator(map);
+        List<Supplier<IStrategy>> strategies =
+            List.of(AlwaysDraw::new, BuyNow::new, AlwaysDraw::new);
+        for (long seed = 0; seed < 5; seed += 1) {
+            assertReportsEqual(playWithReferee(map, strategies, seed),
+                playWithSimulator(simulator, strategies, seed));
+        }
+    }
+
+    @Test
+    public void testReusedSimulatorMatchesNewSimulator() {
+        ITrainMap map = TrainsMapUtils.createDefaultMap();
+        GameSimulator reused = new GameSimulator(map);
+        for (long seed = 0; seed < 20; seed += 1) {
+            List<Supplier<IStrategy>> strategies = strategyMix(seed);
+            assertReportsEqual(playWithSimulator(new GameSimulator(map), strategies, seed),
+                playWithSimulator(reused, strategies, seed));
+        }
+        assertEquals(20, reused.getNumGamesPlayed());
+        assertTrue(reused.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testSimulationResult() {
+        GameSimulator simulator = new GameSimulator(TrainsMapUtils.createDefaultMap());
+        assertEquals(0, simulator.getGamesPerSecond());
+        SimulationResult result = simulator.playGame(
+            List.of(new BuyNow(), new ThrowException(), new BuyNow()), 5);
+
+        assertEquals(3, result.getNumSeats());
+        assertTrue(result.isRemoved(1));
+        assertFalse(result.isWinner(1));
+        assertThrows(IllegalArgumentException.class, () -> result.getScore(1));
+        assertTrue(result.isWinner(0) || result.isWinner(2));
+        assertEquals(result.isWinner(0), result.getScore(0) >= result.getScore(2));
+    }
+
+    @Test
+    public void testNotEnoughDestinations() {
+        GameSimulator simulator = new GameSimulator(randomMap(3, 2, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> simulator.playGame(List.of(new BuyNow(), new BuyNow()), 0));
+    }
+
+    /**
+     * A strategy that draws cards on every turn.
+     */
+    private static class AlwaysDraw extends BuyNow {
+
+        @Override
+        public TurnAction takeTurn(IPlayerGameState currentPlayerGameState, ITrainMap map,
+            Set<Destination> chosenDestinations) {
+            return new DrawCardsAction();
+        }
+    }
+
+    private void assertMatchesReferee(GameSimulator simulator, long seed) {
+        List<Supplier<IStrategy>> strategies = strategyMix(seed);
+        assertReportsEqual(playWithReferee(simulator.getMap(), strategies, seed),
+            playWithSimulator(simulator, strategies, seed));
+    }
+
+    /**
+     * Chooses between 2 and 8 strategies of every kind, mostly ones that play legally.
+     */
+    private static List<Supplier<IStrategy>> strategyMix(long seed) {
+        Random random = new Random(seed);
+        int numPlayers = 2 + random.nextInt(7);
+        List<Supplier<IStrategy>> strategies = new ArrayList<>();
+        for (int index = 0; index < numPlayers; index += 1) {
+            int kind = random.nextInt(2 * STRATEGY_KINDS.size());
+            strategies.add(STRATEGY_KINDS.get(kind < STRATEGY_KINDS.size() ? kind : kind % 2));
+        }
+        return strategies;
+    }
+
+    private static List<String> names(int numPlayers) {
+        List<String> names = new ArrayList<>();
+        for (int index = 0; index < numPlayers; index += 1) {
+            names.add("player" + (char) ('a' + index));
+        }
+        return names;
+    }
+
+    private static GameEndReport playWithReferee(
+        ITrainMap map, List<Supplier<IStrategy>> strategies, long seed) {
+        LinkedHashMap<String, IPlayer> players = new LinkedHashMap<>();
+        List<String> names = names(strategies.size());
+        for (int index = 0; index < strategies.size(); index += 1) {
+            players.put(names.get(index), new Player(strategies.get(index).get()));
+        }
+        TrainsReferee referee = new RefereeBuilder(map, players)
+            .destinationProvider(TrainsMapUtils.seededDestinationProvider(seed))
+            .deckProvider(TrainsMapUtils.seededDeckSupplier(seed))
+            .build();
+        referee.playGame();
+        return referee.calculateGameEndReport();
+    }
+
+    private static GameEndReport playWithSimulator(
+        GameSimulator simulator, List<Supplier<IStrategy>> strategies, long seed) {
+        List<IStrategy> strategyInstances = new ArrayList<>();
+        for (Supplier<IStrategy> strategy : strategies) {
+            strategyInstances.add(strategy.get());
+        }
+        return simulator.playGame(strategyInstances, seed)
+            .toGameEndReport(names(strategies.size()));
+    }
+
+    private static void assertReportsEqual(GameEndReport expected, GameEndReport actual) {
+        assertEquals(expected.getPlayerRanking().toString(), actual.getPlayerRanking().toString());
+        assertEquals(expected.getRemovedPlayerNames(), actual.getRemovedPlayerNames());
+    }
+
+    /**
+     * Creates a map whose connections are a random spanning tree of the cities, so that every
+     * pair of cities is a destination, plus random additional connections.
+     */
+    private static ITrainMap randomMap(int numCities, int numConnections, long seed) {
+        Random random = new Random(seed);
+        List<ICity> cities = new ArrayList<>();
+        for (int index = 0; index < numCities; index += 1) {
+            cities.add(new City("city" + index, random.nextDouble(), random.nextDouble()));
+        }
+        Set<IRailConnection> connections = new HashSet<>();
+        for (int index = 1; index < numCities; index += 1) {
+            connections.add(randomConnection(
+                cities.get(index), cities.get(random.nextInt(index)), random));
+        }
+        while (connections.size() < numConnections) {
+            ICity city1 = cities.get(random.nextInt(numCities));
+            ICity city2 = cities.get(random.nextInt(numCities));
+            if (!city1.equals(city2)) {
+                connections.add(randomConnection(city1, city2, random));
+            }
+        }
+        return new TrainMap(new HashSet<>(cities), connections);
+    }
+
+    private static IRailConnection randomConnection(ICity city1, ICity city2, Random random) {
+        return new RailConnection(new UnorderedPair<>(city1, city2), 3 + random.nextInt(3),
+            RailColor.values()[random.nextInt(RailColor.values().length)]);
+    }
+}
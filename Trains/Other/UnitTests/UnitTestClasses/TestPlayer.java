@@ -3,10 +3,17 @@ import game_state.RailCard;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import map.City;
 import map.Destination;
+import map.ICity;
+import map.IRailConnection;
 import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.TrainMap;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +25,8 @@ import strategy.BuyNow;
 import strategy.Hold10;
 import strategy.IStrategy;
 import strategy.TestStrategy;
+import utils.Constants;
+import utils.UnorderedPair;
 
 public class TestPlayer {
 
@@ -79,6 +88,30 @@ public class TestPlayer {
     }
 
 
+    @Test
+    public void TestSetUpOnLargeMap() throws TimeoutException {
+        // A chain of thousands of cities, where anything cubic in the cities would take minutes
+        List<ICity> cities = new ArrayList<>();
+        Set<IRailConnection> connections = new HashSet<>();
+        int numCities = 2000;
+        for (int index = 0; index < numCities; index += 1) {
+            cities.add(new City(String.format("City %05d", index),
+                (double) index / numCities, (double) index / numCities));
+            if (index > 0) {
+                connections.add(new RailConnection(
+                    new UnorderedPair<>(cities.get(index - 1), cities.get(index)), 3,
+                    RailColor.BLUE));
+            }
+        }
+        ITrainMap map = new TrainMap(new HashSet<>(cities), connections);
+
+        long start = System.nanoTime();
+        this.hold10FromStrategy.setup(map, Constants.PLAYER_NUM_RAILS_START,
+            Arrays.asList(RailCard.BLUE, RailCard.RED, RailCard.BLUE));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertTrue(elapsedMillis < Constants.PLAYER_INTERACTION_TIMEOUT / 10);
+    }
+
     @Test
     public void TestPlayerIntegrations() throws TimeoutException {
         TestIntegration(this.buyNowFromFile, new BuyNow());
@@ -1,9 +1,14 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import org.junit.jupiter.api.Test;
 import player.IPlayer;
 import player.Player;
@@ -114,6 +119,95 @@ public class TestPlayerAllocator {
         assertEquals(expectedAllocation, PlayerAllocator.allocatePlayersToGames(allPlayers, 8, 8));
     }
 
+    @Test
+    public void testAllocationMatchesRecursiveAllocation() {
+        IPlayer player = new Player(new Hold10());
+        for (int numPlayers = 0; numPlayers <= 120; numPlayers++) {
+            LinkedHashMap<String, IPlayer> allPlayers = new LinkedHashMap<>();
+            for (int ii = 0; ii < numPlayers; ii++) {
+                allPlayers.put("player" + ii, player);
+            }
+            for (int max = 1; max <= 10; max++) {
+                for (int min = -1; min <= max + 1; min++) {
+                    assertEquals(allocationOrError(allPlayers, max, min, false),
+                        allocationOrError(allPlayers, max, min, true),
+                        numPlayers + " players, max " + max + ", min " + min);
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocates the given players, or describes the exception thrown if they cannot be allocated.
+     */
+    private static Object allocationOrError(LinkedHashMap<String, IPlayer> players, int max,
+        int min, boolean recursive) {
+        try {
+            return recursive ? allocatePlayersToGamesRecursively(players, max, min)
+                : PlayerAllocator.allocatePlayersToGames(players, max, min);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    @Test
+    public void testAllocateLargeField() {
+        IPlayer player = new Player(new Hold10());
+        LinkedHashMap<String, IPlayer> allPlayers = new LinkedHashMap<>();
+        for (int ii = 0; ii < 50001; ii++) {
+            allPlayers.put("player" + ii, player);
+        }
+        List<LinkedHashMap<String, IPlayer>> allocation =
+            PlayerAllocator.allocatePlayersToGames(allPlayers, 8, 3);
+
+        // 6250 games of 8 would leave 1 player, and 6249 would leave 9, which make a game of 7 and
+        // leave 2, so 6248 games of 8 are kept and the last 17 players play in games of 7, 7 and 3
+        assertEquals(6251, allocation.size());
+        assertEquals(3, allocation.get(0).size());
+        assertEquals(7, allocation.get(1).size());
+        assertEquals(7, allocation.get(2).size());
+        assertEquals(8, allocation.get(3).size());
+        assertEquals(8, allocation.get(6250).size());
+        assertEquals("player0", allocation.get(6250).keySet().iterator().next());
+        assertEquals("player50000", new ArrayList<>(allocation.get(0).keySet()).get(2));
+    }
+
+    @Test
+    public void testAllocateBySpeed() {
+        LinkedHashMap<String, IPlayer> allPlayers = makeOneGame(0, 17);
+        Map<String, Double> meanResponseNanos = new HashMap<>();
+        for (int ii = 0; ii < 17; ii++) {
+            // Later players are faster, and player5 has not responded yet
+            if (ii != 5) {
+                meanResponseNanos.put("player" + ii, 1000.0 - ii);
+            }
+        }
+
+        List<List<String>> expectedGames = List.of(
+            List.of("player0", "player5"),
+            List.of("player1", "player2", "player3", "player4", "player6", "player7", "player8"),
+            List.of("player9", "player10", "player11", "player12", "player13", "player14",
+                "player15", "player16"));
+        List<LinkedHashMap<String, IPlayer>> allocation =
+            PlayerAllocator.allocateBySpeed(allPlayers, meanResponseNanos);
+        assertEquals(expectedGames,
+            allocation.stream().map(game -> new ArrayList<>(game.keySet())).toList());
+        for (LinkedHashMap<String, IPlayer> game : allocation) {
+            game.forEach((name, player) -> assertSame(allPlayers.get(name), player));
+        }
+    }
+
+    @Test
+    public void testAllocateInSignupOrderIgnoresSpeed() {
+        LinkedHashMap<String, IPlayer> allPlayers = makeOneGame(0, 17);
+        Map<String, Double> meanResponseNanos = new HashMap<>();
+        for (int ii = 0; ii < 17; ii++) {
+            meanResponseNanos.put("player" + ii, 1000.0 - ii);
+        }
+        assertEquals(PlayerAllocator.allocatePlayersToGames(allPlayers, 8, 2),
+            PlayerAllocator.allocateInSignupOrder(allPlayers, meanResponseNanos));
+    }
+
     private static LinkedHashMap<String, IPlayer> makeOneGame(int startingNum,
         int numPlayersToAdd) {
         LinkedHashMap<String, IPlayer> game = new LinkedHashMap<>();
@@ -123,4 +217,110 @@ public class TestPlayerAllocator {
         }
         return game;
     }
+
+    /**
+     * Allocates the given players into a list of games for one round of a tournament, as
+     * PlayerAllocator.allocatePlayersToGames does, by allocating one game at a time and recursing
+     * on the remaining players. This is quadratic in the number of players, and is a reference to
+     * check the allocator against.
+     *
+     * @return the players allocated into games, in the same order as allocatePlayersToGames.
+     * @throws IllegalStateException    if there is no valid allocation of the given players into
+     *                                  games that respect the given minimum and maximum players per
+     *                                  game.
+     * @throws IllegalArgumentException if minPlayersPerGame is greater than maxPlayersPerGame.
+     */
+    private static List<LinkedHashMap<String, IPlayer>> allocatePlayersToGamesRecursively(
+        LinkedHashMap<String, IPlayer> playersToAllocate,
+        int maxPlayersPerGame,
+        int minPlayersPerGame) {
+        if (minPlayersPerGame > maxPlayersPerGame) {
+            throw new IllegalArgumentException(
+                "Min players per game cannot be greater than max players per game");
+        }
+        try {
+            return allocatePlayersAcc(playersToAllocate, maxPlayersPerGame, minPlayersPerGame,
+                true);
+        } catch (NotEnoughPlayersException e) {
+            throw new IllegalStateException("Min and max players per game are invalid");
+        }
+    }
+
+    /**
+     * Helper function to allocate players to games.
+     *
+     * @param playersToAllocate All players that have not yet been allocated to games.
+     * @param playersPerGame    The number of players to allocate to each game.
+     * @param minPlayersPerGame The minimum number of players to allocate to one game.
+     * @param attemptRecovery   Whether this method should attempt to remove players from full games
+     *                          to make a valid allocation.
+     * @return the players allocated into games. Each item in the list represents a single game's *
+     * players.
+     * @throws NotEnoughPlayersException if there is no valid allocation of the given players into
+     *                                   games that respect the given minimum and maximum players
+     *                                   per game, or leftover players is less than
+     *                                   minPlayersPerGame and attemptRecovery is false.
+     */
+    private static List<LinkedHashMap<String, IPlayer>> allocatePlayersAcc(
+        LinkedHashMap<String, IPlayer> playersToAllocate,
+        int playersPerGame,
+        int minPlayersPerGame,
+        boolean attemptRecovery) throws NotEnoughPlayersException {
+
+        if (playersToAllocate.size() == 0) {
+            return new ArrayList<>();
+        }
+        if (playersToAllocate.size() < minPlayersPerGame) {
+            throw new NotEnoughPlayersException();
+        }
+
+        List<LinkedHashMap<String, IPlayer>> result;
+        try {
+            LinkedHashMap<String, IPlayer> playersForThisGame = allocateOneGame(playersToAllocate,
+                playersPerGame);
+            LinkedHashMap<String, IPlayer> remainingPlayers = new LinkedHashMap<>(
+                playersToAllocate);
+            remainingPlayers.keySet().removeAll(playersForThisGame.keySet());
+
+            result = allocatePlayersAcc(remainingPlayers, playersPerGame, minPlayersPerGame,
+                attemptRecovery);
+            result.add(playersForThisGame);
+        } catch (NotEnoughPlayersException e) {
+            if (!attemptRecovery) {
+                throw e;
+            }
+            result = allocatePlayersAcc(playersToAllocate, playersPerGame - 1, minPlayersPerGame,
+                false);
+        }
+        return result;
+    }
+
+    /**
+     * Allocates up to playersPerGame players from playersToAllocate to one game.
+     *
+     * @param playersToAllocate All players that have not yet been allocated to games.
+     * @param playersPerGame    The number of players to allocate to this game.
+     * @return The players that were allocated to one game.
+     */
+    private static LinkedHashMap<String, IPlayer> allocateOneGame(
+        LinkedHashMap<String, IPlayer> playersToAllocate, int playersPerGame) {
+
+        LinkedHashMap<String, IPlayer> playersForThisGame = new LinkedHashMap<>();
+        Iterator<Entry<String, IPlayer>> remainingPlayersInOrder = playersToAllocate.entrySet()
+            .iterator();
+
+        for (int i = 0; i < playersPerGame && remainingPlayersInOrder.hasNext(); i++) {
+            Entry<String, IPlayer> nextPlayer = remainingPlayersInOrder.next();
+            playersForThisGame.put(nextPlayer.getKey(), nextPlayer.getValue());
+        }
+        return playersForThisGame;
+    }
+
+    /**
+     * Signals that there is no way to allocate the given players into games.
+     */
+    private static class NotEnoughPlayersException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+    }
 }
@@ -26,14 +26,18 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import map.City;
+import map.ICity;
 import map.Destination;
 import map.IRailConnection;
 import map.ITrainMap;
+import map.MapDimensions;
 import map.RailColor;
 import map.RailConnection;
+import map.TrainMap;
 import org.junit.jupiter.api.Test;
 import referee.game_state.PlayerData;
 import referee.game_state.TrainsPlayerHand;
+import remote.EncodedMapCache;
 import remote.ProxyPlayer;
 import test_utils.TrainsMapUtils;
 import utils.UnorderedPair;
@@ -236,4 +240,45 @@ public class TestProxyPlayer {
         assertThrows(TimeoutException.class,
             () -> player.chooseDestinations(destinationOptions));
     }
+
+    @Test
+    public void testLargeResponseSplitAcrossReads() throws TimeoutException {
+        // A map whose Json is far larger than a single read from the stream
+        Set<ICity> cities = new HashSet<>();
+        Set<IRailConnection> rails = new HashSet<>();
+        ICity previous = new City("city 0", 0, 0);
+        cities.add(previous);
+        for (int index = 1; index < 300; index += 1) {
+            ICity next = new City("city " + index, index / 300.0, index / 300.0);
+            cities.add(next);
+            rails.add(new RailConnection(new UnorderedPair<>(previous, next), 3, RailColor.RED));
+            previous = next;
+        }
+        ITrainMap largeMap = new TrainMap(cities, rails, new MapDimensions(800, 800));
+        String input = ToJsonConverter.mapToJson(largeMap).toString() + " \"void\"";
+        assertTrue(input.length() > 8192);
+
+        // Hands out at most 100 bytes per read, like a slow network connection
+        InputStream inputStream = new ByteArrayInputStream(input.getBytes()) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 100));
+            }
+        };
+        OutputStream outputStream = new ByteArrayOutputStream();
+        ProxyPlayer player = new ProxyPlayer(inputStream, outputStream);
+
+        assertTrue(TrainsMapUtils.sameMap(largeMap, player.startTournament(true)));
+        // The following message in the same stream is not lost
+        player.resultOfTournament(true);
+    }
+
+    @Test
+    public void testEncodedMapIsShared() {
+        ITrainMap defaultMap = createDefaultMap();
+        byte[] encodedMap = EncodedMapCache.encode(defaultMap);
+
+        assertEquals(ToJsonConverter.mapToJson(defaultMap).toString(), new String(encodedMap));
+        assertTrue(encodedMap == EncodedMapCache.encode(defaultMap));
+    }
 }
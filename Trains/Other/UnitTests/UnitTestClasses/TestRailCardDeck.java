@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.game_state.RailCardDeck;
+
+public class TestRailCardDeck {
+
+    List<RailCard> cards;
+    RailCardDeck deck;
+
+    @BeforeEach
+    public void setup() {
+        this.cards = List.of(RailCard.RED, RailCard.BLUE, RailCard.GREEN, RailCard.WHITE,
+            RailCard.RED);
+        this.deck = new RailCardDeck(this.cards);
+    }
+
+    @Test
+    public void testDrawInOrder() {
+        assertEquals(5, this.deck.getNumCardsRemaining());
+        assertEquals(List.of(RailCard.RED, RailCard.BLUE), this.deck.draw(2));
+        assertEquals(List.of(RailCard.GREEN), this.deck.peek(1));
+        assertEquals(3, this.deck.getNumCardsRemaining());
+
+        RailCard[] buffer = new RailCard[4];
+        assertEquals(3, this.deck.draw(buffer, 4));
+        assertEquals(List.of(RailCard.GREEN, RailCard.WHITE, RailCard.RED),
+            List.of(buffer[0], buffer[1], buffer[2]));
+        assertEquals(0, this.deck.getNumCardsRemaining());
+        assertEquals(0, this.deck.draw(buffer, 2));
+        assertEquals(List.of(), this.deck.draw(2));
+    }
+
+    @Test
+    public void testDealsSameCardsAsList() {
+        Random random = new Random(5);
+        List<RailCard> largeDeck = new ArrayList<>();
+        for (int index = 0; index < 5000; index += 1) {
+            largeDeck.add(RailCard.values()[random.nextInt(RailCard.values().length)]);
+        }
+        RailCardDeck deck = new RailCardDeck(largeDeck);
+        List<RailCard> remaining = new ArrayList<>(largeDeck);
+        while (!remaining.isEmpty()) {
+            int numCards = 1 + random.nextInt(3);
+            List<RailCard> expected = new ArrayList<>();
+            while (expected.size() < numCards && !remaining.isEmpty()) {
+                expected.add(remaining.remove(0));
+            }
+            assertEquals(expected, deck.draw(numCards));
+        }
+        assertEquals(0, deck.getNumCardsRemaining());
+    }
+
+    @Test
+    public void testSnapshotAndCopy() {
+        this.deck.draw(1);
+        int snapshot = this.deck.snapshot();
+        RailCardDeck copy = this.deck.copy();
+        assertEquals(List.of(RailCard.BLUE, RailCard.GREEN, RailCard.WHITE), this.deck.draw(3));
+
+        // Drawing from the deck does not draw from its copy
+        assertEquals(4, copy.getNumCardsRemaining());
+        assertEquals(List.of(RailCard.BLUE), copy.draw(1));
+
+        this.deck.restore(snapshot);
+        assertEquals(this.cards.subList(1, 5), this.deck.peek(4));
+    }
+
+    @Test
+    public void testDeckIsNotChangedByItsCards() {
+        List<RailCard> cards = new ArrayList<>(this.cards);
+        RailCardDeck deck = new RailCardDeck(cards);
+        cards.clear();
+        assertEquals(this.cards, deck.draw(5));
+        assertThrows(UnsupportedOperationException.class,
+            () -> this.deck.peek(2).set(0, RailCard.WHITE));
+    }
+
+    @Test
+    public void testInvalidDeckOperations() {
+        assertThrows(IllegalArgumentException.class, () -> this.deck.peek(6));
+        assertThrows(IllegalArgumentException.class, () -> this.deck.peek(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.deck.draw(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.deck.draw(new RailCard[1], 2));
+        assertThrows(IllegalArgumentException.class, () -> this.deck.restore(6));
+        assertThrows(NullPointerException.class,
+            () -> new RailCardDeck(Arrays.asList(RailCard.RED, null)));
+    }
+}
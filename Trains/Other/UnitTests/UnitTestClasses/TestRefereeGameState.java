@@ -0,0 +1,204 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import action.AcquireConnectionAction;
+import action.DrawCardsAction;
+import action.TurnAction;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.TurnResult;
+import referee.game_state.IPlayerData;
+import referee.game_state.IRefereeGameState;
+import referee.game_state.PlayerData;
+import referee.game_state.RefereeGameState;
+import referee.game_state.TrainsPlayerHand;
+import test_utils.TrainsMapUtils;
+
+public class TestRefereeGameState {
+
+    ITrainMap map;
+    IRailConnection blueConnection;
+    IRailConnection redConnection;
+    List<RailCard> deck;
+    IRefereeGameState gameState;
+
+    @BeforeEach
+    public void setup() {
+        this.map = TrainsMapUtils.createDefaultMap();
+        for (IRailConnection connection : this.map.getRailConnections()) {
+            switch (connection.getColor()) {
+                case BLUE -> this.blueConnection = connection;
+                case RED -> this.redConnection = connection;
+                default -> { }
+            }
+        }
+        List<IPlayerData> playerData = new ArrayList<>();
+        for (int index = 0; index < 3; index += 1) {
+            playerData.add(new PlayerData(
+                new TrainsPlayerHand(Map.of(RailCard.BLUE, 5, RailCard.RED, 5)), 45,
+                new HashSet<>(), new HashSet<>()));
+        }
+        this.deck = TrainsMapUtils.seededDeckSupplier(1).get();
+        this.gameState = new RefereeGameState(playerData, this.deck, this.map);
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilStateChanges() {
+        IPlayerGameState first = this.gameState.getActivePlayerState();
+        assertSame(first, this.gameState.getActivePlayerState());
+
+        this.gameState.drawCardsForActivePlayer(2);
+        IPlayerGameState afterDraw = this.gameState.getActivePlayerState();
+        assertNotSame(first, afterDraw);
+        assertEquals(10, first.getCardsInHand().values().stream().mapToInt(i -> i).sum());
+        assertEquals(12, afterDraw.getCardsInHand().values().stream().mapToInt(i -> i).sum());
+    }
+
+    @Test
+    public void testSnapshotDoesNotChangeWithGame() {
+        IPlayerGameState before = this.gameState.getActivePlayerState();
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.blueConnection));
+        IPlayerGameState after = this.gameState.getActivePlayerState();
+
+        assertEquals(45, before.getNumRails());
+        assertEquals(5, before.getNumCardsOfType(RailCard.BLUE));
+        assertFalse(before.isConnectionOccupied(this.blueConnection));
+        assertTrue(before.getOwnedConnections().isEmpty());
+
+        int length = this.blueConnection.getLength();
+        assertEquals(45 - length, after.getNumRails());
+        assertEquals(5 - length, after.getNumCardsOfType(RailCard.BLUE));
+        assertTrue(after.isConnectionOccupied(this.blueConnection));
+        assertEquals(1, after.getOwnedConnections().size());
+    }
+
+    @Test
+    public void testConnectivitySharedUntilConnectionAcquired() {
+        ICity blueCity = this.blueConnection.getCities().left;
+        IPlayerGameState first = this.gameState.getActivePlayerState();
+        assertEquals(1, first.calculateNumCitiesConnectedTo(blueCity, this.map));
+        this.gameState.drawCardsForActivePlayer(2);
+        IPlayerGameState afterDraw = this.gameState.getActivePlayerState();
+        assertEquals(1, afterDraw.calculateNumCitiesConnectedTo(blueCity, this.map));
+
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.blueConnection));
+        IPlayerGameState afterAcquire = this.gameState.getActivePlayerState();
+        assertEquals(1, first.calculateNumCitiesConnectedTo(blueCity, this.map));
+        assertEquals(1, afterDraw.calculateNumCitiesConnectedTo(blueCity, this.map));
+        assertEquals(2, afterAcquire.calculateNumCitiesConnectedTo(blueCity, this.map));
+    }
+
+    @Test
+    public void testUnchangedOpponentInfoIsShared() {
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.blueConnection));
+        this.gameState.advanceTurn();
+        IPlayerGameState secondPlayerState = this.gameState.getActivePlayerState();
+        assertTrue(secondPlayerState.isConnectionOccupied(this.blueConnection));
+        assertFalse(secondPlayerState.getOpponentInfo().get(0).getOwnedConnections().isEmpty());
+        assertTrue(this.gameState.acquireConnectionForActivePlayer(this.redConnection));
+
+        this.gameState.advanceTurn();
+        IPlayerGameState thirdPlayerState = this.gameState.getActivePlayerState();
+        // The first player has not acquired a connection since the second player's turn
+        assertSame(secondPlayerState.getOpponentInfo().get(0),
+            thirdPlayerState.getOpponentInfo().get(0));
+        assertTrue(thirdPlayerState.isConnectionOccupied(this.redConnection));
+        assertEquals(this.map.getNumRailConnections() - 2,
+            thirdPlayerState.calculateUnoccupiedConnections(this.map).size());
+
+        this.gameState.advanceTurn();
+        this.gameState.removeActivePlayer();
+        IPlayerGameState afterRemoval = this.gameState.getActivePlayerState();
+        assertFalse(afterRemoval.isConnectionOccupied(this.blueConnection));
+        assertEquals(1, afterRemoval.getOpponentInfo().size());
+    }
+
+    /**
+     * Describes the game state as seen by the active player, and the connections of every player.
+     */
+    private static String describe(IRefereeGameState gameState, ITrainMap map) {
+        IPlayerGameState playerState = gameState.getActivePlayerState();
+        return playerState.getCardsInHand().toString() + playerState.getNumRails()
+            + sorted(playerState.getOwnedConnections())
+            + playerState.getOpponentInfo().stream()
+                .map(opponent -> sorted(opponent.getOwnedConnections())).toList()
+            + playerState.calculateNumCitiesConnectedTo(map.getCities().iterator().next(), map)
+            + gameState.calculateUnoccupiedConnections().size()
+            + gameState.calculatePlayerScores();
+    }
+
+    private static TreeSet<String> sorted(Set<IRailConnection> connections) {
+        return new TreeSet<>(connections.stream().map(Object::toString).toList());
+    }
+
+    @Test
+    public void testUndoRestoresEveryAppliedTurn() {
+        Random random = new Random(3);
+        List<IRailConnection> connections = new ArrayList<>(this.map.getRailConnections());
+        List<String> descriptions = new ArrayList<>();
+        List<TurnResult> results = new ArrayList<>();
+        for (int turn = 0; turn < 60; turn += 1) {
+            descriptions.add(describe(this.gameState, this.map));
+            TurnAction action = random.nextInt(3) == 0 ? new DrawCardsAction()
+                : new AcquireConnectionAction(connections.get(random.nextInt(connections.size())));
+            TurnResult result = this.gameState.apply(action);
+            if (result != TurnResult.INVALID) {
+                results.add(result);
+            } else {
+                descriptions.remove(descriptions.size() - 1);
+            }
+        }
+        assertTrue(results.contains(TurnResult.SIGNIFICANT));
+        String finalDescription = describe(this.gameState, this.map);
+
+        for (int index = descriptions.size() - 1; index >= 0; index -= 1) {
+            this.gameState.undo();
+            assertEquals(descriptions.get(index), describe(this.gameState, this.map));
+        }
+        assertThrows(IllegalStateException.class, () -> this.gameState.undo());
+
+        // The deck is restored too, so the first player draws the first cards of the deck
+        assertEquals(this.deck.subList(0, 2),
+            this.gameState.drawCardsForActivePlayer(2));
+        assertFalse(finalDescription.equals(describe(this.gameState, this.map)));
+    }
+
+    @Test
+    public void testApplyAdvancesTurnAndSkipsInvalidActions() {
+        IPlayerGameState first = this.gameState.getActivePlayerState();
+        assertEquals(TurnResult.SIGNIFICANT,
+            this.gameState.apply(new AcquireConnectionAction(this.blueConnection)));
+        assertEquals(TurnResult.INVALID,
+            this.gameState.apply(new AcquireConnectionAction(this.blueConnection)));
+        assertTrue(this.gameState.getActivePlayerState().getOwnedConnections().isEmpty());
+        assertEquals(TurnResult.SIGNIFICANT, this.gameState.apply(new DrawCardsAction()));
+
+        this.gameState.undo();
+        this.gameState.undo();
+        assertEquals(first.getCardsInHand(),
+            this.gameState.getActivePlayerState().getCardsInHand());
+        assertFalse(this.gameState.isConnectionOccupied(this.blueConnection));
+        assertThrows(IllegalStateException.class, () -> this.gameState.undo());
+
+        // Changing the game state any other way means earlier turns cannot be undone
+        this.gameState.apply(new DrawCardsAction());
+        this.gameState.advanceTurn();
+        assertThrows(IllegalStateException.class, () -> this.gameState.undo());
+    }
+}
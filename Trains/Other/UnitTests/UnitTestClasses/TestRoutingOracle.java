@@ -0,0 +1,184 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import map.City;
+import map.Destination;
+import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
+import map.RailColor;
+import map.RailConnection;
+import map.RoutingOracle;
+import map.RoutingOracle.RemainingCosts;
+import map.TrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import test_utils.TrainsMapUtils;
+import utils.UnorderedPair;
+
+public class TestRoutingOracle {
+
+    private ICity boston;
+    private ICity nyc;
+    private ICity texas;
+    private ICity chicago;
+    private ICity denver;
+    private ICity paris;
+    private IRailConnection bostonNyc;
+    private IRailConnection nycDenver;
+    private IRailConnection bostonTexas;
+    private IRailConnection texasChicago;
+    private IRailConnection chicagoDenver;
+    private ITrainMap map;
+
+    @BeforeEach
+    public void setUp() {
+        this.boston = new City("Boston", 0.1, 0.1);
+        this.nyc = new City("NYC", 0.2, 0.2);
+        this.texas = new City("Texas", 0.3, 0.3);
+        this.chicago = new City("Chicago", 0.4, 0.4);
+        this.denver = new City("Denver", 0.5, 0.5);
+        this.paris = new City("Paris", 0.6, 0.6);
+        this.bostonNyc = this.connection(this.boston, this.nyc, 5, RailColor.BLUE);
+        this.nycDenver = this.connection(this.nyc, this.denver, 5, RailColor.RED);
+        this.bostonTexas = this.connection(this.boston, this.texas, 3, RailColor.GREEN);
+        this.texasChicago = this.connection(this.texas, this.chicago, 3, RailColor.WHITE);
+        this.chicagoDenver = this.connection(this.chicago, this.denver, 3, RailColor.BLUE);
+        this.map = this.createMap();
+    }
+
+    private IRailConnection connection(ICity city1, ICity city2, int length, RailColor color) {
+        return new RailConnection(new UnorderedPair<>(city1, city2), length, color);
+    }
+
+    private ITrainMap createMap() {
+        return new TrainMap(
+            new HashSet<>(List.of(this.boston, this.nyc, this.texas, this.chicago, this.denver,
+                this.paris)),
+            new HashSet<>(List.of(this.bostonNyc, this.nycDenver, this.bostonTexas,
+                this.texasChicago, this.chicagoDenver)));
+    }
+
+    @Test
+    public void testDistances() {
+        RoutingOracle oracle = RoutingOracle.forMap(this.map);
+        assertEquals(6, oracle.getNumCities());
+        assertEquals(0, oracle.getMinSegments(this.boston, this.boston));
+        assertEquals(5, oracle.getMinSegments(this.boston, this.nyc));
+        // The route with the fewest segments does not have the fewest connections
+        assertEquals(9, oracle.getMinSegments(this.boston, this.denver));
+        assertEquals(2, oracle.getMinConnections(this.boston, this.denver));
+        assertEquals(9, oracle.getMinSegments(this.denver, this.boston));
+        assertEquals(RoutingOracle.UNREACHABLE, oracle.getMinSegments(this.boston, this.paris));
+        assertEquals(RoutingOracle.UNREACHABLE, oracle.getMinConnections(this.paris, this.nyc));
+
+        int bostonId = this.map.getCityId("Boston");
+        int chicagoId = this.map.getCityId("Chicago");
+        assertEquals(6, oracle.getMinSegments(bostonId, chicagoId));
+        assertEquals(2, oracle.getMinConnections(chicagoId, bostonId));
+        assertThrows(IllegalArgumentException.class,
+            () -> oracle.getMinSegments(this.boston, new City("Rome", 0.7, 0.7)));
+    }
+
+    @Test
+    public void testFindShortestRoute() {
+        RoutingOracle oracle = RoutingOracle.forMap(this.map);
+        assertEquals(Optional.of(List.of(this.bostonTexas, this.texasChicago, this.chicagoDenver)),
+            oracle.findShortestRoute(this.boston, this.denver));
+        assertEquals(Optional.of(List.of(this.chicagoDenver, this.nycDenver)),
+            oracle.findShortestRoute(this.chicago, this.nyc));
+        assertEquals(Optional.of(List.of()), oracle.findShortestRoute(this.nyc, this.nyc));
+        assertEquals(Optional.empty(), oracle.findShortestRoute(this.paris, this.nyc));
+    }
+
+    @Test
+    public void testRoutesMatchDistancesOnDefaultMap() {
+        ITrainMap defaultMap = TrainsMapUtils.createDefaultMap();
+        RoutingOracle oracle = RoutingOracle.forMap(defaultMap);
+        for (ICity from : defaultMap.getCities()) {
+            for (ICity to : defaultMap.getCities()) {
+                List<IRailConnection> route = oracle.findShortestRoute(from, to).orElseThrow();
+                assertEquals(oracle.getMinSegments(from, to),
+                    route.stream().mapToInt(IRailConnection::getLength).sum());
+                assertTrue(route.size() >= oracle.getMinConnections(from, to));
+
+                ICity current = from;
+                for (IRailConnection connection : route) {
+                    UnorderedPair<ICity> cities = connection.getCities();
+                    assertTrue(cities.left.equals(current) || cities.right.equals(current));
+                    current = cities.left.equals(current) ? cities.right : cities.left;
+                }
+                assertEquals(to, current);
+            }
+        }
+    }
+
+    @Test
+    public void testRemainingCosts() {
+        RoutingOracle oracle = RoutingOracle.forMap(this.map);
+        Destination bostonDenver = new Destination(this.boston, this.denver);
+        RemainingCosts costs = oracle.calculateRemainingCosts(Set.of());
+        assertEquals(9, costs.getRemainingSegments(bostonDenver));
+
+        costs.addOwnedConnection(this.bostonTexas);
+        assertEquals(6, costs.getRemainingSegments(bostonDenver));
+        RemainingCosts before = costs.copy();
+        costs.addOwnedConnection(this.nycDenver);
+        assertEquals(5, costs.getRemainingSegments(bostonDenver));
+        assertEquals(3, costs.getRemainingSegments(
+            new Destination(this.chicago, this.nyc)));
+        assertEquals(6, before.getRemainingSegments(bostonDenver));
+
+        // Connections not in the map are ignored
+        costs.addOwnedConnection(this.connection(this.boston, this.paris, 3, RailColor.RED));
+        assertEquals(RoutingOracle.UNREACHABLE,
+            costs.getRemainingSegments(new Destination(this.boston, this.paris)));
+
+        RemainingCosts complete = oracle.calculateRemainingCosts(
+            Set.of(this.bostonNyc, this.nycDenver));
+        assertEquals(0, complete.getRemainingSegments(bostonDenver));
+        assertEquals(0, complete.getRemainingSegments(
+            this.map.getCityId("Denver"), this.map.getCityId("NYC")));
+        assertEquals(3, complete.getRemainingSegments(new Destination(this.texas, this.nyc)));
+    }
+
+    @Test
+    public void testOracleIsSharedByEqualMaps() {
+        RoutingOracle oracle = RoutingOracle.forMap(this.map);
+        ITrainMap equalMap = this.createMap();
+        assertSame(oracle, RoutingOracle.forMap(equalMap));
+        assertTrue(oracle.isForMap(equalMap));
+
+        ITrainMap longerMap = new TrainMap(this.map.getCities(), Set.of(
+            this.connection(this.boston, this.nyc, 4, RailColor.BLUE), this.nycDenver,
+            this.bostonTexas, this.texasChicago, this.chicagoDenver));
+        RoutingOracle longerOracle = RoutingOracle.forMap(longerMap);
+        assertNotSame(oracle, longerOracle);
+        assertFalse(oracle.isForMap(longerMap));
+        assertEquals(4, longerOracle.getMinSegments(this.boston, this.nyc));
+    }
+
+    @Test
+    public void testOracleIsReleasedWithItsMap() throws InterruptedException {
+        WeakReference<RoutingOracle> oracle =
+            new WeakReference<>(RoutingOracle.forMap(this.createMap()));
+        ITrainMap otherMap = TrainsMapUtils.createDefaultMap();
+        for (int attempt = 0; attempt < 50 && oracle.get() != null; attempt += 1) {
+            System.gc();
+            Thread.sleep(10);
+            // Using the cache for a different map discards the entries of collected maps
+            RoutingOracle.forMap(otherMap);
+        }
+        assertNull(oracle.get());
+    }
+}
@@ -4,15 +4,24 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import map.City;
 import map.Destination;
 import map.ICity;
+import map.IRailConnection;
+import map.ITrainMap;
 import map.RailColor;
 import map.RailConnection;
+import map.TrainMap;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultWeightedEdge;
 import org.junit.jupiter.api.Test;
 import referee.game_state.IPlayerData;
 import referee.game_state.PlayerData;
 import referee.ScoreCalculator;
+import referee.ScoreGraphUtils;
 import referee.game_state.TrainsPlayerHand;
 import utils.UnorderedPair;
 
@@ -111,4 +120,107 @@ public class TestScoreCalculator {
         assertEquals(List.of(-10, 42, 27),
             new ScoreCalculator().scorePlayers(List.of(data1, data2, data3)));
     }
+
+    @Test
+    public void testScoreMultiplePlayersOnMap() {
+        ICity boston = new City("Boston", 0, 0);
+        ICity nyc = new City("NYC", 0, 0);
+        ICity texas = new City("Texas", 0, 0);
+        ICity chicago = new City("Chicago", 0, 0);
+        List<IRailConnection> rails = List.of(
+            new RailConnection(new UnorderedPair<>(texas, nyc),3, RailColor.BLUE),
+            new RailConnection(new UnorderedPair<>(nyc, boston),4, RailColor.BLUE),
+            new RailConnection(new UnorderedPair<>(boston, chicago),5, RailColor.BLUE),
+            new RailConnection(new UnorderedPair<>(chicago, nyc),3, RailColor.RED),
+            new RailConnection(new UnorderedPair<>(texas, boston),4, RailColor.GREEN));
+        ITrainMap map = new TrainMap(new HashSet<>(List.of(boston, nyc, texas, chicago)),
+            new HashSet<>(rails));
+
+        IPlayerData data1 = new PlayerData(
+            new TrainsPlayerHand(new HashMap<>()),
+            5,
+            new HashSet<>(List.of(new Destination(boston, nyc))),
+            new HashSet<>());
+
+        IPlayerData data2 = new PlayerData(
+            new TrainsPlayerHand(new HashMap<>()),
+            3,
+            new HashSet<>(List.of(new Destination(texas, chicago))),
+            new HashSet<>(rails.subList(0, 2)));
+        // Acquired after the connectivity is built, so it must be kept up to date
+        data2.getConnectivity(map);
+        data2.addOwnedConnection(rails.get(2));
+
+        IPlayerData data3 = new PlayerData(
+            new TrainsPlayerHand(new HashMap<>()),
+            3,
+            new HashSet<>(List.of(new Destination(nyc, chicago), new Destination(boston, texas))),
+            new HashSet<>(rails.subList(3, 5)));
+
+        List<IPlayerData> players = List.of(data1, data2, data3);
+        assertEquals(List.of(-10, 42, 27), new ScoreCalculator().scorePlayers(players, map));
+        assertEquals(new ScoreCalculator().scorePlayers(players),
+            new ScoreCalculator().scorePlayers(players, map));
+    }
+
+    @Test
+    public void testParallelScoresMatchSequentialScores() {
+        Random random = new Random(7);
+        List<ICity> cities = new ArrayList<>();
+        for (int index = 0; index < 30; index += 1) {
+            cities.add(new City("City" + index, 0, 0));
+        }
+        for (int game = 0; game < 20; game += 1) {
+            List<IPlayerData> players = new ArrayList<>();
+            for (int player = 0; player < 8; player += 1) {
+                Set<IRailConnection> owned = new HashSet<>();
+                for (int index = 0; index < 12; index += 1) {
+                    ICity city1 = cities.get(random.nextInt(cities.size()));
+                    ICity city2 = cities.get(random.nextInt(cities.size()));
+                    if (!city1.equals(city2)) {
+                        owned.add(new RailConnection(new UnorderedPair<>(city1, city2),
+                            3 + random.nextInt(3), RailColor.values()[random.nextInt(4)]));
+                    }
+                }
+                Set<Destination> destinations = new HashSet<>();
+                while (destinations.size() < 2) {
+                    ICity city1 = cities.get(random.nextInt(cities.size()));
+                    ICity city2 = cities.get(random.nextInt(cities.size()));
+                    if (!city1.equals(city2)) {
+                        destinations.add(new Destination(city1, city2));
+                    }
+                }
+                players.add(new PlayerData(new TrainsPlayerHand(new HashMap<>()), 45,
+                    destinations, owned));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            assertEquals(scoreSequentially(players),
+                new ScoreCalculator(pool).scorePlayers(players));
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scores the players one after another with JGraphT graphs, as a reference for the scores.
+     */
+    private static List<Integer> scoreSequentially(List<IPlayerData> players) {
+        List<Graph<String, DefaultWeightedEdge>> graphs = new ArrayList<>();
+        for (IPlayerData player : players) {
+            graphs.add(ScoreGraphUtils.occupiedConnectionsToGraph(player.getOwnedConnections()));
+        }
+        Set<Integer> playersWithLongestPath =
+            ScoreGraphUtils.calculatePlayersWithLongestPath(graphs);
+        List<Integer> scores = new ArrayList<>();
+        for (int index = 0; index < players.size(); index += 1) {
+            IPlayerData player = players.get(index);
+            scores.add(ScoreCalculator.assignPoints(
+                player.getOwnedConnections().stream().mapToInt(IRailConnection::getLength).sum(),
+                ScoreGraphUtils.calculateNumDestinationsConnected(graphs.get(index),
+                    player.getDestinations()),
+                player.getDestinations().size(),
+                playersWithLongestPath.contains(index)));
+        }
+        return scores;
+    }
 }
@@ -1,8 +1,11 @@
+import com.google.common.collect.Iterators;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -10,13 +13,20 @@ import map.City;
 import map.Destination;
 import map.ICity;
 import map.IRailConnection;
+import map.ITrainMap;
 import map.RailColor;
 import map.RailConnection;
 import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import referee.CompiledConnectionGraph;
+import referee.ConnectionGraphCompiler;
+import referee.LongestPathSolver;
 import referee.ScoreGraphUtils;
+import test_utils.TrainsMapUtils;
 import utils.UnorderedPair;
 
 public class TestScoreGraphUtils {
@@ -56,6 +66,188 @@ public class TestScoreGraphUtils {
                 ScoreGraphUtils.occupiedConnectionsToGraph(p1))));
   }
 
+  @Test
+  public void testCalculateLongestPathLength() {
+    // A path A-B-C with a heavier branch B-D: longest is A-B-D or C-B-D
+    Set<IRailConnection> branching = new HashSet<>();
+    branching.add(rail("A", "B", 3, RailColor.RED));
+    branching.add(rail("B", "C", 3, RailColor.RED));
+    branching.add(rail("B", "D", 5, RailColor.RED));
+    Assertions.assertEquals(
+        8,
+        ScoreGraphUtils.calculateLongestPathLength(
+            ScoreGraphUtils.occupiedConnectionsToGraph(branching)));
+
+    // A cycle of four can be walked almost entirely, skipping the lightest edge
+    Set<IRailConnection> cycle = new HashSet<>();
+    cycle.add(rail("A", "B", 3, RailColor.RED));
+    cycle.add(rail("B", "C", 4, RailColor.RED));
+    cycle.add(rail("C", "D", 5, RailColor.RED));
+    cycle.add(rail("D", "A", 5, RailColor.RED));
+    // A separate, lighter component should not affect the result
+    cycle.add(rail("E", "F", 5, RailColor.RED));
+    Assertions.assertEquals(
+        14,
+        ScoreGraphUtils.calculateLongestPathLength(
+            ScoreGraphUtils.occupiedConnectionsToGraph(cycle)));
+
+    Assertions.assertEquals(0, ScoreGraphUtils.calculateLongestPathLength(empty()));
+  }
+
+  @Test
+  public void testLongestPathMatchesEnumerationOnRandomGraphs() {
+    Random random = new Random(4500);
+    String[] names = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    RailColor[] colors = RailColor.values();
+    for (int trial = 0; trial < 300; trial += 1) {
+      Set<IRailConnection> connections = new HashSet<>();
+      int numConnections = random.nextInt(15);
+      for (int ii = 0; ii < numConnections; ii += 1) {
+        int city1 = random.nextInt(names.length);
+        int city2 = random.nextInt(names.length);
+        if (city1 != city2) {
+          connections.add(rail(names[city1], names[city2], 3 + random.nextInt(3),
+              colors[random.nextInt(colors.length)]));
+        }
+      }
+      Graph<String, DefaultWeightedEdge> graph =
+          ScoreGraphUtils.occupiedConnectionsToGraph(connections);
+      Assertions.assertEquals(
+          calculateLongestPathLengthByEnumeration(graph),
+          ScoreGraphUtils.calculateLongestPathLength(graph),
+          connections.toString());
+    }
+  }
+
+  @Test
+  public void testUpperBoundsOnRandomGraphs() {
+    Random random = new Random(4501);
+    String[] names = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    RailColor[] colors = RailColor.values();
+    List<Graph<String, DefaultWeightedEdge>> graphs = new ArrayList<>();
+    for (int trial = 0; trial < 300; trial += 1) {
+      Set<IRailConnection> connections = new HashSet<>();
+      int numConnections = random.nextInt(15);
+      for (int ii = 0; ii < numConnections; ii += 1) {
+        int city1 = random.nextInt(names.length);
+        int city2 = random.nextInt(names.length);
+        if (city1 != city2) {
+          connections.add(rail(names[city1], names[city2], 3 + random.nextInt(3),
+              colors[random.nextInt(colors.length)]));
+        }
+      }
+      Graph<String, DefaultWeightedEdge> graph =
+          ScoreGraphUtils.occupiedConnectionsToGraph(connections);
+      LongestPathSolver solver = new LongestPathSolver(graph);
+      int longestPathLength = calculateLongestPathLengthByEnumeration(graph);
+      Assertions.assertTrue(solver.longestPathUpperBound() >= longestPathLength);
+      Assertions.assertEquals(connections.isEmpty(), solver.longestPathUpperBound() == 0);
+      graphs.add(graph);
+
+      // Games have up to 8 players
+      if (graphs.size() == 8) {
+        Set<Integer> expected = new HashSet<>();
+        int overallLongestPathLength = 0;
+        for (Graph<String, DefaultWeightedEdge> playerGraph : graphs) {
+          overallLongestPathLength = Math.max(overallLongestPathLength,
+              calculateLongestPathLengthByEnumeration(playerGraph));
+        }
+        for (int index = 0; index < graphs.size(); index += 1) {
+          if (calculateLongestPathLengthByEnumeration(graphs.get(index))
+              == overallLongestPathLength) {
+            expected.add(index);
+          }
+        }
+        Assertions.assertEquals(expected, ScoreGraphUtils.calculatePlayersWithLongestPath(graphs));
+        graphs.clear();
+      }
+    }
+  }
+
+  @Test
+  public void testConnectionGraphCompilerMatchesCompiledGraph() {
+    ITrainMap map = TrainsMapUtils.createDefaultMap();
+    List<ICity> cities = new ArrayList<>(map.getCities());
+    ConnectionGraphCompiler compiler = new ConnectionGraphCompiler(map);
+    Random random = new Random(4502);
+    int[] connectionIds = new int[map.getNumRailConnections()];
+    // One compiler is reused for every trial, as simulations reuse it for every player
+    for (int trial = 0; trial < 100; trial += 1) {
+      Set<IRailConnection> connections = new HashSet<>();
+      int numConnections = 0;
+      for (int connectionId = 0; connectionId < connectionIds.length; connectionId += 1) {
+        if (random.nextInt(3) == 0) {
+          connectionIds[numConnections] = connectionId;
+          numConnections += 1;
+          connections.add(map.getRailConnection(connectionId));
+        }
+      }
+      LongestPathSolver solver = compiler.compile(connectionIds, numConnections);
+      CompiledConnectionGraph expected = new CompiledConnectionGraph(connections);
+      Assertions.assertEquals(expected.calculateLongestPathLength(), solver.longestPathLength());
+      Assertions.assertEquals(expected.calculateLongestPathUpperBound(),
+          solver.longestPathUpperBound());
+      for (int ii = 0; ii < cities.size(); ii += 1) {
+        for (int jj = ii + 1; jj < cities.size(); jj += 1) {
+          Destination destination = new Destination(cities.get(ii), cities.get(jj));
+          Assertions.assertEquals(
+              expected.calculateNumDestinationsConnected(Set.of(destination)) == 1,
+              compiler.areConnected(map.getCityId(cities.get(ii).getName()),
+                  map.getCityId(cities.get(jj).getName())));
+        }
+      }
+    }
+    Assertions.assertFalse(compiler.areConnected(ITrainMap.NO_CITY, 0));
+  }
+
+  @Test
+  public void testOnlySolvesPlayersWhoseBoundCanReachLongestPath() {
+    int[] longestPathLengths = {5, 18, 12, 20, 0};
+    List<Integer> solved = new ArrayList<>();
+    Set<Integer> result = ScoreGraphUtils.calculatePlayersWithLongestPath(
+        new int[] {5, 20, 12, 20, 0},
+        index -> {
+          solved.add(index);
+          return longestPathLengths[index];
+        });
+    Assertions.assertEquals(Set.of(3), result);
+    Assertions.assertEquals(List.of(1, 3), solved);
+
+    solved.clear();
+    Assertions.assertEquals(Set.of(0, 1, 2),
+        ScoreGraphUtils.calculatePlayersWithLongestPath(new int[] {0, 0, 0}, index -> {
+          solved.add(index);
+          return 0;
+        }));
+    Assertions.assertEquals(List.of(), solved);
+
+    // A player whose bound equals the longest path found may still tie for it
+    Assertions.assertEquals(Set.of(0, 1),
+        ScoreGraphUtils.calculatePlayersWithLongestPath(new int[] {9, 12}, index -> 9));
+  }
+
+  /**
+   * Calculates the weight of the longest simple path in the given graph by enumerating every simple
+   * path between every pair of vertices, as a reference to check {@link LongestPathSolver} against.
+   */
+  private static int calculateLongestPathLengthByEnumeration(
+      Graph<String, DefaultWeightedEdge> graph) {
+    int longestPath = 0;
+    for (String vertex1 : graph.vertexSet()) {
+      for (String vertex2 : graph.vertexSet()) {
+        if (!vertex1.equals(vertex2)) {
+          Iterator<GraphPath<String, DefaultWeightedEdge>> pathIterator =
+              new YenShortestPathIterator<>(graph, vertex1, vertex2);
+          if (pathIterator.hasNext()) {
+            longestPath = Math.max(longestPath,
+                (int) Iterators.getLast(pathIterator).getWeight());
+          }
+        }
+      }
+    }
+    return longestPath;
+  }
+
   private static Graph<String, DefaultWeightedEdge> empty() {
     return ScoreGraphUtils.occupiedConnectionsToGraph(new HashSet<>());
   }
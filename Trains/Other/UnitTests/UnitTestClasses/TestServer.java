@@ -1,34 +1,76 @@
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
 import org.junit.jupiter.api.Test;
-import remote.Server.ClientHandler;
-import utils.SynchronizedCounter;
+import remote.NameAccumulator;
+import remote.NameAccumulator.State;
+import remote.SignupSelector;
+import remote.SignupSelector.SignedUpClient;
 
 public class TestServer {
 
     @Test
-    public void testClientHandler() {
-        SynchronizedCounter counter = new SynchronizedCounter();
-        ClientHandler handler = new ClientHandler(new ByteArrayInputStream("\"name\"".getBytes()), counter);
-
-        handler.run();
+    public void testNameAccumulatorSplitAcrossReads() {
+        NameAccumulator accumulator = new NameAccumulator();
+        assertEquals(State.INCOMPLETE, accumulator.accept(ByteBuffer.wrap(" \"na".getBytes())));
+        assertEquals(State.INCOMPLETE, accumulator.accept(ByteBuffer.wrap("m".getBytes())));
+        ByteBuffer rest = ByteBuffer.wrap("e\"[\"void\"]".getBytes());
+        assertEquals(State.VALID, accumulator.accept(rest));
+        assertEquals("name", accumulator.getName());
+        // Bytes after the name are left unread
+        assertEquals(8, rest.remaining());
+    }
 
-        assertEquals(1, counter.get());
-        assertTrue(handler.getRespondedInTime());
-        assertEquals("name", handler.getName());
+    @Test
+    public void testNameAccumulatorInvalidNames() {
+        assertEquals(State.INVALID, accumulateName("\"\""));
+        assertEquals(State.INVALID, accumulateName("name"));
+        assertEquals(State.INVALID, accumulateName("\"na me\""));
+        assertEquals(State.VALID, accumulateName("\"" + "a".repeat(50) + "\""));
+        assertEquals(State.INVALID, accumulateName("\"" + "a".repeat(51) + "\""));
     }
 
     @Test
-    public void testClientHandlerNoName() {
-        SynchronizedCounter counter = new SynchronizedCounter();
-        ClientHandler handler = new ClientHandler(new ByteArrayInputStream("".getBytes()), counter);
+    public void testSignupSelector() throws IOException {
+        try (SignupSelector signups = new SignupSelector(0);
+            Socket slowName = new Socket("localhost", signups.getLocalPort());
+            Socket invalidName = new Socket("localhost", signups.getLocalPort());
+            Socket noName = new Socket("localhost", signups.getLocalPort())) {
+            slowName.getOutputStream().write("\"ab".getBytes());
+            invalidName.getOutputStream().write("\"name1\"".getBytes());
+            // A client that disconnects without sending a name
+            new Socket("localhost", signups.getLocalPort()).close();
+            signups.acceptSignups(500, 10);
+            slowName.getOutputStream().write("c\"[\"void\"]".getBytes());
 
-        handler.run();
+            // Waits for the client that never sends a name to run out of time
+            signups.finishPendingSignups();
+            List<SignedUpClient> signedUp = signups.takeSignedUpClients();
+
+            assertEquals(1, signups.getNumSignedUp());
+            assertEquals(1, signedUp.size());
+            assertEquals("abc", signedUp.get(0).getName());
+            assertEquals(-1, invalidName.getInputStream().read());
+            assertEquals(-1, noName.getInputStream().read());
+
+            // The bytes sent after the name are kept for the client's later messages
+            slowName.getOutputStream().write("[true]".getBytes());
+            byte[] received = new byte[14];
+            InputStream input = signedUp.get(0).getInputStream();
+            int numReceived = 0;
+            while (numReceived < received.length) {
+                numReceived += input.read(received, numReceived, received.length - numReceived);
+            }
+            assertEquals("[\"void\"][true]", new String(received));
+            signedUp.get(0).getSocket().close();
+        }
+    }
 
-        assertEquals(0, counter.get());
-        assertFalse(handler.getRespondedInTime());
+    private static State accumulateName(String message) {
+        return new NameAccumulator().accept(ByteBuffer.wrap(message.getBytes()));
     }
 }
@@ -1,8 +1,14 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import map.ITrainMap;
 import org.junit.jupiter.api.Assertions;
@@ -12,9 +18,16 @@ import player.Player;
 import strategy.BuyNow;
 import strategy.Cheat;
 import strategy.Hold10;
+import strategy.IStrategy;
+import test_utils.TrainsMapUtils;
 import tournament_manager.ITournamentManager;
+import tournament_manager.PlayerAllocator;
 import tournament_manager.SingleElimTournamentManager;
 import tournament_manager.TournamentResult;
+import utils.Constants;
+import utils.TimedInvoker;
+import utils.json.SubmittedTrainMap;
+import utils.json.ToJsonConverter;
 
 /**
  * Unit tests for a SingleElimTournamentManager
@@ -252,6 +265,182 @@ public class TestSingleElimTournamentManager {
     }
 
 
+    @Test
+    public void testInvalidMaxConcurrentGames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SingleElimTournamentManager.SingleElimTournamentManagerBuilder()
+                        .maxConcurrentGames(0));
+    }
+
+    @Test
+    public void testRunTournamentConcurrentGamesMatchesSequential() {
+        TournamentResult sequentialResult = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .mapSelector(TestSingleElimTournamentManager::mapSelector)
+            .build()
+            .runTournament(mixedPlayers());
+        TournamentResult concurrentResult = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .mapSelector(TestSingleElimTournamentManager::mapSelector)
+            .maxConcurrentGames(4)
+            .build()
+            .runTournament(mixedPlayers());
+
+        Set<String> winners = new HashSet<>();
+        winners.add("marley");
+        Set<String> cheaters = new HashSet<>();
+        for (int ii = 20; ii < 40; ii++) {
+            cheaters.add("player" + ii);
+        }
+        TournamentResult expectedResult = new TournamentResult(winners, cheaters);
+        Assertions.assertTrue(tournamentResultsEquals(sequentialResult, expectedResult));
+        Assertions.assertTrue(tournamentResultsEquals(concurrentResult, expectedResult));
+    }
+
+    @Test
+    public void testRunTournamentAllocatedBySpeed() {
+        List<Map<String, Double>> measuredRounds = new ArrayList<>();
+        TimedInvoker invoker = new TimedInvoker(Constants.PLAYER_INTERACTION_TIMEOUT);
+        TournamentResult result = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .mapSelector(TestSingleElimTournamentManager::mapSelector)
+            .maxConcurrentGames(4)
+            .timedInvoker(invoker)
+            .allocationPolicy((players, meanResponseNanos) -> {
+                // Every player has responded to at least the start of the tournament
+                Assertions.assertEquals(players.keySet(), meanResponseNanos.keySet());
+                measuredRounds.add(meanResponseNanos);
+                return PlayerAllocator.allocateBySpeed(players, meanResponseNanos);
+            })
+            .build()
+            .runTournament(mixedPlayers());
+        invoker.close();
+
+        // Response times are read from the invoker, and the first round is allocated once every
+        // player has only been asked for a map
+        for (Entry<String, Double> measured : measuredRounds.get(0).entrySet()) {
+            Assertions.assertEquals(
+                invoker.getStatistics(measured.getKey(), "startTournament").get()
+                    .getMeanLatencyNanos(),
+                measured.getValue(), 1e-6);
+        }
+
+        Set<String> cheaters = new HashSet<>();
+        for (int ii = 20; ii < 40; ii++) {
+            cheaters.add("player" + ii);
+        }
+        Assertions.assertEquals(cheaters, result.getCheaters());
+        Assertions.assertFalse(result.getWinners().isEmpty());
+        Assertions.assertTrue(measuredRounds.size() >= 2);
+    }
+
+    @Test
+    public void testRunTournamentInvalidAllocationPolicy() {
+        ITournamentManager manager = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .allocationPolicy((players, meanResponseNanos) -> List.of(players))
+            .build();
+        assertThrows(IllegalStateException.class, () -> manager.runTournament(mixedPlayers()));
+        assertThrows(NullPointerException.class,
+            () -> new SingleElimTournamentManager.SingleElimTournamentManagerBuilder()
+                .allocationPolicy(null).build());
+    }
+
+    @Test
+    public void testRunTournamentSubmittedMapsDeduplicatedAndParsedWhenSelected() {
+        JsonObject mapJson = ToJsonConverter.mapToJson(TrainsMapUtils.createDefaultMap());
+        JsonObject invalidMapJson = mapJson.deepCopy();
+        invalidMapJson.getAsJsonObject("connections")
+            .add("Atlantis", JsonParser.parseString("{\"Rome\": {\"red\": 3}}"));
+
+        LinkedHashMap<String, IPlayer> playersInTurnOrder = new LinkedHashMap<>();
+        playersInTurnOrder.put("marley", submittingPlayer(new BuyNow(), mapJson));
+        playersInTurnOrder.put("ronan", submittingPlayer(new Hold10(), mapJson));
+        playersInTurnOrder.put("cheater", submittingPlayer(new Hold10(), invalidMapJson));
+
+        List<List<ITrainMap>> selections = new ArrayList<>();
+        TournamentResult result = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .mapSelector(maps -> {
+                selections.add(maps);
+                // Counting cities and connections does not parse the maps
+                maps.forEach(ITrainMap::getNumRailConnections);
+                Assertions.assertFalse(maps.stream()
+                    .anyMatch(map -> ((SubmittedTrainMap) map).isParsed()));
+                return mapSelector(maps);
+            })
+            .build()
+            .runTournament(playersInTurnOrder);
+
+        // The invalid map is selected first, then the map submitted by both other players
+        Assertions.assertEquals(2, selections.size());
+        Assertions.assertEquals(2, selections.get(0).size());
+        Assertions.assertEquals(1, selections.get(1).size());
+        Assertions.assertEquals(Set.of("cheater"), result.getCheaters());
+        Assertions.assertEquals(Set.of("marley"), result.getWinners());
+    }
+
+    @Test
+    public void testRunTournamentSelectorQueriesInvalidSubmittedMap() {
+        JsonObject mapJson = ToJsonConverter.mapToJson(TrainsMapUtils.createDefaultMap());
+        JsonObject invalidMapJson = mapJson.deepCopy();
+        invalidMapJson.getAsJsonObject("connections")
+            .add("Atlantis", JsonParser.parseString("{\"Rome\": {\"red\": 3}}"));
+
+        LinkedHashMap<String, IPlayer> playersInTurnOrder = new LinkedHashMap<>();
+        playersInTurnOrder.put("marley", submittingPlayer(new BuyNow(), mapJson));
+        playersInTurnOrder.put("cheater", submittingPlayer(new Hold10(), invalidMapJson));
+        playersInTurnOrder.put("ronan", submittingPlayer(new Hold10(), mapJson));
+
+        List<Integer> numMapsSelectedFrom = new ArrayList<>();
+        TournamentResult result = new SingleElimTournamentManager
+            .SingleElimTournamentManagerBuilder()
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .mapSelector(maps -> {
+                numMapsSelectedFrom.add(maps.size());
+                // Querying the cities parses every map, which fails for the invalid one
+                return maps.stream()
+                    .max(Comparator.comparingInt(map -> map.getCities().size())).orElseThrow();
+            })
+            .build()
+            .runTournament(playersInTurnOrder);
+
+        Assertions.assertEquals(List.of(2, 1), numMapsSelectedFrom);
+        Assertions.assertEquals(Set.of("cheater"), result.getCheaters());
+        Assertions.assertEquals(Set.of("marley"), result.getWinners());
+    }
+
+    private static IPlayer submittingPlayer(IStrategy strategy, JsonObject mapJson) {
+        return new Player(strategy) {
+            @Override
+            public ITrainMap startTournament(boolean inTournament) {
+                return new SubmittedTrainMap(mapJson);
+            }
+        };
+    }
+
+    private static LinkedHashMap<String, IPlayer> mixedPlayers() {
+        LinkedHashMap<String, IPlayer> playersInTurnOrder = new LinkedHashMap<>();
+        playersInTurnOrder.put("marley", new Player(new BuyNow()));
+        for (int ii = 0; ii < 20; ii++) {
+            playersInTurnOrder.put("player" + ii, new Player(new Hold10()));
+        }
+        for (int ii = 20; ii < 40; ii++) {
+            playersInTurnOrder.put("player" + ii, new Player(new Cheat()));
+        }
+        return playersInTurnOrder;
+    }
+
+
     private boolean tournamentResultsEquals(TournamentResult result1, TournamentResult result2) {
         return result1.getWinners().equals(result2.getWinners())
                 && result1.getCheaters().equals(result2.getCheaters());
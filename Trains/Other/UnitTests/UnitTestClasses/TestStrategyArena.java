@@ -0,0 +1,131 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import map.ITrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import simulation.ArenaReport;
+import simulation.EntrantStatistics;
+import simulation.StrategyArena.ArenaBuilder;
+import strategy.BuyNow;
+import strategy.Hold10;
+import strategy.IStrategy;
+import test_utils.TrainsMapUtils;
+
+public class TestStrategyArena {
+
+    List<ITrainMap> maps;
+    LinkedHashMap<String, Supplier<IStrategy>> buyNowAndHold10;
+
+    @BeforeEach
+    public void setup() {
+        this.maps = List.of(TrainsMapUtils.createDefaultMap());
+        this.buyNowAndHold10 = new LinkedHashMap<>();
+        this.buyNowAndHold10.put("buy-now", BuyNow::new);
+        this.buyNowAndHold10.put("hold-10", Hold10::new);
+    }
+
+    @Test
+    public void testEveryStrategyPlaysEveryGame() {
+        ArenaReport report = new ArenaBuilder(this.maps, this.buyNowAndHold10)
+            .numGames(200)
+            .build()
+            .run();
+
+        assertTrue(report.isComplete());
+        assertEquals(200, report.getNumGamesPlayed());
+        List<EntrantStatistics> statistics = report.getEntrantStatistics();
+        assertEquals("buy-now", statistics.get(0).getName());
+        assertEquals("hold-10", statistics.get(1).getName());
+        for (EntrantStatistics entrant : statistics) {
+            assertEquals(200, entrant.getNumGames());
+            assertEquals(0, entrant.getNumRemoved());
+            assertTrue(entrant.getWinRateInterval().getLower() <= entrant.getWinRate());
+            assertTrue(entrant.getWinRate() <= entrant.getWinRateInterval().getUpper());
+            assertTrue(entrant.getMeanScoreInterval().getLower() <= entrant.getMeanScore());
+            assertTrue(entrant.getMeanScore() <= entrant.getMeanScoreInterval().getUpper());
+        }
+        // Ties count as wins for both strategies
+        assertTrue(statistics.get(0).getNumWins() + statistics.get(1).getNumWins() >= 200);
+    }
+
+    @Test
+    public void testResultsDoNotDependOnParallelism() {
+        ArenaReport sequential = new ArenaBuilder(this.maps, this.buyNowAndHold10)
+            .numGames(300)
+            .seed(17)
+            .parallelism(1)
+            .build()
+            .run();
+        ArenaReport parallel = new ArenaBuilder(this.maps, this.buyNowAndHold10)
+            .numGames(300)
+            .seed(17)
+            .parallelism(4)
+            .build()
+            .run();
+
+        for (int entrant = 0; entrant < 2; entrant += 1) {
+            assertEquals(sequential.getEntrantStatistics().get(entrant).toString(),
+                parallel.getEntrantStatistics().get(entrant).toString());
+        }
+    }
+
+    @Test
+    public void testReportsAreStreamed() {
+        List<ArenaReport> reports = new ArrayList<>();
+        ArenaReport finalReport = new ArenaBuilder(this.maps, this.buyNowAndHold10)
+            .numGames(500)
+            .parallelism(3)
+            .listener(100, reports::add)
+            .build()
+            .run();
+
+        assertTrue(reports.size() >= 2);
+        for (int index = 1; index < reports.size(); index += 1) {
+            assertTrue(reports.get(index - 1).getNumGamesPlayed()
+                < reports.get(index).getNumGamesPlayed());
+        }
+        ArenaReport lastReport = reports.get(reports.size() - 1);
+        assertTrue(lastReport.isComplete());
+        assertEquals(finalReport.toString().lines().skip(1).toList(),
+            lastReport.toString().lines().skip(1).toList());
+    }
+
+    @Test
+    public void testMisbehavingStrategyIsRemoved() {
+        LinkedHashMap<String, Supplier<IStrategy>> entrants = new LinkedHashMap<>();
+        entrants.put("buy-now", BuyNow::new);
+        entrants.put("cheater", ThrowException::new);
+        ArenaReport report = new ArenaBuilder(this.maps, entrants)
+            .numGames(20)
+            .build()
+            .run();
+
+        EntrantStatistics buyNow = report.getEntrantStatistics().get(0);
+        EntrantStatistics cheater = report.getEntrantStatistics().get(1);
+        assertEquals(1.0, buyNow.getWinRate());
+        assertEquals(20, cheater.getNumRemoved());
+        assertEquals(0, cheater.getNumScoredGames());
+        assertEquals(0.0, cheater.getWinRate());
+        assertTrue(cheater.getWinRateInterval().getUpper() < 0.25);
+    }
+
+    @Test
+    public void testInvalidArenas() {
+        LinkedHashMap<String, Supplier<IStrategy>> oneEntrant = new LinkedHashMap<>();
+        oneEntrant.put("buy-now", BuyNow::new);
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArenaBuilder(this.maps, oneEntrant).build());
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArenaBuilder(List.of(), this.buyNowAndHold10).build());
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArenaBuilder(this.maps, this.buyNowAndHold10).numGames(0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArenaBuilder(this.maps, this.buyNowAndHold10).parallelism(0));
+    }
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import test_utils.TrainsMapUtils;
+import utils.json.SubmittedTrainMap;
+import utils.json.ToJsonConverter;
+
+public class TestSubmittedTrainMap {
+
+    private ITrainMap defaultMap;
+    private JsonObject defaultMapJson;
+
+    @BeforeEach
+    public void setUp() {
+        this.defaultMap = TrainsMapUtils.createDefaultMap();
+        this.defaultMapJson = ToJsonConverter.mapToJson(this.defaultMap);
+    }
+
+    @Test
+    public void testCountsWithoutParsing() {
+        SubmittedTrainMap submittedMap = new SubmittedTrainMap(this.defaultMapJson);
+        assertEquals(this.defaultMap.getNumCities(), submittedMap.getNumCities());
+        assertEquals(this.defaultMap.getNumRailConnections(),
+            submittedMap.getNumRailConnections());
+        assertFalse(submittedMap.isParsed());
+
+        assertTrue(TrainsMapUtils.sameMap(this.defaultMap, submittedMap));
+        assertTrue(submittedMap.isParsed());
+        assertSame(submittedMap.parse(), submittedMap.parse());
+    }
+
+    @Test
+    public void testEqualContent() {
+        SubmittedTrainMap submittedMap = new SubmittedTrainMap(this.defaultMapJson);
+        SubmittedTrainMap sameMap = new SubmittedTrainMap(
+            JsonParser.parseString(this.defaultMapJson.toString()));
+        assertEquals(submittedMap, sameMap);
+        assertEquals(submittedMap.hashCode(), sameMap.hashCode());
+        assertEquals(submittedMap.getContentHash(), sameMap.getContentHash());
+
+        JsonObject widerMapJson = this.defaultMapJson.deepCopy();
+        widerMapJson.addProperty("width", 900);
+        SubmittedTrainMap widerMap = new SubmittedTrainMap(widerMapJson);
+        assertNotEquals(submittedMap, widerMap);
+        assertNotEquals(submittedMap.getContentHash(), widerMap.getContentHash());
+    }
+
+    @Test
+    public void testInvalidShape() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SubmittedTrainMap(new JsonArray()));
+        JsonObject noCities = this.defaultMapJson.deepCopy();
+        noCities.remove("cities");
+        assertThrows(IllegalArgumentException.class, () -> new SubmittedTrainMap(noCities));
+    }
+
+    @Test
+    public void testInvalidContentOnlyFoundWhenParsed() {
+        JsonObject unknownCity = this.defaultMapJson.deepCopy();
+        JsonObject toRome = new JsonObject();
+        toRome.add("Rome", JsonParser.parseString("{\"red\": 3}"));
+        unknownCity.getAsJsonObject("connections").add("Atlantis", toRome);
+
+        SubmittedTrainMap submittedMap = new SubmittedTrainMap(unknownCity);
+        assertEquals(this.defaultMap.getNumRailConnections() + 1,
+            submittedMap.getNumRailConnections());
+        assertFalse(submittedMap.hasFailedToParse());
+        assertThrows(IllegalArgumentException.class, submittedMap::parse);
+        assertTrue(submittedMap.hasFailedToParse());
+        assertThrows(IllegalArgumentException.class, submittedMap::getCities);
+        assertFalse(submittedMap.isParsed());
+    }
+
+    @Test
+    public void testDuplicatesMerged() {
+        JsonObject duplicates = this.defaultMapJson.deepCopy();
+        JsonArray cities = duplicates.getAsJsonArray("cities");
+        cities.add(cities.get(0).deepCopy());
+        // List the connections between one pair of cities again from the other end
+        IRailConnection connection = this.defaultMap.getRailConnection(0);
+        String left = connection.getCities().left.getName();
+        String right = connection.getCities().right.getName();
+        JsonObject connections = duplicates.getAsJsonObject("connections");
+        boolean listedFromLeft =
+            connections.has(left) && connections.getAsJsonObject(left).has(right);
+        String from = listedFromLeft ? left : right;
+        String to = listedFromLeft ? right : left;
+        if (!connections.has(to)) {
+            connections.add(to, new JsonObject());
+        }
+        connections.getAsJsonObject(to)
+            .add(from, connections.getAsJsonObject(from).get(to).deepCopy());
+
+        SubmittedTrainMap submittedMap = new SubmittedTrainMap(duplicates);
+        assertEquals(this.defaultMap.getNumCities(), submittedMap.getNumCities());
+        assertEquals(this.defaultMap.getNumRailConnections(),
+            submittedMap.getNumRailConnections());
+        assertTrue(TrainsMapUtils.sameMap(this.defaultMap, submittedMap.parse()));
+    }
+}
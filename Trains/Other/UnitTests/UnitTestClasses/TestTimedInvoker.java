@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import utils.TimedInvoker;
+
+public class TestTimedInvoker {
+
+    @Test
+    public void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new TimedInvoker(0));
+        assertThrows(NullPointerException.class, () -> new TimedInvoker(100, null));
+    }
+
+    @Test
+    public void testInvokeReturnsValue() {
+        TimedInvoker invoker = new TimedInvoker(1000);
+        assertEquals(Optional.of(7), invoker.invoke(() -> 7));
+        assertEquals(1, invoker.getStatistics().getNumCompleted());
+        assertEquals(1, invoker.getStatistics().getNumCalls());
+        invoker.close();
+    }
+
+    @Test
+    public void testInvokeFailures() {
+        TimedInvoker invoker = new TimedInvoker(1000);
+        assertEquals(Optional.empty(), invoker.invoke(() -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(Optional.empty(), invoker.invoke(() -> null));
+        assertEquals(2, invoker.getStatistics().getNumFailed());
+        assertEquals(0, invoker.getStatistics().getNumCompleted());
+        invoker.close();
+    }
+
+    @Test
+    public void testInvokeCancelsOverrun() throws InterruptedException {
+        TimedInvoker invoker = new TimedInvoker(50);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        long startTime = System.currentTimeMillis();
+        Optional<Boolean> result = invoker.invoke(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return true;
+        });
+
+        assertEquals(Optional.empty(), result);
+        assertTrue(System.currentTimeMillis() - startTime < 5000);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, invoker.getStatistics().getNumOverrun());
+        assertTrue(
+            invoker.getStatistics().getMaxLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        invoker.close();
+    }
+
+    @Test
+    public void testLatencyListener() {
+        List<String> calls = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+        try (TimedInvoker invoker = new TimedInvoker(1000,
+            (playerName, methodName, outcome, latencyNanos) -> {
+                calls.add(playerName + "." + methodName + " " + outcome);
+                latencies.add(latencyNanos);
+            })) {
+            invoker.invoke("alice", "takeTurn", () -> 1);
+            invoker.invoke("bob", "setup", () -> null);
+            invoker.invoke(() -> 3);
+
+            assertEquals(List.of("alice.takeTurn COMPLETED", "bob.setup FAILED"), calls);
+            assertEquals(3, invoker.getStatistics().getNumCalls());
+            assertTrue(invoker.getStatistics().getTotalLatencyNanos()
+                >= latencies.get(0) + latencies.get(1));
+        }
+    }
+
+    @Test
+    public void testStatisticsPerPlayerAndMethod() {
+        try (TimedInvoker invoker = new TimedInvoker(1000)) {
+            invoker.invoke("alice", "takeTurn", () -> 1);
+            invoker.invoke("alice", "takeTurn", () -> 2);
+            invoker.invoke("alice", "setup", () -> null);
+            invoker.invoke("bob", "takeTurn", () -> 4);
+
+            assertEquals(3, invoker.getStatistics("alice").get().getNumCalls());
+            assertEquals(1, invoker.getStatistics("alice").get().getNumFailed());
+            assertEquals(2, invoker.getStatistics("alice", "takeTurn").get().getNumCompleted());
+            assertEquals(1, invoker.getStatistics("bob").get().getNumCalls());
+            assertEquals(Optional.empty(), invoker.getStatistics("bob", "setup"));
+            assertEquals(Optional.empty(), invoker.getStatistics("carol"));
+        }
+    }
+
+    @Test
+    public void testClose() {
+        TimedInvoker invoker = new TimedInvoker(1000);
+        invoker.close();
+        assertThrows(RejectedExecutionException.class, () -> invoker.invoke(() -> 1));
+        assertThrows(UnsupportedOperationException.class,
+            () -> TimedInvoker.defaultInvoker().close());
+    }
+}
@@ -0,0 +1,47 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import utils.TimerWheel;
+
+public class TestTimerWheel {
+
+    @Test
+    public void testConstruction() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(10, 0, 0));
+    }
+
+    @Test
+    public void testItemsNeverExpireEarly() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        wheel.schedule("a", 1025);
+        wheel.schedule("b", 1010);
+        assertEquals(2, wheel.size());
+
+        assertTrue(wheel.advance(1009).isEmpty());
+        assertEquals(List.of("b"), wheel.advance(1024));
+        assertEquals(List.of("a"), wheel.advance(1030));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneRevolution() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.schedule("far", 95);
+        wheel.schedule("near", 15);
+
+        assertEquals(List.of("near"), wheel.advance(50));
+        assertTrue(wheel.advance(90).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(100));
+    }
+
+    @Test
+    public void testMillisUntilNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(50, 8, 0);
+        assertEquals(50, wheel.millisUntilNextTick(0));
+        assertEquals(30, wheel.millisUntilNextTick(120));
+    }
+}
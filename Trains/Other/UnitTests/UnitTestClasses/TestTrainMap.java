@@ -168,4 +168,61 @@ public class TestTrainMap {
         connectionList.stream().map(cityPairMaker).collect(Collectors.toSet()),
         map.getAllPossibleDestinations());
   }
+
+  @Test
+  public void TestCityAndConnectionIds() {
+    ICity albany = new City("Albany", 0, 0);
+    cities.add(albany);
+    rails.add(new RailConnection(new UnorderedPair<>(albany, nyc), 4, RailColor.RED));
+    rails.add(new RailConnection(new UnorderedPair<>(boston, nyc), 5, RailColor.GREEN));
+    map = new TrainMap(cities, rails);
+
+    assertEquals(3, map.getNumCities());
+    assertEquals(3, map.getNumRailConnections());
+    // City IDs are in lexicographic order of names
+    assertEquals(0, map.getCityId("Albany"));
+    assertEquals(1, map.getCityId("Boston"));
+    assertEquals(2, map.getCityId("NYC"));
+    assertEquals(ITrainMap.NO_CITY, map.getCityId("Chicago"));
+    assertEquals(nyc, map.getCity(2));
+
+    // Lookups ignore the order of the cities and the length of the connection
+    int blueId = map.getRailConnectionId(
+        new RailConnection(new UnorderedPair<>(nyc, boston), 4, RailColor.BLUE));
+    assertEquals(connection, map.getRailConnection(blueId));
+    assertEquals(blueId, map.getRailConnectionId(2, 1, RailColor.BLUE));
+    assertEquals(1, map.getFirstCityId(blueId));
+    assertEquals(2, map.getSecondCityId(blueId));
+    assertEquals(-1, map.getRailConnectionId(0, 1, RailColor.BLUE));
+    assertEquals(-1, map.getRailConnectionId(
+        new RailConnection(new UnorderedPair<>(boston, nyc), 3, RailColor.WHITE)));
+    assertEquals(-1, map.getRailConnectionId(new RailConnection(
+        new UnorderedPair<>(boston, new City("Chicago", 0, 0)), 3, RailColor.BLUE)));
+
+    // Every connection is incident to both of its cities
+    Set<IRailConnection> nycConnections = new HashSet<>();
+    for (int index = 0; index < map.getNumIncidentConnections(2); index += 1) {
+      nycConnections.add(map.getRailConnection(map.getIncidentConnectionId(2, index)));
+    }
+    assertEquals(rails, nycConnections);
+    assertEquals(1, map.getNumIncidentConnections(0));
+    assertEquals(2, map.getNumIncidentConnections(1));
+  }
+
+  @Test
+  public void TestViewsAreReadOnly() {
+    assertEquals(cities, map.getCitiesView());
+    assertEquals(rails, map.getRailConnectionsView());
+    try {
+      map.getCitiesView().add(new City("Chicago", 0, 0));
+      fail();
+    } catch (UnsupportedOperationException ignored) {
+    }
+    try {
+      map.getRailConnectionsView().clear();
+      fail();
+    } catch (UnsupportedOperationException ignored) {
+    }
+    assertEquals(1, map.getRailConnections().size());
+  }
 }
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import game_state.RailCard;
+import game_state.RailCardCounts;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.game_state.TrainsPlayerHand;
+
+public class TestTrainsPlayerHand {
+
+    TrainsPlayerHand hand;
+
+    @BeforeEach
+    public void setup() {
+        this.hand = new TrainsPlayerHand(
+            List.of(RailCard.RED, RailCard.RED, RailCard.BLUE, RailCard.WHITE, RailCard.RED));
+    }
+
+    @Test
+    public void testCounts() {
+        assertEquals(3, this.hand.getNumCardsOfType(RailCard.RED));
+        assertEquals(1, this.hand.getNumCardsOfType(RailCard.BLUE));
+        assertEquals(0, this.hand.getNumCardsOfType(RailCard.GREEN));
+        assertEquals(1, this.hand.getNumCardsOfType(RailCard.WHITE));
+        assertEquals(5, this.hand.getTotalNumCards());
+
+        this.hand.addCardsToHand(RailCard.GREEN, 4);
+        this.hand.removeCardsFromHand(RailCard.RED, 3);
+        assertEquals(0, this.hand.getNumCardsOfType(RailCard.RED));
+        assertEquals(4, this.hand.getNumCardsOfType(RailCard.GREEN));
+        assertEquals(6, this.hand.getTotalNumCards());
+    }
+
+    @Test
+    public void testGetHandHasEveryCard() {
+        Map<RailCard, Integer> expected =
+            Map.of(RailCard.RED, 3, RailCard.BLUE, 1, RailCard.GREEN, 0, RailCard.WHITE, 1);
+        assertEquals(expected, this.hand.getHand());
+        assertEquals(expected, new TrainsPlayerHand(Map.of(RailCard.RED, 3, RailCard.BLUE, 1,
+            RailCard.WHITE, 1)).getHand());
+    }
+
+    @Test
+    public void testPackedCounts() {
+        long packed = this.hand.toPackedCounts();
+        assertEquals(3, RailCardCounts.getCount(packed, RailCard.RED));
+        assertEquals(0, RailCardCounts.getCount(packed, RailCard.GREEN));
+        assertEquals(this.hand.getHand(), RailCardCounts.toMap(packed));
+        assertEquals(this.hand.getHand(), TrainsPlayerHand.fromPackedCounts(packed).getHand());
+
+        // The packed counts are a snapshot that does not change with the hand
+        this.hand.addCardsToHand(RailCard.BLUE, 2);
+        assertEquals(1, RailCardCounts.getCount(packed, RailCard.BLUE));
+        assertEquals(3, RailCardCounts.getCount(this.hand.toPackedCounts(), RailCard.BLUE));
+    }
+
+    @Test
+    public void testPackLargestCounts() {
+        int[] counts = {RailCardCounts.MAX_COUNT, 0, 7, RailCardCounts.MAX_COUNT};
+        long packed = RailCardCounts.pack(counts);
+        assertEquals(RailCardCounts.MAX_COUNT, RailCardCounts.getCount(packed, RailCard.RED));
+        assertEquals(RailCardCounts.MAX_COUNT, RailCardCounts.getCount(packed, RailCard.WHITE));
+        assertArrayEquals(counts, RailCardCounts.unpack(packed));
+    }
+
+    @Test
+    public void testInvalidHands() {
+        Map<RailCard, Integer> negative = new HashMap<>();
+        negative.put(RailCard.GREEN, -1);
+        assertThrows(IllegalArgumentException.class, () -> new TrainsPlayerHand(negative));
+        assertThrows(IllegalArgumentException.class,
+            () -> this.hand.addCardsToHand(RailCard.RED, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> this.hand.removeCardsFromHand(RailCard.RED, -2));
+        assertThrows(IllegalStateException.class,
+            () -> this.hand.removeCardsFromHand(RailCard.BLUE, 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> RailCardCounts.pack(new int[] {0, RailCardCounts.MAX_COUNT + 1, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> RailCardCounts.pack(new int[] {1, 2}));
+    }
+}
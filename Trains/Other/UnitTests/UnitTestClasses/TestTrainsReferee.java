@@ -2,6 +2,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import game_state.RailCard;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -27,6 +28,8 @@ import referee.TrainsReferee;
 import referee.TrainsReferee.RefereeBuilder;
 import strategy.BuyNow;
 import strategy.Hold10;
+import test_utils.TrainsMapUtils;
+import utils.TimedInvoker;
 import utils.UnorderedPair;
 
 public class TestTrainsReferee {
@@ -189,6 +192,48 @@ public class TestTrainsReferee {
         assertGameReportEquals(expectedGameReport, actualGameReport);
     }
 
+    @Test
+    public void testOnlyDealtDestinationsAreRequested() {
+        LinkedHashMap<String, IPlayer> playersInTurnOrder = new LinkedHashMap<>();
+        playersInTurnOrder.put("playerOne", new Player(new BuyNow()));
+        playersInTurnOrder.put("playerTwo", new Player(new BuyNow()));
+        int numDestinationsDealt = 2 * playersInTurnOrder.size() + 3;
+
+        // A provider that fails if a destination that cannot be dealt is requested
+        IReferee referee = new RefereeBuilder(this.simpleMap, playersInTurnOrder)
+            .destinationProvider((map) -> new AbstractList<>() {
+                private final List<Destination> destinations = destinationProvider(map);
+
+                @Override
+                public Destination get(int index) {
+                    if (index >= numDestinationsDealt) {
+                        fail("Requested destination " + index);
+                    }
+                    return this.destinations.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return this.destinations.size();
+                }
+            })
+            .deckProvider(TestTrainsReferee::TenCardDeckSupplier).build();
+
+        List<PlayerScore> expectedPlayerScores = new ArrayList<>();
+        expectedPlayerScores.add(new PlayerScore("playerOne", 3));
+        expectedPlayerScores.add(new PlayerScore("playerTwo", -20));
+        GameEndReport expectedGameReport = new GameEndReport(expectedPlayerScores, new HashSet<>());
+
+        referee.playGame();
+        assertGameReportEquals(expectedGameReport, referee.calculateGameEndReport());
+    }
+
+    @Test
+    public void testLexicographicDestinationProviderMatchesSorting() {
+        assertEquals(destinationProvider(this.largeBlueMap),
+            TrainsMapUtils.lexicographicDestinationProvider(this.largeBlueMap));
+    }
+
     @Test
     public void testRunOutOfRails() {
         // Two BuyNow players with the given game setup will run out of cards before using all of
@@ -239,6 +284,37 @@ public class TestTrainsReferee {
         assertGameReportEquals(expectedGameReport, actualGameReport);
     }
 
+    @Test
+    public void testOneSlowPlayer() {
+        // The SlowTurn player will overrun the deadline on their first turn, and be kicked out
+        LinkedHashMap<String, IPlayer> playersInTurnOrder = new LinkedHashMap<>();
+        playersInTurnOrder.put("playerOne", new Player(new SlowTurn(1000)));
+        playersInTurnOrder.put("playerTwo", new Player(new Hold10()));
+
+        TimedInvoker invoker = new TimedInvoker(100);
+        IReferee referee = new RefereeBuilder(this.largeBlueMap, playersInTurnOrder)
+            .destinationProvider(TestTrainsReferee::destinationProvider)
+            .deckProvider(TestTrainsReferee::ThousandBlueCardDeckSupplier)
+            .timedInvoker(invoker).build();
+
+        // Construct expected game report
+        List<PlayerScore> expectedPlayerScores = new ArrayList<>();
+        expectedPlayerScores.add(new PlayerScore("playerTwo", 85));
+        Set<String> expectedKickedOutPlayers = new HashSet<>();
+        expectedKickedOutPlayers.add("playerOne");
+        GameEndReport expectedGameReport = new GameEndReport(expectedPlayerScores,
+            expectedKickedOutPlayers);
+
+        referee.playGame();
+        GameEndReport actualGameReport = referee.calculateGameEndReport();
+
+        assertGameReportEquals(expectedGameReport, actualGameReport);
+        assertEquals(1, invoker.getStatistics().getNumOverrun());
+        assertEquals(1, invoker.getStatistics("playerOne", "takeTurn").get().getNumOverrun());
+        assertEquals(0, invoker.getStatistics("playerTwo").get().getNumOverrun());
+        invoker.close();
+    }
+
     @Test
     public void testOneInvalidDestSelectionPlayer() {
         // The InvalidDestinationSelection player will misbehave during destination selection
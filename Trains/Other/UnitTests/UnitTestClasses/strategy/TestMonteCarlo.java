@@ -0,0 +1,91 @@
+package strategy;
+
+import action.AcquireConnectionAction;
+import action.DrawCardsAction;
+import action.TurnAction;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import map.Destination;
+import map.IRailConnection;
+import map.ITrainMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import referee.ActionChecker;
+import referee.game_state.IPlayerData;
+import referee.game_state.PlayerData;
+import referee.game_state.RefereeGameState;
+import referee.game_state.TrainsPlayerHand;
+import simulation.GameSimulator;
+import simulation.SimulationResult;
+import test_utils.TrainsMapUtils;
+import utils.Constants;
+
+public class TestMonteCarlo {
+
+    ITrainMap map;
+    Set<Destination> destinations;
+
+    @BeforeEach
+    public void init() {
+        this.map = TrainsMapUtils.createDefaultMap();
+        this.destinations = new HashSet<>(TrainsMapUtils.defaultDestinationProvider(this.map)
+            .subList(0, Constants.NUM_DESTINATIONS_TO_CHOOSE));
+    }
+
+    private IPlayerGameState stateWithHand(Map<RailCard, Integer> hand) {
+        List<IPlayerData> playerData = new ArrayList<>();
+        playerData.add(new PlayerData(new TrainsPlayerHand(hand), Constants.PLAYER_NUM_RAILS_START,
+            this.destinations, new HashSet<>()));
+        playerData.add(new PlayerData(new TrainsPlayerHand(Map.of()),
+            Constants.PLAYER_NUM_RAILS_START, new HashSet<>(), new HashSet<>()));
+        return new RefereeGameState(playerData, TrainsMapUtils.seededDeckSupplier(0).get(),
+            this.map).getActivePlayerState();
+    }
+
+    @Test
+    public void testTakesLegalTurnWithinTimeout() {
+        IPlayerGameState state = this.stateWithHand(
+            Map.of(RailCard.RED, 3, RailCard.BLUE, 4, RailCard.GREEN, 2, RailCard.WHITE, 5));
+        long start = System.nanoTime();
+        TurnAction action = new MonteCarlo().takeTurn(state, this.map, this.destinations);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Assertions.assertTrue(elapsedMillis < Constants.PLAYER_INTERACTION_TIMEOUT);
+        if (action instanceof AcquireConnectionAction) {
+            IRailConnection connection = ((AcquireConnectionAction) action).getRailConnection();
+            Assertions.assertTrue(
+                new ActionChecker().canAcquireConnection(state, this.map, connection));
+        } else {
+            Assertions.assertEquals(new DrawCardsAction(), action);
+        }
+    }
+
+    @Test
+    public void testDrawsWhenNothingIsAffordable() {
+        IPlayerGameState state = this.stateWithHand(Map.of(RailCard.RED, 1));
+        Assertions.assertEquals(new DrawCardsAction(),
+            new MonteCarlo(50, 1, 0).takeTurn(state, this.map, this.destinations));
+    }
+
+    @Test
+    public void testPlaysWholeGames() {
+        GameSimulator simulator = new GameSimulator(this.map);
+        for (int seed = 0; seed < 2; seed += 1) {
+            SimulationResult result = simulator.playGame(
+                List.of(new MonteCarlo(5, 2, seed), new BuyNow(), new Hold10()), seed);
+            Assertions.assertFalse(result.isRemoved(0));
+        }
+    }
+
+    @Test
+    public void testInvalidSearchParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MonteCarlo(0, 1, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MonteCarlo(10, 0, 0));
+    }
+}
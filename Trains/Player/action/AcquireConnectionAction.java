@@ -3,7 +3,7 @@ package action;
 import java.util.Objects;
 import map.IRailConnection;
 import map.RailConnection;
-import referee.TrainsReferee.TurnResult;
+import referee.TurnResult;
 
 public class AcquireConnectionAction implements TurnAction {
     private final IRailConnection connection;
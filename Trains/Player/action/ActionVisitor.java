@@ -1,26 +1,34 @@
 package action;
 
-import static utils.Constants.PLAYER_INTERACTION_TIMEOUT;
-import static utils.Utils.callFunction;
-
 import game_state.RailCard;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import player.IPlayer;
-import referee.TrainsReferee.TurnResult;
+import referee.TurnResult;
 import referee.game_state.IRefereeGameState;
 import utils.Constants;
+import utils.TimedInvoker;
 
 public class ActionVisitor implements IActionVisitor<TurnResult> {
 
     private final IRefereeGameState gameState;
+    private final String activePlayerName;
     private final IPlayer activePlayer;
+    private final TimedInvoker invoker;
+
+    public ActionVisitor(IRefereeGameState gameState, String activePlayerName,
+        IPlayer activePlayer) {
+        this(gameState, activePlayerName, activePlayer, TimedInvoker.defaultInvoker());
+    }
 
-    public ActionVisitor(IRefereeGameState gameState, IPlayer activePlayer) {
+    public ActionVisitor(IRefereeGameState gameState, String activePlayerName,
+        IPlayer activePlayer, TimedInvoker invoker) {
         this.gameState = gameState;
+        this.activePlayerName = activePlayerName;
         this.activePlayer = activePlayer;
+        this.invoker = invoker;
     }
 
     @Override
@@ -32,7 +40,8 @@ public class ActionVisitor implements IActionVisitor<TurnResult> {
             this.activePlayer.receiveCards(new ArrayList<>(drawnCards));
             return true;
         };
-        Optional<Boolean> receiveCardsReturn = callFunction(receiveCardsCallable);
+        Optional<Boolean> receiveCardsReturn =
+            this.invoker.invoke(this.activePlayerName, "receiveCards", receiveCardsCallable);
         if (receiveCardsReturn.isEmpty()) {
             return TurnResult.INVALID;
         }
@@ -90,8 +90,7 @@ public abstract class AStrategy implements IStrategy {
 
         Predicate<IRailConnection> canAffordConnection =
             (railConnection) ->
-                AStrategy.canAfford(currentPlayerGameState.getCardsInHand(),
-                    currentPlayerGameState.getNumRails(), railConnection);
+                AStrategy.canAfford(currentPlayerGameState, railConnection);
 
         return currentPlayerGameState.calculateUnoccupiedConnections(map).stream()
             .filter(canAffordConnection)
@@ -99,18 +98,19 @@ public abstract class AStrategy implements IStrategy {
     }
 
     /**
-     * Determines if the given hand of cards can be used to purchase the given IRailConnection.
+     * Determines if the hand of cards and rails of the given player can be used to purchase the
+     * given IRailConnection.
      *
-     * @param cardsInHand    the hand of cards to query.
-     * @param railConnection the connection in question.
+     * @param currentPlayerGameState the state of the game of the player to query.
+     * @param railConnection         the connection in question.
      * @return true if connection can be acquired, false otherwise.
      */
     private static boolean canAfford(
-        Map<RailCard, Integer> cardsInHand, int numRails, IRailConnection railConnection) {
-        boolean enoughCards =
-            cardsInHand.get(RailCardUtils.railCardFromColor(railConnection.getColor()))
-                >= railConnection.getLength();
-        boolean enoughRails = numRails >= railConnection.getLength();
+        IPlayerGameState currentPlayerGameState, IRailConnection railConnection) {
+        boolean enoughCards = currentPlayerGameState.getNumCardsOfType(
+            RailCardUtils.railCardFromColor(railConnection.getColor()))
+            >= railConnection.getLength();
+        boolean enoughRails = currentPlayerGameState.getNumRails() >= railConnection.getLength();
         return enoughCards && enoughRails;
     }
 
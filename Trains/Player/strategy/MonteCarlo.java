@@ -0,0 +1,684 @@
+package strategy;
+
+import action.AcquireConnectionAction;
+import action.DrawCardsAction;
+import action.TurnAction;
+import game_state.IOpponentInfo;
+import game_state.IPlayerGameState;
+import game_state.RailCard;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import map.Destination;
+import map.DestinationView;
+import map.IRailConnection;
+import map.ITrainMap;
+import referee.ConnectionGraphCompiler;
+import referee.LongestPathSolver;
+import referee.ScoreCalculator;
+import referee.ScoreGraphUtils;
+import referee.TurnResult;
+import referee.game_state.IPlayerData;
+import referee.game_state.IRefereeGameState;
+import referee.game_state.PlayerData;
+import referee.game_state.RefereeGameState;
+import referee.game_state.TrainsPlayerHand;
+import utils.Constants;
+import utils.RailCardUtils;
+
+/**
+ * A strategy that chooses each turn by Monte Carlo tree search, and chooses destinations as
+ * {@link Hold10} does.
+ * <p>
+ * A player cannot see the cards in their opponents' hands, the destinations their opponents chose,
+ * or the order of the deck, so the search determinizes the game: it samples each of them at random
+ * and searches the resulting game as if everything were known. Several searches, each with its
+ * own sample, run in parallel until the time budget for the turn runs out, and the action that
+ * they visited most often in total is taken (root parallelization).
+ * <p>
+ * Each search plays out the sampled game from the current turn by applying turns to a
+ * {@link RefereeGameState} and undoing them afterwards, so that one game state is reused for
+ * every playout. Turns are chosen by UCT within the search tree, and at random beyond it, where a
+ * player acquires an affordable connection when they have one, and otherwise draws cards. Each
+ * player is rewarded for the playouts they win, where ties count as wins, as the referee informs
+ * players. Each search tracks the connections every player owns by their IDs, and scores the end
+ * of each playout from them with buffers it reuses, rather than through the game state.
+ */
+public class MonteCarlo implements IStrategy {
+
+    // The time each turn is searched for by default, which leaves the player most of the time the
+    // referee allows for a turn to respond
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = Constants.PLAYER_INTERACTION_TIMEOUT / 4;
+    // The exploration constant of UCT
+    private static final double EXPLORATION = Math.sqrt(2);
+    // How often a playout draws cards when it could acquire a connection instead
+    private static final double PLAYOUT_DRAW_PROBABILITY = 0.2;
+    private static final RailCard[] CARDS = RailCard.values();
+    // The action that draws cards, where every other action is the ID of the connection to acquire
+    private static final int DRAW = -1;
+    // Runs the searches of every player's turns, apart from the common ForkJoinPool that scoring
+    // uses, with a thread for each search that is running
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newCachedThreadPool(
+        runnable -> {
+            Thread thread = new Thread(runnable, "monte-carlo-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final long timeBudgetNanos;
+    private final int parallelism;
+    private final long seed;
+    private final IStrategy destinationStrategy;
+    // The number of turns searched so far, so that each turn samples different games
+    private int numTurnsSearched;
+
+    /**
+     * Constructs a strategy that searches each turn for DEFAULT_TIME_BUDGET_MILLIS with one search
+     * for each available processor.
+     */
+    public MonteCarlo() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors(),
+            new Random().nextLong());
+    }
+
+    /**
+     * Constructs a strategy that searches each turn for the given time with the given number of
+     * parallel searches.
+     *
+     * @param timeBudgetMillis the time to search each turn for, in milliseconds.
+     * @param parallelism      the number of searches to run in parallel.
+     * @param seed             the seed for sampling the hidden information of the game.
+     * @throws IllegalArgumentException if the time budget or parallelism is not positive.
+     */
+    public MonteCarlo(long timeBudgetMillis, int parallelism, long seed) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("The time budget must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism must be positive");
+        }
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.destinationStrategy = new Hold10();
+        this.numTurnsSearched = 0;
+    }
+
+    @Override
+    public Set<Destination> chooseDestinations(Set<Destination> destinationOptions,
+        int numToChoose, ITrainMap map, int numStartingRails,
+        Map<RailCard, Integer> startingHand) {
+        return this.destinationStrategy.chooseDestinations(
+            destinationOptions, numToChoose, map, numStartingRails, startingHand);
+    }
+
+    @Override
+    public TurnAction takeTurn(IPlayerGameState currentPlayerGameState, ITrainMap map,
+        Set<Destination> chosenDestinations) {
+        long deadline = System.nanoTime() + this.timeBudgetNanos;
+        SearchProblem problem = new SearchProblem(currentPlayerGameState, map, chosenDestinations);
+        if (problem.rootActions.length == 1) {
+            return problem.toTurnAction(problem.rootActions[0]);
+        }
+
+        long turnSeed = this.seed + (long) this.numTurnsSearched * this.parallelism;
+        this.numTurnsSearched += 1;
+        List<Callable<long[]>> searches = new ArrayList<>();
+        for (int worker = 0; worker < this.parallelism; worker += 1) {
+            Random random = new Random(turnSeed + worker);
+            searches.add(() -> new Search(problem, random).run(deadline));
+        }
+        List<long[]> rootVisits = new ArrayList<>();
+        try {
+            for (Future<long[]> search : SEARCH_EXECUTOR.invokeAll(searches)) {
+                rootVisits.add(search.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("A search of the turn failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching the turn", e);
+        }
+
+        int bestAction = 0;
+        long bestVisits = -1;
+        for (int action = 0; action < problem.rootActions.length; action += 1) {
+            long visits = 0;
+            for (long[] workerVisits : rootVisits) {
+                visits += workerVisits[action];
+            }
+            if (visits > bestVisits) {
+                bestAction = action;
+                bestVisits = visits;
+            }
+        }
+        return problem.toTurnAction(problem.rootActions[bestAction]);
+    }
+
+    /**
+     * What is known about the game at the start of a turn, which is shared by every search of
+     * that turn and never changes.
+     */
+    private static class SearchProblem {
+
+        private final IPlayerGameState state;
+        private final ITrainMap map;
+        private final Set<Destination> chosenDestinations;
+        // The connections of the map, indexed by their IDs, and an action to acquire each one
+        private final IRailConnection[] connections;
+        private final RailCard[] connectionCards;
+        private final TurnAction[] acquireActions;
+        private final TurnAction drawAction;
+        // The actions the player can take this turn, starting with drawing cards
+        private final int[] rootActions;
+        // The destinations an opponent could have chosen, in lexicographic order
+        private final DestinationView possibleDestinations;
+
+        private SearchProblem(IPlayerGameState state, ITrainMap map,
+            Set<Destination> chosenDestinations) {
+            this.state = Objects.requireNonNull(state);
+            this.map = Objects.requireNonNull(map);
+            this.chosenDestinations = Objects.requireNonNull(chosenDestinations);
+
+            int numConnections = map.getNumRailConnections();
+            this.connections = new IRailConnection[numConnections];
+            this.connectionCards = new RailCard[numConnections];
+            this.acquireActions = new TurnAction[numConnections];
+            this.drawAction = new DrawCardsAction();
+            int[] rootActions = new int[numConnections + 1];
+            int numRootActions = 0;
+            rootActions[numRootActions] = DRAW;
+            numRootActions += 1;
+            for (int connectionId = 0; connectionId < numConnections; connectionId += 1) {
+                IRailConnection connection = map.getRailConnection(connectionId);
+                this.connections[connectionId] = connection;
+                this.connectionCards[connectionId] =
+                    RailCardUtils.railCardFromColor(connection.getColor());
+                this.acquireActions[connectionId] = new AcquireConnectionAction(connection);
+                if (!state.isConnectionOccupied(connection)
+                    && state.getNumRails() >= connection.getLength()
+                    && state.getNumCardsOfType(this.connectionCards[connectionId])
+                    >= connection.getLength()) {
+                    rootActions[numRootActions] = connectionId;
+                    numRootActions += 1;
+                }
+            }
+            this.rootActions = Arrays.copyOf(rootActions, numRootActions);
+            this.possibleDestinations = map.getDestinationView();
+        }
+
+        private TurnAction toTurnAction(int action) {
+            return action == DRAW ? this.drawAction : this.acquireActions[action];
+        }
+
+        /**
+         * Samples a game that is consistent with what the player knows. The player is first in
+         * turn order, followed by their opponents in the order the player is told about them.
+         * Each opponent has as many rails as they have not spent on their connections, a starting
+         * hand of random cards, and random destinations, and the deck is full of random cards.
+         *
+         * @param destinationCityIds filled with the IDs of the cities of each player's
+         *                           destinations, in pairs, in the same order as the players.
+         */
+        private IRefereeGameState sampleGame(Random random, int[][] destinationCityIds) {
+            List<IPlayerData> playerData = new ArrayList<>();
+            playerData.add(new PlayerData(new TrainsPlayerHand(this.state.getCardsInHand()),
+                this.state.getNumRails(), new HashSet<>(this.chosenDestinations),
+                this.state.getOwnedConnections()));
+            destinationCityIds[0] = new int[2 * this.chosenDestinations.size()];
+            int index = 0;
+            for (Destination destination : this.chosenDestinations) {
+                destinationCityIds[0][index] = this.map.getCityId(destination.left.getName());
+                destinationCityIds[0][index + 1] = this.map.getCityId(destination.right.getName());
+                index += 2;
+            }
+            int player = 1;
+            for (IOpponentInfo opponent : this.state.getOpponentInfo()) {
+                Set<IRailConnection> ownedConnections = opponent.getOwnedConnections();
+                int numRails = Constants.PLAYER_NUM_RAILS_START;
+                for (IRailConnection connection : ownedConnections) {
+                    numRails -= connection.getLength();
+                }
+                long[] destinationIndices = this.sampleDestinationIndices(random);
+                Set<Destination> destinations = new HashSet<>();
+                destinationCityIds[player] = new int[2 * destinationIndices.length];
+                for (int sampled = 0; sampled < destinationIndices.length; sampled += 1) {
+                    long destination = destinationIndices[sampled];
+                    destinations.add(this.possibleDestinations.get(destination));
+                    destinationCityIds[player][2 * sampled] =
+                        this.possibleDestinations.getFirstCityId(destination);
+                    destinationCityIds[player][2 * sampled + 1] =
+                        this.possibleDestinations.getSecondCityId(destination);
+                }
+                playerData.add(new PlayerData(
+                    new TrainsPlayerHand(randomCards(random, Constants.PLAYER_NUM_CARDS_START)),
+                    Math.max(0, numRails), destinations, ownedConnections));
+                player += 1;
+            }
+            return new RefereeGameState(
+                playerData, randomCards(random, Constants.DECK_SIZE), this.map);
+        }
+
+        /**
+         * Samples the indices of distinct destinations in the map for one opponent.
+         */
+        private long[] sampleDestinationIndices(Random random) {
+            long numPossible = this.possibleDestinations.size();
+            long[] indices = new long[(int) Math.min(
+                Constants.NUM_DESTINATIONS_TO_CHOOSE, numPossible)];
+            int numSampled = 0;
+            while (numSampled < indices.length) {
+                long index = random.nextLong(numPossible);
+                boolean alreadySampled = false;
+                for (int sampled = 0; sampled < numSampled; sampled += 1) {
+                    alreadySampled |= indices[sampled] == index;
+                }
+                if (!alreadySampled) {
+                    indices[numSampled] = index;
+                    numSampled += 1;
+                }
+            }
+            return indices;
+        }
+
+        private static List<RailCard> randomCards(Random random, int numCards) {
+            List<RailCard> cards = new ArrayList<>(numCards);
+            for (int index = 0; index < numCards; index += 1) {
+                cards.add(CARDS[random.nextInt(CARDS.length)]);
+            }
+            return cards;
+        }
+    }
+
+    /**
+     * A node of the search tree, which is reached by taking the actions on the path to it from the
+     * start of the turn.
+     */
+    private static class Node {
+
+        // The player whose turn it is at this node, by their index in turn order
+        private final int player;
+        private final int numConsecutiveInsignificantTurns;
+        // The actions the player can take, and the node each leads to once it has been tried, or
+        // null until this node is expanded
+        private int[] actions;
+        private Node[] children;
+        private int numChildren;
+        private int numVisits;
+        // The total reward of the player who took the action that leads to this node
+        private double totalReward;
+
+        private Node(int player, int numConsecutiveInsignificantTurns) {
+            this.player = player;
+            this.numConsecutiveInsignificantTurns = numConsecutiveInsignificantTurns;
+        }
+
+        /**
+         * Chooses the child with the best upper confidence bound on the reward of this node's
+         * player, which every child has once it has been tried.
+         */
+        private int selectChild() {
+            double logVisits = Math.log(this.numVisits);
+            int bestChild = 0;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int index = 0; index < this.numChildren; index += 1) {
+                Node child = this.children[index];
+                double bound = child.totalReward / child.numVisits
+                    + EXPLORATION * Math.sqrt(logVisits / child.numVisits);
+                if (bound > bestBound) {
+                    bestChild = index;
+                    bestBound = bound;
+                }
+            }
+            return bestChild;
+        }
+    }
+
+    /**
+     * One search of a sampled game, which runs in a single thread.
+     */
+    private static class Search {
+
+        private final SearchProblem problem;
+        private final Random random;
+        private final IRefereeGameState game;
+        private final int numPlayers;
+        private final Node root;
+        // Reused for the nodes on the path of each playout
+        private Node[] path;
+
+        // The IDs of the connections each player owns, where only the first numOwned of each are
+        // owned, and how many each owned at the start of the turn
+        private final int[][] ownedConnectionIds;
+        private final int[] numOwned;
+        private final int[] numOwnedAtRoot;
+        // The IDs of the cities of each player's destinations, in pairs
+        private final int[][] destinationCityIds;
+        private final PlayoutScorer scorer;
+        // The player whose turn it is, and the number of turns applied, during a playout
+        private int activePlayer;
+        private int numApplied;
+
+        private Search(SearchProblem problem, Random random) {
+            this.problem = problem;
+            this.random = random;
+            this.numPlayers = problem.state.getOpponentInfo().size() + 1;
+            this.destinationCityIds = new int[this.numPlayers][];
+            this.game = problem.sampleGame(random, this.destinationCityIds);
+            this.root = new Node(0, 0);
+            // The player's own actions are the same in every sample, and keep their order so that
+            // the visits of every search can be added up
+            this.root.actions = problem.rootActions;
+            this.root.children = new Node[problem.rootActions.length];
+            this.path = new Node[64];
+
+            int numConnections = problem.connections.length;
+            this.ownedConnectionIds = new int[this.numPlayers][numConnections];
+            this.numOwned = new int[this.numPlayers];
+            this.recordOwnedConnections(0, problem.state.getOwnedConnections());
+            int player = 1;
+            for (IOpponentInfo opponent : problem.state.getOpponentInfo()) {
+                this.recordOwnedConnections(player, opponent.getOwnedConnections());
+                player += 1;
+            }
+            this.numOwnedAtRoot = Arrays.copyOf(this.numOwned, this.numPlayers);
+            this.scorer = new PlayoutScorer(problem.map, this.numPlayers);
+        }
+
+        private void recordOwnedConnections(int player, Set<IRailConnection> connections) {
+            for (IRailConnection connection : connections) {
+                int connectionId = this.problem.map.getRailConnectionId(connection);
+                if (connectionId >= 0) {
+                    this.ownedConnectionIds[player][this.numOwned[player]] = connectionId;
+                    this.numOwned[player] += 1;
+                }
+            }
+        }
+
+        /**
+         * Searches until the given deadline, abandoning the playout that is running when it
+         * passes.
+         *
+         * @param deadline the value of System.nanoTime at which to stop.
+         * @return the number of times each of the player's actions was visited, in the same order
+         * as the actions of the problem.
+         */
+        private long[] run(long deadline) {
+            while (System.nanoTime() < deadline) {
+                this.playout(deadline);
+            }
+            long[] visits = new long[this.root.actions.length];
+            for (int index = 0; index < this.root.numChildren; index += 1) {
+                visits[index] = this.root.children[index].numVisits;
+            }
+            return visits;
+        }
+
+        /**
+         * Plays the sampled game out once from the start of the turn, choosing turns by UCT until
+         * it reaches a node that has not been tried, and at random from there on. The reward of
+         * the result is added to each node on the way, and then every turn is undone. If the
+         * deadline passes before the game ends, the playout is undone without a reward.
+         *
+         * @param deadline the value of System.nanoTime at which to stop.
+         */
+        private void playout(long deadline) {
+            this.activePlayer = 0;
+            this.numApplied = 0;
+            int pathLength = 0;
+            Node node = this.root;
+            this.path[pathLength] = node;
+            pathLength += 1;
+            while (!this.isGameOver(node.numConsecutiveInsignificantTurns)) {
+                boolean expanding;
+                int childIndex;
+                if (node.actions == null) {
+                    node.actions = this.calculateActions();
+                    node.children = new Node[node.actions.length];
+                }
+                if (node.numChildren < node.actions.length) {
+                    expanding = true;
+                    childIndex = node.numChildren;
+                } else {
+                    expanding = false;
+                    childIndex = node.selectChild();
+                }
+
+                TurnResult result = this.apply(node.actions[childIndex]);
+                if (expanding) {
+                    node.children[childIndex] = new Node((node.player + 1) % this.numPlayers,
+                        this.nextNumConsecutiveInsignificantTurns(
+                            node.numConsecutiveInsignificantTurns, result));
+                    node.numChildren += 1;
+                }
+                node = node.children[childIndex];
+                if (pathLength == this.path.length) {
+                    this.path = Arrays.copyOf(this.path, pathLength * 2);
+                }
+                this.path[pathLength] = node;
+                pathLength += 1;
+                if (expanding) {
+                    break;
+                }
+            }
+
+            int numConsecutiveInsignificantTurns = node.numConsecutiveInsignificantTurns;
+            while (!this.isGameOver(numConsecutiveInsignificantTurns)) {
+                if (System.nanoTime() >= deadline) {
+                    this.undoPlayout();
+                    return;
+                }
+                TurnResult result = this.apply(this.choosePlayoutAction());
+                numConsecutiveInsignificantTurns = this.nextNumConsecutiveInsignificantTurns(
+                    numConsecutiveInsignificantTurns, result);
+            }
+
+            int[] scores = this.scorer.scorePlayers(
+                this.ownedConnectionIds, this.numOwned, this.destinationCityIds);
+            int bestScore = Integer.MIN_VALUE;
+            for (int score : scores) {
+                bestScore = Math.max(bestScore, score);
+            }
+            this.root.numVisits += 1;
+            for (int index = 1; index < pathLength; index += 1) {
+                Node child = this.path[index];
+                child.numVisits += 1;
+                if (scores[this.path[index - 1].player] == bestScore) {
+                    child.totalReward += 1;
+                }
+            }
+            this.undoPlayout();
+        }
+
+        /**
+         * Undoes every turn of the playout, returning the game to the start of the turn.
+         */
+        private void undoPlayout() {
+            for (int index = 0; index < this.numApplied; index += 1) {
+                this.game.undo();
+            }
+            System.arraycopy(this.numOwnedAtRoot, 0, this.numOwned, 0, this.numPlayers);
+        }
+
+        /**
+         * Applies the given action for the active player, and records the connection they acquire.
+         */
+        private TurnResult apply(int action) {
+            TurnResult result = this.game.apply(this.problem.toTurnAction(action));
+            if (result != TurnResult.INVALID) {
+                if (action != DRAW) {
+                    int player = this.activePlayer;
+                    this.ownedConnectionIds[player][this.numOwned[player]] = action;
+                    this.numOwned[player] += 1;
+                }
+                this.activePlayer = (this.activePlayer + 1) % this.numPlayers;
+                this.numApplied += 1;
+            }
+            return result;
+        }
+
+        /**
+         * Determines whether the game is over before the active player's turn, as the referee
+         * does.
+         */
+        private boolean isGameOver(int numConsecutiveInsignificantTurns) {
+            return numConsecutiveInsignificantTurns == this.numPlayers
+                || this.game.getActivePlayerNumRails() <= Constants.PLAYER_NUM_RAILS_GAME_OVER;
+        }
+
+        private int nextNumConsecutiveInsignificantTurns(
+            int numConsecutiveInsignificantTurns, TurnResult result) {
+            return result == TurnResult.INSIGNIFICANT ? numConsecutiveInsignificantTurns + 1 : 0;
+        }
+
+        /**
+         * Calculates the actions the active player can take, in a random order so that the order
+         * in which they are tried is not biased.
+         */
+        private int[] calculateActions() {
+            int[] actions = new int[this.problem.connections.length + 1];
+            int numActions = 0;
+            actions[numActions] = DRAW;
+            numActions += 1;
+            for (int connectionId = 0; connectionId < this.problem.connections.length;
+                connectionId += 1) {
+                if (this.canAcquire(connectionId)) {
+                    actions[numActions] = connectionId;
+                    numActions += 1;
+                }
+            }
+            int[] shuffled = Arrays.copyOf(actions, numActions);
+            for (int index = shuffled.length - 1; index > 0; index -= 1) {
+                int other = this.random.nextInt(index + 1);
+                int action = shuffled[index];
+                shuffled[index] = shuffled[other];
+                shuffled[other] = action;
+            }
+            return shuffled;
+        }
+
+        /**
+         * Chooses a random connection that the active player can acquire, or to draw cards if
+         * there is none, or sometimes at random.
+         */
+        private int choosePlayoutAction() {
+            if (this.random.nextDouble() < PLAYOUT_DRAW_PROBABILITY) {
+                return DRAW;
+            }
+            // Reservoir sampling chooses uniformly without collecting the affordable connections
+            int chosen = DRAW;
+            int numAffordable = 0;
+            for (int connectionId = 0; connectionId < this.problem.connections.length;
+                connectionId += 1) {
+                if (this.canAcquire(connectionId)) {
+                    numAffordable += 1;
+                    if (this.random.nextInt(numAffordable) == 0) {
+                        chosen = connectionId;
+                    }
+                }
+            }
+            return chosen;
+        }
+
+        private boolean canAcquire(int connectionId) {
+            IRailConnection connection = this.problem.connections[connectionId];
+            RailCard card = this.problem.connectionCards[connectionId];
+            int length = connection.getLength();
+            return this.game.getActivePlayerNumRails() >= length
+                && this.game.getActivePlayerNumCardsOfType(card) >= length
+                && !this.game.isConnectionOccupied(connection);
+        }
+    }
+
+    /**
+     * Scores the end of a playout as the ScoreCalculator does, from the IDs of the connections
+     * each player owns, reusing the same buffers for every playout of one search.
+     */
+    private static class PlayoutScorer {
+
+        private final int[] connectionLengths;
+        private final int[] scores;
+        private final int[] numDestinationsConnected;
+        // Reused to compile each player's connections when finding its longest path
+        private final ConnectionGraphCompiler graphCompiler;
+        private final LongestPathSolver[] solvers;
+        private final int[] upperBounds;
+
+        private PlayoutScorer(ITrainMap map, int numPlayers) {
+            this.connectionLengths = new int[map.getNumRailConnections()];
+            for (int connectionId = 0; connectionId < this.connectionLengths.length;
+                connectionId += 1) {
+                this.connectionLengths[connectionId] =
+                    map.getRailConnection(connectionId).getLength();
+            }
+            this.scores = new int[numPlayers];
+            this.numDestinationsConnected = new int[numPlayers];
+            this.graphCompiler = new ConnectionGraphCompiler(map);
+            this.solvers = new LongestPathSolver[numPlayers];
+            this.upperBounds = new int[numPlayers];
+        }
+
+        /**
+         * Scores every player.
+         *
+         * @param ownedConnectionIds the IDs of the connections each player owns.
+         * @param numOwned           the number of connections each player owns, which are the
+         *                           first of their IDs.
+         * @param destinationCityIds the IDs of the cities of each player's destinations, in pairs.
+         * @return the score of each player, in a buffer that the next call overwrites.
+         */
+        private int[] scorePlayers(int[][] ownedConnectionIds, int[] numOwned,
+            int[][] destinationCityIds) {
+            for (int player = 0; player < this.scores.length; player += 1) {
+                this.compilePlayer(player, ownedConnectionIds[player], numOwned[player],
+                    destinationCityIds[player]);
+            }
+            Set<Integer> withLongestPath = ScoreGraphUtils.calculatePlayersWithLongestPath(
+                this.upperBounds, player -> this.solvers[player].longestPathLength());
+            for (int player = 0; player < this.scores.length; player += 1) {
+                int totalNumSegments = 0;
+                for (int owned = 0; owned < numOwned[player]; owned += 1) {
+                    totalNumSegments +=
+                        this.connectionLengths[ownedConnectionIds[player][owned]];
+                }
+                this.scores[player] = ScoreCalculator.assignPoints(totalNumSegments,
+                    this.numDestinationsConnected[player], destinationCityIds[player].length / 2,
+                    withLongestPath.contains(player));
+            }
+            return this.scores;
+        }
+
+        /**
+         * Compiles the given connections of one player for finding their longest simple path, and
+         * counts the destinations they connect.
+         */
+        private void compilePlayer(int player, int[] connectionIds, int numEdges,
+            int[] destinationCities) {
+            LongestPathSolver solver = this.graphCompiler.compile(connectionIds, numEdges);
+            this.solvers[player] = solver;
+            this.upperBounds[player] = solver.longestPathUpperBound();
+
+            int numConnected = 0;
+            for (int index = 0; index < destinationCities.length; index += 2) {
+                if (this.graphCompiler.areConnected(
+                    destinationCities[index], destinationCities[index + 1])) {
+                    numConnected += 1;
+                }
+            }
+            this.numDestinationsConnected[player] = numConnected;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package remote;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import map.ITrainMap;
+import utils.json.ToJsonConverter;
+
+/**
+ * A cache of the Json encoding of maps, as UTF-8 bytes, shared by every remote proxy.
+ * <p>
+ * A tournament uses one map for every game, so the map is encoded once for the whole tournament
+ * instead of once for every player of every game. Maps are keyed by their own equality, which for
+ * TrainMap is identity, and are held weakly so that the encoding of a map is discarded once the
+ * map is no longer used.
+ */
+public final class EncodedMapCache {
+
+    private static final Map<ITrainMap, byte[]> ENCODED_MAPS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private EncodedMapCache() {
+    }
+
+    /**
+     * Gets the Json encoding of the given map as produced by {@link ToJsonConverter#mapToJson},
+     * encoding it only if it has not been encoded before. The returned array is shared and must not
+     * be modified.
+     *
+     * @param map the map to encode.
+     * @return the UTF-8 bytes of the map's Json.
+     */
+    public static byte[] encode(ITrainMap map) {
+        return ENCODED_MAPS.computeIfAbsent(map,
+            (toEncode) -> ToJsonConverter.mapToJson(toEncode).toString()
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package remote;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incrementally validates the name that a client sends when signing up, as the bytes of the name
+ * arrive.
+ * <p>
+ * A valid name is a JSON string of between 1 and MAX_NAME_LENGTH ASCII letters, optionally
+ * preceded by whitespace. The name is rejected as soon as a byte that cannot be part of a valid
+ * name arrives, so a misbehaving client is never buffered for longer than one name.
+ */
+public class NameAccumulator {
+
+    public static final int MAX_NAME_LENGTH = 50;
+
+    /**
+     * The result of validating the bytes received so far.
+     */
+    public enum State {
+        INCOMPLETE,
+        VALID,
+        INVALID
+    }
+
+    private final StringBuilder name;
+    private boolean openingQuoteReceived;
+    private State state;
+
+    public NameAccumulator() {
+        this.name = new StringBuilder(MAX_NAME_LENGTH);
+        this.openingQuoteReceived = false;
+        this.state = State.INCOMPLETE;
+    }
+
+    /**
+     * Consumes bytes from the given buffer until the name is complete or invalid, or the buffer is
+     * exhausted. Any bytes after the end of the name are left in the buffer.
+     *
+     * @param bytes the bytes received from the client.
+     * @return the state of the name after consuming the bytes.
+     */
+    public State accept(ByteBuffer bytes) {
+        while (this.state == State.INCOMPLETE && bytes.hasRemaining()) {
+            this.accept(bytes.get());
+        }
+        return this.state;
+    }
+
+    /**
+     * Consumes one byte of the name.
+     *
+     * @param oneByte the next byte received from the client.
+     * @return the state of the name after consuming the byte.
+     */
+    public State accept(byte oneByte) {
+        if (this.state != State.INCOMPLETE) {
+            return this.state;
+        }
+        char character = (char) (oneByte & 0xFF);
+        if (!this.openingQuoteReceived) {
+            if (character == '"') {
+                this.openingQuoteReceived = true;
+            } else if (!Character.isWhitespace(character)) {
+                this.state = State.INVALID;
+            }
+        } else if (character == '"') {
+            this.state = this.name.length() > 0 ? State.VALID : State.INVALID;
+        } else if (isAsciiLetter(character) && this.name.length() < MAX_NAME_LENGTH) {
+            this.name.append(character);
+        } else {
+            this.state = State.INVALID;
+        }
+        return this.state;
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * Gets the name that was received.
+     *
+     * @return the name, without quotes.
+     * @throws IllegalStateException if a valid name has not been received.
+     */
+    public String getName() {
+        if (this.state != State.VALID) {
+            throw new IllegalStateException("A valid name has not been received");
+        }
+        return this.name.toString();
+    }
+
+    private static boolean isAsciiLetter(char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+}
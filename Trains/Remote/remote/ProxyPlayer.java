@@ -3,6 +3,7 @@ package remote;
 import action.TurnAction;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonStreamParser;
 import game_state.IPlayerGameState;
 import game_state.RailCard;
@@ -13,32 +14,64 @@ import referee.PlayerMisbehaviorException;
 import utils.Constants;
 import utils.UnorderedPair;
 import utils.json.FromJsonConverter;
+import utils.json.SubmittedTrainMap;
 import utils.json.ToJsonConverter;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 /**
  * Remote proxy for a player in a game of Trains.
+ * <p>
+ * Responses from the remote player are read by a single streaming JSON parser over a buffered
+ * reader for the whole connection, so a response may be of any size and may arrive split across
+ * any number of reads. Waiting for a response blocks the calling thread instead of polling. When
+ * constructed from a socket, each read waits at most TIMEOUT_BETWEEN_INTERACTIONS_MILLISECONDS.
  */
 public class ProxyPlayer implements IPlayer {
 
-    private final Reader input;
-    private final PrintWriter output;
+    private static final byte[] SETUP_MESSAGE_PREFIX =
+        "[\"setup\",[".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonStreamParser input;
+    private final OutputStream output;
 
     private ITrainMap map;
 
     public ProxyPlayer(Socket client) throws IOException {
-        this.input = new InputStreamReader(client.getInputStream());
-        this.output = new PrintWriter(client.getOutputStream());
+        this(client, client.getInputStream());
+    }
+
+    /**
+     * Constructs a proxy for the player connected on the given socket, which reads the player's
+     * messages from the given stream instead of directly from the socket, such as when some of
+     * them were already read from the socket.
+     *
+     * @param client the socket connected to the remote player.
+     * @param input  the stream of messages from the remote player.
+     * @throws IOException if the socket's output stream cannot be opened.
+     */
+    public ProxyPlayer(Socket client, InputStream input) throws IOException {
+        this(input, client.getOutputStream());
+        client.setSoTimeout(Constants.TIMEOUT_BETWEEN_INTERACTIONS_MILLISECONDS);
     }
 
     public ProxyPlayer(InputStream input, OutputStream output) {
-        this.input = new InputStreamReader(input);
-        this.output = new PrintWriter(output);
+        this.input = new JsonStreamParser(
+            new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        this.output = new BufferedOutputStream(output);
     }
 
     public ProxyPlayer(InputStream input, OutputStream output, ITrainMap map) {
@@ -52,37 +85,57 @@ public class ProxyPlayer implements IPlayer {
      * @param message The Json message to send.
      */
     private void callMethodOnPlayer(JsonArray message) {
-        System.out.println(message);
-        this.output.print(message);
-        this.output.flush();
+        this.callMethodOnPlayer(message.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Wait up to TIMEOUT_BETWEEN_INTERACTIONS_MILLISECONDS for the underlying remote player to
-     * send a message. Returns that message or throws a TimeoutException.
+     * Sends the given message, already encoded as UTF-8 Json, to the underlying remote player.
      *
-     * @return The message sent by the remote player.
-     * @throws TimeoutException if no message is received.
+     * @param messageParts The bytes of the Json message to send, in consecutive parts.
      */
-    private JsonElement getMessageFromPlayer() throws TimeoutException {
-        long startTime = System.currentTimeMillis();
+    private void callMethodOnPlayer(byte[]... messageParts) {
+        for (byte[] part : messageParts) {
+            System.out.write(part, 0, part.length);
+        }
+        System.out.println();
         try {
-            while (!(this.input.ready())) {
-                if (System.currentTimeMillis() - startTime
-                    > Constants.TIMEOUT_BETWEEN_INTERACTIONS_MILLISECONDS) {
-                    throw new TimeoutException("Client took too longer to respond");
-                }
+            for (byte[] part : messageParts) {
+                this.output.write(part);
             }
-            char[] buff = new char[8192];
-            this.input.read(buff);
-            JsonStreamParser parser = new JsonStreamParser(new CharArrayReader(buff));
-            return parser.next();
+            this.output.flush();
         }
         catch (IOException e) {
             throw new PlayerMisbehaviorException();
         }
     }
 
+    /**
+     * Wait for the underlying remote player to send its next message, blocking until it arrives.
+     * Returns that message or throws a TimeoutException.
+     *
+     * @return The message sent by the remote player.
+     * @throws TimeoutException if no message is received before the socket read timeout, or the
+     *                          remote player closed the connection without sending a message.
+     * @throws com.google.gson.JsonSyntaxException if the message is not well-formed JSON.
+     */
+    private JsonElement getMessageFromPlayer() throws TimeoutException {
+        try {
+            return this.input.next();
+        }
+        catch (NoSuchElementException e) {
+            throw new TimeoutException("Client closed the connection without responding");
+        }
+        catch (JsonIOException e) {
+            if (e.getCause() instanceof SocketTimeoutException) {
+                throw new TimeoutException("Client took too long to respond");
+            }
+            if (e.getCause() instanceof EOFException) {
+                throw new TimeoutException("Client closed the connection without responding");
+            }
+            throw new PlayerMisbehaviorException();
+        }
+    }
+
     /**
      * Informs the player of the game map, initial number of rails, and starting hand of cards. It
      * is critical to store the game map since it does not change and will not be received from the
@@ -97,16 +150,11 @@ public class ProxyPlayer implements IPlayer {
     public void setup(ITrainMap map, int numRails, List<RailCard> cards) throws TimeoutException {
         this.map = map;
 
-        JsonArray methodMessage = new JsonArray();
-        methodMessage.add("setup");
-
-        JsonArray args = new JsonArray();
-        args.add(ToJsonConverter.mapToJson(map));
-        args.add(numRails);
-        args.add(ToJsonConverter.railCardsToJsonArray(cards));
-        methodMessage.add(args);
-
-        this.callMethodOnPlayer(methodMessage);
+        // The map is the same for every player, so send its cached encoding as part of the message
+        // ["setup",[map,numRails,cards]] instead of encoding it again
+        byte[] suffix = String.format(",%d,%s]]", numRails,
+            ToJsonConverter.railCardsToJsonArray(cards)).getBytes(StandardCharsets.UTF_8);
+        this.callMethodOnPlayer(SETUP_MESSAGE_PREFIX, EncodedMapCache.encode(map), suffix);
 
         // ensure the player correctly returns "void"
         JsonElement responseFromClient = getMessageFromPlayer();
@@ -214,7 +262,8 @@ public class ProxyPlayer implements IPlayer {
      * the tournament.
      *
      * @param inTournament whether the player has been chosen for the tournament
-     * @return an implementation of a map to possibly be used for the entire tournament
+     * @return an implementation of a map to possibly be used for the entire tournament, which is
+     * only parsed if it is used.
      */
     @Override
     public ITrainMap startTournament(boolean inTournament) throws TimeoutException {
@@ -227,9 +276,9 @@ public class ProxyPlayer implements IPlayer {
 
         this.callMethodOnPlayer(methodMessage);
 
-        // get the destinations back from the player
+        // get the map back from the player, which is only checked for its shape until it is used
         JsonElement mapJson = getMessageFromPlayer();
-        return FromJsonConverter.trainMapFromJson(mapJson);
+        return new SubmittedTrainMap(mapJson);
     }
 
     /**
@@ -0,0 +1,313 @@
+package remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import remote.NameAccumulator.State;
+import utils.TimerWheel;
+
+/**
+ * Accepts connections and their names for a tournament on a single thread, using a selector over
+ * non-blocking channels.
+ * <p>
+ * Each accepted connection has NAME_TIMEOUT_MILLIS from the moment it is accepted to send a valid
+ * name, and is closed if it sends an invalid name, disconnects, or runs out of time. The name
+ * deadlines are tracked in a timer wheel, so the selector only wakes up when a connection is
+ * ready or a deadline may have passed.
+ * <p>
+ * Connections that sign up successfully are switched back to blocking mode and handed over as
+ * plain sockets, in the order they were accepted, along with any bytes that were read after the
+ * end of their name.
+ */
+public class SignupSelector implements Closeable {
+
+    public static final int NAME_TIMEOUT_MILLIS = 3000;
+    private static final int TIMER_TICK_MILLIS = 50;
+    private static final int TIMER_NUM_SLOTS = 64;
+    private static final int READ_BUFFER_BYTES = 512;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SelectionKey acceptKey;
+    private final TimerWheel<PendingSignup> nameDeadlines;
+    // Reused for every read, since names are consumed as soon as they are read and the bytes after
+    // a finished name are copied out of it
+    private final ByteBuffer readBuffer;
+    private final List<PendingSignup> signupsInAcceptOrder;
+    private int numSignedUp;
+    private int numPending;
+
+    /**
+     * The state of one connection that is signing up.
+     */
+    private static class PendingSignup {
+
+        private final SocketChannel channel;
+        private final NameAccumulator name;
+        // The bytes read after the end of the name, which belong to the client's later messages
+        private byte[] bytesAfterName;
+        // Whether the connection has either signed up or been closed
+        private boolean finished;
+        private boolean closed;
+
+        private PendingSignup(SocketChannel channel) {
+            this.channel = channel;
+            this.name = new NameAccumulator();
+            this.bytesAfterName = new byte[0];
+            this.finished = false;
+            this.closed = false;
+        }
+
+        private boolean isSignedUp() {
+            return this.finished && !this.closed;
+        }
+    }
+
+    /**
+     * A connection that has signed up, handed over as a blocking socket.
+     */
+    public static class SignedUpClient {
+
+        private final String name;
+        private final Socket socket;
+        private final byte[] bytesAfterName;
+
+        private SignedUpClient(String name, Socket socket, byte[] bytesAfterName) {
+            this.name = name;
+            this.socket = socket;
+            this.bytesAfterName = bytesAfterName;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Socket getSocket() {
+            return this.socket;
+        }
+
+        /**
+         * Gets the stream of bytes the client sent after its name, which begins with any bytes
+         * that were read along with the name and continues with the socket's input stream.
+         *
+         * @return the stream of the client's messages after its name.
+         * @throws IOException if the socket's input stream cannot be opened.
+         */
+        public InputStream getInputStream() throws IOException {
+            return new SequenceInputStream(new ByteArrayInputStream(this.bytesAfterName),
+                this.socket.getInputStream());
+        }
+    }
+
+    /**
+     * Opens a non-blocking server socket on the given port.
+     *
+     * @param port the port to accept connections on.
+     * @throws IOException if the port cannot be bound.
+     */
+    public SignupSelector(int port) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+        this.acceptKey = this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.nameDeadlines =
+            new TimerWheel<>(TIMER_TICK_MILLIS, TIMER_NUM_SLOTS, System.currentTimeMillis());
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        this.signupsInAcceptOrder = new ArrayList<>();
+        this.numSignedUp = 0;
+        this.numPending = 0;
+    }
+
+    /**
+     * Accepts connections and reads names for the given amount of time, or until the given number
+     * of connections have signed up.
+     *
+     * @param durationMillis the maximum time to accept connections for, in milliseconds.
+     * @param maxSignups     the number of successful sign ups after which to stop early.
+     * @throws IOException if the selector fails.
+     */
+    public void acceptSignups(long durationMillis, int maxSignups) throws IOException {
+        long endTime = System.currentTimeMillis() + durationMillis;
+        long now = System.currentTimeMillis();
+        while (this.numSignedUp < maxSignups && now < endTime) {
+            this.selectOnce(Math.min(endTime - now, this.nameDeadlines.millisUntilNextTick(now)));
+            now = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Stops accepting new connections, and waits until every connection that has already been
+     * accepted has either signed up or been closed.
+     *
+     * @throws IOException if the selector fails.
+     */
+    public void finishPendingSignups() throws IOException {
+        this.acceptKey.cancel();
+        while (this.numPending > 0) {
+            this.selectOnce(this.nameDeadlines.millisUntilNextTick(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Gets the port that connections are accepted on, which is useful when this was constructed
+     * with port 0 to use any free port.
+     *
+     * @return the local port of the server socket.
+     */
+    public int getLocalPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of connections that have sent a valid name so far.
+     *
+     * @return the number of successful sign ups.
+     */
+    public int getNumSignedUp() {
+        return this.numSignedUp;
+    }
+
+    /**
+     * Hands over every connection that has signed up, as a blocking socket, and stops tracking
+     * them. This should be called after finishPendingSignups.
+     *
+     * @return each signed up connection, in the order they were accepted.
+     * @throws IOException if a connection cannot be switched to blocking mode.
+     */
+    public List<SignedUpClient> takeSignedUpClients() throws IOException {
+        // Flush cancelled keys so that channels can be switched to blocking mode
+        this.selector.selectNow();
+        List<SignedUpClient> signedUpClients = new ArrayList<>();
+        for (PendingSignup signup : this.signupsInAcceptOrder) {
+            if (signup.isSignedUp()) {
+                signup.channel.configureBlocking(true);
+                signedUpClients.add(new SignedUpClient(signup.name.getName(),
+                    signup.channel.socket(), signup.bytesAfterName));
+            }
+        }
+        this.signupsInAcceptOrder.clear();
+        return signedUpClients;
+    }
+
+    /**
+     * Closes the server socket, the selector, and every connection that has not signed up.
+     */
+    @Override
+    public void close() throws IOException {
+        for (PendingSignup signup : this.signupsInAcceptOrder) {
+            if (!signup.finished) {
+                this.closeSignup(signup);
+            }
+        }
+        this.serverChannel.close();
+        this.selector.close();
+    }
+
+    /**
+     * Waits up to the given time for any channel to become ready, handles every ready channel, and
+     * then closes every connection whose name deadline has passed.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds.
+     */
+    private void selectOnce(long timeoutMillis) throws IOException {
+        this.selector.select(Math.max(1, timeoutMillis));
+        Iterator<SelectionKey> readyKeys = this.selector.selectedKeys().iterator();
+        while (readyKeys.hasNext()) {
+            SelectionKey key = readyKeys.next();
+            readyKeys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                this.acceptConnections();
+            } else if (key.isReadable()) {
+                this.readName(key, (PendingSignup) key.attachment());
+            }
+        }
+
+        for (PendingSignup expired : this.nameDeadlines.advance(System.currentTimeMillis())) {
+            if (!expired.finished) {
+                this.closeSignup(expired);
+            }
+        }
+    }
+
+    /**
+     * Accepts every connection that is waiting, and starts its name deadline.
+     */
+    private void acceptConnections() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        while (channel != null) {
+            channel.configureBlocking(false);
+            PendingSignup signup = new PendingSignup(channel);
+            channel.register(this.selector, SelectionKey.OP_READ, signup);
+            this.signupsInAcceptOrder.add(signup);
+            this.nameDeadlines.schedule(signup, System.currentTimeMillis() + NAME_TIMEOUT_MILLIS);
+            this.numPending += 1;
+            channel = this.serverChannel.accept();
+        }
+    }
+
+    /**
+     * Reads the bytes available on the given connection into its name, and completes or closes
+     * the connection if the name is finished. The connection is not read again once its name is
+     * valid, so the bytes after the name in the same read are kept for the client's later
+     * messages.
+     */
+    private void readName(SelectionKey key, PendingSignup signup) {
+        try {
+            this.readBuffer.clear();
+            int numRead = signup.channel.read(this.readBuffer);
+            if (numRead < 0) {
+                this.closeSignup(signup);
+                return;
+            }
+            this.readBuffer.flip();
+            State state = signup.name.accept(this.readBuffer);
+            if (state == State.VALID) {
+                signup.bytesAfterName = new byte[this.readBuffer.remaining()];
+                this.readBuffer.get(signup.bytesAfterName);
+                key.cancel();
+                this.finish(signup);
+                this.numSignedUp += 1;
+            } else if (state == State.INVALID) {
+                this.closeSignup(signup);
+            }
+        } catch (IOException e) {
+            this.closeSignup(signup);
+        }
+    }
+
+    /**
+     * Records that the given connection is no longer waiting to sign up.
+     */
+    private void finish(PendingSignup signup) {
+        if (!signup.finished) {
+            signup.finished = true;
+            this.numPending -= 1;
+        }
+    }
+
+    private void closeSignup(PendingSignup signup) {
+        this.finish(signup);
+        signup.closed = true;
+        try {
+            signup.channel.close();
+        } catch (IOException ignored) {
+            // the connection is being discarded either way
+        }
+    }
+}